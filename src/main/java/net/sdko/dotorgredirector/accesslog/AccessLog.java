@@ -0,0 +1,302 @@
+package net.sdko.dotorgredirector.accesslog;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Access log that keeps file I/O off the request path.
+ *
+ * <p>Request threads publish records into a lock-free ring buffer. A single writer thread
+ * drains it in batches, formats the records into one line each and appends them to a file
+ * that is rotated on size and time, with rotated segments gzipped in the background. When the
+ * buffer is full, records are either dropped and counted or the request thread waits for a
+ * free slot, depending on {@code app.accessLog.fullPolicy}.
+ *
+ * <p>Lines are space-separated: ISO-8601 time, status, method, path, tracing ID and Location,
+ * with "-" for missing values and control characters replaced so a request cannot forge lines.
+ */
+@Component
+public class AccessLog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AccessLog.class);
+
+    private static final int BATCH_SIZE = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AppProperties.AccessLog settings;
+    private final RedirectMetrics redirectMetrics;
+    private final Clock clock;
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile AccessLogRing ring;
+    private volatile boolean running;
+    private Thread writer;
+    private ExecutorService compressor;
+
+    /**
+     * Constructs the access log.
+     *
+     * @param appProperties The application properties
+     * @param redirectMetrics The redirect metrics
+     */
+    public AccessLog(AppProperties appProperties, RedirectMetrics redirectMetrics) {
+        this(appProperties.getAccessLog(), redirectMetrics, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs the access log with a specific clock.
+     *
+     * @param settings The access log settings
+     * @param redirectMetrics The redirect metrics, or null to only count drops locally
+     * @param clock The clock for record times and rotation
+     */
+    AccessLog(AppProperties.AccessLog settings, RedirectMetrics redirectMetrics, Clock clock) {
+        this.settings = settings;
+        this.redirectMetrics = redirectMetrics;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns an access log that ignores every record.
+     *
+     * @return A disabled access log
+     */
+    public static AccessLog disabled() {
+        AppProperties.AccessLog settings = new AppProperties.AccessLog();
+        settings.setEnabled(false);
+        return new AccessLog(settings, null, Clock.systemUTC());
+    }
+
+    /**
+     * Opens the log file and starts the writer thread, if the access log is enabled.
+     *
+     * @throws IOException If the log directory cannot be written or the log file opened
+     * @throws IllegalArgumentException If the log directory is not an absolute path
+     */
+    @PostConstruct
+    public synchronized void start() throws IOException {
+        if (!settings.isEnabled() || ring != null) {
+            return;
+        }
+        Path directory = writableDirectory(settings.getDirectory());
+        compressor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "access-log-compressor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        RollingFileSink sink = new RollingFileSink(
+                directory,
+                settings.getFileName(),
+                settings.getMaxFileSize(),
+                TimeUnit.MINUTES.toMillis(settings.getRotationMinutes()),
+                settings.getMaxSegments(),
+                compressor,
+                clock);
+        AccessLogRing newRing = new AccessLogRing(settings.getBufferSize());
+        running = true;
+        writer = new Thread(() -> writeLoop(newRing, sink), "access-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        ring = newRing;
+    }
+
+    /**
+     * Resolves the configured log directory, creating it if needed.
+     *
+     * @param configured The configured directory
+     * @return The directory
+     * @throws IOException If the directory cannot be created or written
+     * @throws IllegalArgumentException If the directory is not an absolute path
+     */
+    private static Path writableDirectory(String configured) throws IOException {
+        if (configured == null || configured.isEmpty() || !Path.of(configured).isAbsolute()) {
+            throw new IllegalArgumentException(
+                    "app.accessLog.directory must be an absolute path, got: " + configured);
+        }
+        Path directory = Files.createDirectories(Path.of(configured));
+        if (!Files.isWritable(directory)) {
+            throw new IOException("Access log directory is not writable: " + directory);
+        }
+        return directory;
+    }
+
+    /**
+     * Writes the records published so far, closes the file and waits for pending compression.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (ring == null) {
+            return;
+        }
+        ring = null;
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+            compressor.shutdown();
+            compressor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        compressor = null;
+    }
+
+    /**
+     * Publishes an access log record. Never blocks unless the buffer is full and the full
+     * policy is BLOCK.
+     *
+     * @param method The request method
+     * @param path The request path
+     * @param status The response status
+     * @param location The Location value, or null
+     * @param tracingId The tracing ID, or null
+     */
+    public void record(String method, String path, int status, String location, String tracingId) {
+        AccessLogRing current = ring;
+        if (current == null) {
+            return;
+        }
+        long now = clock.millis();
+        if (current.tryPublish(now, status, method, path, location, tracingId)) {
+            return;
+        }
+        if (settings.getFullPolicy() == AppProperties.AccessLog.FullPolicy.BLOCK) {
+            while (running) {
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+                if (current.tryPublish(now, status, method, path, location, tracingId)) {
+                    return;
+                }
+            }
+        }
+        dropped.increment();
+        if (redirectMetrics != null) {
+            redirectMetrics.incrementAccessLogDropped();
+        }
+    }
+
+    /**
+     * Returns the number of records dropped because the buffer was full.
+     *
+     * @return The dropped record count
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private void writeLoop(AccessLogRing ring, RollingFileSink sink) {
+        LineFormatter formatter = new LineFormatter();
+        try (sink) {
+            while (true) {
+                // Read the flag first so records published before stop() are still drained
+                boolean stopping = !running;
+                int drained = ring.drain(formatter::append, BATCH_SIZE);
+                try {
+                    if (formatter.length() > 0) {
+                        sink.write(formatter.bytes(), formatter.length());
+                    } else {
+                        sink.rotateIfDue();
+                    }
+                } catch (IOException e) {
+                    LOGGER.warn("Failed to write access log: {}", e.getMessage());
+                }
+                formatter.reset();
+                if (drained == 0) {
+                    if (stopping) {
+                        return;
+                    }
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close access log: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Formats records into a reusable byte array, caching the rendering of the current second.
+     */
+    private static final class LineFormatter {
+
+        private byte[] bytes = new byte[64 * 1024];
+        private int length;
+        private long cachedSecond = Long.MIN_VALUE;
+        private String cachedSecondText;
+
+        void append(AccessLogRing.Record record) {
+            long second = Math.floorDiv(record.epochMillis, 1000);
+            if (second != cachedSecond) {
+                // E.g. 2025-01-01T12:00:00 without the trailing Z
+                String text = Instant.ofEpochSecond(second).toString();
+                cachedSecondText = text.substring(0, text.length() - 1);
+                cachedSecond = second;
+            }
+            ascii(cachedSecondText);
+            int millis = (int) Math.floorMod(record.epochMillis, 1000);
+            ensure(6);
+            bytes[length++] = '.';
+            bytes[length++] = (byte) ('0' + millis / 100);
+            bytes[length++] = (byte) ('0' + millis / 10 % 10);
+            bytes[length++] = (byte) ('0' + millis % 10);
+            bytes[length++] = 'Z';
+            bytes[length++] = ' ';
+            ascii(Integer.toString(record.status));
+            field(record.method);
+            field(record.path);
+            field(record.tracingId);
+            field(record.location);
+            ensure(1);
+            bytes[length++] = '\n';
+        }
+
+        int length() {
+            return length;
+        }
+
+        byte[] bytes() {
+            return bytes;
+        }
+
+        void reset() {
+            length = 0;
+        }
+
+        private void field(String value) {
+            ensure(1);
+            bytes[length++] = ' ';
+            ascii(value == null || value.isEmpty() ? "-" : value);
+        }
+
+        private void ascii(String value) {
+            ensure(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                bytes[length++] = c < 0x20 || c == 0x7f || c > 0x7e ? (byte) '?' : (byte) c;
+            }
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
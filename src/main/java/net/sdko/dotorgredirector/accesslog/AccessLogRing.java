@@ -0,0 +1,141 @@
+package net.sdko.dotorgredirector.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring of preallocated access log records.
+ *
+ * <p>Producers claim a sequence with a compare-and-set on the claim cursor, fill the slot it
+ * maps to, and then publish the sequence into that slot's marker with release semantics. The
+ * consumer reads slots in sequence order for as long as their markers carry the expected
+ * sequence, so a slow producer holds back only the records after its own. Slots are reused,
+ * so publishing allocates nothing.
+ */
+final class AccessLogRing {
+
+    private final Record[] slots;
+    private final int mask;
+    private final AtomicLong claimCursor = new AtomicLong();
+    private final AtomicLongArray published;
+
+    /** Next sequence the consumer reads; only written by the consumer. */
+    private volatile long consumed;
+
+    /**
+     * Constructs a ring.
+     *
+     * @param capacity The minimum number of records, rounded up to a power of two
+     */
+    AccessLogRing(int capacity) {
+        int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new Record[size];
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Record();
+            // No sequence maps to slot i before i itself, so this reads as unpublished
+            published.set(i, i - size);
+        }
+    }
+
+    /**
+     * Returns the number of records the ring holds.
+     *
+     * @return The capacity
+     */
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Publishes a record unless the ring is full.
+     *
+     * @param epochMillis The time of the request
+     * @param status The response status
+     * @param method The request method
+     * @param path The request path
+     * @param location The Location value, or null
+     * @param tracingId The tracing ID, or null
+     * @return Whether the record was published
+     */
+    boolean tryPublish(long epochMillis, int status, String method, String path, String location,
+            String tracingId) {
+        long sequence;
+        do {
+            sequence = claimCursor.get();
+            if (sequence - consumed >= slots.length) {
+                return false;
+            }
+        } while (!claimCursor.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) sequence & mask;
+        Record record = slots[index];
+        record.epochMillis = epochMillis;
+        record.status = status;
+        record.method = method;
+        record.path = path;
+        record.location = location;
+        record.tracingId = tracingId;
+        published.setRelease(index, sequence);
+        return true;
+    }
+
+    /**
+     * Hands the published records to the consumer in sequence order. Only the single consumer
+     * thread may call this.
+     *
+     * @param consumer Receives each record; the record must not be kept after the call
+     * @param max The maximum number of records to drain
+     * @return The number of records drained
+     */
+    int drain(RecordConsumer consumer, int max) {
+        long next = consumed;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) next & mask;
+            if (published.getAcquire(index) != next) {
+                break;
+            }
+            Record record = slots[index];
+            consumer.accept(record);
+            record.method = null;
+            record.path = null;
+            record.location = null;
+            record.tracingId = null;
+            next++;
+            drained++;
+        }
+        if (drained > 0) {
+            consumed = next;
+        }
+        return drained;
+    }
+
+    /**
+     * Fixed-layout access log record, owned by the ring.
+     */
+    static final class Record {
+
+        long epochMillis;
+        int status;
+        String method;
+        String path;
+        String location;
+        String tracingId;
+    }
+
+    /**
+     * Receives drained records.
+     */
+    @FunctionalInterface
+    interface RecordConsumer {
+
+        /**
+         * Called for each drained record.
+         *
+         * @param record The record
+         */
+        void accept(Record record);
+    }
+}
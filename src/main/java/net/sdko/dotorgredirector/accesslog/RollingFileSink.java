@@ -0,0 +1,206 @@
+package net.sdko.dotorgredirector.accesslog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only log file that is rotated on size and on time.
+ *
+ * <p>A rotated file is renamed with its rotation time and gzipped on the compression executor,
+ * so the writer thread only pays for a rename. After each compression, the oldest segments
+ * beyond the configured count are deleted, so the log directory stays bounded. If the rename
+ * fails, records keep going to the active file and the rotation is retried a minute later.
+ * Only the writer thread may use an instance.
+ */
+final class RollingFileSink implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RollingFileSink.class);
+
+    private static final DateTimeFormatter SEGMENT_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final long ROTATION_RETRY_MILLIS = 60_000;
+
+    private final Path activeFile;
+    private final String segmentPrefix;
+    private final String segmentSuffix;
+    private final long maxFileSize;
+    private final long rotationMillis;
+    private final int maxSegments;
+    private final Executor compressor;
+    private final Clock clock;
+
+    private FileChannel channel;
+    private long size;
+    private long rotateAt;
+    private long retryRotationAt;
+
+    /**
+     * Opens the active file for appending, creating the directory if needed.
+     *
+     * @param directory The log directory
+     * @param fileName The active file name
+     * @param maxFileSize The size in bytes after which the file is rotated
+     * @param rotationMillis The interval after which the file is rotated, 0 for none
+     * @param maxSegments The number of rotated segments kept, 0 for all
+     * @param compressor Runs the gzip compression of rotated files
+     * @param clock The clock for rotation times
+     * @throws IOException If the file cannot be opened
+     */
+    RollingFileSink(Path directory, String fileName, long maxFileSize, long rotationMillis,
+            int maxSegments, Executor compressor, Clock clock) throws IOException {
+        Files.createDirectories(directory);
+        this.activeFile = directory.resolve(fileName);
+        int dot = fileName.lastIndexOf('.');
+        this.segmentPrefix = dot > 0 ? fileName.substring(0, dot) : fileName;
+        this.segmentSuffix = dot > 0 ? fileName.substring(dot) : "";
+        this.maxFileSize = maxFileSize;
+        this.rotationMillis = rotationMillis;
+        this.maxSegments = maxSegments;
+        this.compressor = compressor;
+        this.clock = clock;
+        open();
+    }
+
+    /**
+     * Appends bytes to the active file, rotating it first if it is due.
+     *
+     * @param bytes The bytes
+     * @param length The number of bytes to write
+     * @throws IOException If the write fails
+     */
+    void write(byte[] bytes, int length) throws IOException {
+        if (!channel.isOpen()) {
+            // An earlier reopen failed, try again rather than failing every write
+            open();
+        }
+        rotateIfDue();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        size += length;
+    }
+
+    /**
+     * Rotates the active file if it has content and its size or age calls for it.
+     *
+     * @throws IOException If the rotation fails
+     */
+    void rotateIfDue() throws IOException {
+        long now = clock.millis();
+        if (size > 0 && now >= retryRotationAt && (size >= maxFileSize || now >= rotateAt)) {
+            rotate();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(activeFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        size = channel.size();
+        rotateAt = rotationMillis > 0 ? clock.millis() + rotationMillis : Long.MAX_VALUE;
+    }
+
+    private void rotate() throws IOException {
+        channel.close();
+        String time = LocalDateTime.ofInstant(clock.instant(), ZoneOffset.UTC).format(SEGMENT_TIME);
+        Path segment = activeFile.resolveSibling(segmentPrefix + '-' + time + segmentSuffix);
+        for (int i = 1; Files.exists(segment) || Files.exists(gzipPath(segment)); i++) {
+            segment = activeFile.resolveSibling(segmentPrefix + '-' + time + '.' + i + segmentSuffix);
+        }
+        try {
+            Files.move(activeFile, segment, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to rotate access log {}, retrying later: {}", activeFile, e.getMessage());
+            retryRotationAt = clock.millis() + ROTATION_RETRY_MILLIS;
+            open();
+            return;
+        }
+        open();
+        Path rotated = segment;
+        compressor.execute(() -> {
+            compress(rotated);
+            prune();
+        });
+    }
+
+    /**
+     * Deletes the oldest rotated segments beyond the configured count. Segment names start with
+     * their rotation time, so they sort from oldest to newest.
+     */
+    private void prune() {
+        if (maxSegments <= 0) {
+            return;
+        }
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(activeFile.getParent())) {
+            segments = files.filter(this::isSegment).sorted().toList();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to list rotated access logs: {}", e.getMessage());
+            return;
+        }
+        for (Path segment : segments.subList(0, Math.max(0, segments.size() - maxSegments))) {
+            try {
+                Files.deleteIfExists(segment);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to delete rotated access log {}: {}", segment, e.getMessage());
+            }
+        }
+    }
+
+    private boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        int timeStart = segmentPrefix.length() + 1;
+        return name.length() > timeStart
+                && name.startsWith(segmentPrefix + '-')
+                && Character.isDigit(name.charAt(timeStart))
+                && (name.endsWith(segmentSuffix) || name.endsWith(segmentSuffix + ".gz"));
+    }
+
+    private static Path gzipPath(Path file) {
+        return file.resolveSibling(file.getFileName() + ".gz");
+    }
+
+    private static void compress(Path file) {
+        Path target = gzipPath(file);
+        try (InputStream in = Files.newInputStream(file);
+                OutputStream out = new GZIPOutputStream(Files.newOutputStream(target), 65536)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to compress rotated access log {}: {}", file, e.getMessage());
+            try {
+                Files.deleteIfExists(target);
+            } catch (IOException ignored) {
+                // The uncompressed segment is kept either way
+            }
+            return;
+        }
+        try {
+            Files.delete(file);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete compressed access log {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * Access log for the dot-org redirector application.
+ *
+ * This package contains the access log that request threads publish into
+ * through a lock-free ring buffer, and the writer that batches the records
+ * to size- and time-rotated files and gzips the rotated segments.
+ */
+package net.sdko.dotorgredirector.accesslog;
@@ -4,13 +4,22 @@ import io.micrometer.core.aop.TimedAspect;
 import io.micrometer.core.instrument.MeterRegistry;
 import net.sdko.dotorgredirector.RedirectFilter;
 import net.sdko.dotorgredirector.core.RedirectHandler;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -21,6 +30,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import io.sentry.Sentry;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.MediaType;
@@ -99,6 +109,11 @@ public class AppConfig implements WebMvcConfigurer {
     /**
      * Configures and registers the redirect filter.
      *
+     * <p>With the fast path enabled the filter runs just before Spring Security, ahead of the
+     * DispatcherServlet, and answers redirects on its own. The observation and Sentry filters
+     * still run first, so redirects are counted in http.server.requests and traced. Excluded
+     * paths, such as /backend, continue down the chain to the security filters.
+     *
      * @param redirectHandler The redirect handler
      * @return The filter registration bean
      */
@@ -113,11 +128,43 @@ public class AppConfig implements WebMvcConfigurer {
         
         // Configure URL patterns
         registrationBean.addUrlPatterns("/*");
-        registrationBean.setOrder(1);
+        registrationBean.setDispatcherTypes(DispatcherType.REQUEST);
+        registrationBean.setOrder(
+                appProperties.isRedirectFastPath() ? SecurityProperties.DEFAULT_FILTER_ORDER - 1 : 1);
         
         return registrationBean;
     }
     
+    /**
+     * Runs Tomcat's request processing on virtual threads in the virtual execution mode.
+     *
+     * @return The protocol handler customizer
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> executionModeCustomizer() {
+        return protocolHandler -> {
+            if (appProperties.getExecutionMode() == AppProperties.ExecutionMode.VIRTUAL) {
+                LOGGER.info("Serving requests on virtual threads");
+                protocolHandler.setExecutor(new VirtualThreadExecutor("tomcat-handler-"));
+            }
+        };
+    }
+    
+    /**
+     * Provides the executor for blocking work off the request path, such as health checks and
+     * Sentry calls. It starts a virtual thread per task in the virtual execution mode and runs
+     * tasks on the calling thread otherwise.
+     *
+     * @return The blocking task executor
+     */
+    @Bean
+    public TaskExecutor blockingTaskExecutor() {
+        if (appProperties.getExecutionMode() == AppProperties.ExecutionMode.VIRTUAL) {
+            return new VirtualThreadTaskExecutor("blocking-");
+        }
+        return new SyncTaskExecutor();
+    }
+    
     /**
      * Enables the @Timed annotation for Prometheus metrics.
      *
@@ -156,6 +203,25 @@ public class AppConfig implements WebMvcConfigurer {
         return new InMemoryUserDetailsManager(user);
     }
     
+    /**
+     * Provides the authentication provider for the backend user. It verifies the BCrypt hash
+     * and, unless disabled, caches successful verifications so that repeated scrapes skip it.
+     *
+     * @param userDetailsService The user details service
+     * @param passwordEncoder The password encoder
+     * @return The authentication provider
+     */
+    @Bean
+    public AuthenticationProvider backendAuthenticationProvider(
+            final InMemoryUserDetailsManager userDetailsService, final PasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider verifier = new DaoAuthenticationProvider(userDetailsService);
+        verifier.setPasswordEncoder(passwordEncoder);
+        if (!appProperties.getAuthCache().isEnabled()) {
+            return verifier;
+        }
+        return new CachingAuthenticationProvider(verifier, appProperties.getAuthCache());
+    }
+    
     /**
      * Configures security filter chain for HTTP requests.
      *
@@ -4,6 +4,11 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 import jakarta.validation.constraints.NotBlank;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Application configuration properties loaded from application.properties.
  */
@@ -31,12 +36,113 @@ public class AppProperties {
    * Pattern for paths that should be excluded from redirection.
    */
   private String excludePattern = "/backend/*";
+
+  /**
+   * Additional exact, prefix or Ant-style glob patterns for paths excluded from redirection.
+   */
+  private List<String> excludePatterns = new ArrayList<>();
+
+  /**
+   * Whether redirects are served by a filter ahead of Spring Security. Excluded paths such as
+   * /backend still go through the security filter chain.
+   */
+  private boolean redirectFastPath = true;
+
+  /**
+   * Threads that serve requests and run blocking work such as health checks and Sentry calls.
+   */
+  private ExecutionMode executionMode = ExecutionMode.PLATFORM;
   
   /**
    * HTTP status code to use for redirects.
    */
   private int redirectStatusCode = 302;
 
+  /**
+   * Query parameters passed through to the target, keyed by parameter name.
+   */
+  private Map<String, QueryParamRule> queryParams = defaultQueryParams();
+
+  /**
+   * Path prefix rules, matched longest prefix first. Unmatched paths go to the target URL.
+   */
+  private List<RedirectRule> rules = new ArrayList<>();
+
+  /**
+   * Optional file of exact vanity paths and their target URLs, one pair per line.
+   */
+  private String vanityLinksFile;
+
+  /**
+   * Maximum number of pre-rendered redirects kept in the decision cache, 0 to disable it.
+   */
+  private int decisionCacheSize = 1024;
+
+  /**
+   * Maximum length of the raw query string; longer ones are rejected.
+   */
+  private int maxQueryLength = 2048;
+
+  /**
+   * Maximum number of query parameters; requests with more are rejected.
+   */
+  private int maxQueryParams = 32;
+
+  /**
+   * Minimum interval between two summarized log lines for the same rejection reason.
+   */
+  private int rejectionLogIntervalSeconds = 60;
+
+  /**
+   * Target number of traced redirects per second; 0 disables redirect tracing.
+   */
+  private double tracesPerSecond = 10;
+
+  /**
+   * Whether redirects are picked for tracing before they run or after they finished.
+   */
+  private TracingMode tracingMode = TracingMode.HEAD;
+
+  /**
+   * In tail tracing mode, redirects taking at least this long are always kept.
+   */
+  private long tailLatencyThresholdMillis = 250;
+
+  /**
+   * Window after which repeats of an already reported error are sent as one summary event.
+   */
+  private int errorSummaryIntervalSeconds = 60;
+
+  /**
+   * Interval between background probes of the target URL for the redirector health check.
+   */
+  private int targetProbeIntervalSeconds = 15;
+
+  /**
+   * Time the health service waits for all indicators; those still running are reported UNKNOWN.
+   */
+  private long healthDeadlineMillis = 3000;
+
+  /**
+   * Standalone NIO redirect server, for edge nodes that only serve redirects.
+   */
+  private RedirectServer redirectServer = new RedirectServer();
+
+  /**
+   * Access log written off the request path.
+   */
+  private AccessLog accessLog = new AccessLog();
+
+  /**
+   * Transport that sends Sentry envelopes, with a circuit breaker and a disk spool.
+   */
+  private SentryTransport sentryTransport = new SentryTransport();
+
+  /**
+   * Cache of verified backend credentials, which saves a BCrypt check per authenticated request.
+   */
+  private AuthCache authCache = new AuthCache();
+
   /**
    * Gets the target URL.
    *
@@ -91,6 +197,42 @@ public class AppProperties {
     this.debug = debug;
   }
 
+  /**
+   * Checks if redirects are served ahead of the security filter chain.
+   *
+   * @return true if the redirect fast path is enabled
+   */
+  public boolean isRedirectFastPath() {
+    return redirectFastPath;
+  }
+
+  /**
+   * Sets whether redirects are served ahead of the security filter chain.
+   *
+   * @param redirectFastPath true to enable the redirect fast path
+   */
+  public void setRedirectFastPath(boolean redirectFastPath) {
+    this.redirectFastPath = redirectFastPath;
+  }
+
+  /**
+   * Gets the execution mode.
+   *
+   * @return The execution mode
+   */
+  public ExecutionMode getExecutionMode() {
+    return executionMode;
+  }
+
+  /**
+   * Sets the execution mode.
+   *
+   * @param executionMode The execution mode
+   */
+  public void setExecutionMode(ExecutionMode executionMode) {
+    this.executionMode = executionMode;
+  }
+
   /**
    * Gets the exclude pattern for paths that should not be redirected.
    *
@@ -108,6 +250,24 @@ public class AppProperties {
   public void setExcludePattern(String excludePattern) {
     this.excludePattern = excludePattern;
   }
+
+  /**
+   * Gets the additional exclude patterns.
+   *
+   * @return The exclude patterns
+   */
+  public List<String> getExcludePatterns() {
+    return excludePatterns;
+  }
+
+  /**
+   * Sets the additional exclude patterns.
+   *
+   * @param excludePatterns The exclude patterns to set
+   */
+  public void setExcludePatterns(List<String> excludePatterns) {
+    this.excludePatterns = excludePatterns;
+  }
   
   /**
    * Gets the HTTP status code to use for redirects.
@@ -126,4 +286,1158 @@ public class AppProperties {
   public void setRedirectStatusCode(int redirectStatusCode) {
     this.redirectStatusCode = redirectStatusCode;
   }
+
+  /**
+   * Gets the query parameter rules.
+   *
+   * @return The query parameter rules keyed by parameter name
+   */
+  public Map<String, QueryParamRule> getQueryParams() {
+    return queryParams;
+  }
+
+  /**
+   * Sets the query parameter rules. Settings that a rule for a built-in x-sws-* parameter leaves
+   * unset keep their built-in values, so overriding e.g. only {@code maxValue} does not reset the
+   * allowed characters and lengths to the generic defaults.
+   *
+   * @param queryParams The query parameter rules keyed by parameter name
+   */
+  public void setQueryParams(Map<String, QueryParamRule> queryParams) {
+    Map<String, QueryParamRule> builtIn = defaultQueryParams();
+    Map<String, QueryParamRule> merged = new LinkedHashMap<>(queryParams);
+    merged.replaceAll(
+        (name, rule) ->
+            rule != null && builtIn.containsKey(name) ? rule.withDefaults(builtIn.get(name)) : rule);
+    this.queryParams = merged;
+  }
+
+  /**
+   * Gets the path prefix redirect rules.
+   *
+   * @return The redirect rules
+   */
+  public List<RedirectRule> getRules() {
+    return rules;
+  }
+
+  /**
+   * Sets the path prefix redirect rules.
+   *
+   * @param rules The redirect rules
+   */
+  public void setRules(List<RedirectRule> rules) {
+    this.rules = rules;
+  }
+
+  /**
+   * Gets the vanity links file.
+   *
+   * @return The vanity links file, or null if vanity links are disabled
+   */
+  public String getVanityLinksFile() {
+    return vanityLinksFile;
+  }
+
+  /**
+   * Sets the vanity links file.
+   *
+   * @param vanityLinksFile The vanity links file
+   */
+  public void setVanityLinksFile(String vanityLinksFile) {
+    this.vanityLinksFile = vanityLinksFile;
+  }
+
+  /**
+   * Gets the decision cache size.
+   *
+   * @return The maximum number of cached redirects
+   */
+  public int getDecisionCacheSize() {
+    return decisionCacheSize;
+  }
+
+  /**
+   * Sets the decision cache size.
+   *
+   * @param decisionCacheSize The maximum number of cached redirects, 0 to disable the cache
+   */
+  public void setDecisionCacheSize(int decisionCacheSize) {
+    this.decisionCacheSize = decisionCacheSize;
+  }
+
+  /**
+   * Gets the maximum query string length.
+   *
+   * @return The maximum query string length
+   */
+  public int getMaxQueryLength() {
+    return maxQueryLength;
+  }
+
+  /**
+   * Sets the maximum query string length.
+   *
+   * @param maxQueryLength The maximum query string length
+   */
+  public void setMaxQueryLength(int maxQueryLength) {
+    this.maxQueryLength = maxQueryLength;
+  }
+
+  /**
+   * Gets the maximum number of query parameters.
+   *
+   * @return The maximum number of query parameters
+   */
+  public int getMaxQueryParams() {
+    return maxQueryParams;
+  }
+
+  /**
+   * Sets the maximum number of query parameters.
+   *
+   * @param maxQueryParams The maximum number of query parameters
+   */
+  public void setMaxQueryParams(int maxQueryParams) {
+    this.maxQueryParams = maxQueryParams;
+  }
+
+  /**
+   * Gets the minimum interval between summarized rejection log lines.
+   *
+   * @return The interval in seconds
+   */
+  public int getRejectionLogIntervalSeconds() {
+    return rejectionLogIntervalSeconds;
+  }
+
+  /**
+   * Sets the minimum interval between summarized rejection log lines.
+   *
+   * @param rejectionLogIntervalSeconds The interval in seconds
+   */
+  public void setRejectionLogIntervalSeconds(int rejectionLogIntervalSeconds) {
+    this.rejectionLogIntervalSeconds = rejectionLogIntervalSeconds;
+  }
+
+  /**
+   * Gets the target number of traced redirects per second.
+   *
+   * @return The target rate
+   */
+  public double getTracesPerSecond() {
+    return tracesPerSecond;
+  }
+
+  /**
+   * Sets the target number of traced redirects per second.
+   *
+   * @param tracesPerSecond The target rate, 0 to disable redirect tracing
+   */
+  public void setTracesPerSecond(double tracesPerSecond) {
+    this.tracesPerSecond = tracesPerSecond;
+  }
+
+  /**
+   * Gets the tracing mode.
+   *
+   * @return The tracing mode
+   */
+  public TracingMode getTracingMode() {
+    return tracingMode;
+  }
+
+  /**
+   * Sets the tracing mode.
+   *
+   * @param tracingMode The tracing mode
+   */
+  public void setTracingMode(TracingMode tracingMode) {
+    this.tracingMode = tracingMode;
+  }
+
+  /**
+   * Gets the latency above which tail tracing keeps a redirect.
+   *
+   * @return The threshold in milliseconds
+   */
+  public long getTailLatencyThresholdMillis() {
+    return tailLatencyThresholdMillis;
+  }
+
+  /**
+   * Sets the latency above which tail tracing keeps a redirect.
+   *
+   * @param tailLatencyThresholdMillis The threshold in milliseconds
+   */
+  public void setTailLatencyThresholdMillis(long tailLatencyThresholdMillis) {
+    this.tailLatencyThresholdMillis = tailLatencyThresholdMillis;
+  }
+
+  /**
+   * Gets the window after which repeated errors are summarized.
+   *
+   * @return The window in seconds
+   */
+  public int getErrorSummaryIntervalSeconds() {
+    return errorSummaryIntervalSeconds;
+  }
+
+  /**
+   * Sets the window after which repeated errors are summarized.
+   *
+   * @param errorSummaryIntervalSeconds The window in seconds
+   */
+  public void setErrorSummaryIntervalSeconds(int errorSummaryIntervalSeconds) {
+    this.errorSummaryIntervalSeconds = errorSummaryIntervalSeconds;
+  }
+
+  /**
+   * Gets the interval between background probes of the target URL.
+   *
+   * @return The interval in seconds
+   */
+  public int getTargetProbeIntervalSeconds() {
+    return targetProbeIntervalSeconds;
+  }
+
+  /**
+   * Sets the interval between background probes of the target URL.
+   *
+   * @param targetProbeIntervalSeconds The interval in seconds
+   */
+  public void setTargetProbeIntervalSeconds(int targetProbeIntervalSeconds) {
+    this.targetProbeIntervalSeconds = targetProbeIntervalSeconds;
+  }
+
+  /**
+   * Gets the time the health service waits for all indicators.
+   *
+   * @return The deadline in milliseconds
+   */
+  public long getHealthDeadlineMillis() {
+    return healthDeadlineMillis;
+  }
+
+  /**
+   * Sets the time the health service waits for all indicators.
+   *
+   * @param healthDeadlineMillis The deadline in milliseconds
+   */
+  public void setHealthDeadlineMillis(long healthDeadlineMillis) {
+    this.healthDeadlineMillis = healthDeadlineMillis;
+  }
+
+  /**
+   * Gets the standalone redirect server settings.
+   *
+   * @return The redirect server settings
+   */
+  public RedirectServer getRedirectServer() {
+    return redirectServer;
+  }
+
+  /**
+   * Sets the standalone redirect server settings.
+   *
+   * @param redirectServer The redirect server settings
+   */
+  public void setRedirectServer(RedirectServer redirectServer) {
+    this.redirectServer = redirectServer;
+  }
+
+  /**
+   * Gets the access log settings.
+   *
+   * @return The access log settings
+   */
+  public AccessLog getAccessLog() {
+    return accessLog;
+  }
+
+  /**
+   * Sets the access log settings.
+   *
+   * @param accessLog The access log settings
+   */
+  public void setAccessLog(AccessLog accessLog) {
+    this.accessLog = accessLog;
+  }
+
+  /**
+   * Gets the Sentry transport settings.
+   *
+   * @return The Sentry transport settings
+   */
+  public SentryTransport getSentryTransport() {
+    return sentryTransport;
+  }
+
+  /**
+   * Sets the Sentry transport settings.
+   *
+   * @param sentryTransport The Sentry transport settings
+   */
+  public void setSentryTransport(SentryTransport sentryTransport) {
+    this.sentryTransport = sentryTransport;
+  }
+
+  /**
+   * Gets the credential cache settings.
+   *
+   * @return The credential cache settings
+   */
+  public AuthCache getAuthCache() {
+    return authCache;
+  }
+
+  /**
+   * Sets the credential cache settings.
+   *
+   * @param authCache The credential cache settings
+   */
+  public void setAuthCache(AuthCache authCache) {
+    this.authCache = authCache;
+  }
+
+  /**
+   * Builds the default rules for the x-sws-* tracking parameters.
+   *
+   * @return The default query parameter rules
+   */
+  private static Map<String, QueryParamRule> defaultQueryParams() {
+    Map<String, QueryParamRule> rules = new LinkedHashMap<>();
+    rules.put("x-sws-event", new QueryParamRule("a-zA-Z0-9._-", 1, 50));
+    rules.put("x-sws-tracing-id", new QueryParamRule("a-fA-F0-9-", 36, 36));
+    rules.put("x-sws-env", new QueryParamRule("a-zA-Z0-9._-", 1, 20));
+    rules.put("x-sws-version", new QueryParamRule("a-zA-Z0-9._-", 1, 30));
+    rules.put("x-sws-ts", new QueryParamRule("0-9", 1, 15));
+    return rules;
+  }
+
+  /**
+   * Validation rule for a query parameter that may be passed through to the target.
+   */
+  public static class QueryParamRule {
+
+    private static final String DEFAULT_CHARS = "a-zA-Z0-9._-";
+    private static final int DEFAULT_MIN_LENGTH = 1;
+    private static final int DEFAULT_MAX_LENGTH = 64;
+
+    /**
+     * Allowed characters as a character class body, "a-zA-Z0-9._-" if unset.
+     */
+    private String chars;
+
+    /**
+     * Minimum value length, 1 if unset.
+     */
+    private Integer minLength;
+
+    /**
+     * Maximum value length, 64 if unset.
+     */
+    private Integer maxLength;
+
+    /**
+     * Optional minimum numeric value (inclusive).
+     */
+    private Long minValue;
+
+    /**
+     * Optional maximum numeric value (inclusive).
+     */
+    private Long maxValue;
+
+    /**
+     * Creates a rule with the default settings.
+     */
+    public QueryParamRule() {
+    }
+
+    /**
+     * Creates a rule with the given character class and length bounds.
+     *
+     * @param chars The allowed characters
+     * @param minLength The minimum value length
+     * @param maxLength The maximum value length
+     */
+    public QueryParamRule(String chars, int minLength, int maxLength) {
+      this.chars = chars;
+      this.minLength = minLength;
+      this.maxLength = maxLength;
+    }
+
+    /**
+     * Gets the allowed characters.
+     *
+     * @return The character class body
+     */
+    public String getChars() {
+      return chars != null ? chars : DEFAULT_CHARS;
+    }
+
+    /**
+     * Sets the allowed characters.
+     *
+     * @param chars The character class body
+     */
+    public void setChars(String chars) {
+      this.chars = chars;
+    }
+
+    /**
+     * Gets the minimum value length.
+     *
+     * @return The minimum length
+     */
+    public int getMinLength() {
+      return minLength != null ? minLength : DEFAULT_MIN_LENGTH;
+    }
+
+    /**
+     * Sets the minimum value length.
+     *
+     * @param minLength The minimum length
+     */
+    public void setMinLength(int minLength) {
+      this.minLength = minLength;
+    }
+
+    /**
+     * Gets the maximum value length.
+     *
+     * @return The maximum length
+     */
+    public int getMaxLength() {
+      return maxLength != null ? maxLength : DEFAULT_MAX_LENGTH;
+    }
+
+    /**
+     * Sets the maximum value length.
+     *
+     * @param maxLength The maximum length
+     */
+    public void setMaxLength(int maxLength) {
+      this.maxLength = maxLength;
+    }
+
+    /**
+     * Gets the minimum numeric value.
+     *
+     * @return The minimum value, or null if unbounded
+     */
+    public Long getMinValue() {
+      return minValue;
+    }
+
+    /**
+     * Sets the minimum numeric value.
+     *
+     * @param minValue The minimum value, or null if unbounded
+     */
+    public void setMinValue(Long minValue) {
+      this.minValue = minValue;
+    }
+
+    /**
+     * Gets the maximum numeric value.
+     *
+     * @return The maximum value, or null if unbounded
+     */
+    public Long getMaxValue() {
+      return maxValue;
+    }
+
+    /**
+     * Sets the maximum numeric value.
+     *
+     * @param maxValue The maximum value, or null if unbounded
+     */
+    public void setMaxValue(Long maxValue) {
+      this.maxValue = maxValue;
+    }
+
+    /**
+     * Returns a copy of this rule with the settings it leaves unset taken from another rule.
+     *
+     * @param defaults The rule that supplies the unset settings
+     * @return The merged rule
+     */
+    private QueryParamRule withDefaults(QueryParamRule defaults) {
+      QueryParamRule rule = new QueryParamRule();
+      rule.chars = chars != null ? chars : defaults.chars;
+      rule.minLength = minLength != null ? minLength : defaults.minLength;
+      rule.maxLength = maxLength != null ? maxLength : defaults.maxLength;
+      rule.minValue = minValue != null ? minValue : defaults.minValue;
+      rule.maxValue = maxValue != null ? maxValue : defaults.maxValue;
+      return rule;
+    }
+  }
+
+  /**
+   * Redirect rule mapping a path prefix to its own target URL.
+   */
+  public static class RedirectRule {
+
+    /**
+     * Path prefix matched at segment boundaries, e.g. "/docs".
+     */
+    private String prefix;
+
+    /**
+     * Target URL for paths under the prefix. The rest of the path is appended to it.
+     */
+    private String target;
+
+    /**
+     * Creates an empty rule.
+     */
+    public RedirectRule() {
+    }
+
+    /**
+     * Creates a rule for the given prefix and target.
+     *
+     * @param prefix The path prefix
+     * @param target The target URL
+     */
+    public RedirectRule(String prefix, String target) {
+      this.prefix = prefix;
+      this.target = target;
+    }
+
+    /**
+     * Gets the path prefix.
+     *
+     * @return The path prefix
+     */
+    public String getPrefix() {
+      return prefix;
+    }
+
+    /**
+     * Sets the path prefix.
+     *
+     * @param prefix The path prefix
+     */
+    public void setPrefix(String prefix) {
+      this.prefix = prefix;
+    }
+
+    /**
+     * Gets the target URL.
+     *
+     * @return The target URL
+     */
+    public String getTarget() {
+      return target;
+    }
+
+    /**
+     * Sets the target URL.
+     *
+     * @param target The target URL
+     */
+    public void setTarget(String target) {
+      this.target = target;
+    }
+  }
+
+  /**
+   * Kind of threads that requests and blocking work run on.
+   */
+  public enum ExecutionMode {
+
+    /** Tomcat's platform thread pool; blocking work runs on the calling thread. */
+    PLATFORM,
+
+    /** A virtual thread per request and per blocking task. */
+    VIRTUAL
+  }
+
+  /**
+   * When redirects are picked for tracing.
+   */
+  public enum TracingMode {
+
+    /** Up front by the adaptive sampler; picked redirects are traced in Sentry as they run. */
+    HEAD,
+
+    /**
+     * Every redirect records its phases cheaply; slow and failed ones, plus the adaptive
+     * sampler's baseline, are turned into Sentry transactions once they finished.
+     */
+    TAIL
+  }
+
+  /**
+   * Settings of the standalone NIO redirect server.
+   */
+  public static class RedirectServer {
+
+    /**
+     * Whether the redirect server is started next to the servlet container.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Port the redirect server listens on.
+     */
+    private int port = 8081;
+
+    /**
+     * Number of event loop threads, 0 for one per available processor.
+     */
+    private int threads = 0;
+
+    /**
+     * Size of the pooled read buffers, which also caps the request line and headers. HTTP/2
+     * connections read into buffers of at least 16393 bytes, so that any frame of the default
+     * maximum size fits.
+     */
+    private int bufferSize = 8192;
+
+    /**
+     * Seconds after which idle connections are closed.
+     */
+    private int idleTimeoutSeconds = 10;
+
+    /**
+     * Checks if the redirect server is enabled.
+     *
+     * @return true if the redirect server is enabled
+     */
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    /**
+     * Sets whether the redirect server is enabled.
+     *
+     * @param enabled true to enable the redirect server
+     */
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    /**
+     * Gets the listen port.
+     *
+     * @return The listen port
+     */
+    public int getPort() {
+      return port;
+    }
+
+    /**
+     * Sets the listen port.
+     *
+     * @param port The listen port, 0 for an ephemeral port
+     */
+    public void setPort(int port) {
+      this.port = port;
+    }
+
+    /**
+     * Gets the number of event loop threads.
+     *
+     * @return The number of event loop threads, 0 for one per available processor
+     */
+    public int getThreads() {
+      return threads;
+    }
+
+    /**
+     * Sets the number of event loop threads.
+     *
+     * @param threads The number of event loop threads, 0 for one per available processor
+     */
+    public void setThreads(int threads) {
+      this.threads = threads;
+    }
+
+    /**
+     * Gets the read buffer size.
+     *
+     * @return The read buffer size in bytes
+     */
+    public int getBufferSize() {
+      return bufferSize;
+    }
+
+    /**
+     * Sets the read buffer size.
+     *
+     * @param bufferSize The read buffer size in bytes
+     */
+    public void setBufferSize(int bufferSize) {
+      this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Gets the idle timeout.
+     *
+     * @return The idle timeout in seconds
+     */
+    public int getIdleTimeoutSeconds() {
+      return idleTimeoutSeconds;
+    }
+
+    /**
+     * Sets the idle timeout.
+     *
+     * @param idleTimeoutSeconds The idle timeout in seconds
+     */
+    public void setIdleTimeoutSeconds(int idleTimeoutSeconds) {
+      this.idleTimeoutSeconds = idleTimeoutSeconds;
+    }
+  }
+
+  /**
+   * Settings of the access log.
+   */
+  public static class AccessLog {
+
+    /**
+     * Whether redirects are written to the access log.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Absolute directory of the active log file and its rotated, gzipped segments, required
+     * when the access log is enabled.
+     */
+    private String directory;
+
+    /**
+     * Name of the active log file.
+     */
+    private String fileName = "access.log";
+
+    /**
+     * Number of records the ring buffer holds, rounded up to a power of two.
+     */
+    private int bufferSize = 16384;
+
+    /**
+     * Size in bytes after which the active file is rotated.
+     */
+    private long maxFileSize = 100L * 1024 * 1024;
+
+    /**
+     * Minutes after which the active file is rotated, 0 to rotate on size only.
+     */
+    private int rotationMinutes = 60;
+
+    /**
+     * Number of rotated segments kept; older ones are deleted. 0 keeps every segment.
+     */
+    private int maxSegments = 24;
+
+    /**
+     * What request threads do when the ring buffer is full.
+     */
+    private FullPolicy fullPolicy = FullPolicy.DROP;
+
+    /**
+     * Checks if the access log is enabled.
+     *
+     * @return true if the access log is enabled
+     */
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    /**
+     * Sets whether the access log is enabled.
+     *
+     * @param enabled true to enable the access log
+     */
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    /**
+     * Gets the log directory.
+     *
+     * @return The log directory
+     */
+    public String getDirectory() {
+      return directory;
+    }
+
+    /**
+     * Sets the log directory.
+     *
+     * @param directory The log directory
+     */
+    public void setDirectory(String directory) {
+      this.directory = directory;
+    }
+
+    /**
+     * Gets the active file name.
+     *
+     * @return The active file name
+     */
+    public String getFileName() {
+      return fileName;
+    }
+
+    /**
+     * Sets the active file name.
+     *
+     * @param fileName The active file name
+     */
+    public void setFileName(String fileName) {
+      this.fileName = fileName;
+    }
+
+    /**
+     * Gets the ring buffer size.
+     *
+     * @return The number of records the ring buffer holds
+     */
+    public int getBufferSize() {
+      return bufferSize;
+    }
+
+    /**
+     * Sets the ring buffer size.
+     *
+     * @param bufferSize The number of records the ring buffer holds
+     */
+    public void setBufferSize(int bufferSize) {
+      this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Gets the size rotation threshold.
+     *
+     * @return The size in bytes after which the file is rotated
+     */
+    public long getMaxFileSize() {
+      return maxFileSize;
+    }
+
+    /**
+     * Sets the size rotation threshold.
+     *
+     * @param maxFileSize The size in bytes after which the file is rotated
+     */
+    public void setMaxFileSize(long maxFileSize) {
+      this.maxFileSize = maxFileSize;
+    }
+
+    /**
+     * Gets the time rotation interval.
+     *
+     * @return The rotation interval in minutes, 0 for none
+     */
+    public int getRotationMinutes() {
+      return rotationMinutes;
+    }
+
+    /**
+     * Sets the time rotation interval.
+     *
+     * @param rotationMinutes The rotation interval in minutes, 0 for none
+     */
+    public void setRotationMinutes(int rotationMinutes) {
+      this.rotationMinutes = rotationMinutes;
+    }
+
+    /**
+     * Gets the number of rotated segments kept.
+     *
+     * @return The number of segments kept, 0 for all
+     */
+    public int getMaxSegments() {
+      return maxSegments;
+    }
+
+    /**
+     * Sets the number of rotated segments kept.
+     *
+     * @param maxSegments The number of segments kept, 0 for all
+     */
+    public void setMaxSegments(int maxSegments) {
+      this.maxSegments = maxSegments;
+    }
+
+    /**
+     * Gets the policy for a full ring buffer.
+     *
+     * @return The full buffer policy
+     */
+    public FullPolicy getFullPolicy() {
+      return fullPolicy;
+    }
+
+    /**
+     * Sets the policy for a full ring buffer.
+     *
+     * @param fullPolicy The full buffer policy
+     */
+    public void setFullPolicy(FullPolicy fullPolicy) {
+      this.fullPolicy = fullPolicy;
+    }
+
+    /**
+     * What request threads do when the access log ring buffer is full.
+     */
+    public enum FullPolicy {
+
+      /** Drop the record and count it. */
+      DROP,
+
+      /** Wait for the writer to free a slot. */
+      BLOCK
+    }
+  }
+
+  /**
+   * Settings of the transport that sends envelopes to Sentry.
+   */
+  public static class SentryTransport {
+
+    /**
+     * Whether the circuit-broken, spooling transport replaces the SDK's own.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of envelopes waiting to be sent; further envelopes are dropped and counted, so
+     * capturing threads never wait on the disk.
+     */
+    private int queueSize = 100;
+
+    /**
+     * Consecutive failed sends after which the circuit breaker opens.
+     */
+    private int failureThreshold = 5;
+
+    /**
+     * Seconds the breaker stays open before a single envelope is sent to probe ingestion.
+     */
+    private int openSeconds = 30;
+
+    /**
+     * Absolute directory envelopes are spooled to while the breaker is open; without one they
+     * are dropped and counted.
+     */
+    private String spoolDirectory;
+
+    /**
+     * Size in bytes of the spool; the oldest envelopes are deleted to stay below it.
+     */
+    private long maxSpoolSize = 50L * 1024 * 1024;
+
+    /**
+     * Interval between two active connectivity checks of the health indicator.
+     */
+    private int verifyIntervalSeconds = 300;
+
+    /**
+     * Checks if the transport is enabled.
+     *
+     * @return true if the transport is enabled
+     */
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    /**
+     * Sets whether the transport is enabled.
+     *
+     * @param enabled true to enable the transport
+     */
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    /**
+     * Gets the send queue size.
+     *
+     * @return The number of envelopes waiting to be sent
+     */
+    public int getQueueSize() {
+      return queueSize;
+    }
+
+    /**
+     * Sets the send queue size.
+     *
+     * @param queueSize The number of envelopes waiting to be sent
+     */
+    public void setQueueSize(int queueSize) {
+      this.queueSize = queueSize;
+    }
+
+    /**
+     * Gets the failure threshold.
+     *
+     * @return The consecutive failures that open the breaker
+     */
+    public int getFailureThreshold() {
+      return failureThreshold;
+    }
+
+    /**
+     * Sets the failure threshold.
+     *
+     * @param failureThreshold The consecutive failures that open the breaker
+     */
+    public void setFailureThreshold(int failureThreshold) {
+      this.failureThreshold = failureThreshold;
+    }
+
+    /**
+     * Gets how long the breaker stays open.
+     *
+     * @return The open time in seconds
+     */
+    public int getOpenSeconds() {
+      return openSeconds;
+    }
+
+    /**
+     * Sets how long the breaker stays open.
+     *
+     * @param openSeconds The open time in seconds
+     */
+    public void setOpenSeconds(int openSeconds) {
+      this.openSeconds = openSeconds;
+    }
+
+    /**
+     * Gets the spool directory.
+     *
+     * @return The spool directory, or null if envelopes are not spooled
+     */
+    public String getSpoolDirectory() {
+      return spoolDirectory;
+    }
+
+    /**
+     * Sets the spool directory.
+     *
+     * @param spoolDirectory The spool directory
+     */
+    public void setSpoolDirectory(String spoolDirectory) {
+      this.spoolDirectory = spoolDirectory;
+    }
+
+    /**
+     * Gets the spool size cap.
+     *
+     * @return The spool size in bytes
+     */
+    public long getMaxSpoolSize() {
+      return maxSpoolSize;
+    }
+
+    /**
+     * Sets the spool size cap.
+     *
+     * @param maxSpoolSize The spool size in bytes
+     */
+    public void setMaxSpoolSize(long maxSpoolSize) {
+      this.maxSpoolSize = maxSpoolSize;
+    }
+
+    /**
+     * Gets the interval between two active connectivity checks.
+     *
+     * @return The interval in seconds
+     */
+    public int getVerifyIntervalSeconds() {
+      return verifyIntervalSeconds;
+    }
+
+    /**
+     * Sets the interval between two active connectivity checks.
+     *
+     * @param verifyIntervalSeconds The interval in seconds
+     */
+    public void setVerifyIntervalSeconds(int verifyIntervalSeconds) {
+      this.verifyIntervalSeconds = verifyIntervalSeconds;
+    }
+  }
+
+  /**
+   * Settings of the cache of verified backend credentials.
+   */
+  public static class AuthCache {
+
+    /**
+     * Whether successful verifications are cached.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Time a verification is reused for.
+     */
+    private int ttlSeconds = 60;
+
+    /**
+     * Number of verified credentials kept.
+     */
+    private int maxEntries = 64;
+
+    /**
+     * Checks if the cache is enabled.
+     *
+     * @return true if successful verifications are cached
+     */
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    /**
+     * Sets whether the cache is enabled.
+     *
+     * @param enabled true to cache successful verifications
+     */
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    /**
+     * Gets the time a verification is reused for.
+     *
+     * @return The time in seconds
+     */
+    public int getTtlSeconds() {
+      return ttlSeconds;
+    }
+
+    /**
+     * Sets the time a verification is reused for.
+     *
+     * @param ttlSeconds The time in seconds
+     */
+    public void setTtlSeconds(int ttlSeconds) {
+      this.ttlSeconds = ttlSeconds;
+    }
+
+    /**
+     * Gets the number of verified credentials kept.
+     *
+     * @return The number of entries
+     */
+    public int getMaxEntries() {
+      return maxEntries;
+    }
+
+    /**
+     * Sets the number of verified credentials kept.
+     *
+     * @param maxEntries The number of entries
+     */
+    public void setMaxEntries(int maxEntries) {
+      this.maxEntries = maxEntries;
+    }
+  }
 }
@@ -0,0 +1,143 @@
+package net.sdko.dotorgredirector.config;
+
+import net.sdko.dotorgredirector.core.TinyLfuCache;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authentication provider that remembers successful username and password verifications for a
+ * short time.
+ *
+ * <p>The backend password is stored as a BCrypt hash, so every authenticated scrape of
+ * /backend/metrics or /backend/healthz would pay a full BCrypt check. This provider hands the
+ * first request to the delegate, which does that check, and then accepts the same credentials
+ * for {@code app.authCache.ttlSeconds} without it. Failed verifications are never cached.
+ *
+ * <p>The cache key is an HMAC-SHA256 of the credentials under a random key generated at start,
+ * so the cache holds neither the password nor a hash that could be attacked offline, and the
+ * map lookup reveals nothing to someone who does not know the key. The cache is bounded to
+ * {@code app.authCache.maxEntries} verified credentials.
+ */
+public final class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int KEY_BYTES = 32;
+
+    private final AuthenticationProvider delegate;
+    private final TinyLfuCache<String, Verified> cache;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    /**
+     * Constructs a CachingAuthenticationProvider.
+     *
+     * @param delegate The provider that verifies credentials not in the cache
+     * @param settings The cache settings
+     */
+    public CachingAuthenticationProvider(
+            AuthenticationProvider delegate, AppProperties.AuthCache settings) {
+        this(delegate, settings, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a CachingAuthenticationProvider with a specific clock.
+     *
+     * @param delegate The provider that verifies credentials not in the cache
+     * @param settings The cache settings
+     * @param clock The clock for the time-to-live
+     */
+    CachingAuthenticationProvider(
+            AuthenticationProvider delegate, AppProperties.AuthCache settings, Clock clock) {
+        this.delegate = delegate;
+        this.cache = new TinyLfuCache<>(Math.max(1, settings.getMaxEntries()), () -> { });
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(Math.max(0, settings.getTtlSeconds()));
+        this.clock = clock;
+        byte[] secret = new byte[KEY_BYTES];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (!(authentication instanceof UsernamePasswordAuthenticationToken)
+                || authentication.getName() == null || authentication.getCredentials() == null) {
+            return delegate.authenticate(authentication);
+        }
+
+        String cacheKey = cacheKey(authentication.getName(), authentication.getCredentials().toString());
+        long now = clock.millis();
+        Verified verified = cache.get(cacheKey);
+        if (verified != null && now < verified.expiresAt()) {
+            UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken.authenticated(
+                    verified.principal(), authentication.getCredentials(), verified.authorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+
+        // Throws on bad credentials, so failures never reach the cache
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated() && ttlMillis > 0) {
+            cache.put(cacheKey, new Verified(result.getPrincipal(), result.getAuthorities(), now + ttlMillis));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+    /**
+     * Returns the number of cached verifications, including expired ones not replaced yet.
+     *
+     * @return The number of entries
+     */
+    int size() {
+        return cache.size();
+    }
+
+    private String cacheKey(String username, String password) {
+        Mac mac = Thread.currentThread().isVirtual() ? newMac() : macs.get();
+        mac.update(username.getBytes(StandardCharsets.UTF_8));
+        // Separates the parts, so "ab" + "c" and "a" + "bc" differ
+        mac.update((byte) 0);
+        mac.update(password.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().withoutPadding().encodeToString(mac.doFinal());
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    /**
+     * A successful verification and when it stops being reused.
+     *
+     * @param principal The authenticated principal
+     * @param authorities The principal's authorities
+     * @param expiresAt The epoch millis the entry expires at
+     */
+    private record Verified(
+            Object principal, Collection<? extends GrantedAuthority> authorities, long expiresAt) {
+    }
+}
@@ -1,9 +1,12 @@
 package net.sdko.dotorgredirector.config;
 
 import io.sentry.Sentry;
+import io.sentry.SentryEvent;
 import jakarta.servlet.http.HttpServletRequest;
+import net.sdko.dotorgredirector.core.ErrorAggregator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -26,18 +29,23 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
   
   private final String environment;
   private final String version;
+  private final ErrorAggregator errorAggregator;
   
   /**
-   * Constructs a GlobalExceptionHandler with the given environment and version.
+   * Constructs a GlobalExceptionHandler that reports repeated exceptions as summaries.
    *
    * @param applicationEnvironment The application environment
    * @param appProperties The application properties
+   * @param errorAggregator Decides which exceptions are sent as events
    */
+  @Autowired
   public GlobalExceptionHandler(
       @Qualifier("applicationEnvironment") final String applicationEnvironment,
-      final AppProperties appProperties) {
+      final AppProperties appProperties,
+      final ErrorAggregator errorAggregator) {
     this.environment = applicationEnvironment;
     this.version = appProperties.getVersion();
+    this.errorAggregator = errorAggregator;
   }
   
   /**
@@ -56,22 +64,24 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     } else {
       LOGGER.error("Unhandled exception [{}]: {}", errorId, ex.getMessage(), ex);
       
-      // Report non-security exceptions to Sentry
-      Sentry.configureScope(scope -> {
-        scope.setTag("error_id", errorId);
-        scope.setTag("environment", environment);
-        scope.setTag("version", version);
+      // Report non-security exceptions to Sentry, with the request details on a scope that
+      // only this event sees; repeats are summarized by the aggregator
+      SentryEvent event = errorAggregator.record(ex);
+      if (event != null) {
+        Sentry.captureEvent(event, scope -> {
+          scope.setTag("error_id", errorId);
+          scope.setTag("environment", environment);
+          scope.setTag("version", version);
         
-        // Add request data
-        Map<String, String> requestData = new HashMap<>();
-        requestData.put("url", request.getRequestURL().toString());
-        requestData.put("method", request.getMethod());
-        requestData.put("user_agent", request.getHeader("User-Agent"));
-        requestData.put("remote_addr", request.getRemoteAddr());
-        scope.setContexts("request", requestData);
-      });
-      
-      Sentry.captureException(ex);
+          // Add request data
+          Map<String, String> requestData = new HashMap<>();
+          requestData.put("url", request.getRequestURL().toString());
+          requestData.put("method", request.getMethod());
+          requestData.put("user_agent", request.getHeader("User-Agent"));
+          requestData.put("remote_addr", request.getRemoteAddr());
+          scope.setContexts("request", requestData);
+        });
+      }
     }
     
     // Return appropriate response based on exception type
@@ -1,5 +1,6 @@
 package net.sdko.dotorgredirector.config;
 
+import io.sentry.HubAdapter;
 import io.sentry.IHub;
 import io.sentry.Sentry;
 import io.sentry.SentryEvent;
@@ -10,6 +11,7 @@ import io.sentry.spring.jakarta.SentryExceptionResolver;
 import io.sentry.spring.jakarta.SentryTaskDecorator;
 import io.sentry.spring.jakarta.tracing.TransactionNameProvider;
 import jakarta.annotation.PostConstruct;
+import net.sdko.dotorgredirector.reporting.SpoolingTransportFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -54,16 +56,22 @@ public class SentryConfig {
     public void initializeSentry() {
         LOGGER.info("Initializing Sentry with DSN: {}", maskSentryDsn(sentryDsn));
         
+        if (sentryDsn == null || sentryDsn.isEmpty()) {
+            LOGGER.warn("No Sentry DSN configured. Sentry error reporting will be disabled.");
+            return;
+        }
+        
+        // Built before the try so that an unusable spool directory fails startup
+        SpoolingTransportFactory transportFactory = appProperties.getSentryTransport().isEnabled()
+                ? new SpoolingTransportFactory(appProperties.getSentryTransport())
+                : null;
+        
         try {
-            if (sentryDsn == null || sentryDsn.isEmpty()) {
-                LOGGER.warn("No Sentry DSN configured. Sentry error reporting will be disabled.");
-                return;
-            }
-            
             SentryOptions options = new SentryOptions();
             options.setDsn(sentryDsn);
             options.setEnvironment(applicationEnvironment);
             options.setRelease("dot-org@" + appProperties.getVersion());
+            // Redirect transactions are only started for requests the AdaptiveSampler picked
             options.setTracesSampleRate(1.0);
             
             // Set debug to false to reduce log verbosity
@@ -71,6 +79,10 @@ public class SentryConfig {
             
             options.setAttachStacktrace(true);
             options.setEnableExternalConfiguration(true);
+            if (transportFactory != null) {
+                // Send from a bounded queue on its own thread, behind a circuit breaker
+                options.setTransportFactory(transportFactory);
+            }
             
             // Add a before-send callback to log events
             options.setBeforeSend((event, hint) -> {
@@ -122,6 +134,7 @@ public class SentryConfig {
         options.setDsn(sentryDsn);
         options.setEnvironment(applicationEnvironment);
         options.setRelease("dot-org@" + appProperties.getVersion());
+        // Redirect transactions are only started for requests the AdaptiveSampler picked
         options.setTracesSampleRate(1.0);
         
         // Set debug to false to reduce log verbosity
@@ -129,6 +142,10 @@ public class SentryConfig {
         
         options.setAttachStacktrace(true);
         options.setEnableExternalConfiguration(true);
+        if (appProperties.getSentryTransport().isEnabled()) {
+            // Send from a bounded queue on its own thread, behind a circuit breaker
+            options.setTransportFactory(new SpoolingTransportFactory(appProperties.getSentryTransport()));
+        }
         
         // Add a before-send callback to log events
         options.setBeforeSend((event, hint) -> {
@@ -181,13 +198,15 @@ public class SentryConfig {
     }
     
     /**
-     * Provides the Sentry hub for dependency injection.
+     * Provides the Sentry hub for dependency injection. It delegates to the calling thread's
+     * current scopes on every call, so transactions bind to the request's own scope rather
+     * than to the scopes that were current when the bean was created.
      *
-     * @return The current Sentry hub
+     * @return The Sentry hub
      */
     @Bean
     public IHub sentryHub() {
-        return Sentry.getCurrentHub();
+        return HubAdapter.getInstance();
     }
     
     /**
@@ -0,0 +1,92 @@
+package net.sdko.dotorgredirector.core;
+
+import net.sdko.dotorgredirector.config.AppProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate-adaptive sampler that keeps traced redirects close to {@code app.tracesPerSecond}.
+ *
+ * <p>Each request adds to a striped counter and draws against a probability threshold. When the
+ * coarse clock moves to a new second, the first request to notice folds the previous window's
+ * count into a moving average of the request rate and sets the probability to the target rate
+ * divided by it, so light traffic is traced in full and heavy traffic at the target rate.
+ */
+@Component
+public class AdaptiveSampler {
+
+    /** Probability 1 on the 31-bit scale the random draw is compared against. */
+    private static final long ALWAYS = 1L << 31;
+
+    /** Weight of the newest window in the moving average of the request rate. */
+    private static final double SMOOTHING = 0.5;
+
+    private final AppProperties appProperties;
+    private final CoarseClock coarseClock;
+    private final LongAdder seen = new LongAdder();
+    private final AtomicLong windowSecond;
+
+    private volatile long threshold;
+    private volatile double averageRate = -1;
+
+    /**
+     * Constructs an AdaptiveSampler.
+     *
+     * @param appProperties The application properties
+     * @param coarseClock The clock whose seconds delimit the rate windows
+     */
+    @Autowired
+    public AdaptiveSampler(AppProperties appProperties, CoarseClock coarseClock) {
+        this.appProperties = appProperties;
+        this.coarseClock = coarseClock;
+        this.windowSecond = new AtomicLong(coarseClock.epochSecond());
+        // Trace everything until the first window has measured the request rate
+        this.threshold = appProperties.getTracesPerSecond() <= 0 ? 0 : ALWAYS;
+    }
+
+    /**
+     * Decides whether the current request is traced.
+     *
+     * @return true if the request should be traced
+     */
+    public boolean sample() {
+        long second = coarseClock.epochSecond();
+        if (second != windowSecond.get()) {
+            roll(second);
+        }
+        seen.increment();
+        return (ThreadLocalRandom.current().nextInt() & 0x7fffffffL) < threshold;
+    }
+
+    /**
+     * Returns the current sampling probability.
+     *
+     * @return The probability between 0 and 1
+     */
+    public double probability() {
+        return threshold / (double) ALWAYS;
+    }
+
+    private void roll(long second) {
+        long previous = windowSecond.get();
+        if (second <= previous || !windowSecond.compareAndSet(previous, second)) {
+            return;
+        }
+        double rate = seen.sumThenReset() / (double) (second - previous);
+        double average = averageRate < 0 ? rate : SMOOTHING * rate + (1 - SMOOTHING) * averageRate;
+        averageRate = average;
+
+        double target = appProperties.getTracesPerSecond();
+        if (target <= 0) {
+            threshold = 0;
+        } else if (average <= target) {
+            threshold = ALWAYS;
+        } else {
+            threshold = (long) (target / average * ALWAYS);
+        }
+    }
+}
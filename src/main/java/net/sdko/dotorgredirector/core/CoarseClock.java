@@ -0,0 +1,127 @@
+package net.sdko.dotorgredirector.core;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Second-resolution clock for per-request timestamps such as x-sws-ts.
+ *
+ * <p>While started, a background ticker publishes the current epoch second together with its
+ * decimal rendering, so reading the time is a single volatile load. A clock that has not been
+ * started reads the underlying {@link Clock} on every call, which keeps tests that inject a
+ * fixed or offset clock deterministic.
+ */
+@Component
+public class CoarseClock {
+
+    private static final long TICK_INTERVAL_MILLIS = 50;
+
+    private final Clock clock;
+
+    private volatile Tick tick;
+    private ScheduledExecutorService ticker;
+
+    /**
+     * Constructs a CoarseClock backed by the system UTC clock.
+     */
+    public CoarseClock() {
+        this(Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a CoarseClock backed by the given clock.
+     *
+     * @param clock The underlying clock
+     */
+    public CoarseClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Starts the background ticker.
+     */
+    @PostConstruct
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        tick = read(null);
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "coarse-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(
+                () -> tick = read(tick), TICK_INTERVAL_MILLIS, TICK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the background ticker. Subsequent reads go to the underlying clock.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (ticker == null) {
+            return;
+        }
+        ticker.shutdownNow();
+        ticker = null;
+        tick = null;
+    }
+
+    /**
+     * Returns the current tick.
+     *
+     * @return The current epoch second and its decimal rendering
+     */
+    public Tick current() {
+        Tick current = tick;
+        return current != null ? current : read(null);
+    }
+
+    /**
+     * Returns the current epoch second.
+     *
+     * @return The epoch second
+     */
+    public long epochSecond() {
+        return current().epochSecond();
+    }
+
+    /**
+     * Returns the current epoch second rendered as a decimal string.
+     *
+     * @return The epoch second as a string
+     */
+    public String epochSecondText() {
+        return current().epochSecondText();
+    }
+
+    /**
+     * Reads the underlying clock, reusing the previous tick if the second has not changed.
+     *
+     * @param previous The previous tick, may be null
+     * @return The tick for the current second
+     */
+    private Tick read(Tick previous) {
+        long epochSecond = Math.floorDiv(clock.millis(), 1000L);
+        if (previous != null && previous.epochSecond() == epochSecond) {
+            return previous;
+        }
+        return new Tick(epochSecond, Long.toString(epochSecond));
+    }
+
+    /**
+     * An epoch second and its pre-rendered decimal string.
+     *
+     * @param epochSecond The epoch second
+     * @param epochSecondText The epoch second as a decimal string
+     */
+    public record Tick(long epochSecond, String epochSecondText) {
+    }
+}
@@ -0,0 +1,263 @@
+package net.sdko.dotorgredirector.core;
+
+import io.sentry.Sentry;
+import io.sentry.SentryEvent;
+import io.sentry.SentryLevel;
+import io.sentry.protocol.Message;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.sdko.dotorgredirector.config.AppProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collapses repeated errors into one Sentry event per fingerprint and window.
+ *
+ * <p>An error is fingerprinted by its type and its top stack frames. The first occurrence of a
+ * fingerprint is reported straight away, with the thread dump if {@code attach-threads} is on.
+ * Repeats only increment a striped counter; once per {@code app.errorSummaryIntervalSeconds}
+ * they are reported as a single summary event that carries the count, the last occurrence's
+ * stack trace and no thread dump. A burst of failing redirects therefore costs one thread dump
+ * per distinct error instead of one per request.
+ *
+ * <p>While started, a background flusher reports the summaries of windows in which an error
+ * stopped recurring, so the last count of a burst is not lost.
+ */
+@Component
+public class ErrorAggregator {
+
+    /** Number of stack frames that make up a fingerprint, besides the type. */
+    static final int FINGERPRINT_FRAMES = 3;
+
+    /** Fingerprints tracked at most; errors beyond that are reported without aggregation. */
+    static final int MAX_FINGERPRINTS = 1024;
+
+    /** Windows without an occurrence after which a fingerprint is forgotten. */
+    private static final int IDLE_WINDOWS = 10;
+
+    private final AppProperties appProperties;
+    private final Clock clock;
+    private final ConcurrentHashMap<String, Fingerprint> fingerprints = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flusher;
+
+    /**
+     * Constructs an ErrorAggregator.
+     *
+     * @param appProperties The application properties
+     */
+    @Autowired
+    public ErrorAggregator(AppProperties appProperties) {
+        this(appProperties, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs an ErrorAggregator with a specific clock.
+     *
+     * @param appProperties The application properties
+     * @param clock The clock for the summary windows
+     */
+    ErrorAggregator(AppProperties appProperties, Clock clock) {
+        this.appProperties = appProperties;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts the background flusher.
+     */
+    @PostConstruct
+    public synchronized void start() {
+        if (flusher != null) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "error-aggregator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, appProperties.getErrorSummaryIntervalSeconds());
+        flusher.scheduleAtFixedRate(
+                () -> flush().forEach(Sentry::captureEvent), period, period, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the background flusher and reports the pending summaries.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdownNow();
+        flusher = null;
+        flushAll().forEach(Sentry::captureEvent);
+    }
+
+    /**
+     * Records an occurrence of an error.
+     *
+     * @param throwable The error
+     * @return The event to send to Sentry now, or null if the occurrence was only counted
+     */
+    public SentryEvent record(Throwable throwable) {
+        String key = fingerprint(throwable);
+        long now = clock.millis();
+        Fingerprint fingerprint = fingerprints.get(key);
+        if (fingerprint == null) {
+            if (fingerprints.size() >= MAX_FINGERPRINTS) {
+                return withoutThreads(firstEvent(throwable, key));
+            }
+            Fingerprint created = new Fingerprint(key, now, now + windowMillis());
+            fingerprint = fingerprints.putIfAbsent(key, created);
+            if (fingerprint == null) {
+                return firstEvent(throwable, key);
+            }
+        }
+
+        fingerprint.pending.increment();
+        fingerprint.last = throwable;
+        fingerprint.lastSeenAt = now;
+        long due = fingerprint.summaryAt.get();
+        if (now >= due && fingerprint.summaryAt.compareAndSet(due, now + windowMillis())) {
+            return summary(fingerprint, now);
+        }
+        return null;
+    }
+
+    /**
+     * Builds the summaries of all windows that ended, and forgets idle fingerprints.
+     *
+     * @return The summary events to send
+     */
+    List<SentryEvent> flush() {
+        long now = clock.millis();
+        List<SentryEvent> events = new ArrayList<>();
+        for (Fingerprint fingerprint : fingerprints.values()) {
+            long due = fingerprint.summaryAt.get();
+            if (now < due || !fingerprint.summaryAt.compareAndSet(due, now + windowMillis())) {
+                continue;
+            }
+            SentryEvent event = summary(fingerprint, now);
+            if (event != null) {
+                events.add(event);
+            } else if (now - fingerprint.lastSeenAt >= IDLE_WINDOWS * windowMillis()) {
+                fingerprints.remove(fingerprint.key, fingerprint);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Builds the summaries of all fingerprints with pending repeats, whether or not their
+     * window ended.
+     *
+     * @return The summary events to send
+     */
+    List<SentryEvent> flushAll() {
+        long now = clock.millis();
+        List<SentryEvent> events = new ArrayList<>();
+        for (Fingerprint fingerprint : fingerprints.values()) {
+            SentryEvent event = summary(fingerprint, now);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Returns the number of repeats of an error not reported yet.
+     *
+     * @param throwable An error with the fingerprint to look up
+     * @return The number of repeats counted since the last summary
+     */
+    long pending(Throwable throwable) {
+        Fingerprint fingerprint = fingerprints.get(fingerprint(throwable));
+        return fingerprint != null ? fingerprint.pending.sum() : 0;
+    }
+
+    /**
+     * Fingerprints an error by its type and top stack frames. Messages are left out, as they
+     * often carry request specific values.
+     *
+     * @param throwable The error
+     * @return The fingerprint
+     */
+    static String fingerprint(Throwable throwable) {
+        StringBuilder builder = new StringBuilder(128).append(throwable.getClass().getName());
+        StackTraceElement[] frames = throwable.getStackTrace();
+        for (int i = 0; i < Math.min(FINGERPRINT_FRAMES, frames.length); i++) {
+            StackTraceElement frame = frames[i];
+            builder.append('|').append(frame.getClassName()).append('.').append(frame.getMethodName())
+                    .append(':').append(frame.getLineNumber());
+        }
+        return builder.toString();
+    }
+
+    private long windowMillis() {
+        return TimeUnit.SECONDS.toMillis(appProperties.getErrorSummaryIntervalSeconds());
+    }
+
+    private SentryEvent firstEvent(Throwable throwable, String key) {
+        SentryEvent event = new SentryEvent(throwable);
+        event.setFingerprints(List.of(key));
+        return event;
+    }
+
+    private SentryEvent summary(Fingerprint fingerprint, long now) {
+        long count = fingerprint.pending.sumThenReset();
+        if (count == 0) {
+            return null;
+        }
+        long since = fingerprint.summarizedAt;
+        fingerprint.summarizedAt = now;
+
+        SentryEvent event = withoutThreads(new SentryEvent(fingerprint.last));
+        event.setFingerprints(List.of(fingerprint.key));
+        event.setLevel(SentryLevel.WARNING);
+        Message message = new Message();
+        message.setFormatted("Repeated " + count + " times in the last "
+                + TimeUnit.MILLISECONDS.toSeconds(now - since) + "s");
+        event.setMessage(message);
+        event.setTag("aggregated", "true");
+        event.setExtra("occurrences", count);
+        return event;
+    }
+
+    private static SentryEvent withoutThreads(SentryEvent event) {
+        // Threads that are already set keep Sentry from taking a thread dump
+        event.setThreads(Collections.emptyList());
+        return event;
+    }
+
+    /**
+     * Repeat counter and summary window of one fingerprint.
+     */
+    private static final class Fingerprint {
+
+        private final String key;
+        private final LongAdder pending = new LongAdder();
+        private final AtomicLong summaryAt;
+        private volatile long summarizedAt;
+        private volatile long lastSeenAt;
+        private volatile Throwable last;
+
+        Fingerprint(String key, long firstSeenAt, long summaryAt) {
+            this.key = key;
+            this.summaryAt = new AtomicLong(summaryAt);
+            this.summarizedAt = firstSeenAt;
+            this.lastSeenAt = firstSeenAt;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package net.sdko.dotorgredirector.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Matcher for the paths excluded from redirection, compiled from any number of patterns.
+ *
+ * <p>Three kinds of pattern are supported:
+ * <ul>
+ *   <li>exact paths, e.g. {@code /robots.txt}</li>
+ *   <li>prefixes, written as a path ending in a single {@code *} with no other wildcard, e.g.
+ *       {@code /backend/*}, which keeps the meaning of the original {@code excludePattern}</li>
+ *   <li>Ant-style globs using {@code ?} (one character), {@code *} (any characters within a
+ *       segment) and {@code **} (any number of segments), e.g. {@code /.well-known/**}</li>
+ * </ul>
+ *
+ * <p>All patterns are compiled into one deterministic automaton over character classes, so
+ * matching a path is a single table-driven scan regardless of how many patterns there are.
+ */
+public final class ExclusionMatcher {
+
+    /** Upper bound on automaton states, to fail fast on pathological globs. */
+    private static final int MAX_STATES = 10_000;
+
+    private static final int DEAD = -1;
+
+    private final String legacyPattern;
+    private final List<String> patterns;
+
+    /** Character class for each ASCII character; everything else uses the last class. */
+    private final byte[] charClasses;
+    private final int classCount;
+    private final int[] transitions;
+    private final boolean[] accepting;
+    /** States that accept every continuation, so matching can stop early. */
+    private final boolean[] absorbing;
+
+    private ExclusionMatcher(
+            String legacyPattern,
+            List<String> patterns,
+            byte[] charClasses,
+            int classCount,
+            int[] transitions,
+            boolean[] accepting,
+            boolean[] absorbing) {
+        this.legacyPattern = legacyPattern;
+        this.patterns = patterns;
+        this.charClasses = charClasses;
+        this.classCount = classCount;
+        this.transitions = transitions;
+        this.accepting = accepting;
+        this.absorbing = absorbing;
+    }
+
+    /**
+     * Compiles the legacy single pattern together with the configured pattern list.
+     *
+     * @param legacyPattern The single exclude pattern, may be null or empty
+     * @param patterns The exclude pattern list, may be null
+     * @return The compiled matcher
+     * @throws IllegalArgumentException If a pattern is not ASCII or the automaton gets too large
+     */
+    public static ExclusionMatcher compile(String legacyPattern, List<String> patterns) {
+        List<String> all = new ArrayList<>();
+        if (legacyPattern != null && !legacyPattern.isEmpty()) {
+            all.add(legacyPattern);
+        }
+        if (patterns != null) {
+            for (String pattern : patterns) {
+                if (pattern != null && !pattern.isEmpty()) {
+                    all.add(pattern);
+                }
+            }
+        }
+
+        Nfa nfa = new Nfa();
+        for (String pattern : all) {
+            nfa.add(pattern);
+        }
+        return nfa.toDfa(legacyPattern, patterns);
+    }
+
+    /**
+     * Checks whether this matcher was compiled from the given patterns.
+     *
+     * @param legacyPattern The single exclude pattern
+     * @param patterns The exclude pattern list
+     * @return true if the matcher is still valid for the patterns
+     */
+    public boolean isCompiledFrom(String legacyPattern, List<String> patterns) {
+        return Objects.equals(this.legacyPattern, legacyPattern) && this.patterns == patterns;
+    }
+
+    /**
+     * Checks whether a path matches any of the patterns.
+     *
+     * @param path The request path
+     * @return true if the path is excluded
+     */
+    public boolean matches(String path) {
+        if (path == null || transitions.length == 0) {
+            return false;
+        }
+        int state = 0;
+        int otherClass = classCount - 1;
+        for (int i = 0; i < path.length(); i++) {
+            if (absorbing[state]) {
+                return true;
+            }
+            char c = path.charAt(i);
+            int charClass = c < charClasses.length ? charClasses[c] : otherClass;
+            state = transitions[state * classCount + charClass];
+            if (state == DEAD) {
+                return false;
+            }
+        }
+        return accepting[state];
+    }
+
+    /**
+     * Nondeterministic automaton built from the patterns, one chain of states per pattern.
+     */
+    private static final class Nfa {
+
+        /** Matches any character. */
+        private static final int ANY = -1;
+        /** Matches any character except '/'. */
+        private static final int NOT_SLASH = -2;
+        /** No consuming transition. */
+        private static final int NONE = -3;
+
+        /** Character consumed on the transition out of each state, or ANY / NOT_SLASH. */
+        private final List<Integer> symbols = new ArrayList<>();
+        /** Target of the consuming transition out of each state, or -1 if none. */
+        private final List<Integer> targets = new ArrayList<>();
+        /** Epsilon transitions out of each state. */
+        private final List<int[]> epsilons = new ArrayList<>();
+        private final BitSet finals = new BitSet();
+        private final List<Integer> starts = new ArrayList<>();
+        private final BitSet literals = new BitSet(128);
+
+        void add(String pattern) {
+            starts.add(symbols.size());
+            if (isPrefixPattern(pattern)) {
+                appendLiterals(pattern.substring(0, pattern.length() - 1));
+                appendLoop(ANY);
+            } else {
+                int i = 0;
+                while (i < pattern.length()) {
+                    char c = pattern.charAt(i);
+                    if (c == '/' && pattern.startsWith("**", i + 1)
+                            && (i + 3 == pattern.length() || pattern.charAt(i + 3) == '/')) {
+                        // "/**" matches nothing or a slash followed by anything
+                        int skip = newState(NONE, -1);
+                        int slash = newState('/', -1);
+                        targets.set(slash, symbols.size());
+                        appendLoop(ANY);
+                        addEpsilon(skip, slash);
+                        addEpsilon(skip, symbols.size());
+                        literals.set('/');
+                        i += 3;
+                    } else if (c == '*' && pattern.startsWith("*", i + 1)) {
+                        appendLoop(ANY);
+                        i += 2;
+                    } else if (c == '*') {
+                        appendLoop(NOT_SLASH);
+                        i++;
+                    } else if (c == '?') {
+                        int state = newState(NOT_SLASH, -1);
+                        targets.set(state, symbols.size());
+                        literals.set('/');
+                        i++;
+                    } else {
+                        appendLiterals(String.valueOf(c));
+                        i++;
+                    }
+                }
+            }
+            finals.set(newState(NONE, -1));
+        }
+
+        private static boolean isPrefixPattern(String pattern) {
+            int star = pattern.indexOf('*');
+            return star == pattern.length() - 1 && pattern.indexOf('?') < 0;
+        }
+
+        private void appendLiterals(String literal) {
+            for (int i = 0; i < literal.length(); i++) {
+                char c = literal.charAt(i);
+                if (c >= 128) {
+                    throw new IllegalArgumentException("Exclude patterns must be ASCII: " + literal);
+                }
+                int state = newState(c, -1);
+                targets.set(state, symbols.size());
+                literals.set(c);
+            }
+        }
+
+        /**
+         * Appends a state that loops on the given symbol and moves on by epsilon.
+         */
+        private void appendLoop(int symbol) {
+            int state = newState(symbol, -1);
+            targets.set(state, state);
+            addEpsilon(state, symbols.size());
+            if (symbol == NOT_SLASH) {
+                literals.set('/');
+            }
+        }
+
+        private int newState(int symbol, int target) {
+            symbols.add(symbol);
+            targets.add(target);
+            epsilons.add(new int[0]);
+            return symbols.size() - 1;
+        }
+
+        private void addEpsilon(int from, int to) {
+            int[] current = epsilons.get(from);
+            int[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = to;
+            epsilons.set(from, updated);
+        }
+
+        /**
+         * Determinizes the automaton with subset construction.
+         */
+        ExclusionMatcher toDfa(String legacyPattern, List<String> patterns) {
+            // Split the alphabet into classes: one per literal character plus one for the rest
+            byte[] charClasses = new byte[128];
+            int literalCount = literals.cardinality();
+            if (literalCount > Byte.MAX_VALUE - 1) {
+                throw new IllegalArgumentException("Exclude patterns use too many distinct characters");
+            }
+            int classCount = literalCount + 1;
+            char[] representatives = new char[classCount];
+            Arrays.fill(charClasses, (byte) literalCount);
+            int next = 0;
+            for (int c = literals.nextSetBit(0); c >= 0; c = literals.nextSetBit(c + 1)) {
+                charClasses[c] = (byte) next;
+                representatives[next++] = (char) c;
+            }
+            // Any non-literal character behaves the same; use one that is never a literal
+            representatives[literalCount] = representativeOther(literals);
+
+            if (starts.isEmpty()) {
+                return new ExclusionMatcher(
+                        legacyPattern, patterns, charClasses, classCount, new int[0], new boolean[0], new boolean[0]);
+            }
+
+            BitSet start = new BitSet();
+            for (int state : starts) {
+                start.set(state);
+            }
+            closure(start);
+
+            Map<BitSet, Integer> ids = new HashMap<>();
+            List<BitSet> states = new ArrayList<>();
+            Deque<BitSet> pending = new ArrayDeque<>();
+            ids.put(start, 0);
+            states.add(start);
+            pending.add(start);
+            List<int[]> rows = new ArrayList<>();
+
+            while (!pending.isEmpty()) {
+                BitSet current = pending.poll();
+                int[] row = new int[classCount];
+                for (int charClass = 0; charClass < classCount; charClass++) {
+                    BitSet moved = move(current, representatives[charClass]);
+                    if (moved.isEmpty()) {
+                        row[charClass] = DEAD;
+                        continue;
+                    }
+                    Integer id = ids.get(moved);
+                    if (id == null) {
+                        if (states.size() >= MAX_STATES) {
+                            throw new IllegalArgumentException("Exclude patterns are too complex to compile");
+                        }
+                        id = states.size();
+                        ids.put(moved, id);
+                        states.add(moved);
+                        pending.add(moved);
+                    }
+                    row[charClass] = id;
+                }
+                rows.add(row);
+            }
+
+            int stateCount = states.size();
+            int[] transitions = new int[stateCount * classCount];
+            boolean[] accepting = new boolean[stateCount];
+            for (int i = 0; i < stateCount; i++) {
+                System.arraycopy(rows.get(i), 0, transitions, i * classCount, classCount);
+                accepting[i] = states.get(i).intersects(finals);
+            }
+            boolean[] absorbing = new boolean[stateCount];
+            for (int i = 0; i < stateCount; i++) {
+                absorbing[i] = accepting[i];
+                for (int charClass = 0; charClass < classCount && absorbing[i]; charClass++) {
+                    absorbing[i] = transitions[i * classCount + charClass] == i;
+                }
+            }
+            return new ExclusionMatcher(
+                    legacyPattern, patterns, charClasses, classCount, transitions, accepting, absorbing);
+        }
+
+        private static char representativeOther(BitSet literals) {
+            for (char c = 0; c < 128; c++) {
+                if (!literals.get(c)) {
+                    return c;
+                }
+            }
+            return '\u0080';
+        }
+
+        private BitSet move(BitSet from, char c) {
+            BitSet result = new BitSet();
+            for (int state = from.nextSetBit(0); state >= 0; state = from.nextSetBit(state + 1)) {
+                int symbol = symbols.get(state);
+                int target = targets.get(state);
+                if (target < 0) {
+                    continue;
+                }
+                if (symbol == ANY || (symbol == NOT_SLASH && c != '/') || symbol == c) {
+                    result.set(target);
+                }
+            }
+            closure(result);
+            return result;
+        }
+
+        private void closure(BitSet set) {
+            Deque<Integer> stack = new ArrayDeque<>();
+            set.stream().forEach(stack::push);
+            while (!stack.isEmpty()) {
+                for (int next : epsilons.get(stack.pop())) {
+                    if (!set.get(next)) {
+                        set.set(next);
+                        stack.push(next);
+                    }
+                }
+            }
+        }
+    }
+}
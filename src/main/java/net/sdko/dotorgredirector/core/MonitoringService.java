@@ -1,19 +1,33 @@
 package net.sdko.dotorgredirector.core;
 
 import io.sentry.IHub;
+import io.sentry.IScope;
+import io.sentry.IScopes;
 import io.sentry.ISpan;
 import io.sentry.ITransaction;
+import io.sentry.Instrumenter;
+import io.sentry.NoOpTransaction;
 import io.sentry.Sentry;
+import io.sentry.SentryEvent;
+import io.sentry.SentryLongDate;
 import io.sentry.SpanStatus;
+import io.sentry.TracesSamplingDecision;
+import io.sentry.TransactionContext;
 import io.sentry.TransactionOptions;
 import io.sentry.protocol.User;
 import jakarta.servlet.http.HttpServletRequest;
+import net.sdko.dotorgredirector.config.AppProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for handling application monitoring and Sentry integration.
@@ -23,31 +37,142 @@ public class MonitoringService {
     
     private static final Logger LOGGER = LoggerFactory.getLogger(MonitoringService.class);
     private final IHub sentryHub;
+    private final TaskExecutor executor;
+    private final AdaptiveSampler sampler;
+    private final AppProperties appProperties;
+    private final ErrorAggregator errorAggregator;
     
     /**
-     * Constructs a MonitoringService with Sentry hub.
+     * Constructs a MonitoringService that reports repeated errors as summaries.
      *
      * @param sentryHub The Sentry hub
+     * @param executor The executor that captured exceptions are sent to Sentry on
+     * @param sampler Decides which redirects get a transaction, or the baseline in tail mode
+     * @param appProperties The application properties
+     * @param errorAggregator Decides which captured exceptions are sent as events
      */
-    public MonitoringService(IHub sentryHub) {
+    @Autowired
+    public MonitoringService(
+            IHub sentryHub,
+            @Qualifier("blockingTaskExecutor") TaskExecutor executor,
+            AdaptiveSampler sampler,
+            AppProperties appProperties,
+            ErrorAggregator errorAggregator) {
         this.sentryHub = sentryHub;
+        this.executor = executor;
+        this.sampler = sampler;
+        this.appProperties = appProperties;
+        this.errorAggregator = errorAggregator;
+    }
+    
+    /**
+     * Returns whether redirects are picked for tracing after they finished.
+     *
+     * @return true in tail tracing mode
+     */
+    public boolean isTailTracing() {
+        return appProperties.getTracingMode() == AppProperties.TracingMode.TAIL;
+    }
+    
+    /**
+     * Starts recording a redirect for tail tracing.
+     *
+     * @param request The HTTP request
+     * @param tracingId The tracing ID
+     * @param targetUrl The target URL for redirection
+     * @return The trace, which must be passed to {@link #finishTailTrace(TailTrace)}
+     */
+    public TailTrace startTailTrace(HttpServletRequest request, String tracingId, String targetUrl) {
+        return TailTrace.start(request, tracingId, targetUrl);
+    }
+    
+    /**
+     * Finishes a tail trace and sends it to Sentry if it failed, was slower than
+     * {@code app.tailLatencyThresholdMillis} or is part of the sampler's baseline. Must be
+     * called while the request is still being handled.
+     *
+     * @param trace The trace
+     */
+    public void finishTailTrace(TailTrace trace) {
+        if (!trace.isRecording()) {
+            return;
+        }
+        trace.finish();
+        try {
+            // Always ask the sampler, so its rate estimate counts every redirect
+            boolean baseline = sampler.sample();
+            boolean slow = trace.durationNanos()
+                    >= TimeUnit.MILLISECONDS.toNanos(appProperties.getTailLatencyThresholdMillis());
+            if (trace.failure() != null || slow || baseline) {
+                reportTailTrace(trace);
+            }
+        } finally {
+            trace.release();
+        }
+    }
+    
+    /**
+     * Replays a finished tail trace as a Sentry transaction with its recorded timestamps.
+     *
+     * @param trace The finished trace
+     */
+    private void reportTailTrace(TailTrace trace) {
+        HttpServletRequest request = trace.request();
+        boolean ownsScope = !RequestScope.isOpen(request);
+        configureRequestScope(request, trace.tracingId(), trace.targetUrl());
+        
+        TransactionOptions options = new TransactionOptions();
+        options.setStartTimestamp(new SentryLongDate(trace.epochNanos(trace.startNanos())));
+        // The decision is already made, so Sentry must not sample again
+        ITransaction transaction = sentryHub.startTransaction(
+                new TransactionContext("Redirect " + request.getRequestURI(), "redirect",
+                        new TracesSamplingDecision(true)),
+                options);
+        
+        for (int i = 0; i < trace.phases(); i++) {
+            ISpan span = transaction.startChild(trace.operation(i), null,
+                    new SentryLongDate(trace.epochNanos(trace.phaseStart(i))), Instrumenter.SENTRY);
+            span.finish(trace.phaseFailed(i) ? SpanStatus.INTERNAL_ERROR : SpanStatus.OK,
+                    new SentryLongDate(trace.epochNanos(trace.phaseEnd(i))));
+        }
+        if (trace.redirectUrl() != null) {
+            transaction.setData("redirect_url", trace.redirectUrl());
+        }
+        SpanStatus status = SpanStatus.OK;
+        if (trace.failure() != null) {
+            transaction.setThrowable(trace.failure());
+            status = SpanStatus.INTERNAL_ERROR;
+        }
+        transaction.finish(status, new SentryLongDate(trace.epochNanos(trace.endNanos())));
+        if (ownsScope) {
+            RequestScope.close(request);
+        }
     }
     
     /**
      * Starts a transaction for monitoring a redirect request.
      *
+     * <p>The sampling decision comes first: a request that is not sampled gets the no-op
+     * transaction and none of the scope, name or header work below.
+     *
      * @param request The HTTP request
      * @param tracingId The tracing ID
      * @param targetUrl The target URL for redirection
-     * @return A Sentry transaction
+     * @return A Sentry transaction, which is a no-op if the request is not sampled
      */
     public ITransaction startRedirectTransaction(
             HttpServletRequest request, 
             String tracingId, 
             String targetUrl) {
+        if (!sampler.sample()) {
+            return NoOpTransaction.getInstance();
+        }
         
         String requestURI = request.getRequestURI();
         
+        // Bind the request's own scope first, so the transaction is bound to it
+        configureRequestScope(request, tracingId, targetUrl);
+        
         // Configure transaction options
         TransactionOptions options = new TransactionOptions();
         options.setBindToScope(true);
@@ -58,29 +183,53 @@ public class MonitoringService {
                 "redirect", 
                 options);
         
-        // Configure the Sentry scope
-        Sentry.configureScope(scope -> {
-            // Add request information
-            scope.setTag("request_uri", requestURI);
-            scope.setTag("target_url", targetUrl);
-            scope.setTag("tracing_id", tracingId);
-            
-            // Add user IP information
-            User user = new User();
-            user.setIpAddress(request.getRemoteAddr());
-            scope.setUser(user);
-            
-            // Add request headers as context using setContexts
-            Map<String, String> requestData = new HashMap<>();
-            requestData.put("user_agent", request.getHeader("User-Agent"));
-            requestData.put("referer", request.getHeader("Referer"));
-            scope.setContexts("request", requestData);
-        });
-        
         LOGGER.debug("Started Sentry transaction for request: {}", requestURI);
         return transaction;
     }
     
+    /**
+     * Adds the request details to the request's own Sentry scope, binding one if the request
+     * has none yet. Sampled transactions get them when they start; other requests only when
+     * an error is about to be captured. The scope stays bound until
+     * {@link #closeRequestScope(HttpServletRequest)}.
+     *
+     * @param request The HTTP request
+     * @param tracingId The tracing ID
+     * @param targetUrl The target URL for redirection
+     */
+    public void configureRequestScope(HttpServletRequest request, String tracingId, String targetUrl) {
+        IScope scope = RequestScope.open(request);
+        if (scope == null) {
+            return;
+        }
+        
+        // Add request information
+        scope.setTag("request_uri", request.getRequestURI());
+        scope.setTag("target_url", targetUrl);
+        scope.setTag("tracing_id", tracingId);
+        
+        // Add user IP information
+        User user = new User();
+        user.setIpAddress(request.getRemoteAddr());
+        scope.setUser(user);
+        
+        // Add request headers as context using setContexts
+        Map<String, String> requestData = new HashMap<>();
+        requestData.put("user_agent", request.getHeader("User-Agent"));
+        requestData.put("referer", request.getHeader("Referer"));
+        scope.setContexts("request", requestData);
+    }
+    
+    /**
+     * Unbinds the request's Sentry scope, if it has one, and recycles it. Must be called on
+     * the thread that handled the request, after its transaction finished.
+     *
+     * @param request The HTTP request
+     */
+    public void closeRequestScope(HttpServletRequest request) {
+        RequestScope.close(request);
+    }
+    
     /**
      * Starts a child span within a transaction.
      *
@@ -115,14 +264,26 @@ public class MonitoringService {
     }
     
     /**
-     * Captures an exception in Sentry.
+     * Captures an exception in Sentry. Repeats of an exception already reported are counted
+     * and sent as a summary by the {@link ErrorAggregator}.
      *
      * @param throwable The exception to capture
      */
     public void captureException(Throwable throwable) {
         // Don't report security exceptions to Sentry
-        if (throwable != null && !(throwable instanceof SecurityException)) {
-            Sentry.captureException(throwable);
+        if (throwable == null || throwable instanceof SecurityException) {
+            return;
+        }
+        SentryEvent event = errorAggregator.record(throwable);
+        if (event == null) {
+            return;
+        }
+        if (executor instanceof SyncTaskExecutor) {
+            Sentry.captureEvent(event);
+            return;
         }
+        // Fork so the event keeps the request's tags once it runs on another thread
+        IScopes scopes = Sentry.forkedCurrentScope("capture");
+        executor.execute(() -> scopes.captureEvent(event));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,138 @@
+package net.sdko.dotorgredirector.core;
+
+/**
+ * Single-pass sanitizer for request paths.
+ *
+ * <p>Validates every character against a lookup table, strips {@code ../} segments, ensures a
+ * leading slash and collapses runs of slashes. The input string is returned as-is when it is
+ * already clean, so the common case does not allocate.
+ */
+public final class PathSanitizer {
+
+    private static final boolean[] ALLOWED = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            ALLOWED[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            ALLOWED[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            ALLOWED[c] = true;
+        }
+        ALLOWED['.'] = true;
+        ALLOWED['_'] = true;
+        ALLOWED['/'] = true;
+        ALLOWED['-'] = true;
+    }
+
+    private PathSanitizer() {
+    }
+
+    /**
+     * Sanitizes a request path.
+     *
+     * @param path The original request path, may be null
+     * @return The sanitized path, which always starts with a slash
+     * @throws SecurityException If the path contains invalid characters
+     */
+    public static String sanitize(String path) {
+        if (path == null) {
+            return "/";
+        }
+
+        int length = path.length();
+        // Output buffer, only allocated once the output diverges from the input.
+        // While it is null, the output so far is exactly path[0, written).
+        char[] out = null;
+        int written = 0;
+        int i = 0;
+
+        while (i < length) {
+            char c = path.charAt(i);
+            if (!isAllowed(c)) {
+                throw new SecurityException("Invalid path contains unsafe characters");
+            }
+
+            if (c == '.' && i + 2 < length && path.charAt(i + 1) == '.' && path.charAt(i + 2) == '/') {
+                if (out == null) {
+                    out = copyPrefix(path, written);
+                }
+                i += 3;
+                continue;
+            }
+
+            if (written == 0 && c != '/') {
+                if (out == null) {
+                    out = copyPrefix(path, written);
+                }
+                out[written++] = '/';
+            }
+
+            if (c == '/' && written > 0 && lastWritten(path, out, written) == '/') {
+                if (out == null) {
+                    out = copyPrefix(path, written);
+                }
+                i++;
+                continue;
+            }
+
+            if (out != null) {
+                out[written] = c;
+            }
+            written++;
+            i++;
+        }
+
+        if (written == 0) {
+            return "/";
+        }
+        return out == null ? path : new String(out, 0, written);
+    }
+
+    /**
+     * Checks whether a path only contains characters the sanitizer accepts.
+     *
+     * @param path The path to check
+     * @return true if {@link #sanitize(String)} would not reject the path
+     */
+    public static boolean isSafe(String path) {
+        for (int i = 0; i < path.length(); i++) {
+            if (!isAllowed(path.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAllowed(char c) {
+        return c < ALLOWED.length && ALLOWED[c];
+    }
+
+    /**
+     * Allocates the output buffer and copies the unchanged prefix into it.
+     *
+     * @param path The original path
+     * @param count The number of characters already written
+     * @return The output buffer
+     */
+    private static char[] copyPrefix(String path, int count) {
+        // At most one leading slash is inserted, so the output never exceeds length + 1
+        char[] out = new char[path.length() + 1];
+        path.getChars(0, count, out, 0);
+        return out;
+    }
+
+    /**
+     * Returns the last character written to the output.
+     *
+     * @param path The original path
+     * @param out The output buffer, or null if the output still matches the input
+     * @param written The number of characters written
+     * @return The last written character
+     */
+    private static char lastWritten(String path, char[] out, int written) {
+        return out == null ? path.charAt(written - 1) : out[written - 1];
+    }
+}
@@ -0,0 +1,205 @@
+package net.sdko.dotorgredirector.core;
+
+import net.sdko.dotorgredirector.config.AppProperties.QueryParamRule;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compiled form of the configured query parameter allowlist.
+ *
+ * <p>Each rule is compiled into a 128-bit ASCII class table, length bounds and an optional
+ * numeric range, so validating a value is a single loop over its characters with no regex or
+ * {@code Matcher} allocation.
+ */
+public final class QueryParamSchema {
+
+    /** Longest digit string that always fits in a long. */
+    private static final int MAX_NUMERIC_DIGITS = 18;
+
+    private final Map<String, QueryParamRule> source;
+    private final Map<String, CompiledRule> rules;
+    private final String[] names;
+
+    private QueryParamSchema(Map<String, QueryParamRule> source, Map<String, CompiledRule> rules) {
+        this.source = source;
+        this.rules = rules;
+        this.names = rules.keySet().toArray(new String[0]);
+    }
+
+    /**
+     * Compiles the configured rules.
+     *
+     * @param queryParams The rules keyed by parameter name
+     * @return The compiled schema
+     * @throws IllegalArgumentException If a rule is malformed
+     */
+    public static QueryParamSchema compile(Map<String, QueryParamRule> queryParams) {
+        Map<String, CompiledRule> compiled = new HashMap<>();
+        if (queryParams != null) {
+            for (Map.Entry<String, QueryParamRule> entry : queryParams.entrySet()) {
+                compiled.put(entry.getKey(), CompiledRule.compile(entry.getKey(), entry.getValue()));
+            }
+        }
+        return new QueryParamSchema(queryParams, compiled);
+    }
+
+    /**
+     * Checks whether this schema was compiled from the given rule map.
+     *
+     * @param queryParams The configured rules
+     * @return true if the schema is still valid for the rules
+     */
+    public boolean isCompiledFrom(Map<String, QueryParamRule> queryParams) {
+        return source == queryParams;
+    }
+
+    /**
+     * Checks whether a parameter name is on the allowlist.
+     *
+     * @param name The parameter name
+     * @return true if the parameter may be passed through
+     */
+    public boolean isAllowed(String name) {
+        return rules.containsKey(name);
+    }
+
+    /**
+     * Finds the allowlisted name equal to a region of a string, without allocating.
+     *
+     * @param text The text containing the name, e.g. a raw query string
+     * @param start The start of the name
+     * @param end The end of the name
+     * @return The allowlisted name, or null if the region is not an allowlisted name
+     */
+    public String allowedName(String text, int start, int end) {
+        int length = end - start;
+        for (String name : names) {
+            if (name.length() == length && text.regionMatches(start, name, 0, length)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Validates a parameter value against the rule for its name.
+     *
+     * @param name The parameter name
+     * @param value The parameter value
+     * @return true if the parameter is allowed and the value is valid
+     */
+    public boolean isValid(String name, String value) {
+        CompiledRule rule = rules.get(name);
+        return rule != null && value != null && rule.matches(value);
+    }
+
+    /**
+     * A single compiled parameter rule.
+     */
+    private static final class CompiledRule {
+
+        private final long lowMask;
+        private final long highMask;
+        private final int minLength;
+        private final int maxLength;
+        private final boolean numeric;
+        private final long minValue;
+        private final long maxValue;
+
+        private CompiledRule(
+                long lowMask,
+                long highMask,
+                int minLength,
+                int maxLength,
+                boolean numeric,
+                long minValue,
+                long maxValue) {
+            this.lowMask = lowMask;
+            this.highMask = highMask;
+            this.minLength = minLength;
+            this.maxLength = maxLength;
+            this.numeric = numeric;
+            this.minValue = minValue;
+            this.maxValue = maxValue;
+        }
+
+        static CompiledRule compile(String name, QueryParamRule rule) {
+            if (rule == null || rule.getChars() == null || rule.getChars().isEmpty()) {
+                throw new IllegalArgumentException("Query parameter " + name + " has no allowed characters");
+            }
+            // Empty values are never passed through
+            int minLength = Math.max(1, rule.getMinLength());
+            if (rule.getMaxLength() < minLength) {
+                throw new IllegalArgumentException("Query parameter " + name + " has an empty length range");
+            }
+
+            long lowMask = 0;
+            long highMask = 0;
+            String chars = rule.getChars();
+            int i = 0;
+            while (i < chars.length()) {
+                char from = chars.charAt(i);
+                char to = from;
+                if (i + 2 < chars.length() && chars.charAt(i + 1) == '-') {
+                    to = chars.charAt(i + 2);
+                    i += 3;
+                } else {
+                    i++;
+                }
+                if (to >= 128 || from > to) {
+                    throw new IllegalArgumentException(
+                            "Query parameter " + name + " has an invalid character class: " + chars);
+                }
+                for (char c = from; c <= to; c++) {
+                    if (c < 64) {
+                        lowMask |= 1L << c;
+                    } else {
+                        highMask |= 1L << (c - 64);
+                    }
+                }
+            }
+
+            boolean numeric = rule.getMinValue() != null || rule.getMaxValue() != null;
+            return new CompiledRule(
+                    lowMask,
+                    highMask,
+                    minLength,
+                    rule.getMaxLength(),
+                    numeric,
+                    rule.getMinValue() != null ? rule.getMinValue() : Long.MIN_VALUE,
+                    rule.getMaxValue() != null ? rule.getMaxValue() : Long.MAX_VALUE);
+        }
+
+        boolean matches(String value) {
+            int length = value.length();
+            if (length < minLength || length > maxLength) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                // Shift distances are taken modulo 64, so 1L << c selects the bit in either half
+                long mask = c < 64 ? lowMask : c < 128 ? highMask : 0;
+                if ((mask & (1L << c)) == 0) {
+                    return false;
+                }
+            }
+            return !numeric || inRange(value);
+        }
+
+        private boolean inRange(String value) {
+            if (value.length() > MAX_NUMERIC_DIGITS) {
+                return false;
+            }
+            long number = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9') {
+                    return false;
+                }
+                number = number * 10 + (c - '0');
+            }
+            return number >= minValue && number <= maxValue;
+        }
+    }
+}
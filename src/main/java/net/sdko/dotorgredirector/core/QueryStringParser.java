@@ -0,0 +1,155 @@
+package net.sdko.dotorgredirector.core;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streaming parser for the raw query string that only extracts allowlisted parameters.
+ *
+ * <p>Parameter names are compared against the allowlist in place, so unknown parameters are
+ * skipped without allocating. Only the values of allowlisted parameters are percent-decoded
+ * and validated. The query length and the number of parameters are capped before any work is
+ * done on them.
+ */
+public final class QueryStringParser {
+
+    private QueryStringParser() {
+    }
+
+    /**
+     * Parses the allowlisted, valid parameters out of a raw query string, reporting what is
+     * rejected.
+     *
+     * @param query The raw query string, may be null
+     * @param schema The query parameter schema
+     * @param maxLength The maximum query string length
+     * @param maxParams The maximum number of parameters
+     * @param rejectionReporter Receives the skipped parameters and exceeded caps
+     * @return The valid allowlisted parameters in query order
+     * @throws SecurityException If the query string exceeds either cap
+     */
+    public static Map<String, String[]> parse(String query, QueryParamSchema schema, int maxLength, int maxParams,
+            RejectionReporter rejectionReporter) {
+        if (query == null || query.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        if (query.length() > maxLength) {
+            rejectionReporter.reject(RejectionReporter.Reason.QUERY_TOO_LONG);
+            throw new SecurityException("Query string is too long");
+        }
+
+        Map<String, String[]> params = null;
+        int length = query.length();
+        int count = 0;
+        int start = 0;
+        while (start < length) {
+            int end = query.indexOf('&', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                if (++count > maxParams) {
+                    rejectionReporter.reject(RejectionReporter.Reason.TOO_MANY_PARAMETERS);
+                    throw new SecurityException("Query string has too many parameters");
+                }
+                int separator = query.indexOf('=', start);
+                if (separator < 0 || separator > end) {
+                    separator = end;
+                }
+
+                String name = schema.allowedName(query, start, separator);
+                if (name == null && needsDecoding(query, start, separator)) {
+                    // Rare: an encoded name such as x%2Dsws-event
+                    String decoded = decode(query, start, separator);
+                    name = decoded != null && schema.isAllowed(decoded) ? decoded : null;
+                }
+
+                if (name != null) {
+                    String value = separator < end ? decode(query, separator + 1, end) : "";
+                    if (value != null && schema.isValid(name, value)) {
+                        if (params == null) {
+                            params = new LinkedHashMap<>();
+                        }
+                        params.merge(name, new String[] {value}, QueryStringParser::concat);
+                    } else {
+                        rejectionReporter.reject(RejectionReporter.Reason.INVALID_PARAMETER_VALUE, name);
+                    }
+                } else {
+                    rejectionReporter.reject(RejectionReporter.Reason.UNKNOWN_PARAMETER);
+                }
+            }
+            start = end + 1;
+        }
+        return params != null ? params : Collections.emptyMap();
+    }
+
+    private static String[] concat(String[] existing, String[] added) {
+        String[] values = Arrays.copyOf(existing, existing.length + added.length);
+        System.arraycopy(added, 0, values, existing.length, added.length);
+        return values;
+    }
+
+    private static boolean needsDecoding(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '%' || c == '+') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Decodes a form-encoded region of the query string as UTF-8.
+     *
+     * @param text The raw query string
+     * @param start The start of the region
+     * @param end The end of the region
+     * @return The decoded text, or null if the encoding is malformed
+     */
+    static String decode(String text, int start, int end) {
+        if (!needsDecoding(text, start, end)) {
+            return text.substring(start, end);
+        }
+        byte[] bytes = new byte[end - start];
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '+') {
+                bytes[length++] = ' ';
+            } else if (c == '%') {
+                if (i + 2 >= end) {
+                    return null;
+                }
+                int high = Character.digit(text.charAt(i + 1), 16);
+                int low = Character.digit(text.charAt(i + 2), 16);
+                if (high < 0 || low < 0) {
+                    return null;
+                }
+                bytes[length++] = (byte) ((high << 4) | low);
+                i += 2;
+            } else if (c < 128) {
+                bytes[length++] = (byte) c;
+            } else {
+                // Raw query strings are ASCII; anything else is malformed
+                return null;
+            }
+        }
+        try {
+            CharBuffer decoded = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(bytes, 0, length));
+            return decoded.toString();
+        } catch (CharacterCodingException e) {
+            return null;
+        }
+    }
+}
@@ -3,16 +3,18 @@ package net.sdko.dotorgredirector.core;
 import io.micrometer.core.annotation.Timed;
 import io.sentry.ISpan;
 import io.sentry.ITransaction;
+import io.sentry.NoOpTransaction;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import net.sdko.dotorgredirector.accesslog.AccessLog;
 import net.sdko.dotorgredirector.config.AppProperties;
 import net.sdko.dotorgredirector.metrics.RedirectMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.UUID;
 
 /**
  * Handler for processing redirect requests.
@@ -27,6 +29,8 @@ public class RedirectHandler {
     private final MonitoringService monitoringService;
     private final RedirectMetrics redirectMetrics;
     private final AppProperties appProperties;
+    private final TracingIdGenerator tracingIdGenerator;
+    private final AccessLog accessLog;
     
     /**
      * Constructs a RedirectHandler with the required dependencies.
@@ -35,16 +39,23 @@ public class RedirectHandler {
      * @param monitoringService The monitoring service
      * @param redirectMetrics The redirect metrics
      * @param appProperties The application properties
+     * @param tracingIdGenerator The tracing ID generator
+     * @param accessLog The access log
      */
+    @Autowired
     public RedirectHandler(
             RedirectService redirectService, 
             MonitoringService monitoringService,
             RedirectMetrics redirectMetrics,
-            AppProperties appProperties) {
+            AppProperties appProperties,
+            TracingIdGenerator tracingIdGenerator,
+            AccessLog accessLog) {
         this.redirectService = redirectService;
         this.monitoringService = monitoringService;
         this.redirectMetrics = redirectMetrics;
         this.appProperties = appProperties;
+        this.tracingIdGenerator = tracingIdGenerator;
+        this.accessLog = accessLog;
     }
     
     /**
@@ -57,10 +68,6 @@ public class RedirectHandler {
     @Timed(value = "redirect.request", description = "Time taken to process redirect requests")
     public boolean handleRedirect(HttpServletRequest request, HttpServletResponse response) {
         String requestURI = request.getRequestURI();
-        String tracingId = UUID.randomUUID().toString();
-        
-        // Set the tracing ID for logging
-        request.setAttribute("tracingId", tracingId);
         
         // Check if this request should be excluded from redirection
         if (shouldSkipRedirect(requestURI)) {
@@ -68,33 +75,47 @@ public class RedirectHandler {
             return false;
         }
         
+        // Generate the tracing ID once; the service, logs and Sentry all share it
+        String tracingId = tracingIdGenerator.nextId();
+        request.setAttribute(TracingIdGenerator.REQUEST_ATTRIBUTE, tracingId);
+        
+        // In tail mode the phases are recorded cheaply and only kept traces reach Sentry
+        TailTrace trace = monitoringService.isTailTracing()
+                ? monitoringService.startTailTrace(request, tracingId, appProperties.getTargetUrl())
+                : TailTrace.NONE;
+        
         // Start a Sentry transaction
-        ITransaction transaction = monitoringService.startRedirectTransaction(
-                request, tracingId, appProperties.getTargetUrl());
+        ITransaction transaction = trace.isRecording()
+                ? NoOpTransaction.getInstance()
+                : monitoringService.startRedirectTransaction(request, tracingId, appProperties.getTargetUrl());
         
         try {
             // Record metrics if available and timer is not null
             if (redirectMetrics != null && redirectMetrics.getRedirectTimer() != null) {
                 redirectMetrics.incrementRedirectCount();
                 return redirectMetrics.getRedirectTimer().recordCallable(() -> 
-                        performRedirect(request, response, transaction));
+                        performRedirect(request, response, transaction, trace));
             } else {
                 if (redirectMetrics != null) {
                     redirectMetrics.incrementRedirectCount();
                 }
-                return performRedirect(request, response, transaction);
+                return performRedirect(request, response, transaction, trace);
             }
         } catch (SecurityException e) {
-            LOGGER.warn("Security violation in redirect request: {}", e.getMessage());
+            LOGGER.debug("Security violation in redirect request [{}]: {}", tracingId, e.getMessage());
             monitoringService.finishSpanError(transaction, e);
             return handleRedirectError(response, e);
         } catch (Exception e) {
-            LOGGER.error("Error during redirect", e);
+            LOGGER.error("Error during redirect [{}]", tracingId, e);
+            trace.fail(e);
+            monitoringService.configureRequestScope(request, tracingId, appProperties.getTargetUrl());
             monitoringService.captureException(e);
             monitoringService.finishSpanError(transaction, e);
             return handleRedirectError(response, e);
         } finally {
             transaction.finish();
+            monitoringService.finishTailTrace(trace);
+            monitoringService.closeRequestScope(request);
         }
     }
     
@@ -115,43 +136,56 @@ public class RedirectHandler {
      * @param request The HTTP request
      * @param response The HTTP response
      * @param transaction The Sentry transaction
+     * @param trace The tail trace, or {@link TailTrace#NONE}
      * @return true if redirect was successful, false otherwise
      * @throws Exception if an error occurs
      */
     private boolean performRedirect(
             HttpServletRequest request, 
             HttpServletResponse response, 
-            ITransaction transaction) throws Exception {
+            ITransaction transaction,
+            TailTrace trace) throws Exception {
         
         // Create a span for building the URL
         ISpan buildUrlSpan = monitoringService.startSpan(transaction, "build_redirect_url");
+        int buildUrlPhase = trace.startPhase("build_redirect_url");
         
         String redirectUrl;
         try {
             redirectUrl = redirectService.buildRedirectUrl(request);
             monitoringService.finishSpanSuccess(buildUrlSpan);
+            trace.endPhase(buildUrlPhase, false);
         } catch (Exception e) {
             monitoringService.finishSpanError(buildUrlSpan, e);
+            trace.endPhase(buildUrlPhase, true);
             throw e;
         }
         
-        LOGGER.info("Redirecting to: {}", redirectUrl);
+        LOGGER.debug("Redirecting to: {}", redirectUrl);
         
         // Set attribute for logging/monitoring
         request.setAttribute("redirected_to", redirectUrl);
         transaction.setData("redirect_url", redirectUrl);
+        trace.setRedirectUrl(redirectUrl);
         
         // Create a span for the actual redirect
         ISpan redirectSpan = monitoringService.startSpan(transaction, "send_redirect");
+        int redirectPhase = trace.startPhase("send_redirect");
         try {
-            // Perform the redirect with the configured status code
+            // Perform the redirect with the configured status code and an empty body
             response.setStatus(appProperties.getRedirectStatusCode());
             response.setHeader("Location", redirectUrl);
-            response.getWriter().flush();
+            response.setContentLength(0);
+            response.flushBuffer();
+            accessLog.record(request.getMethod(), request.getRequestURI(),
+                    appProperties.getRedirectStatusCode(), redirectUrl,
+                    (String) request.getAttribute(TracingIdGenerator.REQUEST_ATTRIBUTE));
             monitoringService.finishSpanSuccess(redirectSpan);
+            trace.endPhase(redirectPhase, false);
             return true;
         } catch (Exception e) {
             monitoringService.finishSpanError(redirectSpan, e);
+            trace.endPhase(redirectPhase, true);
             throw e;
         }
     }
@@ -166,7 +200,7 @@ public class RedirectHandler {
     private boolean handleRedirectError(HttpServletResponse response, Exception exception) {
         try {
             if (exception instanceof SecurityException) {
-                LOGGER.warn("Security violation in redirect request: {}", exception.getMessage());
+                LOGGER.debug("Security violation in redirect request: {}", exception.getMessage());
                 response.sendError(
                         HttpServletResponse.SC_BAD_REQUEST, 
                         "Invalid request: " + exception.getMessage());
@@ -0,0 +1,255 @@
+package net.sdko.dotorgredirector.core;
+
+import net.sdko.dotorgredirector.config.AppProperties.RedirectRule;
+
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Longest-prefix matcher for the configured path prefix redirect rules.
+ *
+ * <p>Rules are stored in a radix trie over path segments. Chains of nodes without a rule are
+ * compressed into a single edge labelled with several segments, and the children of each node
+ * are sorted by their first segment so a lookup binary-searches one node per step. Matching
+ * compares characters of the request path in place, so a lookup never allocates.
+ */
+public final class RedirectRuleEngine {
+
+    private final List<RedirectRule> source;
+    private final String environment;
+    private final String version;
+    private final Node root;
+
+    private RedirectRuleEngine(List<RedirectRule> source, String environment, String version, Node root) {
+        this.source = source;
+        this.environment = environment;
+        this.version = version;
+        this.root = root;
+    }
+
+    /**
+     * Compiles the configured rules.
+     *
+     * @param rules The configured rules, may be null
+     * @param environment The value of the x-sws-env parameter
+     * @param version The value of the x-sws-version parameter
+     * @return The compiled engine
+     * @throws URISyntaxException If a rule target is invalid
+     * @throws IllegalArgumentException If a rule is incomplete, its prefix has unsafe characters or
+     *         is configured twice
+     */
+    public static RedirectRuleEngine compile(List<RedirectRule> rules, String environment, String version)
+            throws URISyntaxException {
+        if (rules == null || rules.isEmpty()) {
+            return new RedirectRuleEngine(rules, environment, version, Node.EMPTY);
+        }
+
+        Builder root = new Builder();
+        for (RedirectRule rule : rules) {
+            if (rule == null || rule.getPrefix() == null || rule.getTarget() == null) {
+                throw new IllegalArgumentException("Redirect rules need both a prefix and a target");
+            }
+            String prefix = normalizePrefix(rule);
+            Builder node = root;
+            int start = 1;
+            while (start <= prefix.length()) {
+                int end = prefix.indexOf('/', start);
+                if (end < 0) {
+                    end = prefix.length();
+                }
+                node = node.children.computeIfAbsent(prefix.substring(start, end), segment -> new Builder());
+                start = end + 1;
+            }
+            if (node.match != null) {
+                throw new IllegalArgumentException("Redirect rule prefix is configured twice: " + rule.getPrefix());
+            }
+            node.match = new Match(prefix, RedirectUrlTemplate.compile(rule.getTarget(), environment, version));
+        }
+        return new RedirectRuleEngine(rules, environment, version, root.freeze());
+    }
+
+    /**
+     * Checks whether this engine was compiled from the given rules and tracking values.
+     *
+     * @param rules The configured rules
+     * @param environment The environment
+     * @param version The version
+     * @return true if the engine is still valid for these values
+     */
+    public boolean isCompiledFrom(List<RedirectRule> rules, String environment, String version) {
+        return source == rules
+                && Objects.equals(this.environment, environment)
+                && Objects.equals(this.version, version);
+    }
+
+    /**
+     * Finds the rule with the longest prefix matching the path at a segment boundary.
+     *
+     * @param path The sanitized request path, starting with a slash
+     * @return The matching rule, or null if no rule matches
+     */
+    public Match match(String path) {
+        Node node = root;
+        Match best = node.match;
+        int length = path.length();
+        int position = 1;
+
+        while (position < length && node.labels.length > 0) {
+            int segmentEnd = path.indexOf('/', position);
+            if (segmentEnd < 0) {
+                segmentEnd = length;
+            }
+            int index = node.find(path, position, segmentEnd);
+            if (index < 0) {
+                break;
+            }
+            String label = node.labels[index];
+            int labelEnd = position + label.length();
+            if (!path.startsWith(label, position) || (labelEnd < length && path.charAt(labelEnd) != '/')) {
+                break;
+            }
+            node = node.children[index];
+            if (node.match != null) {
+                best = node.match;
+            }
+            position = labelEnd + 1;
+        }
+        return best;
+    }
+
+    /**
+     * Normalizes a configured prefix to a leading slash, no repeated and no trailing slashes.
+     *
+     * @param rule The configured rule
+     * @return The normalized prefix, empty for the root
+     * @throws IllegalArgumentException If the prefix has characters that request paths cannot
+     */
+    private static String normalizePrefix(RedirectRule rule) {
+        String prefix = rule.getPrefix();
+        if (!PathSanitizer.isSafe(prefix)) {
+            throw new IllegalArgumentException("Redirect rule prefix contains unsafe characters: "
+                    + prefix + " -> " + rule.getTarget());
+        }
+        String sanitized = PathSanitizer.sanitize(prefix);
+        int end = sanitized.length();
+        while (end > 0 && sanitized.charAt(end - 1) == '/') {
+            end--;
+        }
+        return sanitized.substring(0, end);
+    }
+
+    /**
+     * A matched rule.
+     *
+     * @param prefix The normalized prefix, empty for the root rule
+     * @param template The template for the rule target
+     */
+    public record Match(String prefix, RedirectUrlTemplate template) {
+
+        /**
+         * Returns the offset of the path remainder appended to the target.
+         *
+         * @return The length of the matched prefix
+         */
+        public int pathOffset() {
+            return prefix.length();
+        }
+    }
+
+    /**
+     * Immutable trie node with children sorted by the first segment of their edge label.
+     */
+    private static final class Node {
+
+        static final Node EMPTY = new Node(new String[0], new Node[0], null);
+
+        final String[] labels;
+        final Node[] children;
+        final Match match;
+
+        Node(String[] labels, Node[] children, Match match) {
+            this.labels = labels;
+            this.children = children;
+            this.match = match;
+        }
+
+        /**
+         * Binary-searches the child whose label starts with the given path segment.
+         *
+         * @param path The request path
+         * @param start The start of the segment
+         * @param end The end of the segment
+         * @return The child index, or -1 if there is none
+         */
+        int find(String path, int start, int end) {
+            int low = 0;
+            int high = labels.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compareFirstSegment(labels[mid], path, start, end);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Compares the first segment of a label with a segment of the path, as String.compareTo would.
+         */
+        private static int compareFirstSegment(String label, String path, int start, int end) {
+            int labelEnd = label.indexOf('/');
+            if (labelEnd < 0) {
+                labelEnd = label.length();
+            }
+            int common = Math.min(labelEnd, end - start);
+            for (int i = 0; i < common; i++) {
+                int diff = label.charAt(i) - path.charAt(start + i);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return labelEnd - (end - start);
+        }
+    }
+
+    /**
+     * Mutable trie node used while compiling, one per segment.
+     */
+    private static final class Builder {
+
+        final TreeMap<String, Builder> children = new TreeMap<>();
+        Match match;
+
+        /**
+         * Converts this subtree into compressed, immutable nodes.
+         *
+         * @return The immutable node
+         */
+        Node freeze() {
+            List<String> labels = new ArrayList<>(children.size());
+            List<Node> nodes = new ArrayList<>(children.size());
+            // TreeMap iteration keeps the labels sorted by their first segment
+            for (Map.Entry<String, Builder> entry : children.entrySet()) {
+                StringBuilder label = new StringBuilder(entry.getKey());
+                Builder child = entry.getValue();
+                while (child.match == null && child.children.size() == 1) {
+                    Map.Entry<String, Builder> only = child.children.firstEntry();
+                    label.append('/').append(only.getKey());
+                    child = only.getValue();
+                }
+                labels.add(label.toString());
+                nodes.add(child.freeze());
+            }
+            return new Node(labels.toArray(new String[0]), nodes.toArray(new Node[0]), match);
+        }
+    }
+}
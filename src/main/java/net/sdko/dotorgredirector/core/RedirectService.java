@@ -2,21 +2,17 @@ package net.sdko.dotorgredirector.core;
 
 import jakarta.servlet.http.HttpServletRequest;
 import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.UriComponentsBuilder;
 
-import java.net.URI;
+import java.io.IOException;
 import java.net.URISyntaxException;
-import java.time.Instant;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
-import java.util.Set;
-import java.util.regex.Pattern;
 
 /**
  * Core service responsible for building redirect URLs and managing redirect logic.
@@ -28,30 +24,65 @@ public class RedirectService {
     
     private final AppProperties appProperties;
     private final String environment;
+    private final TracingIdGenerator tracingIdGenerator;
+    private final CoarseClock coarseClock;
+    private final RedirectMetrics redirectMetrics;
+    private final RejectionReporter rejectionReporter;
     
-    private static final Set<String> ALLOWED_QUERY_PARAMS = Set.of(
-        "x-sws-event", "x-sws-tracing-id", "x-sws-env", "x-sws-version", "x-sws-ts"
-    );
-    
-    private static final Pattern X_SWS_EVENT_PATTERN = Pattern.compile("^[a-zA-Z0-9._\\-]{1,50}$");
-    private static final Pattern X_SWS_TRACING_ID_PATTERN = Pattern.compile("^[a-fA-F0-9\\-]{36}$");
-    private static final Pattern X_SWS_ENV_PATTERN = Pattern.compile("^[a-zA-Z0-9._\\-]{1,20}$");
-    private static final Pattern X_SWS_VERSION_PATTERN = Pattern.compile("^[a-zA-Z0-9._\\-]{1,30}$");
-    private static final Pattern X_SWS_TS_PATTERN = Pattern.compile("^[0-9]{1,15}$");
+    private volatile RedirectUrlTemplate urlTemplate;
+    private volatile QueryParamSchema queryParamSchema;
+    private volatile RedirectRuleEngine ruleEngine;
+    private volatile ExclusionMatcher exclusionMatcher;
+    private volatile VanityTable vanityTable;
+    private volatile DecisionCache decisionCache;
     
     /**
-     * Constructs a RedirectService with required dependencies.
+     * Constructs a RedirectService.
      *
      * @param appProperties The application properties
      * @param environment The application environment
+     * @param tracingIdGenerator The generator used when the request carries no tracing ID
+     * @param coarseClock The clock used for the x-sws-ts timestamp
+     * @param redirectMetrics The metrics the decision cache reports to
+     * @param rejectionReporter Counts and summarizes rejected paths and parameters
      */
-    public RedirectService(AppProperties appProperties, String environment) {
+    @Autowired
+    public RedirectService(
+            AppProperties appProperties,
+            String environment,
+            TracingIdGenerator tracingIdGenerator,
+            CoarseClock coarseClock,
+            RedirectMetrics redirectMetrics,
+            RejectionReporter rejectionReporter) {
         this.appProperties = appProperties;
         this.environment = environment;
+        this.tracingIdGenerator = tracingIdGenerator;
+        this.coarseClock = coarseClock;
+        this.redirectMetrics = redirectMetrics;
+        this.rejectionReporter = rejectionReporter;
+        
+        queryParamSchema = QueryParamSchema.compile(appProperties.getQueryParams());
+        exclusionMatcher = ExclusionMatcher.compile(
+                appProperties.getExcludePattern(), appProperties.getExcludePatterns());
+        
+        try {
+            currentTemplate();
+        } catch (URISyntaxException e) {
+            LOGGER.warn("Target URL is invalid, redirects will fail: {}", e.getMessage());
+        }
+        
+        currentVanityTable();
+        
+        try {
+            currentRuleEngine();
+        } catch (URISyntaxException e) {
+            LOGGER.warn("A redirect rule target is invalid, redirects will fail: {}", e.getMessage());
+        }
     }
     
     /**
-     * Builds a redirect URL for the given request.
+     * Builds a redirect URL for the given request. Parameters are only taken from the raw query
+     * string; the parameter map is never read, so a form body is left unparsed.
      *
      * @param request The HTTP request to build a redirect URL for
      * @return The redirect URL
@@ -59,164 +90,281 @@ public class RedirectService {
      * @throws SecurityException If the request contains dangerous patterns
      */
     public String buildRedirectUrl(HttpServletRequest request) throws URISyntaxException {
-        String targetUrl = appProperties.getTargetUrl();
-        String requestPath = request.getRequestURI();
+        // Only GET and HEAD requests are cached
+        String method = request.getMethod();
+        boolean cacheable = "GET".equals(method) || "HEAD".equals(method);
         
-        LOGGER.debug("Building redirect URL from {} to {}", requestPath, targetUrl);
+        Object tracingId = request.getAttribute(TracingIdGenerator.REQUEST_ATTRIBUTE);
+        return buildRedirectUrl(request.getRequestURI(), request.getQueryString(), cacheable,
+                tracingId instanceof String id ? id : null);
+    }
+    
+    /**
+     * Builds a redirect URL from the raw request target, without a servlet request.
+     *
+     * @param requestPath The raw request path
+     * @param queryString The raw query string, may be null
+     * @param tracingId The tracing ID, or null to generate one
+     * @return The redirect URL
+     * @throws URISyntaxException If the target URL is invalid
+     * @throws SecurityException If the request contains dangerous patterns
+     */
+    public String buildRedirectUrl(String requestPath, String queryString, String tracingId)
+            throws URISyntaxException {
+        return buildRedirectUrl(requestPath, queryString, true, tracingId);
+    }
+    
+    private String buildRedirectUrl(
+            String requestPath,
+            String queryString,
+            boolean cacheable,
+            String requestTracingId) throws URISyntaxException {
+        // Vanity links are exact matches and redirect to their target verbatim
+        VanityTable vanity = currentVanityTable();
+        int vanityEntry = vanity.lookup(requestPath);
+        if (vanityEntry >= 0) {
+            String vanityUrl = vanity.target(vanityEntry);
+            LOGGER.debug("Vanity link {} redirects to {}", requestPath, vanityUrl);
+            return vanityUrl;
+        }
         
-        String sanitizedPath = sanitizePath(requestPath);
+        RedirectUrlTemplate template = currentTemplate();
+        RedirectRuleEngine engine = currentRuleEngine();
+        QueryParamSchema schema = currentQueryParamSchema();
         
-        URI targetUri = new URI(targetUrl);
-        UriComponentsBuilder builder = UriComponentsBuilder.fromUri(targetUri)
-                .path(sanitizedPath);
+        String tracingId = requestTracingId != null ? requestTracingId : tracingIdGenerator.nextId();
+        String timestamp = coarseClock.epochSecondText();
         
-        Map<String, String[]> filteredParams = filterQueryParameters(request.getParameterMap());
+        LOGGER.debug("Building redirect URL from {} to {}", requestPath, appProperties.getTargetUrl());
         
-        String tracingId = UUID.randomUUID().toString();
+        String sanitizedPath = sanitizePath(requestPath);
         
-        addTrackingParameters(builder, tracingId);
+        Map<String, String[]> filteredParams = parseQueryString(schema, queryString);
         
-        filteredParams.forEach((key, values) -> {
-            for (String value : values) {
-                builder.queryParam(key, value);
+        // Everything but the tracing ID and timestamp is the same for the same path and
+        // allowlisted parameters, so unknown or invalid parameters do not make a new entry
+        TinyLfuCache<String, RedirectUrlTemplate.Prepared> cache = currentDecisionCache(template, engine, schema);
+        String cacheKey = null;
+        if (cache != null && cacheable) {
+            cacheKey = RedirectUrlTemplate.decisionKey(sanitizedPath, filteredParams);
+            RedirectUrlTemplate.Prepared cached = cache.get(cacheKey);
+            if (cached != null) {
+                redirectMetrics.incrementDecisionCacheHit();
+                return cached.render(tracingId, timestamp);
             }
-        });
+            redirectMetrics.incrementDecisionCacheMiss();
+        }
         
-        String redirectUrl = builder.build().toUriString();
+        RedirectRuleEngine.Match rule = engine.match(sanitizedPath);
+        RedirectUrlTemplate target = rule != null ? rule.template() : template;
+        int pathOffset = rule != null ? rule.pathOffset() : 0;
+        
+        String redirectUrl;
+        if (cacheKey != null) {
+            RedirectUrlTemplate.Prepared prepared = target.prepare(sanitizedPath, pathOffset, filteredParams);
+            cache.put(cacheKey, prepared);
+            redirectUrl = prepared.render(tracingId, timestamp);
+        } else {
+            redirectUrl = target.render(sanitizedPath, pathOffset, tracingId, timestamp, filteredParams);
+        }
         
         LOGGER.debug("Built redirect URL: {}", redirectUrl);
         return redirectUrl;
     }
     
     /**
-     * Sanitizes the request path to prevent injection attacks.
+     * Extracts the allowlisted parameters from the raw query string.
      *
-     * @param path The original request path
-     * @return The sanitized path
-     * @throws SecurityException If the path contains invalid characters
+     * @param schema The query parameter schema
+     * @param queryString The raw query string, may be null
+     * @return The valid allowlisted parameters
+     * @throws SecurityException If the query string exceeds the configured caps
      */
-    private String sanitizePath(String path) {
-        if (path == null) {
-            return "/";
+    private Map<String, String[]> parseQueryString(QueryParamSchema schema, String queryString) {
+        return QueryStringParser.parse(queryString, schema,
+                appProperties.getMaxQueryLength(), appProperties.getMaxQueryParams(), rejectionReporter);
+    }
+    
+    /**
+     * Returns the decision cache for the compiled configuration, replacing it if any of it changed.
+     *
+     * @param template The default URL template
+     * @param engine The rule engine
+     * @param schema The query parameter schema
+     * @return The decision cache, or null if it is disabled
+     */
+    private TinyLfuCache<String, RedirectUrlTemplate.Prepared> currentDecisionCache(
+            RedirectUrlTemplate template, RedirectRuleEngine engine, QueryParamSchema schema) {
+        int size = appProperties.getDecisionCacheSize();
+        if (size <= 0) {
+            return null;
         }
         
-        if (!path.matches("^[a-zA-Z0-9._/\\-]*$")) {
-            LOGGER.warn("Invalid characters detected in path: {}", path);
-            throw new SecurityException("Invalid path contains unsafe characters");
+        DecisionCache current = decisionCache;
+        if (current == null || !current.isFor(template, engine, schema, size)) {
+            current = new DecisionCache(template, engine, schema,
+                    new TinyLfuCache<>(size, redirectMetrics::incrementDecisionCacheEviction));
+            decisionCache = current;
         }
+        return current.cache();
+    }
+    
+    /**
+     * Returns the compiled URL template, recompiling it if the target URL or version changed.
+     *
+     * @return The current URL template
+     * @throws URISyntaxException If the target URL is invalid
+     */
+    private RedirectUrlTemplate currentTemplate() throws URISyntaxException {
+        String targetUrl = appProperties.getTargetUrl();
+        String version = appProperties.getVersion();
         
-        path = path.replaceAll("\\.\\./", "");
-        
-        if (!path.startsWith("/")) {
-            path = "/" + path;
+        RedirectUrlTemplate template = urlTemplate;
+        if (template == null || !template.isCompiledFrom(targetUrl, environment, version)) {
+            template = RedirectUrlTemplate.compile(targetUrl, environment, version);
+            urlTemplate = template;
         }
+        return template;
+    }
+    
+    /**
+     * Returns the compiled rule engine, recompiling it if the rules or version changed.
+     *
+     * @return The current rule engine
+     * @throws URISyntaxException If a rule target is invalid
+     */
+    private RedirectRuleEngine currentRuleEngine() throws URISyntaxException {
+        List<AppProperties.RedirectRule> rules = appProperties.getRules();
+        String version = appProperties.getVersion();
         
-        path = path.replaceAll("//+", "/");
+        RedirectRuleEngine engine = ruleEngine;
+        if (engine == null || !engine.isCompiledFrom(rules, environment, version)) {
+            engine = RedirectRuleEngine.compile(rules, environment, version);
+            ruleEngine = engine;
+        }
+        return engine;
+    }
+    
+    /**
+     * Returns the vanity link table, reloading it if the configured file changed.
+     *
+     * <p>A file that cannot be loaded is logged and treated as empty until the setting changes.
+     *
+     * @return The current vanity link table
+     */
+    private VanityTable currentVanityTable() {
+        String file = appProperties.getVanityLinksFile();
         
-        return path;
+        VanityTable table = vanityTable;
+        if (table == null || !table.isLoadedFrom(file)) {
+            table = loadVanityTable(file);
+            vanityTable = table;
+        }
+        return table;
     }
     
     /**
-     * Filters query parameters to only allow whitelisted ones with proper validation.
+     * Loads the vanity link table from a file.
      *
-     * @param originalParams The original parameter map
-     * @return Filtered parameter map
+     * @param file The configured file, may be null or empty
+     * @return The loaded table, or an empty table if there is none or it is invalid
      */
-    private Map<String, String[]> filterQueryParameters(Map<String, String[]> originalParams) {
-        Map<String, String[]> filteredParams = new HashMap<>();
-        
-        for (Map.Entry<String, String[]> entry : originalParams.entrySet()) {
-            String key = entry.getKey();
-            String[] values = entry.getValue();
-            
-            if (!ALLOWED_QUERY_PARAMS.contains(key)) {
-                LOGGER.warn("Non-whitelisted query parameter detected, skipping: {}", key);
-                continue;
-            }
-            
-            List<String> validValues = new ArrayList<>();
-            
-            for (String value : values) {
-                if (value != null && isValidParameterValue(key, value)) {
-                    validValues.add(value);
-                } else {
-                    LOGGER.warn("Invalid parameter value detected, skipping: {}={}", key, value);
-                }
-            }
-            
-            if (!validValues.isEmpty()) {
-                filteredParams.put(key, validValues.toArray(new String[0]));
-            }
+    private VanityTable loadVanityTable(String file) {
+        if (file == null || file.isEmpty()) {
+            return VanityTable.empty().withSource(file);
+        }
+        try {
+            VanityTable table = VanityTable.load(Path.of(file)).withSource(file);
+            LOGGER.info("Loaded {} vanity links from {}", table.size(), file);
+            return table;
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.warn("Could not load vanity links from {}: {}", file, e.getMessage());
+            return VanityTable.empty().withSource(file);
         }
-        
-        return filteredParams;
     }
     
     /**
-     * Validates parameter values based on the parameter name and type.
+     * Sanitizes the request path to prevent injection attacks.
      *
-     * @param paramName The parameter name
-     * @param value The parameter value to validate
-     * @return true if the value is valid for this parameter type
+     * @param path The original request path
+     * @return The sanitized path
+     * @throws SecurityException If the path contains invalid characters
      */
-    private boolean isValidParameterValue(String paramName, String value) {
-        if (value == null || value.isEmpty()) {
-            return false;
-        }
-        
-        switch (paramName) {
-            case "x-sws-tracing-id":
-                return X_SWS_TRACING_ID_PATTERN.matcher(value).matches();
-            
-            case "x-sws-event":
-                return X_SWS_EVENT_PATTERN.matcher(value).matches();
-             
-            case "x-sws-env":
-                return X_SWS_ENV_PATTERN.matcher(value).matches();
-             
-            case "x-sws-version":
-                return X_SWS_VERSION_PATTERN.matcher(value).matches();
-            
-            case "x-sws-ts":
-                return X_SWS_TS_PATTERN.matcher(value).matches();
-            
-            default:
-                return false;
+    private String sanitizePath(String path) {
+        try {
+            return PathSanitizer.sanitize(path);
+        } catch (SecurityException e) {
+            rejectionReporter.reject(RejectionReporter.Reason.INVALID_PATH);
+            throw e;
         }
     }
     
     /**
-     * Adds tracking parameters to the redirect URL.
+     * Returns the compiled query parameter schema, recompiling it if the configured rules changed.
      *
-     * @param builder The URI builder
-     * @param tracingId The tracing ID
+     * @return The current query parameter schema
      */
-    private void addTrackingParameters(UriComponentsBuilder builder, String tracingId) {
-        builder.queryParam("x-sws-event", "dot-org-redirect");
-        builder.queryParam("x-sws-tracing-id", tracingId);
-        builder.queryParam("x-sws-env", environment);
-        builder.queryParam("x-sws-version", appProperties.getVersion());
-        builder.queryParam("x-sws-ts", Instant.now().getEpochSecond());
+    private QueryParamSchema currentQueryParamSchema() {
+        Map<String, AppProperties.QueryParamRule> queryParams = appProperties.getQueryParams();
+        
+        QueryParamSchema schema = queryParamSchema;
+        if (!schema.isCompiledFrom(queryParams)) {
+            schema = QueryParamSchema.compile(queryParams);
+            queryParamSchema = schema;
+        }
+        return schema;
     }
     
     /**
      * Checks if a request should be excluded from redirection.
      *
+     * <p>The given pattern is compiled together with the configured {@code excludePatterns}
+     * into one matcher, which is reused until either of them changes.
+     *
      * @param requestPath The request path to check
      * @param excludePattern The pattern for excluded paths
      * @return true if the request should be excluded, false otherwise
      */
     public boolean shouldExcludeFromRedirect(String requestPath, String excludePattern) {
-        if (excludePattern == null || excludePattern.isEmpty()) {
-            return false;
+        return currentExclusionMatcher(excludePattern).matches(requestPath);
+    }
+    
+    /**
+     * Returns the compiled exclusion matcher, recompiling it if the patterns changed.
+     *
+     * @param excludePattern The single exclude pattern
+     * @return The current exclusion matcher
+     */
+    private ExclusionMatcher currentExclusionMatcher(String excludePattern) {
+        List<String> excludePatterns = appProperties.getExcludePatterns();
+        
+        ExclusionMatcher matcher = exclusionMatcher;
+        if (matcher == null || !matcher.isCompiledFrom(excludePattern, excludePatterns)) {
+            matcher = ExclusionMatcher.compile(excludePattern, excludePatterns);
+            exclusionMatcher = matcher;
         }
+        return matcher;
+    }
+    
+    /**
+     * Decision cache together with the compiled configuration its entries were rendered from.
+     *
+     * @param template The default URL template
+     * @param engine The rule engine
+     * @param schema The query parameter schema
+     * @param cache The cached pre-rendered redirects
+     */
+    private record DecisionCache(
+            RedirectUrlTemplate template,
+            RedirectRuleEngine engine,
+            QueryParamSchema schema,
+            TinyLfuCache<String, RedirectUrlTemplate.Prepared> cache) {
         
-        // Handle wildcard patterns (e.g., "/backend/*")
-        if (excludePattern.endsWith("*")) {
-            String prefix = excludePattern.substring(0, excludePattern.length() - 1);
-            return requestPath.startsWith(prefix);
-        } else {
-            return requestPath.equals(excludePattern);
+        boolean isFor(RedirectUrlTemplate template, RedirectRuleEngine engine, QueryParamSchema schema, int size) {
+            return this.template == template
+                    && this.engine == engine
+                    && this.schema == schema
+                    && cache.capacity() == size;
         }
     }
-} 
\ No newline at end of file
+}
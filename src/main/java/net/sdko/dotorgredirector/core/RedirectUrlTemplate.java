@@ -0,0 +1,318 @@
+package net.sdko.dotorgredirector.core;
+
+import org.springframework.web.util.UriUtils;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Precompiled form of a redirect Location URL.
+ *
+ * <p>The scheme, authority, base path and the constant tracking parameters are parsed and
+ * encoded once when the template is compiled. Rendering a redirect only writes the request
+ * path, the tracing ID, the timestamp and any passthrough parameters into a reusable buffer.
+ * Passthrough values are percent-encoded: the schema's character classes are configurable and
+ * values arrive decoded, so a value such as "&x=1" must not add a parameter to the target URL.
+ */
+public final class RedirectUrlTemplate {
+
+    private static final String EVENT_NAME = "dot-org-redirect";
+    private static final int INITIAL_BUFFER_CAPACITY = 256;
+    private static final int MAX_RETAINED_BUFFER_CAPACITY = 4096;
+
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER_CAPACITY));
+
+    private final String targetUrl;
+    private final String environment;
+    private final String version;
+
+    private final String prefix;
+    private final String queryHead;
+    private final String queryMiddle;
+    private final String suffix;
+
+    private RedirectUrlTemplate(
+            String targetUrl,
+            String environment,
+            String version,
+            String prefix,
+            String queryHead,
+            String queryMiddle,
+            String suffix) {
+        this.targetUrl = targetUrl;
+        this.environment = environment;
+        this.version = version;
+        this.prefix = prefix;
+        this.queryHead = queryHead;
+        this.queryMiddle = queryMiddle;
+        this.suffix = suffix;
+    }
+
+    /**
+     * Compiles a template for the given target URL and constant tracking values.
+     *
+     * @param targetUrl The target URL requests are redirected to
+     * @param environment The value of the x-sws-env parameter
+     * @param version The value of the x-sws-version parameter
+     * @return The compiled template
+     * @throws URISyntaxException If the target URL is invalid
+     */
+    public static RedirectUrlTemplate compile(String targetUrl, String environment, String version)
+            throws URISyntaxException {
+        URI targetUri = new URI(targetUrl);
+
+        StringBuilder prefix = new StringBuilder();
+        if (targetUri.getScheme() != null) {
+            prefix.append(targetUri.getScheme()).append(':');
+        }
+        if (targetUri.getRawAuthority() != null) {
+            prefix.append("//").append(targetUri.getRawAuthority());
+        }
+        String basePath = targetUri.getRawPath();
+        if (basePath != null) {
+            // The request path always starts with a slash, so drop the trailing one here
+            int end = basePath.length();
+            while (end > 0 && basePath.charAt(end - 1) == '/') {
+                end--;
+            }
+            prefix.append(basePath, 0, end);
+        }
+
+        StringBuilder queryHead = new StringBuilder("?");
+        String targetQuery = targetUri.getRawQuery();
+        if (targetQuery != null && !targetQuery.isEmpty()) {
+            queryHead.append(targetQuery).append('&');
+        }
+        appendParam(queryHead, "x-sws-event", EVENT_NAME);
+        queryHead.append("&x-sws-tracing-id=");
+
+        StringBuilder queryMiddle = new StringBuilder();
+        queryMiddle.append('&');
+        appendParam(queryMiddle, "x-sws-env", environment);
+        queryMiddle.append('&');
+        appendParam(queryMiddle, "x-sws-version", version);
+        queryMiddle.append("&x-sws-ts=");
+
+        String fragment = targetUri.getRawFragment();
+        String suffix = fragment != null ? "#" + fragment : "";
+
+        return new RedirectUrlTemplate(
+                targetUrl,
+                environment,
+                version,
+                prefix.toString(),
+                queryHead.toString(),
+                queryMiddle.toString(),
+                suffix);
+    }
+
+    /**
+     * Checks whether this template was compiled from the given values.
+     *
+     * @param targetUrl The target URL
+     * @param environment The environment
+     * @param version The version
+     * @return true if the template is still valid for these values
+     */
+    public boolean isCompiledFrom(String targetUrl, String environment, String version) {
+        return Objects.equals(this.targetUrl, targetUrl)
+                && Objects.equals(this.environment, environment)
+                && Objects.equals(this.version, version);
+    }
+
+    /**
+     * Renders a redirect URL.
+     *
+     * @param path The sanitized request path, starting with a slash
+     * @param tracingId The tracing ID for this request
+     * @param timestamp The epoch second timestamp, already rendered as a decimal string
+     * @param passthroughParams Validated query parameters to append to the URL
+     * @return The redirect URL
+     */
+    public String render(
+            String path,
+            String tracingId,
+            String timestamp,
+            Map<String, String[]> passthroughParams) {
+        return render(path, 0, tracingId, timestamp, passthroughParams);
+    }
+
+    /**
+     * Renders a redirect URL using the part of the path after a matched rule prefix.
+     *
+     * @param path The sanitized request path
+     * @param pathOffset The offset of the path remainder, which is empty or starts with a slash
+     * @param tracingId The tracing ID for this request
+     * @param timestamp The epoch second timestamp, already rendered as a decimal string
+     * @param passthroughParams Validated query parameters to append to the URL
+     * @return The redirect URL
+     */
+    public String render(
+            String path,
+            int pathOffset,
+            String tracingId,
+            String timestamp,
+            Map<String, String[]> passthroughParams) {
+        StringBuilder buffer = buffer();
+
+        buffer.append(prefix)
+                .append(path, pathOffset, path.length())
+                .append(queryHead)
+                .append(tracingId)
+                .append(queryMiddle)
+                .append(timestamp);
+        appendPassthrough(buffer, passthroughParams);
+        buffer.append(suffix);
+        return drain(buffer);
+    }
+
+    /**
+     * Pre-renders everything except the tracing ID and timestamp, for reuse across requests.
+     *
+     * @param path The sanitized request path
+     * @param pathOffset The offset of the path remainder, which is empty or starts with a slash
+     * @param passthroughParams Validated query parameters to append to the URL
+     * @return The pre-rendered URL parts
+     */
+    public Prepared prepare(String path, int pathOffset, Map<String, String[]> passthroughParams) {
+        StringBuilder buffer = buffer();
+
+        buffer.append(prefix)
+                .append(path, pathOffset, path.length())
+                .append(queryHead);
+        String head = drain(buffer);
+
+        buffer.setLength(0);
+        appendPassthrough(buffer, passthroughParams);
+        buffer.append(suffix);
+        String tail = drain(buffer);
+
+        return new Prepared(head, queryMiddle, tail);
+    }
+
+    /**
+     * Renders the parts of a request that its prepared redirect depends on, for use as a
+     * decision cache key. Requests with the same key prepare the same redirect.
+     *
+     * @param path The sanitized request path
+     * @param passthroughParams Validated query parameters
+     * @return The key
+     */
+    static String decisionKey(String path, Map<String, String[]> passthroughParams) {
+        if (passthroughParams.isEmpty()) {
+            return path;
+        }
+        StringBuilder buffer = buffer();
+        buffer.append(path).append('?');
+        appendPassthrough(buffer, passthroughParams);
+        return drain(buffer);
+    }
+
+    /**
+     * Appends the passthrough parameters.
+     *
+     * @param buffer The buffer to append to
+     * @param passthroughParams Validated query parameters
+     */
+    private static void appendPassthrough(StringBuilder buffer, Map<String, String[]> passthroughParams) {
+        for (Map.Entry<String, String[]> entry : passthroughParams.entrySet()) {
+            for (String value : entry.getValue()) {
+                buffer.append('&').append(entry.getKey()).append('=');
+                appendEncoded(buffer, value);
+            }
+        }
+    }
+
+    /**
+     * Appends a decoded query parameter value, percent-encoding everything but unreserved
+     * characters. Values made of unreserved characters only, the common case, are appended as
+     * they are without allocating.
+     *
+     * @param buffer The buffer to append to
+     * @param value The decoded value
+     */
+    private static void appendEncoded(StringBuilder buffer, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!isUnreserved(value.charAt(i))) {
+                buffer.append(UriUtils.encode(value, StandardCharsets.UTF_8));
+                return;
+            }
+        }
+        buffer.append(value);
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '.' || c == '_' || c == '~';
+    }
+
+    /**
+     * Returns an empty buffer, reused per platform thread.
+     *
+     * <p>Virtual threads are created per request, so a thread-local buffer would never be reused
+     * and would only add thread-local map churn; they get a fresh buffer instead.
+     *
+     * @return The buffer to render into
+     */
+    private static StringBuilder buffer() {
+        if (Thread.currentThread().isVirtual()) {
+            return new StringBuilder(INITIAL_BUFFER_CAPACITY);
+        }
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    /**
+     * Returns the buffer contents, dropping the buffer if it grew too large to keep.
+     *
+     * @param buffer The buffer returned by {@link #buffer()}
+     * @return The buffer contents
+     */
+    private static String drain(StringBuilder buffer) {
+        String result = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER_CAPACITY) {
+            BUFFER.remove();
+        }
+        return result;
+    }
+
+    /**
+     * Appends an encoded query parameter, omitting the '=' for null values.
+     *
+     * @param builder The builder to append to
+     * @param name The parameter name
+     * @param value The parameter value, may be null
+     */
+    private static void appendParam(StringBuilder builder, String name, String value) {
+        builder.append(name);
+        if (value != null) {
+            builder.append('=').append(UriUtils.encodeQueryParam(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * A redirect URL rendered up to the per-request tracing ID and timestamp.
+     *
+     * @param head Everything up to the tracing ID
+     * @param middle Everything between the tracing ID and the timestamp
+     * @param tail Everything after the timestamp
+     */
+    public record Prepared(String head, String middle, String tail) {
+
+        /**
+         * Renders the redirect URL for one request.
+         *
+         * @param tracingId The tracing ID for this request
+         * @param timestamp The epoch second timestamp, already rendered as a decimal string
+         * @return The redirect URL
+         */
+        public String render(String tracingId, String timestamp) {
+            return head + tracingId + middle + timestamp + tail;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package net.sdko.dotorgredirector.core;
+
+import io.micrometer.core.instrument.Counter;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts security rejections and logs them as a summary instead of once per occurrence.
+ *
+ * <p>Each rejection increments a striped counter per reason and parameter name, exposed as
+ * {@code dotorg.redirects.rejected}. The first rejection for a reason is logged straight away;
+ * after that, at most one line per reason and {@code app.rejectionLogIntervalSeconds} reports
+ * how many were rejected since the previous line. A scanner sending junk therefore costs a
+ * counter increment per request rather than a log write.
+ *
+ * <p>Parameter names are only used as tags when they are allowlisted, so unknown names sent by
+ * clients cannot grow the number of meters.
+ */
+@Component
+public class RejectionReporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RejectionReporter.class);
+
+    /** Parameter tag for rejections that are not about an allowlisted parameter. */
+    static final String NO_PARAMETER = "none";
+
+    /**
+     * Why a request or parameter was rejected.
+     */
+    public enum Reason {
+        /** A query parameter that is not allowlisted was skipped. */
+        UNKNOWN_PARAMETER("unknown_parameter", "non-allowlisted query parameters"),
+        /** An allowlisted query parameter had an invalid value and was skipped. */
+        INVALID_PARAMETER_VALUE("invalid_parameter_value", "invalid query parameter values"),
+        /** The request path contained unsafe characters. */
+        INVALID_PATH("invalid_path", "requests with unsafe characters in the path"),
+        /** The query string was longer than allowed. */
+        QUERY_TOO_LONG("query_too_long", "requests with a too long query string"),
+        /** The query string had more parameters than allowed. */
+        TOO_MANY_PARAMETERS("too_many_parameters", "requests with too many query parameters");
+
+        private final String tag;
+        private final String description;
+
+        Reason(String tag, String description) {
+            this.tag = tag;
+            this.description = description;
+        }
+
+        /**
+         * Returns the value of the reason tag.
+         *
+         * @return The tag value
+         */
+        public String tag() {
+            return tag;
+        }
+    }
+
+    private final RedirectMetrics redirectMetrics;
+    private final AppProperties appProperties;
+    private final Clock clock;
+    private final Map<Reason, ReasonState> states = new EnumMap<>(Reason.class);
+
+    /**
+     * Constructs a RejectionReporter.
+     *
+     * @param redirectMetrics The metrics the rejection counters are registered with
+     * @param appProperties The application properties
+     */
+    @Autowired
+    public RejectionReporter(RedirectMetrics redirectMetrics, AppProperties appProperties) {
+        this(redirectMetrics, appProperties, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a RejectionReporter with a specific clock.
+     *
+     * @param redirectMetrics The metrics the rejection counters are registered with
+     * @param appProperties The application properties
+     * @param clock The clock for the log interval
+     */
+    RejectionReporter(RedirectMetrics redirectMetrics, AppProperties appProperties, Clock clock) {
+        this.redirectMetrics = redirectMetrics;
+        this.appProperties = appProperties;
+        this.clock = clock;
+        for (Reason reason : Reason.values()) {
+            states.put(reason, new ReasonState(reason));
+        }
+    }
+
+    /**
+     * Records a rejection that is not about a specific allowlisted parameter.
+     *
+     * @param reason The rejection reason
+     */
+    public void reject(Reason reason) {
+        reject(reason, null);
+    }
+
+    /**
+     * Records a rejection.
+     *
+     * @param reason The rejection reason
+     * @param parameter The allowlisted parameter name, or null
+     */
+    public void reject(Reason reason, String parameter) {
+        ReasonState state = states.get(reason);
+        state.counter(parameter != null ? parameter : NO_PARAMETER).increment();
+        state.pending.increment();
+
+        long now = clock.millis();
+        long due = state.nextLogAt.get();
+        if (now >= due && state.nextLogAt.compareAndSet(due,
+                now + TimeUnit.SECONDS.toMillis(appProperties.getRejectionLogIntervalSeconds()))) {
+            long count = state.pending.sumThenReset();
+            long since = state.lastLogAt;
+            state.lastLogAt = now;
+            if (since == 0) {
+                LOGGER.warn("Rejected {} {}", count, reason.description);
+            } else {
+                LOGGER.warn("Rejected {} {} in the last {}s",
+                        count, reason.description, TimeUnit.MILLISECONDS.toSeconds(now - since));
+            }
+        }
+    }
+
+    /**
+     * Returns the total number of rejections for a reason and parameter.
+     *
+     * @param reason The rejection reason
+     * @param parameter The allowlisted parameter name, or null
+     * @return The number of rejections
+     */
+    public long count(Reason reason, String parameter) {
+        Counter counter = states.get(reason).counters.get(parameter != null ? parameter : NO_PARAMETER);
+        return counter != null ? (long) counter.count() : 0;
+    }
+
+    /**
+     * Counters and log throttle for one reason.
+     */
+    private final class ReasonState {
+
+        private final Reason reason;
+        private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+        private final LongAdder pending = new LongAdder();
+        private final AtomicLong nextLogAt = new AtomicLong();
+        private volatile long lastLogAt;
+
+        ReasonState(Reason reason) {
+            this.reason = reason;
+        }
+
+        Counter counter(String parameter) {
+            Counter counter = counters.get(parameter);
+            if (counter == null) {
+                counter = counters.computeIfAbsent(parameter,
+                        name -> redirectMetrics.rejectionCounter(reason.tag, name));
+            }
+            return counter;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package net.sdko.dotorgredirector.core;
+
+import io.sentry.BaggageHeader;
+import io.sentry.IScope;
+import io.sentry.IScopes;
+import io.sentry.ISentryLifecycleToken;
+import io.sentry.Sentry;
+import io.sentry.SentryTraceHeader;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Sentry scopes that belong to a single request.
+ *
+ * <p>Tags, the user and contexts set through {@link Sentry#configureScope} land on scopes that
+ * are shared by every request on a thread, or by all threads for the root scopes, so they
+ * contend and leak into other requests. A request scope is forked from the thread's current
+ * scopes and bound for one request only, so anything set on it is seen by that request's
+ * transaction and events alone.
+ *
+ * <p>Forking keeps what Sentry's servlet filters already put on the current and isolation
+ * scopes, such as the request details and breadcrumbs. The trace is continued from the
+ * request's sentry-trace and baggage headers, or a new one is started for the request when it
+ * has none. The open scope is kept as a request attribute until
+ * {@link #close(HttpServletRequest)}.
+ */
+final class RequestScope {
+
+    /** Request attribute that holds the open request scope. */
+    static final String REQUEST_ATTRIBUTE = RequestScope.class.getName();
+
+    private final IScopes scopes;
+    private final ISentryLifecycleToken token;
+
+    private RequestScope(IScopes scopes, ISentryLifecycleToken token) {
+        this.scopes = scopes;
+        this.token = token;
+    }
+
+    /**
+     * Returns the request's scope, binding a new one to the calling thread if it has none.
+     *
+     * @param request The HTTP request
+     * @return The scope to set tags on, or null if Sentry is disabled
+     */
+    static IScope open(HttpServletRequest request) {
+        if (request.getAttribute(REQUEST_ATTRIBUTE) instanceof RequestScope open) {
+            return open.scopes.getScope();
+        }
+        if (!Sentry.isEnabled()) {
+            return null;
+        }
+        IScopes scopes = Sentry.forkedScopes("request");
+        scopes.continueTrace(request.getHeader(SentryTraceHeader.SENTRY_TRACE_HEADER), baggage(request));
+        RequestScope requestScope = new RequestScope(scopes, scopes.makeCurrent());
+        request.setAttribute(REQUEST_ATTRIBUTE, requestScope);
+        return scopes.getScope();
+    }
+
+    /**
+     * Returns whether the request has a scope bound.
+     *
+     * @param request The HTTP request
+     * @return true if {@link #open(HttpServletRequest)} bound one that is not closed yet
+     */
+    static boolean isOpen(HttpServletRequest request) {
+        return request.getAttribute(REQUEST_ATTRIBUTE) instanceof RequestScope;
+    }
+
+    /**
+     * Restores the thread's previous scopes. Does nothing if the request has no scope.
+     *
+     * @param request The HTTP request
+     */
+    static void close(HttpServletRequest request) {
+        if (!(request.getAttribute(REQUEST_ATTRIBUTE) instanceof RequestScope requestScope)) {
+            return;
+        }
+        request.removeAttribute(REQUEST_ATTRIBUTE);
+        requestScope.token.close();
+    }
+
+    private static List<String> baggage(HttpServletRequest request) {
+        Enumeration<String> values = request.getHeaders(BaggageHeader.BAGGAGE_HEADER);
+        return values != null && values.hasMoreElements() ? Collections.list(values) : null;
+    }
+}
@@ -0,0 +1,213 @@
+package net.sdko.dotorgredirector.core;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Cheap record of one redirect's phases for tail tracing.
+ *
+ * <p>Phases are kept as operation names and {@link System#nanoTime()} stamps in fixed arrays.
+ * Instances are pooled per platform thread and only used by the thread handling the request,
+ * so recording allocates nothing; virtual threads get a fresh instance, like the URL buffers.
+ * Only traces that are kept are converted into Sentry objects, by {@link MonitoringService}.
+ */
+public final class TailTrace {
+
+    /** Trace that records nothing, for redirects that are not tail traced. */
+    public static final TailTrace NONE = new TailTrace(false);
+
+    private static final int MAX_PHASES = 8;
+
+    private static final ThreadLocal<TailTrace> POOL = ThreadLocal.withInitial(() -> new TailTrace(true));
+
+    private final boolean recording;
+    private final String[] operations = new String[MAX_PHASES];
+    private final long[] phaseStarts = new long[MAX_PHASES];
+    private final long[] phaseEnds = new long[MAX_PHASES];
+    private final boolean[] phaseFailed = new boolean[MAX_PHASES];
+
+    private boolean inUse;
+    private int phases;
+    private long startEpochMillis;
+    private long startNanos;
+    private long endNanos;
+    private HttpServletRequest request;
+    private String tracingId;
+    private String targetUrl;
+    private String redirectUrl;
+    private Throwable failure;
+
+    private TailTrace(boolean recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * Takes a trace from the calling thread's pool and starts it.
+     *
+     * @param request The HTTP request, kept until the trace is released
+     * @param tracingId The tracing ID
+     * @param targetUrl The target URL for redirection
+     * @return The started trace
+     */
+    static TailTrace start(HttpServletRequest request, String tracingId, String targetUrl) {
+        TailTrace trace = null;
+        if (!Thread.currentThread().isVirtual()) {
+            trace = POOL.get();
+        }
+        if (trace == null || trace.inUse) {
+            trace = new TailTrace(true);
+        }
+        trace.inUse = true;
+        trace.request = request;
+        trace.tracingId = tracingId;
+        trace.targetUrl = targetUrl;
+        trace.startEpochMillis = System.currentTimeMillis();
+        trace.startNanos = System.nanoTime();
+        return trace;
+    }
+
+    /**
+     * Returns whether this trace records anything.
+     *
+     * @return false for {@link #NONE}
+     */
+    public boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * Starts a phase.
+     *
+     * @param operation The operation name, e.g. build_redirect_url
+     * @return The phase handle, -1 if the phase is not recorded
+     */
+    public int startPhase(String operation) {
+        if (!recording || phases == MAX_PHASES) {
+            return -1;
+        }
+        int phase = phases++;
+        operations[phase] = operation;
+        phaseStarts[phase] = System.nanoTime();
+        phaseEnds[phase] = 0;
+        phaseFailed[phase] = false;
+        return phase;
+    }
+
+    /**
+     * Ends a phase.
+     *
+     * @param phase The handle returned by {@link #startPhase(String)}
+     * @param failed Whether the phase failed
+     */
+    public void endPhase(int phase, boolean failed) {
+        if (phase < 0) {
+            return;
+        }
+        phaseEnds[phase] = System.nanoTime();
+        phaseFailed[phase] = failed;
+    }
+
+    /**
+     * Records the URL the request was redirected to.
+     *
+     * @param redirectUrl The redirect URL
+     */
+    public void setRedirectUrl(String redirectUrl) {
+        if (recording) {
+            this.redirectUrl = redirectUrl;
+        }
+    }
+
+    /**
+     * Marks the redirect as failed. Failed traces are always kept.
+     *
+     * @param throwable The error
+     */
+    public void fail(Throwable throwable) {
+        if (recording) {
+            this.failure = throwable;
+        }
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+    }
+
+    long durationNanos() {
+        return endNanos - startNanos;
+    }
+
+    /**
+     * Converts a {@link System#nanoTime()} stamp of this trace to nanoseconds since the epoch.
+     *
+     * @param nanos The stamp
+     * @return The epoch time in nanoseconds
+     */
+    long epochNanos(long nanos) {
+        return startEpochMillis * 1_000_000L + (nanos - startNanos);
+    }
+
+    int phases() {
+        return phases;
+    }
+
+    String operation(int phase) {
+        return operations[phase];
+    }
+
+    long phaseStart(int phase) {
+        return phaseStarts[phase];
+    }
+
+    long phaseEnd(int phase) {
+        // A phase left open by an exception ends with the trace
+        return phaseEnds[phase] != 0 ? phaseEnds[phase] : endNanos;
+    }
+
+    boolean phaseFailed(int phase) {
+        return phaseFailed[phase];
+    }
+
+    long startNanos() {
+        return startNanos;
+    }
+
+    long endNanos() {
+        return endNanos;
+    }
+
+    HttpServletRequest request() {
+        return request;
+    }
+
+    String tracingId() {
+        return tracingId;
+    }
+
+    String targetUrl() {
+        return targetUrl;
+    }
+
+    String redirectUrl() {
+        return redirectUrl;
+    }
+
+    Throwable failure() {
+        return failure;
+    }
+
+    /**
+     * Clears the trace and returns it to its thread's pool.
+     */
+    void release() {
+        for (int i = 0; i < phases; i++) {
+            operations[i] = null;
+        }
+        phases = 0;
+        request = null;
+        tracingId = null;
+        targetUrl = null;
+        redirectUrl = null;
+        failure = null;
+        inUse = false;
+    }
+}
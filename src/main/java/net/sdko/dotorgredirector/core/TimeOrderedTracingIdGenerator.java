@@ -0,0 +1,64 @@
+package net.sdko.dotorgredirector.core;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tracing ID generator producing time-ordered, UUIDv7-style IDs.
+ *
+ * <p>The first 48 bits hold the Unix epoch milliseconds, the rest is drawn from
+ * {@link ThreadLocalRandom}, so generation never contends on a shared {@code SecureRandom}.
+ * IDs are formatted straight into a char buffer. They are meant for correlation, not for
+ * anything that needs to be unguessable.
+ */
+@Component
+public class TimeOrderedTracingIdGenerator implements TracingIdGenerator {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int ID_LENGTH = 36;
+
+    private static final long VERSION_7 = 0x7000L;
+    private static final long RAND_A_MASK = 0x0FFFL;
+    private static final long VARIANT_MASK = 0x3FFFFFFFFFFFFFFFL;
+    private static final long VARIANT_RFC_4122 = 0x8000000000000000L;
+
+    /**
+     * Generates a new UUIDv7-style tracing ID.
+     *
+     * @return The tracing ID
+     */
+    @Override
+    public String nextId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (System.currentTimeMillis() << 16) | VERSION_7 | (random.nextLong() & RAND_A_MASK);
+        long leastSigBits = (random.nextLong() & VARIANT_MASK) | VARIANT_RFC_4122;
+
+        char[] buffer = new char[ID_LENGTH];
+        formatHex(mostSigBits >>> 32, buffer, 0, 8);
+        buffer[8] = '-';
+        formatHex(mostSigBits >>> 16, buffer, 9, 4);
+        buffer[13] = '-';
+        formatHex(mostSigBits, buffer, 14, 4);
+        buffer[18] = '-';
+        formatHex(leastSigBits >>> 48, buffer, 19, 4);
+        buffer[23] = '-';
+        formatHex(leastSigBits, buffer, 24, 12);
+        return new String(buffer);
+    }
+
+    /**
+     * Writes the low {@code digits} hex digits of a value into the buffer.
+     *
+     * @param value The value to format
+     * @param buffer The output buffer
+     * @param offset The offset of the first digit
+     * @param digits The number of digits to write
+     */
+    private static void formatHex(long value, char[] buffer, int offset, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package net.sdko.dotorgredirector.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded concurrent cache with W-TinyLFU eviction.
+ *
+ * <p>New entries enter a small LRU window. Entries leaving the window compete with the least
+ * recently used entry of the main segmented LRU, and only the one a count-min frequency sketch
+ * has seen more often is kept. One-off keys, such as those of scanners and bots, therefore
+ * cannot flush out entries that are requested over and over.
+ *
+ * <p>Reads are served from a {@link ConcurrentHashMap}. The bookkeeping a read triggers is done
+ * under a lock that is only tried, so under contention some reads are not recorded instead of
+ * making readers wait. Writes take the lock.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+public final class TinyLfuCache<K, V> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final int REMOVED = 3;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final Runnable evictionListener;
+    private final int capacity;
+
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final int protectedCapacity;
+
+    private final Node<K, V> window = Node.sentinel();
+    private final Node<K, V> probation = Node.sentinel();
+    private final Node<K, V> protectedQueue = Node.sentinel();
+    private int windowSize;
+    private int probationSize;
+    private int protectedSize;
+
+    /**
+     * Constructs a cache.
+     *
+     * @param capacity The maximum number of entries, at least 1
+     * @param evictionListener Called once for every entry evicted to stay within the capacity
+     */
+    public TinyLfuCache(int capacity, Runnable evictionListener) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.evictionListener = evictionListener;
+        this.data = new ConcurrentHashMap<>(capacity * 4 / 3 + 1);
+        this.sketch = new FrequencySketch(capacity);
+        this.windowCapacity = Math.max(1, capacity / 100);
+        this.mainCapacity = capacity - windowCapacity;
+        this.protectedCapacity = mainCapacity * 4 / 5;
+    }
+
+    /**
+     * Returns the maximum number of entries.
+     *
+     * @return The capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return The number of entries
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * Returns the cached value for a key.
+     *
+     * @param key The key
+     * @return The value, or null if the key is not cached
+     */
+    public V get(K key) {
+        Node<K, V> node = data.get(key);
+        if (lock.tryLock()) {
+            try {
+                sketch.increment(key.hashCode());
+                if (node != null) {
+                    onAccess(node);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return node != null ? node.value : null;
+    }
+
+    /**
+     * Caches a value, evicting entries if the cache is full.
+     *
+     * @param key The key
+     * @param value The value
+     */
+    public void put(K key, V value) {
+        lock.lock();
+        try {
+            Node<K, V> node = data.get(key);
+            if (node != null) {
+                node.value = value;
+                onAccess(node);
+                return;
+            }
+            node = new Node<>(key, value);
+            data.put(key, node);
+            node.queue = WINDOW;
+            window.addFirst(node);
+            windowSize++;
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedQueue.clear();
+            windowSize = 0;
+            probationSize = 0;
+            protectedSize = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Updates the recency of an entry that was read or rewritten.
+     */
+    private void onAccess(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW -> window.moveToFirst(node);
+            case PROBATION -> {
+                // A second hit while on probation promotes the entry
+                node.unlink();
+                probationSize--;
+                node.queue = PROTECTED;
+                protectedQueue.addFirst(node);
+                protectedSize++;
+                if (protectedSize > protectedCapacity) {
+                    Node<K, V> demoted = protectedQueue.last();
+                    demoted.unlink();
+                    protectedSize--;
+                    demoted.queue = PROBATION;
+                    probation.addFirst(demoted);
+                    probationSize++;
+                }
+            }
+            case PROTECTED -> protectedQueue.moveToFirst(node);
+            default -> {
+                // Evicted concurrently with the read
+            }
+        }
+    }
+
+    /**
+     * Moves entries from the window to the main space and evicts the losers of admission.
+     */
+    private void evict() {
+        while (windowSize > windowCapacity) {
+            Node<K, V> candidate = window.last();
+            candidate.unlink();
+            windowSize--;
+            candidate.queue = PROBATION;
+            probation.addFirst(candidate);
+            probationSize++;
+
+            if (probationSize + protectedSize <= mainCapacity) {
+                continue;
+            }
+            Node<K, V> victim = probation.last();
+            if (victim == candidate) {
+                victim = protectedQueue.last();
+            }
+            if (victim == null || sketch.frequency(candidate.key.hashCode())
+                    <= sketch.frequency(victim.key.hashCode())) {
+                remove(candidate);
+            } else {
+                remove(victim);
+            }
+        }
+    }
+
+    private void remove(Node<K, V> node) {
+        node.unlink();
+        if (node.queue == PROBATION) {
+            probationSize--;
+        } else if (node.queue == PROTECTED) {
+            protectedSize--;
+        }
+        node.queue = REMOVED;
+        data.remove(node.key, node);
+        evictionListener.run();
+    }
+
+    /**
+     * Entry in one of the LRU queues, or the sentinel of a queue.
+     */
+    private static final class Node<K, V> {
+
+        final K key;
+        volatile V value;
+        int queue;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        static <K, V> Node<K, V> sentinel() {
+            Node<K, V> sentinel = new Node<>(null, null);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        void addFirst(Node<K, V> node) {
+            node.prev = this;
+            node.next = next;
+            next.prev = node;
+            next = node;
+        }
+
+        void moveToFirst(Node<K, V> node) {
+            node.unlink();
+            addFirst(node);
+        }
+
+        Node<K, V> last() {
+            return prev == this ? null : prev;
+        }
+
+        void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+
+        void clear() {
+            prev = this;
+            next = this;
+        }
+    }
+
+    /**
+     * Count-min sketch of 4-bit counters that halves all counts periodically, so the frequency
+     * of keys that were popular long ago decays.
+     */
+    private static final class FrequencySketch {
+
+        private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+        };
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            int length = Integer.highestOneBit(Math.max(8, capacity - 1) << 1);
+            table = new long[length];
+            sampleSize = 10 * Math.max(capacity, 8);
+        }
+
+        int frequency(int hashCode) {
+            int spread = spread(hashCode);
+            int frequency = 15;
+            for (int i = 0; i < SEEDS.length; i++) {
+                long hash = indexHash(spread, i);
+                int index = (int) hash & (table.length - 1);
+                int shift = (int) ((hash >>> 60) << 2);
+                frequency = Math.min(frequency, (int) ((table[index] >>> shift) & 15));
+            }
+            return frequency;
+        }
+
+        void increment(int hashCode) {
+            int spread = spread(hashCode);
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                long hash = indexHash(spread, i);
+                int index = (int) hash & (table.length - 1);
+                int shift = (int) ((hash >>> 60) << 2);
+                if (((table[index] >>> shift) & 15) != 15) {
+                    table[index] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = (table[i] >>> 1) & RESET_MASK;
+                }
+                additions /= 2;
+            }
+        }
+
+        private static int spread(int hashCode) {
+            int h = hashCode * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        private static long indexHash(int spread, int i) {
+            long hash = (spread + SEEDS[i]) * SEEDS[i];
+            return hash ^ (hash >>> 29);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package net.sdko.dotorgredirector.core;
+
+/**
+ * Generates the tracing ID attached to each redirect.
+ *
+ * <p>The ID is generated once per request by the {@link RedirectHandler} and stored under
+ * {@link #REQUEST_ATTRIBUTE}, so the logs, Sentry and the x-sws-tracing-id parameter all carry
+ * the same value.
+ */
+public interface TracingIdGenerator {
+
+    /** Request attribute holding the tracing ID of the current request. */
+    String REQUEST_ATTRIBUTE = "tracingId";
+
+    /**
+     * Generates a new tracing ID in the 36-character hyphenated UUID format.
+     *
+     * @return The tracing ID
+     */
+    String nextId();
+}
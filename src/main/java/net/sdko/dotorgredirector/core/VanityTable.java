@@ -0,0 +1,517 @@
+package net.sdko.dotorgredirector.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable exact-match table of vanity paths, such as {@code /go/foo}, and their target URLs.
+ *
+ * <p>Entries are sorted by path and stored in one byte array in blocks of {@value #BLOCK_SIZE}.
+ * Within a block each path and each target is front-coded against the previous entry, so shared
+ * prefixes such as {@code /go/} or {@code https://www.example.com/} are stored once per block.
+ * A minimal perfect hash built with pilot search maps a path to its entry, and the path stored
+ * there is compared in place to reject paths that are not in the table; a one-byte fingerprint
+ * per slot rejects most of them before the block is decoded. Looking up a path does not
+ * allocate; only materializing the target URL of a hit does.
+ *
+ * <p>Vanity paths must be ASCII, which raw request URIs always are. Targets may be any UTF-8.
+ */
+public final class VanityTable {
+
+    private static final int BLOCK_SIZE = 8;
+    private static final int KEYS_PER_BUCKET = 4;
+    private static final int MAX_PILOT = 1 << 20;
+    private static final int MAX_SEEDS = 16;
+
+    private static final VanityTable EMPTY =
+            new VanityTable(null, 0, 0L, new int[0], new int[0], new byte[0], new int[0], new byte[0], 0);
+
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[256]);
+
+    private final String source;
+    private final int size;
+    private final long seed;
+    private final int[] pilots;
+    private final int[] slotToRank;
+    /** Low hash byte of the path in each slot, so most misses skip decoding the block. */
+    private final byte[] fingerprints;
+    private final int[] blockOffsets;
+    private final byte[] data;
+    private final int maxTargetLength;
+
+    private VanityTable(
+            String source,
+            int size,
+            long seed,
+            int[] pilots,
+            int[] slotToRank,
+            byte[] fingerprints,
+            int[] blockOffsets,
+            byte[] data,
+            int maxTargetLength) {
+        this.source = source;
+        this.size = size;
+        this.seed = seed;
+        this.pilots = pilots;
+        this.slotToRank = slotToRank;
+        this.fingerprints = fingerprints;
+        this.blockOffsets = blockOffsets;
+        this.data = data;
+        this.maxTargetLength = maxTargetLength;
+    }
+
+    /**
+     * Returns a table without any entries.
+     *
+     * @return The empty table
+     */
+    public static VanityTable empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Loads a vanity links file.
+     *
+     * <p>Each non-blank line holds a path and a target URL separated by whitespace. Lines
+     * starting with {@code #} are comments.
+     *
+     * @param file The file to load
+     * @return The table, remembering the file it was loaded from
+     * @throws IOException If the file cannot be read
+     * @throws IllegalArgumentException If a line is malformed or a path is listed twice
+     */
+    public static VanityTable load(Path file) throws IOException {
+        SortedMap<String, String> entries = new TreeMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.strip();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = trimmed.split("\\s+");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException(
+                            "Vanity links line " + lineNumber + " must be a path and a target URL");
+                }
+                if (entries.put(parts[0], parts[1]) != null) {
+                    throw new IllegalArgumentException(
+                            "Vanity path listed twice on line " + lineNumber + ": " + parts[0]);
+                }
+            }
+        }
+        return build(file.toString(), entries);
+    }
+
+    /**
+     * Builds a table from a map of paths to target URLs.
+     *
+     * @param entries The entries
+     * @return The table
+     * @throws IllegalArgumentException If a path is not an ASCII path starting with a slash
+     */
+    public static VanityTable of(Map<String, String> entries) {
+        return build(null, new TreeMap<>(entries));
+    }
+
+    /**
+     * Checks whether this table was loaded from the given file.
+     *
+     * @param file The configured file, may be null
+     * @return true if the table is still valid for the file
+     */
+    public boolean isLoadedFrom(String file) {
+        return Objects.equals(source, file);
+    }
+
+    /**
+     * Returns a copy of this table that remembers the given source.
+     *
+     * @param file The configured file
+     * @return The table
+     */
+    VanityTable withSource(String file) {
+        return new VanityTable(
+                file, size, seed, pilots, slotToRank, fingerprints, blockOffsets, data, maxTargetLength);
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return The number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the heap used by the table's arrays.
+     *
+     * @return The approximate size in bytes
+     */
+    public long sizeInBytes() {
+        return 4L * (pilots.length + slotToRank.length + blockOffsets.length) + fingerprints.length + data.length;
+    }
+
+    /**
+     * Looks up a path without allocating.
+     *
+     * @param path The request path
+     * @return The entry index to pass to {@link #target(int)}, or -1 if the path is not in the table
+     */
+    public int lookup(String path) {
+        if (size == 0 || path == null) {
+            return -1;
+        }
+        long hash = hash(path, seed);
+        int pilot = pilots[bucket(hash, pilots.length)];
+        int slot = slot(hash, pilot, size);
+        if (fingerprints[slot] != (byte) hash) {
+            return -1;
+        }
+        int rank = slotToRank[slot];
+        return keyEquals(rank, path) ? rank : -1;
+    }
+
+    /**
+     * Returns the target URL of an entry.
+     *
+     * @param rank The entry index returned by {@link #lookup(String)}
+     * @return The target URL
+     */
+    public String target(int rank) {
+        byte[] target;
+        if (Thread.currentThread().isVirtual()) {
+            // Virtual threads live for one request, so a thread-local scratch would not be reused
+            target = new byte[maxTargetLength];
+        } else {
+            target = SCRATCH.get();
+            if (target.length < maxTargetLength) {
+                target = new byte[maxTargetLength];
+                SCRATCH.set(target);
+            }
+        }
+        int targetLength = 0;
+        int position = blockOffsets[rank / BLOCK_SIZE];
+        for (int entry = rank - rank % BLOCK_SIZE; entry <= rank; entry++) {
+            // Skip the path
+            long header = readVarint(position);
+            position = (int) header;
+            header = readVarint(position);
+            position = (int) header + (int) (header >>> 32);
+            // Rebuild the target from the previous one
+            header = readVarint(position);
+            position = (int) header;
+            int shared = (int) (header >>> 32);
+            header = readVarint(position);
+            position = (int) header;
+            int suffixLength = (int) (header >>> 32);
+            System.arraycopy(data, position, target, shared, suffixLength);
+            targetLength = shared + suffixLength;
+            position += suffixLength;
+        }
+        return new String(target, 0, targetLength, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the target URL for a path.
+     *
+     * @param path The request path
+     * @return The target URL, or null if the path is not in the table
+     */
+    public String get(String path) {
+        int rank = lookup(path);
+        return rank < 0 ? null : target(rank);
+    }
+
+    /**
+     * Compares the path stored for an entry with the given path.
+     *
+     * <p>Walks the block from its first entry, tracking the length of the common prefix of the
+     * path and the previous entry's path, so front-coded paths never have to be rebuilt.
+     */
+    private boolean keyEquals(int rank, String path) {
+        int pathLength = path.length();
+        int matched = 0;
+        int keyLength = 0;
+        int position = blockOffsets[rank / BLOCK_SIZE];
+        for (int entry = rank - rank % BLOCK_SIZE; entry <= rank; entry++) {
+            long header = readVarint(position);
+            position = (int) header;
+            int shared = (int) (header >>> 32);
+            header = readVarint(position);
+            position = (int) header;
+            int suffixLength = (int) (header >>> 32);
+
+            if (shared <= matched) {
+                matched = shared;
+                int limit = Math.min(suffixLength, pathLength - shared);
+                int i = 0;
+                while (i < limit && (data[position + i] & 0xFF) == path.charAt(shared + i)) {
+                    i++;
+                }
+                matched += i;
+            }
+            keyLength = shared + suffixLength;
+            position += suffixLength;
+
+            // Skip the target
+            header = readVarint(position);
+            position = (int) header;
+            header = readVarint(position);
+            position = (int) header + (int) (header >>> 32);
+        }
+        return matched == keyLength && keyLength == pathLength;
+    }
+
+    /**
+     * Reads an unsigned LEB128 varint.
+     *
+     * @param position The offset of the varint
+     * @return The value in the high 32 bits and the offset after the varint in the low 32 bits
+     */
+    private long readVarint(int position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[position++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return ((long) value << 32) | position;
+    }
+
+    private static VanityTable build(String source, SortedMap<String, String> entries) {
+        int size = entries.size();
+        if (size == 0) {
+            return EMPTY.withSource(source);
+        }
+
+        String[] keys = new String[size];
+        Encoder encoder = new Encoder();
+        int[] blockOffsets = new int[(size + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        byte[] previousKey = new byte[0];
+        byte[] previousTarget = new byte[0];
+        int maxTargetLength = 0;
+        int rank = 0;
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            String key = entry.getKey();
+            validateKey(key);
+            if (entry.getValue() == null || entry.getValue().isEmpty()) {
+                throw new IllegalArgumentException("Vanity path has no target: " + key);
+            }
+            keys[rank] = key;
+            byte[] keyBytes = key.getBytes(StandardCharsets.US_ASCII);
+            byte[] targetBytes = entry.getValue().getBytes(StandardCharsets.UTF_8);
+            if (rank % BLOCK_SIZE == 0) {
+                blockOffsets[rank / BLOCK_SIZE] = encoder.length;
+                previousKey = new byte[0];
+                previousTarget = new byte[0];
+            }
+            encoder.writeFrontCoded(previousKey, keyBytes);
+            encoder.writeFrontCoded(previousTarget, targetBytes);
+            maxTargetLength = Math.max(maxTargetLength, targetBytes.length);
+            previousKey = keyBytes;
+            previousTarget = targetBytes;
+            rank++;
+        }
+
+        int bucketCount = Math.max(1, (size + KEYS_PER_BUCKET - 1) / KEYS_PER_BUCKET);
+        for (long seed = 0; seed < MAX_SEEDS; seed++) {
+            int[] pilots = new int[bucketCount];
+            int[] slotToRank = new int[size];
+            if (searchPilots(keys, seed, pilots, slotToRank)) {
+                byte[] fingerprints = new byte[size];
+                for (int slot = 0; slot < size; slot++) {
+                    fingerprints[slot] = (byte) hash(keys[slotToRank[slot]], seed);
+                }
+                return new VanityTable(
+                        source,
+                        size,
+                        seed,
+                        pilots,
+                        slotToRank,
+                        fingerprints,
+                        blockOffsets,
+                        encoder.toByteArray(),
+                        maxTargetLength);
+            }
+        }
+        throw new IllegalArgumentException("Could not build a perfect hash for the vanity links");
+    }
+
+    /**
+     * Finds a pilot for every bucket so that all keys land in distinct slots.
+     *
+     * <p>Buckets are placed largest first, while the table is still mostly empty.
+     *
+     * @return false if some bucket could not be placed with this seed
+     */
+    private static boolean searchPilots(String[] keys, long seed, int[] pilots, int[] slotToRank) {
+        int size = keys.length;
+        int bucketCount = pilots.length;
+        long[] hashes = new long[size];
+        int[] bucketSizes = new int[bucketCount];
+        for (int i = 0; i < size; i++) {
+            hashes[i] = hash(keys[i], seed);
+            bucketSizes[bucket(hashes[i], bucketCount)]++;
+        }
+
+        // Group key indexes by bucket
+        int[] bucketStarts = new int[bucketCount + 1];
+        for (int b = 0; b < bucketCount; b++) {
+            bucketStarts[b + 1] = bucketStarts[b] + bucketSizes[b];
+        }
+        int[] members = new int[size];
+        int[] fill = Arrays.copyOf(bucketStarts, bucketCount);
+        for (int i = 0; i < size; i++) {
+            members[fill[bucket(hashes[i], bucketCount)]++] = i;
+        }
+
+        // Order buckets by size, largest first
+        int maxBucketSize = 0;
+        for (int bucketSize : bucketSizes) {
+            maxBucketSize = Math.max(maxBucketSize, bucketSize);
+        }
+        int[] sizeStarts = new int[maxBucketSize + 2];
+        for (int bucketSize : bucketSizes) {
+            sizeStarts[maxBucketSize - bucketSize + 1]++;
+        }
+        for (int i = 1; i < sizeStarts.length; i++) {
+            sizeStarts[i] += sizeStarts[i - 1];
+        }
+        int[] order = new int[bucketCount];
+        for (int b = 0; b < bucketCount; b++) {
+            order[sizeStarts[maxBucketSize - bucketSizes[b]]++] = b;
+        }
+
+        boolean[] taken = new boolean[size];
+        int[] slots = new int[maxBucketSize];
+        for (int b : order) {
+            int start = bucketStarts[b];
+            int count = bucketStarts[b + 1] - start;
+            if (count == 0) {
+                continue;
+            }
+            int pilot = 0;
+            while (!tryPilot(hashes, members, start, count, pilot, taken, slots)) {
+                if (++pilot == MAX_PILOT) {
+                    return false;
+                }
+            }
+            pilots[b] = pilot;
+            for (int i = 0; i < count; i++) {
+                taken[slots[i]] = true;
+                slotToRank[slots[i]] = members[start + i];
+            }
+        }
+        return true;
+    }
+
+    private static boolean tryPilot(
+            long[] hashes, int[] members, int start, int count, int pilot, boolean[] taken, int[] slots) {
+        int size = taken.length;
+        for (int i = 0; i < count; i++) {
+            int slot = slot(hashes[members[start + i]], pilot, size);
+            if (taken[slot]) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (slots[j] == slot) {
+                    return false;
+                }
+            }
+            slots[i] = slot;
+        }
+        return true;
+    }
+
+    private static void validateKey(String key) {
+        if (key.isEmpty() || key.charAt(0) != '/') {
+            throw new IllegalArgumentException("Vanity path must start with a slash: " + key);
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) >= 128) {
+                throw new IllegalArgumentException("Vanity path must be ASCII: " + key);
+            }
+        }
+    }
+
+    private static long hash(String key, long seed) {
+        // FNV-1a over the chars, finished with the MurmurHash3 mixer
+        long h = 0xcbf29ce484222325L ^ seed;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static int bucket(long hash, int bucketCount) {
+        return (int) Math.unsignedMultiplyHigh(hash, bucketCount);
+    }
+
+    private static int slot(long hash, int pilot, int size) {
+        return (int) Math.unsignedMultiplyHigh(mix(hash ^ (pilot * 0x9E3779B97F4A7C15L)), size);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Growable byte buffer for the encoded entries.
+     */
+    private static final class Encoder {
+
+        private byte[] bytes = new byte[1024];
+        private int length;
+
+        void writeFrontCoded(byte[] previous, byte[] current) {
+            int shared = 0;
+            int limit = Math.min(previous.length, current.length);
+            while (shared < limit && previous[shared] == current[shared]) {
+                shared++;
+            }
+            writeVarint(shared);
+            writeVarint(current.length - shared);
+            ensureCapacity(current.length - shared);
+            System.arraycopy(current, shared, bytes, length, current.length - shared);
+            length += current.length - shared;
+        }
+
+        private void writeVarint(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package net.sdko.dotorgredirector.health;
 
+import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import net.sdko.dotorgredirector.metrics.JvmResourceSampler;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.health.Health;
-import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
 /**
@@ -11,7 +14,10 @@ import org.springframework.stereotype.Component;
  * the application's API endpoints.
  */
 @Component
-public final class BackendApiHealthIndicator implements HealthIndicator {
+public final class BackendApiHealthIndicator extends CachedHealthIndicator {
+
+  /** Interval between two checks of the API components. */
+  private static final Duration REFRESH_INTERVAL = Duration.ofSeconds(30);
 
   /** Minimum memory required in MB for API services to be considered healthy. */
   private static final int MIN_MEMORY_REQUIRED_MB = 10;
@@ -19,6 +25,38 @@ public final class BackendApiHealthIndicator implements HealthIndicator {
   /** Megabyte conversion factor. */
   private static final int MB_CONVERSION_FACTOR = 1024 * 1024;
 
+  /**
+   * Error loading the Spring MVC classes, or null if they are available. Resolved once because
+   * Class.forName takes the class loader's lock, which pins virtual threads running the check.
+   */
+  private static final String MVC_CLASS_ERROR = findMissingMvcClass();
+
+  /** ContextLoader.getCurrentWebApplicationContext, or null if it cannot be resolved. */
+  private static final Method CURRENT_WEB_APPLICATION_CONTEXT = findCurrentContextMethod();
+
+  /** Sampler the thread and memory figures are read from. */
+  private final JvmResourceSampler sampler;
+
+  /** Constructs a BackendApiHealthIndicator with its own sampler. */
+  public BackendApiHealthIndicator() {
+    this(new JvmResourceSampler());
+  }
+
+  /**
+   * Constructs a BackendApiHealthIndicator that reads the shared sampler.
+   *
+   * @param sampler The JVM resource sampler
+   */
+  @Autowired
+  public BackendApiHealthIndicator(final JvmResourceSampler sampler) {
+    this.sampler = sampler;
+  }
+
+  @Override
+  protected Duration refreshInterval() {
+    return REFRESH_INTERVAL;
+  }
+
   /**
    * Checks the health of the Backend API services. Verifies that Spring MVC components are
    * available and properly configured.
@@ -26,48 +64,35 @@ public final class BackendApiHealthIndicator implements HealthIndicator {
    * @return Health status with details about the API services
    */
   @Override
-  public Health health() {
+  protected Health check() {
     try {
       // Check if the application is properly configured for API endpoints
       Map<String, Object> endpointStatus = new HashMap<>();
       boolean apiServicesAvailable = false;
 
-      try {
-        // Verify Spring Framework classes are available
-        // Just checking if these classes can be loaded - not using the variables
-        Class.forName("org.springframework.web.servlet.DispatcherServlet");
-        Class.forName("org.springframework.web.context.WebApplicationContext");
-
+      if (MVC_CLASS_ERROR == null) {
         endpointStatus.put("spring_mvc_available", true);
 
         // Get the WebApplicationContext if available
         try {
-          Object webApplicationContext =
-              Class.forName("org.springframework.web.context.ContextLoader")
-                  .getMethod("getCurrentWebApplicationContext")
-                  .invoke(null);
+          if (CURRENT_WEB_APPLICATION_CONTEXT == null) {
+            throw new IllegalStateException("ContextLoader unavailable");
+          }
+          Object webApplicationContext = CURRENT_WEB_APPLICATION_CONTEXT.invoke(null);
 
           if (webApplicationContext != null) {
             endpointStatus.put("web_context_available", true);
 
             // Check thread status
-            Thread[] threads = new Thread[Thread.activeCount()];
-            Thread.enumerate(threads);
-            int apiThreads = 0;
-
-            for (Thread thread : threads) {
-              if (thread != null && thread.getName().contains("http")) {
-                apiThreads++;
-              }
-            }
+            JvmResourceSampler.Snapshot resources = sampler.snapshot();
+            int apiThreads = resources.httpThreadCount();
 
             endpointStatus.put("api_threads", apiThreads);
-            endpointStatus.put("active_threads", Thread.activeCount());
+            endpointStatus.put("active_threads", resources.threadCount());
 
             // Check if runtime has appropriate memory
-            Runtime runtime = Runtime.getRuntime();
-            long freeMemory = runtime.freeMemory() / MB_CONVERSION_FACTOR;
-            long totalMemory = runtime.totalMemory() / MB_CONVERSION_FACTOR;
+            long freeMemory = resources.freeMemory() / MB_CONVERSION_FACTOR;
+            long totalMemory = resources.totalMemory() / MB_CONVERSION_FACTOR;
 
             endpointStatus.put("free_memory_mb", freeMemory);
             endpointStatus.put("total_memory_mb", totalMemory);
@@ -82,9 +107,9 @@ public final class BackendApiHealthIndicator implements HealthIndicator {
           endpointStatus.put("web_context_available", false);
           endpointStatus.put("context_error", contextError.getMessage());
         }
-      } catch (ClassNotFoundException e) {
+      } else {
         endpointStatus.put("spring_mvc_available", false);
-        endpointStatus.put("class_error", e.getMessage());
+        endpointStatus.put("class_error", MVC_CLASS_ERROR);
       }
 
       if (apiServicesAvailable) {
@@ -112,4 +137,23 @@ public final class BackendApiHealthIndicator implements HealthIndicator {
           .build();
     }
   }
+
+  private static String findMissingMvcClass() {
+    try {
+      Class.forName("org.springframework.web.servlet.DispatcherServlet");
+      Class.forName("org.springframework.web.context.WebApplicationContext");
+      return null;
+    } catch (ClassNotFoundException e) {
+      return e.getMessage();
+    }
+  }
+
+  private static Method findCurrentContextMethod() {
+    try {
+      return Class.forName("org.springframework.web.context.ContextLoader")
+          .getMethod("getCurrentWebApplicationContext");
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
 }
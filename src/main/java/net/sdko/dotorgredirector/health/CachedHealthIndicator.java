@@ -0,0 +1,108 @@
+package net.sdko.dotorgredirector.health;
+
+import java.time.Clock;
+import java.time.Duration;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Health indicator whose check runs in the background. {@link #health()} returns the result of the
+ * last check with its age in the {@code age_ms} detail, so a health request never waits for a slow
+ * dependency. The {@link HealthProbeScheduler} calls {@link #refresh()} at the indicator's own
+ * interval; until the first refresh, the check runs on the calling thread. A result older than
+ * {@value #STALE_AFTER_INTERVALS} refresh intervals means the refreshes have stopped, and is
+ * reported as UNKNOWN rather than as the status it last had.
+ */
+public abstract class CachedHealthIndicator implements HealthIndicator {
+
+  /** Detail that holds the age of the result in milliseconds. */
+  public static final String AGE_DETAIL = "age_ms";
+
+  /** Refresh intervals after which the last result is no longer reported. */
+  static final int STALE_AFTER_INTERVALS = 3;
+
+  /** Clock the results are timestamped with. */
+  private final Clock clock;
+
+  /** The last result, or null before the first check. */
+  private volatile Result last;
+
+  /** Constructs a CachedHealthIndicator. */
+  protected CachedHealthIndicator() {
+    this(Clock.systemUTC());
+  }
+
+  /**
+   * Constructs a CachedHealthIndicator with a specific clock.
+   *
+   * @param clock The clock for the result age
+   */
+  protected CachedHealthIndicator(final Clock clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the result of the last check, running the check first if there is none yet.
+   *
+   * @return Health status with the age of the result, UNKNOWN if the result is stale
+   */
+  @Override
+  public Health health() {
+    Result result = last;
+    if (result == null) {
+      result = refresh();
+    }
+    long age = Math.max(0, clock.millis() - result.checkedAt);
+    if (age > STALE_AFTER_INTERVALS * refreshInterval().toMillis()) {
+      return Health.unknown()
+          .withDetail("status", "UNKNOWN")
+          .withDetail("reason", "Last check is stale, background refreshes have stopped")
+          .withDetail("last_status", result.health.getStatus().getCode())
+          .withDetail(AGE_DETAIL, age)
+          .build();
+    }
+    return Health.status(result.health.getStatus())
+        .withDetails(result.health.getDetails())
+        .withDetail(AGE_DETAIL, age)
+        .build();
+  }
+
+  /**
+   * Runs the check and keeps its result.
+   *
+   * @return The new result
+   */
+  Result refresh() {
+    Health health;
+    try {
+      health = check();
+    } catch (Exception e) {
+      health = Health.down(e).build();
+    }
+    Result result = new Result(health, clock.millis());
+    last = result;
+    return result;
+  }
+
+  /**
+   * Returns the interval between two checks.
+   *
+   * @return The refresh interval
+   */
+  protected abstract Duration refreshInterval();
+
+  /**
+   * Checks the component. Called from a background thread, so it may block.
+   *
+   * @return Health status with details about the component
+   */
+  protected abstract Health check();
+
+  /**
+   * A check result and the time it was taken at.
+   *
+   * @param health The health status
+   * @param checkedAt The epoch millis of the check
+   */
+  record Result(Health health, long checkedAt) {}
+}
@@ -1,12 +1,17 @@
 package net.sdko.dotorgredirector.health;
 
+import java.time.Duration;
+import net.sdko.dotorgredirector.metrics.JvmResourceSampler;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.health.Health;
-import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
 /** Health indicator for core system resources. Monitors JVM memory usage and CPU availability. */
 @Component
-public final class CoreHealthIndicator implements HealthIndicator {
+public final class CoreHealthIndicator extends CachedHealthIndicator {
+
+  /** Interval between two checks of the JVM resources. */
+  private static final Duration REFRESH_INTERVAL = Duration.ofSeconds(5);
 
   /** Megabyte conversion factor. */
   private static final int MB_CONVERSION_FACTOR = 1024 * 1024;
@@ -17,26 +22,49 @@ public final class CoreHealthIndicator implements HealthIndicator {
   /** Percentage multiplier for formatting. */
   private static final int PERCENT_MULTIPLIER = 100;
 
+  /** Sampler the resource figures are read from. */
+  private final JvmResourceSampler sampler;
+
+  /** Constructs a CoreHealthIndicator with its own sampler. */
+  public CoreHealthIndicator() {
+    this(new JvmResourceSampler());
+  }
+
+  /**
+   * Constructs a CoreHealthIndicator that reads the shared sampler.
+   *
+   * @param sampler The JVM resource sampler
+   */
+  @Autowired
+  public CoreHealthIndicator(final JvmResourceSampler sampler) {
+    this.sampler = sampler;
+  }
+
+  @Override
+  protected Duration refreshInterval() {
+    return REFRESH_INTERVAL;
+  }
+
   /**
    * Checks the health of the core system resources. Verifies memory usage and CPU availability.
    *
    * @return Health status with details about system resources
    */
   @Override
-  public Health health() {
+  protected Health check() {
     try {
       // Check if the JVM and runtime environment are healthy
-      Runtime runtime = Runtime.getRuntime();
-      long freeMemory = runtime.freeMemory() / MB_CONVERSION_FACTOR;
-      long totalMemory = runtime.totalMemory() / MB_CONVERSION_FACTOR;
-      long maxMemory = runtime.maxMemory() / MB_CONVERSION_FACTOR;
+      JvmResourceSampler.Snapshot resources = sampler.snapshot();
+      long freeMemory = resources.freeMemory() / MB_CONVERSION_FACTOR;
+      long totalMemory = resources.totalMemory() / MB_CONVERSION_FACTOR;
+      long maxMemory = resources.maxMemory() / MB_CONVERSION_FACTOR;
 
       // Check if we have at least 10% free memory
       double memoryUtilization = (double) (totalMemory - freeMemory) / totalMemory;
       boolean hasAdequateMemory = memoryUtilization < MAX_MEMORY_UTILIZATION;
 
       // Check available processors
-      int availableProcessors = runtime.availableProcessors();
+      int availableProcessors = resources.availableProcessors();
       boolean hasAdequateCpu = availableProcessors > 0;
 
       if (hasAdequateMemory && hasAdequateCpu) {
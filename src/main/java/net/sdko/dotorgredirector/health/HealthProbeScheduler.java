@@ -0,0 +1,80 @@
+package net.sdko.dotorgredirector.health;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refreshes the cached health indicators in the background, each at its own interval. The checks
+ * run on two daemon threads, so one slow probe does not hold back the others.
+ */
+@Component
+public final class HealthProbeScheduler {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(HealthProbeScheduler.class);
+
+  /** Number of threads the checks run on. */
+  private static final int THREADS = 2;
+
+  /** The indicators to refresh. */
+  private final List<CachedHealthIndicator> indicators;
+
+  /** Executor that runs the checks, or null while stopped. */
+  private ScheduledExecutorService executor;
+
+  /**
+   * Constructs a HealthProbeScheduler.
+   *
+   * @param indicators The indicators to refresh
+   */
+  public HealthProbeScheduler(final List<CachedHealthIndicator> indicators) {
+    this.indicators = List.copyOf(indicators);
+  }
+
+  /** Starts refreshing the indicators, beginning with an immediate check of each. */
+  @PostConstruct
+  public synchronized void start() {
+    if (executor != null || indicators.isEmpty()) {
+      return;
+    }
+    executor =
+        Executors.newScheduledThreadPool(
+            THREADS,
+            runnable -> {
+              Thread thread = new Thread(runnable, "health-probe");
+              thread.setDaemon(true);
+              return thread;
+            });
+    for (CachedHealthIndicator indicator : indicators) {
+      long interval = Math.max(1, indicator.refreshInterval().toMillis());
+      executor.scheduleWithFixedDelay(
+          () -> refresh(indicator), 0, interval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /** Stops refreshing the indicators. */
+  @PreDestroy
+  public synchronized void stop() {
+    if (executor == null) {
+      return;
+    }
+    executor.shutdownNow();
+    executor = null;
+  }
+
+  private static void refresh(final CachedHealthIndicator indicator) {
+    try {
+      indicator.refresh();
+    } catch (RuntimeException e) {
+      // An exception would cancel the periodic refresh
+      LOGGER.warn(
+          "Health check {} failed: {}", indicator.getClass().getSimpleName(), e.getMessage());
+    }
+  }
+}
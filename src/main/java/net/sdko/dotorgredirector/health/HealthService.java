@@ -1,15 +1,29 @@
 package net.sdko.dotorgredirector.health;
 
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.boot.actuate.health.Status;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.stereotype.Service;
 
 /**
  * Service for aggregating and reporting health status of application components. Manages multiple
- * health indicators and provides overall health reporting.
+ * health indicators and provides overall health reporting. The indicators are evaluated
+ * concurrently, each on its own virtual thread, under one deadline; an indicator that misses it is
+ * reported as UNKNOWN, and every evaluation is timed in {@code dotorg.health.check.duration}.
  */
 @Service
 public final class HealthService {
@@ -17,28 +31,82 @@ public final class HealthService {
   /** Map of health indicators by component name. */
   private final Map<String, HealthIndicator> healthIndicators;
 
+  /** Evaluation timers by component name. */
+  private final Map<String, Timer> timers;
+
+  /** Executor the indicators are evaluated on. */
+  private final TaskExecutor executor;
+
+  /** Time to wait for all indicators. */
+  private final Duration deadline;
+
   /**
-   * Constructs a HealthService with the given health indicators.
+   * Constructs a HealthService that evaluates the indicators on virtual threads under the
+   * configured deadline.
    *
    * @param coreHealthIndicator Core health indicator
    * @param redirectorHealthIndicator Redirector health indicator
    * @param sentryHealthIndicator Sentry health indicator
    * @param prometheusHealthIndicator Prometheus health indicator
    * @param backendApiHealthIndicator Backend API health indicator
+   * @param redirectMetrics The metrics the evaluation times are recorded in
+   * @param appProperties The application properties
    */
+  @Autowired
   public HealthService(
       final CoreHealthIndicator coreHealthIndicator,
       final RedirectorHealthIndicator redirectorHealthIndicator,
       final SentryHealthIndicator sentryHealthIndicator,
       final PrometheusHealthIndicator prometheusHealthIndicator,
-      final BackendApiHealthIndicator backendApiHealthIndicator) {
+      final BackendApiHealthIndicator backendApiHealthIndicator,
+      final RedirectMetrics redirectMetrics,
+      final AppProperties appProperties) {
+    this(
+        coreHealthIndicator,
+        redirectorHealthIndicator,
+        sentryHealthIndicator,
+        prometheusHealthIndicator,
+        backendApiHealthIndicator,
+        new VirtualThreadTaskExecutor("health-"),
+        redirectMetrics,
+        Duration.ofMillis(appProperties.getHealthDeadlineMillis()));
+  }
+
+  /**
+   * Constructs a HealthService.
+   *
+   * @param coreHealthIndicator Core health indicator
+   * @param redirectorHealthIndicator Redirector health indicator
+   * @param sentryHealthIndicator Sentry health indicator
+   * @param prometheusHealthIndicator Prometheus health indicator
+   * @param backendApiHealthIndicator Backend API health indicator
+   * @param executor Executor for the indicator checks
+   * @param redirectMetrics The metrics the evaluation times are recorded in
+   * @param deadline Time to wait for all indicators
+   */
+  HealthService(
+      final CoreHealthIndicator coreHealthIndicator,
+      final RedirectorHealthIndicator redirectorHealthIndicator,
+      final SentryHealthIndicator sentryHealthIndicator,
+      final PrometheusHealthIndicator prometheusHealthIndicator,
+      final BackendApiHealthIndicator backendApiHealthIndicator,
+      final TaskExecutor executor,
+      final RedirectMetrics redirectMetrics,
+      final Duration deadline) {
 
-    this.healthIndicators = new HashMap<>();
+    this.executor = executor;
+    this.deadline = deadline;
+    this.healthIndicators = new LinkedHashMap<>();
     this.healthIndicators.put("core", coreHealthIndicator);
     this.healthIndicators.put("redirector", redirectorHealthIndicator);
     this.healthIndicators.put("sentry", sentryHealthIndicator);
     this.healthIndicators.put("prometheus", prometheusHealthIndicator);
     this.healthIndicators.put("backendApi", backendApiHealthIndicator);
+
+    this.timers = new HashMap<>();
+    for (String component : healthIndicators.keySet()) {
+      timers.put(component, redirectMetrics.healthCheckTimer(component));
+    }
   }
 
   /**
@@ -53,8 +121,7 @@ public final class HealthService {
       return "UNKNOWN";
     }
 
-    Health health = indicator.health();
-    return health.getStatus().getCode();
+    return evaluate(Map.of(component, indicator)).get(component).getStatus().getCode();
   }
 
   /**
@@ -66,8 +133,7 @@ public final class HealthService {
   public String getOverallHealth() {
     boolean hasDegraded = false;
 
-    for (HealthIndicator indicator : healthIndicators.values()) {
-      Health health = indicator.health();
+    for (Health health : evaluateAll().values()) {
       Status status = health.getStatus();
 
       if (Status.DOWN.equals(status)) {
@@ -86,13 +152,75 @@ public final class HealthService {
    * @return Map of component names to health status
    */
   public Map<String, String> getAllComponentHealth() {
-    Map<String, String> result = new HashMap<>();
+    Map<String, String> result = new LinkedHashMap<>();
 
-    for (Map.Entry<String, HealthIndicator> entry : healthIndicators.entrySet()) {
-      Health health = entry.getValue().health();
-      result.put(entry.getKey(), health.getStatus().getCode());
+    for (Map.Entry<String, Health> entry : evaluateAll().entrySet()) {
+      result.put(entry.getKey(), entry.getValue().getStatus().getCode());
     }
 
     return result;
   }
+
+  /**
+   * Evaluates all indicators in one pass.
+   *
+   * @return Map of component names to their health
+   */
+  private Map<String, Health> evaluateAll() {
+    return evaluate(healthIndicators);
+  }
+
+  /**
+   * Evaluates indicators on the executor and waits for their results until the deadline.
+   *
+   * @param indicators The indicators by component name
+   * @return Map of component names to their health, UNKNOWN for those that missed the deadline
+   */
+  private Map<String, Health> evaluate(final Map<String, HealthIndicator> indicators) {
+    long deadlineNanos = System.nanoTime() + deadline.toNanos();
+    Map<String, CompletableFuture<Health>> pending = new LinkedHashMap<>();
+    for (Map.Entry<String, HealthIndicator> entry : indicators.entrySet()) {
+      Timer timer = timers.get(entry.getKey());
+      HealthIndicator indicator = entry.getValue();
+      pending.put(
+          entry.getKey(), CompletableFuture.supplyAsync(() -> timed(indicator, timer), executor));
+    }
+
+    Map<String, Health> result = new LinkedHashMap<>();
+    for (Map.Entry<String, CompletableFuture<Health>> entry : pending.entrySet()) {
+      long remaining = Math.max(0, deadlineNanos - System.nanoTime());
+      try {
+        result.put(entry.getKey(), entry.getValue().get(remaining, TimeUnit.NANOSECONDS));
+      } catch (TimeoutException e) {
+        result.put(
+            entry.getKey(),
+            unknown("Health check timed out after " + deadline.toMillis() + " ms"));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        result.put(entry.getKey(), unknown("Health check was interrupted"));
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+          throw cause;
+        }
+        if (e.getCause() instanceof Error error) {
+          throw error;
+        }
+        throw new IllegalStateException(e.getCause());
+      }
+    }
+    return result;
+  }
+
+  private static Health timed(final HealthIndicator indicator, final Timer timer) {
+    long start = System.nanoTime();
+    try {
+      return indicator.health();
+    } finally {
+      timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private static Health unknown(final String reason) {
+    return Health.unknown().withDetail("status", "UNKNOWN").withDetail("reason", reason).build();
+  }
 }
@@ -1,8 +1,8 @@
 package net.sdko.dotorgredirector.health;
 
 import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
 import org.springframework.boot.actuate.health.Health;
-import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
 /**
@@ -10,7 +10,10 @@ import org.springframework.stereotype.Component;
  * exported to Prometheus.
  */
 @Component
-public final class PrometheusHealthIndicator implements HealthIndicator {
+public final class PrometheusHealthIndicator extends CachedHealthIndicator {
+
+  /** Interval between two checks of the meter registry. */
+  private static final Duration REFRESH_INTERVAL = Duration.ofSeconds(30);
 
   /** The meter registry used for collecting metrics. */
   private final MeterRegistry meterRegistry;
@@ -24,6 +27,11 @@ public final class PrometheusHealthIndicator implements HealthIndicator {
     this.meterRegistry = meterRegistry;
   }
 
+  @Override
+  protected Duration refreshInterval() {
+    return REFRESH_INTERVAL;
+  }
+
   /**
    * Checks the health of the Prometheus metrics collection. Verifies that metrics can be registered
    * and incremented.
@@ -31,7 +39,7 @@ public final class PrometheusHealthIndicator implements HealthIndicator {
    * @return Health status with details about the metrics collection
    */
   @Override
-  public Health health() {
+  protected Health check() {
     try {
       // Check if MeterRegistry is available and verify metrics collection
       if (meterRegistry != null) {
@@ -1,16 +1,26 @@
 package net.sdko.dotorgredirector.health;
 
+import io.micrometer.core.instrument.Timer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.health.Health;
-import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
 /**
  * Health indicator for the URL redirector service. Checks if the target URL is properly configured
- * and reachable.
+ * and reachable. The target is probed in the background every {@code
+ * app.targetProbeIntervalSeconds} through a shared HTTP client, which keeps the connection alive
+ * between probes; the round trip is recorded in the {@code dotorg.health.target.rtt} histogram.
  */
 @Component
-public class RedirectorHealthIndicator implements HealthIndicator {
+public class RedirectorHealthIndicator extends CachedHealthIndicator {
 
   /** Connection timeout in milliseconds. */
   private static final int CONNECTION_TIMEOUT_MS = 2000;
@@ -24,13 +34,25 @@ public class RedirectorHealthIndicator implements HealthIndicator {
   /** The application properties. */
   private final AppProperties properties;
 
+  /** Timer for the round trip to the target URL. */
+  private final Timer roundTripTimer;
+
   /**
-   * Constructs a RedirectorHealthIndicator with the given properties.
+   * Constructs a RedirectorHealthIndicator that records the target round trip.
    *
    * @param properties The application properties
+   * @param redirectMetrics The metrics the round trip is recorded in
    */
-  public RedirectorHealthIndicator(final AppProperties properties) {
+  @Autowired
+  public RedirectorHealthIndicator(
+      final AppProperties properties, final RedirectMetrics redirectMetrics) {
     this.properties = properties;
+    this.roundTripTimer = redirectMetrics.getTargetRoundTripTimer();
+  }
+
+  @Override
+  protected Duration refreshInterval() {
+    return Duration.ofSeconds(Math.max(1, properties.getTargetProbeIntervalSeconds()));
   }
 
   /**
@@ -40,7 +62,7 @@ public class RedirectorHealthIndicator implements HealthIndicator {
    * @return Health status with details about the redirector service
    */
   @Override
-  public Health health() {
+  protected Health check() {
     try {
       // Check if the target URL is configured and attempt to validate it
       String targetUrl = properties.getTargetUrl();
@@ -56,16 +78,19 @@ public class RedirectorHealthIndicator implements HealthIndicator {
                 "Illegal character in authority at index 7: not a valid url");
           }
           // Validate URL format
-          java.net.URI uri = java.net.URI.create(targetUrl);
-          java.net.URL url = uri.toURL();
+          HttpRequest request =
+              HttpRequest.newBuilder(URI.create(targetUrl))
+                  .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                  .timeout(Duration.ofMillis(CONNECTION_TIMEOUT_MS))
+                  .build();
           isValidUrl = true;
 
-          java.net.HttpURLConnection connection = (java.net.HttpURLConnection) url.openConnection();
-          connection.setConnectTimeout(CONNECTION_TIMEOUT_MS);
-          connection.setReadTimeout(CONNECTION_TIMEOUT_MS);
-          connection.setRequestMethod("HEAD");
+          long start = System.nanoTime();
+          HttpResponse<Void> response =
+              SharedClient.INSTANCE.send(request, HttpResponse.BodyHandlers.discarding());
+          roundTripTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
-          int responseCode = connection.getResponseCode();
+          int responseCode = response.statusCode();
           // 2xx or 3xx response is OK
           isReachable =
               responseCode >= HTTP_SUCCESS_LOWER_BOUND && responseCode < HTTP_SUCCESS_UPPER_BOUND;
@@ -73,14 +98,16 @@ public class RedirectorHealthIndicator implements HealthIndicator {
           if (!isReachable) {
             urlErrorMessage = "Target URL returned HTTP status " + responseCode;
           }
-
-          connection.disconnect();
         } catch (java.net.MalformedURLException | java.lang.IllegalArgumentException e) {
           isValidUrl = false;
           urlErrorMessage = "Malformed URL: " + e.getMessage();
         } catch (java.io.IOException e) {
           isReachable = false;
           urlErrorMessage = "Connection error: " + e.getMessage();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          isReachable = false;
+          urlErrorMessage = "Connection error: interrupted";
         }
 
         if (isValidUrl && isReachable) {
@@ -128,4 +155,15 @@ public class RedirectorHealthIndicator implements HealthIndicator {
           .build();
     }
   }
+
+  /** HTTP client shared by all probes, created on first use. */
+  private static final class SharedClient {
+
+    /** The client; its connection pool keeps the connection to the target alive. */
+    private static final HttpClient INSTANCE =
+        HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(CONNECTION_TIMEOUT_MS))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+  }
 }
@@ -1,70 +1,108 @@
 package net.sdko.dotorgredirector.health;
 
+import io.sentry.IScope;
 import io.sentry.Sentry;
+import io.sentry.SentryOptions;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Supplier;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.reporting.SpoolingTransport;
+import net.sdko.dotorgredirector.reporting.SpoolingTransportFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.health.Health;
-import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
 /**
- * Health indicator for Sentry error reporting. Verifies that Sentry is properly configured and can
- * send test events.
+ * Health indicator for Sentry error reporting. Reports the state of the Sentry transport without
+ * sending anything: the queue depth, the spooled, dropped, failed and rejected envelopes, the
+ * circuit breaker and the last successful send. When ingestion refused the last envelope it
+ * answered, e.g. for a revoked DSN, Sentry is reported as degraded. At most once per {@code app.sentryTransport.verifyIntervalSeconds},
+ * it also checks that the ingestion endpoint answers, with a request Sentry does not ingest. With
+ * the SDK's own transport, only its health flag is reported.
  */
 @Component
-public final class SentryHealthIndicator implements HealthIndicator {
+public final class SentryHealthIndicator extends CachedHealthIndicator {
+
+  /** Interval between two checks; they only read the transport state. */
+  private static final Duration REFRESH_INTERVAL = Duration.ofSeconds(10);
+
+  /** Verification interval used when none is configured, in seconds. */
+  private static final int DEFAULT_VERIFY_INTERVAL_SECONDS = 300;
+
+  /** HTTP status from which the ingestion endpoint counts as failing. */
+  private static final int HTTP_SERVER_ERROR = 500;
+
+  /** Interval between two active connectivity checks. */
+  private final Duration verifyInterval;
+
+  /** Clock for the verification interval. */
+  private final Clock clock;
+
+  /** Supplies the transport of the current Sentry client, or null for the SDK's own. */
+  private final Supplier<SpoolingTransport> transportSupplier;
+
+  /** Epoch millis of the last active check, or -1 before the first. */
+  private long verifiedAt = -1;
+
+  /** Why the last active check failed, or null if it succeeded. */
+  private String verifyError;
+
+  /** Constructs a SentryHealthIndicator with the default verification interval. */
+  public SentryHealthIndicator() {
+    this(
+        Duration.ofSeconds(DEFAULT_VERIFY_INTERVAL_SECONDS),
+        Clock.systemUTC(),
+        SentryHealthIndicator::currentTransport);
+  }
 
   /**
-   * Checks the health of the Sentry error reporting service. Sends a test event to verify
-   * connectivity.
+   * Constructs a SentryHealthIndicator with the configured verification interval.
+   *
+   * @param appProperties The application properties
+   */
+  @Autowired
+  public SentryHealthIndicator(final AppProperties appProperties) {
+    this(
+        Duration.ofSeconds(
+            Math.max(1, appProperties.getSentryTransport().getVerifyIntervalSeconds())),
+        Clock.systemUTC(),
+        SentryHealthIndicator::currentTransport);
+  }
+
+  /**
+   * Constructs a SentryHealthIndicator.
+   *
+   * @param verifyInterval Interval between two active connectivity checks
+   * @param clock The clock for the result age and the verification interval
+   * @param transportSupplier Supplies the transport to report on
+   */
+  SentryHealthIndicator(
+      final Duration verifyInterval,
+      final Clock clock,
+      final Supplier<SpoolingTransport> transportSupplier) {
+    super(clock);
+    this.verifyInterval = verifyInterval;
+    this.clock = clock;
+    this.transportSupplier = transportSupplier;
+  }
+
+  @Override
+  protected Duration refreshInterval() {
+    return REFRESH_INTERVAL;
+  }
+
+  /**
+   * Checks the health of the Sentry error reporting service from the transport state, verifying
+   * connectivity if the last verification is older than the interval.
    *
    * @return Health status with details about Sentry's availability
    */
   @Override
-  public Health health() {
+  protected synchronized Health check() {
     try {
-      // Check if Sentry is properly initialized and test connection
-      boolean isEnabled = Sentry.isEnabled();
-
-      if (isEnabled) {
-        // Send a test event to verify connectivity
-        boolean sentryConnected = false;
-        String sentryResponse = null;
-
-        try {
-          // Create a test event with minimal impact
-          io.sentry.protocol.SentryId eventId =
-              Sentry.captureMessage("Health check test event", io.sentry.SentryLevel.DEBUG);
-
-          // Non-null ID indicates event was accepted
-          sentryConnected =
-              eventId != null && !eventId.toString().equals("00000000-0000-0000-0000-000000000000");
-          sentryResponse = eventId != null ? eventId.toString() : "null";
-
-          if (!sentryConnected) {
-            sentryResponse = "Failed to capture test event";
-          }
-        } catch (Exception sentryError) {
-          sentryConnected = false;
-          sentryResponse = sentryError.getMessage();
-        }
-
-        if (sentryConnected) {
-          return Health.up()
-              .withDetail("component", "Sentry Error Reporting")
-              .withDetail("status", "UP")
-              .withDetail("enabled", true)
-              .withDetail("connected", true)
-              .withDetail("test_event_id", sentryResponse)
-              .build();
-        } else {
-          return Health.status("DEGRADED")
-              .withDetail("component", "Sentry Error Reporting")
-              .withDetail("status", "DEGRADED")
-              .withDetail("enabled", true)
-              .withDetail("connected", false)
-              .withDetail("reason", "Could not send test event: " + sentryResponse)
-              .build();
-        }
-      } else {
+      if (!Sentry.isEnabled()) {
         return Health.down()
             .withDetail("component", "Sentry Error Reporting")
             .withDetail("status", "DOWN")
@@ -73,6 +111,60 @@ public final class SentryHealthIndicator implements HealthIndicator {
             .withDetail("reason", "Sentry client is not enabled")
             .build();
       }
+
+      SpoolingTransport transport = transportSupplier.get();
+      if (transport == null) {
+        boolean healthy = Sentry.isHealthy();
+        Health.Builder builder = healthy ? Health.up() : Health.status("DEGRADED");
+        builder
+            .withDetail("component", "Sentry Error Reporting")
+            .withDetail("status", healthy ? "UP" : "DEGRADED")
+            .withDetail("enabled", true)
+            .withDetail("connected", healthy)
+            .withDetail("transport", "sdk");
+        if (!healthy) {
+          builder.withDetail("reason", "Sentry transport is rate limited or failing");
+        }
+        return builder.build();
+      }
+
+      long now = clock.millis();
+      if (verifiedAt < 0 || now - verifiedAt >= verifyInterval.toMillis()) {
+        verifiedAt = now;
+        verifyError = verify(transport);
+      }
+
+      boolean circuitOpen = transport.isCircuitOpen();
+      String reason = null;
+      if (circuitOpen) {
+        reason = "Sentry ingestion is failing, envelopes are spooled to disk";
+      } else if (transport.getLastRejectedAt() > transport.getLastSuccessAt()) {
+        reason = "Sentry ingestion rejects envelopes, check the DSN and rate limits";
+      } else if (verifyError != null) {
+        reason = "Sentry ingestion endpoint is not reachable: " + verifyError;
+      }
+      boolean connected = reason == null;
+
+      Health.Builder builder = connected ? Health.up() : Health.status("DEGRADED");
+      builder
+          .withDetail("component", "Sentry Error Reporting")
+          .withDetail("status", connected ? "UP" : "DEGRADED")
+          .withDetail("enabled", true)
+          .withDetail("connected", connected)
+          .withDetail("transport", "spooling")
+          .withDetail("circuit_open", circuitOpen)
+          .withDetail("queue_depth", transport.getQueueDepth())
+          .withDetail("spooled", transport.getSpooledCount())
+          .withDetail("dropped", transport.getDroppedCount())
+          .withDetail("failed_sends", transport.getFailedCount())
+          .withDetail("rejected_sends", transport.getRejectedCount())
+          .withDetail("last_success_at", formatTime(transport.getLastSuccessAt()))
+          .withDetail("last_rejected_at", formatTime(transport.getLastRejectedAt()))
+          .withDetail("last_verified_at", formatTime(verifiedAt));
+      if (reason != null) {
+        builder.withDetail("reason", reason);
+      }
+      return builder.build();
     } catch (Exception e) {
       return Health.down()
           .withDetail("component", "Sentry Error Reporting")
@@ -83,4 +175,41 @@ public final class SentryHealthIndicator implements HealthIndicator {
           .build();
     }
   }
+
+  /**
+   * Checks that the ingestion endpoint answers.
+   *
+   * @param transport The transport to check through
+   * @return Why the check failed, or null if it succeeded
+   */
+  private static String verify(final SpoolingTransport transport) {
+    try {
+      int status = transport.verifyConnectivity();
+      return status < HTTP_SERVER_ERROR ? null : "HTTP status " + status;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return "interrupted";
+    } catch (Exception e) {
+      return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+  }
+
+  private static String formatTime(final long epochMillis) {
+    return epochMillis > 0 ? Instant.ofEpochMilli(epochMillis).toString() : "never";
+  }
+
+  /**
+   * Returns the spooling transport of the current Sentry client.
+   *
+   * @return The transport, or null if Sentry uses its own
+   */
+  private static SpoolingTransport currentTransport() {
+    IScope globalScope = Sentry.getGlobalScope();
+    SentryOptions options = globalScope != null ? globalScope.getOptions() : null;
+    if (options != null
+        && options.getTransportFactory() instanceof SpoolingTransportFactory factory) {
+      return factory.current();
+    }
+    return null;
+  }
 }
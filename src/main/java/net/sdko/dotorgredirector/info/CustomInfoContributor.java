@@ -3,12 +3,11 @@ package net.sdko.dotorgredirector.info;
 import io.sentry.Sentry;
 import io.sentry.SentryLevel;
 import io.sentry.SentryOptions;
-import java.lang.management.ManagementFactory;
-import java.lang.management.MemoryMXBean;
-import java.lang.management.RuntimeMXBean;
 import java.util.HashMap;
 import java.util.Map;
 import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.metrics.JvmResourceSampler;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.info.Info;
@@ -50,8 +49,11 @@ public final class CustomInfoContributor implements InfoContributor {
   /** The application properties. */
   private final AppProperties appProperties;
 
+  /** Sampler the runtime and memory figures are read from. */
+  private final JvmResourceSampler sampler;
+
   /**
-   * Constructs a CustomInfoContributor with the given parameters.
+   * Constructs a CustomInfoContributor with the given parameters and its own sampler.
    *
    * @param applicationEnvironment The application environment
    * @param appProperties The application properties
@@ -59,8 +61,24 @@ public final class CustomInfoContributor implements InfoContributor {
   public CustomInfoContributor(
       @Qualifier("applicationEnvironment") final String applicationEnvironment,
       final AppProperties appProperties) {
+    this(applicationEnvironment, appProperties, new JvmResourceSampler());
+  }
+
+  /**
+   * Constructs a CustomInfoContributor that reads the shared sampler.
+   *
+   * @param applicationEnvironment The application environment
+   * @param appProperties The application properties
+   * @param sampler The JVM resource sampler
+   */
+  @Autowired
+  public CustomInfoContributor(
+      @Qualifier("applicationEnvironment") final String applicationEnvironment,
+      final AppProperties appProperties,
+      final JvmResourceSampler sampler) {
     this.environment = applicationEnvironment;
     this.appProperties = appProperties;
+    this.sampler = sampler;
   }
 
   /**
@@ -71,11 +89,10 @@ public final class CustomInfoContributor implements InfoContributor {
   @Override
   public void contribute(final Info.Builder builder) {
     // Get JVM runtime information
-    RuntimeMXBean runtimeMXBean = ManagementFactory.getRuntimeMXBean();
-    MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+    JvmResourceSampler.Snapshot resources = sampler.snapshot();
 
     // Calculate uptime
-    long uptimeMs = runtimeMXBean.getUptime();
+    long uptimeMs = resources.uptimeMillis();
     long uptimeSec = uptimeMs / MILLISECONDS_PER_SECOND;
     long uptimeMin = uptimeSec / SECONDS_PER_MINUTE;
     long uptimeHours = uptimeMin / MINUTES_PER_HOUR;
@@ -91,9 +108,9 @@ public final class CustomInfoContributor implements InfoContributor {
             uptimeSec % SECONDS_PER_MINUTE);
 
     // Memory information
-    long heapUsed = memoryMXBean.getHeapMemoryUsage().getUsed() / MB_CONVERSION_FACTOR;
-    long heapMax = memoryMXBean.getHeapMemoryUsage().getMax() / MB_CONVERSION_FACTOR;
-    long nonHeapUsed = memoryMXBean.getNonHeapMemoryUsage().getUsed() / MB_CONVERSION_FACTOR;
+    long heapUsed = resources.heapUsed() / MB_CONVERSION_FACTOR;
+    long heapMax = resources.heapMax() / MB_CONVERSION_FACTOR;
+    long nonHeapUsed = resources.nonHeapUsed() / MB_CONVERSION_FACTOR;
 
     // Application details
     Map<String, Object> appDetails = new HashMap<>();
@@ -103,12 +120,17 @@ public final class CustomInfoContributor implements InfoContributor {
 
     // Runtime statistics
     Map<String, Object> runtimeStats = new HashMap<>();
-    runtimeStats.put("jvmName", runtimeMXBean.getVmName());
-    runtimeStats.put("jvmVendor", runtimeMXBean.getVmVendor());
-    runtimeStats.put("jvmVersion", runtimeMXBean.getVmVersion());
-    runtimeStats.put("startTime", runtimeMXBean.getStartTime());
+    runtimeStats.put("jvmName", resources.vmName());
+    runtimeStats.put("jvmVendor", resources.vmVendor());
+    runtimeStats.put("jvmVersion", resources.vmVersion());
+    runtimeStats.put("startTime", resources.startTime());
     runtimeStats.put("uptime", uptimeMs);
     runtimeStats.put("uptimeFormatted", uptimeFormatted);
+    runtimeStats.put("threads", resources.threadCount());
+    runtimeStats.put("peakThreads", resources.peakThreadCount());
+    runtimeStats.put("gcCount", resources.gcCount());
+    runtimeStats.put("gcTime", resources.gcTimeMillis());
+    runtimeStats.put("sampledAt", resources.sampledAt());
 
     // Memory statistics
     Map<String, Object> memoryStats = new HashMap<>();
@@ -0,0 +1,211 @@
+package net.sdko.dotorgredirector.metrics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.RuntimeMXBean;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Samples the JVM's memory, garbage collection, thread and CPU figures on a fixed schedule. The
+ * health indicators and the info contributor read the last {@link Snapshot} instead of querying
+ * the MXBeans themselves, so how often they are scraped does not change the sampling cost. Until
+ * the sampler is started, the first read takes a sample on the calling thread.
+ */
+@Component
+public final class JvmResourceSampler {
+
+  /** Interval between two samples. */
+  private static final Duration SAMPLE_INTERVAL = Duration.ofSeconds(5);
+
+  /** Thread name part of the threads that serve HTTP requests. */
+  private static final String HTTP_THREAD_NAME = "http";
+
+  private final Duration interval;
+  private final Runtime runtime = Runtime.getRuntime();
+  private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+  private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+  private final RuntimeMXBean runtimeInfo = ManagementFactory.getRuntimeMXBean();
+  private final OperatingSystemMXBean operatingSystem =
+      ManagementFactory.getOperatingSystemMXBean();
+  private final List<GarbageCollectorMXBean> collectors =
+      ManagementFactory.getGarbageCollectorMXBeans();
+
+  /** The last sample, or null before the first. */
+  private volatile Snapshot last;
+
+  /** Executor that takes the samples, or null while stopped. */
+  private ScheduledExecutorService executor;
+
+  /** Constructs a JvmResourceSampler that samples every five seconds. */
+  public JvmResourceSampler() {
+    this(SAMPLE_INTERVAL);
+  }
+
+  /**
+   * Constructs a JvmResourceSampler with a specific interval.
+   *
+   * @param interval The interval between two samples
+   */
+  JvmResourceSampler(final Duration interval) {
+    this.interval = interval;
+  }
+
+  /** Starts sampling in the background. */
+  @PostConstruct
+  public synchronized void start() {
+    if (executor != null) {
+      return;
+    }
+    executor =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "jvm-sampler");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long period = Math.max(1, interval.toMillis());
+    executor.scheduleAtFixedRate(this::sample, 0, period, TimeUnit.MILLISECONDS);
+  }
+
+  /** Stops sampling. */
+  @PreDestroy
+  public synchronized void stop() {
+    if (executor == null) {
+      return;
+    }
+    executor.shutdownNow();
+    executor = null;
+  }
+
+  /**
+   * Returns the last sample, taking one if there is none yet.
+   *
+   * @return The last sample
+   */
+  public Snapshot snapshot() {
+    Snapshot snapshot = last;
+    return snapshot != null ? snapshot : sample();
+  }
+
+  /**
+   * Takes a sample and keeps it as the last one.
+   *
+   * @return The new sample
+   */
+  Snapshot sample() {
+    MemoryUsage heap = memory.getHeapMemoryUsage();
+    MemoryUsage nonHeap = memory.getNonHeapMemoryUsage();
+
+    long gcCount = 0;
+    long gcTimeMillis = 0;
+    for (GarbageCollectorMXBean collector : collectors) {
+      gcCount += Math.max(0, collector.getCollectionCount());
+      gcTimeMillis += Math.max(0, collector.getCollectionTime());
+    }
+
+    double processCpuLoad = -1;
+    if (operatingSystem instanceof com.sun.management.OperatingSystemMXBean extended) {
+      processCpuLoad = extended.getProcessCpuLoad();
+    }
+
+    Snapshot snapshot =
+        new Snapshot(
+            System.currentTimeMillis(),
+            heap.getUsed(),
+            heap.getCommitted(),
+            heap.getMax(),
+            nonHeap.getUsed(),
+            runtime.freeMemory(),
+            runtime.totalMemory(),
+            runtime.maxMemory(),
+            gcCount,
+            gcTimeMillis,
+            threads.getThreadCount(),
+            threads.getDaemonThreadCount(),
+            threads.getPeakThreadCount(),
+            countHttpThreads(),
+            runtime.availableProcessors(),
+            processCpuLoad,
+            operatingSystem.getSystemLoadAverage(),
+            runtimeInfo.getUptime(),
+            runtimeInfo.getStartTime(),
+            runtimeInfo.getVmName(),
+            runtimeInfo.getVmVendor(),
+            runtimeInfo.getVmVersion());
+    last = snapshot;
+    return snapshot;
+  }
+
+  private int countHttpThreads() {
+    int count = 0;
+    // Without stack traces, this reads the names without stopping the threads
+    for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds(), 0)) {
+      if (info != null && info.getThreadName().contains(HTTP_THREAD_NAME)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Immutable sample of the JVM's resources. Sizes are in bytes.
+   *
+   * @param sampledAt Epoch millis the sample was taken at
+   * @param heapUsed Used heap
+   * @param heapCommitted Committed heap
+   * @param heapMax Maximum heap, or -1 if undefined
+   * @param nonHeapUsed Used non-heap memory
+   * @param freeMemory Free memory as reported by {@link Runtime#freeMemory()}
+   * @param totalMemory Total memory as reported by {@link Runtime#totalMemory()}
+   * @param maxMemory Maximum memory as reported by {@link Runtime#maxMemory()}
+   * @param gcCount Collections of all garbage collectors
+   * @param gcTimeMillis Time spent in all garbage collectors
+   * @param threadCount Live threads
+   * @param daemonThreadCount Live daemon threads
+   * @param peakThreadCount Peak live threads
+   * @param httpThreadCount Live threads whose name contains "http"
+   * @param availableProcessors Processors available to the JVM
+   * @param processCpuLoad Recent CPU load of the JVM between 0 and 1, or negative if unavailable
+   * @param systemLoadAverage System load average of the last minute, or negative if unavailable
+   * @param uptimeMillis Uptime of the JVM
+   * @param startTime Epoch millis the JVM started at
+   * @param vmName Name of the JVM
+   * @param vmVendor Vendor of the JVM
+   * @param vmVersion Version of the JVM
+   */
+  public record Snapshot(
+      long sampledAt,
+      long heapUsed,
+      long heapCommitted,
+      long heapMax,
+      long nonHeapUsed,
+      long freeMemory,
+      long totalMemory,
+      long maxMemory,
+      long gcCount,
+      long gcTimeMillis,
+      int threadCount,
+      int daemonThreadCount,
+      int peakThreadCount,
+      int httpThreadCount,
+      int availableProcessors,
+      double processCpuLoad,
+      double systemLoadAverage,
+      long uptimeMillis,
+      long startTime,
+      String vmName,
+      String vmVendor,
+      String vmVersion) {}
+}
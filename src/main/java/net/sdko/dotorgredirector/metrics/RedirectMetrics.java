@@ -12,18 +12,38 @@ import org.springframework.stereotype.Component;
 @Component
 public final class RedirectMetrics {
 
+  /** Registry for meters that are created on first use. */
+  private final MeterRegistry registry;
+
   /** Counter for tracking the total number of redirects. */
   private final Counter redirectCounter;
 
   /** Timer for measuring the duration of redirect operations. */
   private final Timer redirectTimer;
 
+  /** Counter for redirects served from the decision cache. */
+  private final Counter decisionCacheHits;
+
+  /** Counter for redirects that had to be built and cached. */
+  private final Counter decisionCacheMisses;
+
+  /** Counter for entries evicted from the decision cache. */
+  private final Counter decisionCacheEvictions;
+
+  /** Counter for access log records dropped because the ring buffer was full. */
+  private final Counter accessLogDropped;
+
+  /** Timer for the round trip of the health probe's request to the target URL. */
+  private final Timer targetRoundTripTimer;
+
   /**
    * Constructs a RedirectMetrics instance with the given registry.
    *
    * @param registry The meter registry for recording metrics
    */
   public RedirectMetrics(final MeterRegistry registry) {
+    this.registry = registry;
+
     this.redirectCounter =
         Counter.builder("dotorg.redirects.total")
             .description("Total number of redirects performed")
@@ -33,6 +53,32 @@ public final class RedirectMetrics {
         Timer.builder("dotorg.redirects.duration")
             .description("Time taken to process redirects")
             .register(registry);
+
+    this.decisionCacheHits =
+        Counter.builder("dotorg.redirects.cache.hits")
+            .description("Redirects served from the decision cache")
+            .register(registry);
+
+    this.decisionCacheMisses =
+        Counter.builder("dotorg.redirects.cache.misses")
+            .description("Redirects that were not in the decision cache")
+            .register(registry);
+
+    this.decisionCacheEvictions =
+        Counter.builder("dotorg.redirects.cache.evictions")
+            .description("Entries evicted from the decision cache")
+            .register(registry);
+
+    this.accessLogDropped =
+        Counter.builder("dotorg.accesslog.dropped")
+            .description("Access log records dropped because the buffer was full")
+            .register(registry);
+
+    this.targetRoundTripTimer =
+        Timer.builder("dotorg.health.target.rtt")
+            .description("Round trip of the health probe's HEAD request to the target URL")
+            .publishPercentileHistogram()
+            .register(registry);
   }
 
   /** Increments the redirect counter by one. */
@@ -40,6 +86,56 @@ public final class RedirectMetrics {
     redirectCounter.increment();
   }
 
+  /** Increments the decision cache hit counter by one. */
+  public void incrementDecisionCacheHit() {
+    decisionCacheHits.increment();
+  }
+
+  /** Increments the decision cache miss counter by one. */
+  public void incrementDecisionCacheMiss() {
+    decisionCacheMisses.increment();
+  }
+
+  /** Increments the decision cache eviction counter by one. */
+  public void incrementDecisionCacheEviction() {
+    decisionCacheEvictions.increment();
+  }
+
+  /** Increments the dropped access log record counter by one. */
+  public void incrementAccessLogDropped() {
+    accessLogDropped.increment();
+  }
+
+  /**
+   * Returns the counter for requests rejected for a reason, registering it on first use.
+   * Callers should keep the counter rather than look it up per request.
+   *
+   * @param reason The rejection reason
+   * @param parameter The query parameter the rejection is about, or "none"
+   * @return The rejection counter
+   */
+  public Counter rejectionCounter(String reason, String parameter) {
+    return Counter.builder("dotorg.redirects.rejected")
+        .description("Requests or query parameters rejected by input validation")
+        .tag("reason", reason)
+        .tag("parameter", parameter)
+        .register(registry);
+  }
+
+  /**
+   * Returns the timer for the evaluation of a health indicator, registering it on first use.
+   * Callers should keep the timer rather than look it up per evaluation.
+   *
+   * @param component The component the indicator checks
+   * @return The evaluation timer
+   */
+  public Timer healthCheckTimer(String component) {
+    return Timer.builder("dotorg.health.check.duration")
+        .description("Time taken to evaluate a health indicator")
+        .tag("component", component)
+        .register(registry);
+  }
+
   /**
    * Returns the timer used for measuring redirect durations.
    *
@@ -48,4 +144,13 @@ public final class RedirectMetrics {
   public Timer getRedirectTimer() {
     return redirectTimer;
   }
+
+  /**
+   * Returns the timer for the health probe's round trip to the target URL.
+   *
+   * @return The target round trip timer
+   */
+  public Timer getTargetRoundTripTimer() {
+    return targetRoundTripTimer;
+  }
 }
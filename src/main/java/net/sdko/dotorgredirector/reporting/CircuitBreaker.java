@@ -0,0 +1,133 @@
+package net.sdko.dotorgredirector.reporting;
+
+import java.time.Clock;
+
+/**
+ * Circuit breaker over consecutive send failures.
+ *
+ * <p>The breaker opens after {@code failureThreshold} consecutive failures. Once it has been
+ * open for the open time, a single probe is let through; its success closes the breaker and
+ * its failure or rejection opens it again. Only the transport's sender thread changes the state, other
+ * threads may read it.
+ */
+final class CircuitBreaker {
+
+    /**
+     * State of the breaker.
+     */
+    enum State {
+        /** Sends go through. */
+        CLOSED,
+        /** Sends are held back until the open time has passed. */
+        OPEN,
+        /** A single probe is in flight. */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Clock clock;
+
+    private volatile State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+
+    /**
+     * Constructs a closed CircuitBreaker.
+     *
+     * @param failureThreshold The consecutive failures that open the breaker
+     * @param openMillis The time the breaker stays open before a probe
+     * @param clock The clock for the open time
+     */
+    CircuitBreaker(int failureThreshold, long openMillis, Clock clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns whether a send may be attempted, moving an open breaker whose open time has
+     * passed to half-open.
+     *
+     * @return true if the send may go through
+     */
+    boolean allowRequest() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.millis() - openedAt >= openMillis) {
+                    state = State.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            default:
+                // The probe is still in flight
+                return false;
+        }
+    }
+
+    /**
+     * Records a successful send.
+     *
+     * @return true if this closed the breaker
+     */
+    boolean onSuccess() {
+        failures = 0;
+        if (state == State.CLOSED) {
+            return false;
+        }
+        state = State.CLOSED;
+        return true;
+    }
+
+    /**
+     * Records a failed send.
+     *
+     * @return true if this opened the breaker
+     */
+    boolean onFailure() {
+        failures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+            boolean opened = state == State.CLOSED;
+            state = State.OPEN;
+            openedAt = clock.millis();
+            return opened;
+        }
+        return false;
+    }
+
+    /**
+     * Records a send that ingestion answered but refused. It says nothing about the transient
+     * failures the breaker counts, but a refused probe does not show that ingestion accepts
+     * envelopes again, so it keeps the breaker open for another open time.
+     *
+     * @return true if this reopened a half-open breaker
+     */
+    boolean onRejected() {
+        if (state != State.HALF_OPEN) {
+            return false;
+        }
+        state = State.OPEN;
+        openedAt = clock.millis();
+        return true;
+    }
+
+    /**
+     * Returns whether the breaker is open and its open time has not passed yet.
+     *
+     * @return true if {@link #allowRequest()} would refuse without changing the state
+     */
+    boolean isCoolingDown() {
+        return state == State.OPEN && clock.millis() - openedAt < openMillis;
+    }
+
+    /**
+     * Returns the current state.
+     *
+     * @return The state
+     */
+    State state() {
+        return state;
+    }
+}
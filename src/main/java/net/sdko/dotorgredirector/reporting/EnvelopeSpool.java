@@ -0,0 +1,227 @@
+package net.sdko.dotorgredirector.reporting;
+
+import io.sentry.IEnvelopeReader;
+import io.sentry.ISerializer;
+import io.sentry.SentryEnvelope;
+import io.sentry.SentryOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Size-capped directory of envelopes waiting to be sent, oldest first.
+ *
+ * <p>Each envelope is serialized to its own file, written to a temporary name and renamed, so a
+ * crash never leaves a partial envelope behind. File names carry a sequence number, so the
+ * spool survives restarts in order. When a new envelope does not fit, the oldest ones are
+ * deleted: recent errors are worth more than old ones.
+ */
+final class EnvelopeSpool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EnvelopeSpool.class);
+
+    private static final String SUFFIX = ".envelope";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final ISerializer serializer;
+    private final IEnvelopeReader reader;
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+
+    private long bytes;
+    private long sequence;
+    private long evicted;
+
+    /**
+     * Opens a spool, picking up the envelopes left by a previous run.
+     *
+     * @param directory The spool directory, created if needed
+     * @param maxBytes The size in bytes the spool stays below
+     * @param options The Sentry options that provide the serializer and envelope reader
+     * @throws IOException If the directory cannot be created or read
+     */
+    EnvelopeSpool(Path directory, long maxBytes, SentryOptions options) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.serializer = options.getSerializer();
+        this.reader = options.getEnvelopeReader();
+        Files.createDirectories(directory);
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                } else if (name.endsWith(SUFFIX)) {
+                    files.add(file);
+                }
+            }
+        }
+        // Names are zero-padded sequence numbers, so they sort in write order
+        files.sort(null);
+        for (Path file : files) {
+            long size = Files.size(file);
+            entries.addLast(new Entry(file, size));
+            bytes += size;
+            sequence = Math.max(sequence, sequenceOf(file) + 1);
+        }
+    }
+
+    /**
+     * Writes an envelope to the end of the spool, deleting the oldest envelopes if needed.
+     *
+     * @param envelope The envelope
+     * @return true if the envelope was written
+     */
+    synchronized boolean write(SentryEnvelope envelope) {
+        byte[] serialized;
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+            serializer.serialize(envelope, out);
+            serialized = out.toByteArray();
+        } catch (Exception e) {
+            LOGGER.warn("Failed to serialize Sentry envelope for the spool: {}", e.getMessage());
+            return false;
+        }
+        if (serialized.length > maxBytes) {
+            return false;
+        }
+        while (!entries.isEmpty() && bytes + serialized.length > maxBytes) {
+            delete(entries.pollFirst());
+            evicted++;
+        }
+
+        Path file = directory.resolve(String.format("%020d%s", sequence++, SUFFIX));
+        Path temp = directory.resolve(file.getFileName() + TEMP_SUFFIX);
+        try {
+            Files.write(temp, serialized);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to spool Sentry envelope to {}: {}", file, e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Picked up as a leftover on the next start
+            }
+            return false;
+        }
+        entries.addLast(new Entry(file, serialized.length));
+        bytes += serialized.length;
+        return true;
+    }
+
+    /**
+     * Reads the oldest envelope without removing it. Files that cannot be read are deleted.
+     *
+     * @return The oldest entry, or null if the spool is empty
+     */
+    synchronized Entry peek() {
+        while (!entries.isEmpty()) {
+            Entry entry = entries.peekFirst();
+            try (InputStream in = Files.newInputStream(entry.file)) {
+                SentryEnvelope envelope = reader.read(in);
+                if (envelope != null) {
+                    entry.envelope = envelope;
+                    return entry;
+                }
+            } catch (IOException | RuntimeException e) {
+                // The reader rejects malformed envelopes with runtime exceptions
+                LOGGER.debug("Dropping unreadable spooled envelope {}: {}", entry.file, e.getMessage());
+            }
+            delete(entries.pollFirst());
+        }
+        return null;
+    }
+
+    /**
+     * Removes an entry returned by {@link #peek()}, unless it was evicted in the meantime.
+     *
+     * @param entry The entry
+     */
+    synchronized void remove(Entry entry) {
+        if (entries.remove(entry)) {
+            delete(entry);
+        }
+    }
+
+    /**
+     * Returns the number of spooled envelopes.
+     *
+     * @return The number of envelopes
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the size of the spooled envelopes.
+     *
+     * @return The size in bytes
+     */
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the number of envelopes deleted to stay below the size cap.
+     *
+     * @return The number of evicted envelopes
+     */
+    synchronized long evicted() {
+        return evicted;
+    }
+
+    private void delete(Entry entry) {
+        bytes -= entry.size;
+        try {
+            Files.deleteIfExists(entry.file);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete spooled Sentry envelope {}: {}", entry.file, e.getMessage());
+        }
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * A spooled envelope file.
+     */
+    static final class Entry {
+
+        private final Path file;
+        private final long size;
+        private SentryEnvelope envelope;
+
+        Entry(Path file, long size) {
+            this.file = file;
+            this.size = size;
+        }
+
+        /**
+         * Returns the envelope read by {@link EnvelopeSpool#peek()}.
+         *
+         * @return The envelope
+         */
+        SentryEnvelope envelope() {
+            return envelope;
+        }
+    }
+}
@@ -0,0 +1,497 @@
+package net.sdko.dotorgredirector.reporting;
+
+import io.sentry.Hint;
+import io.sentry.RequestDetails;
+import io.sentry.SentryEnvelope;
+import io.sentry.SentryOptions;
+import io.sentry.hints.DiskFlushNotification;
+import io.sentry.transport.ITransport;
+import io.sentry.transport.RateLimiter;
+import io.sentry.util.HintUtils;
+import net.sdko.dotorgredirector.config.AppProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sentry transport that sends envelopes from its own thread, behind a circuit breaker, and
+ * spools them to disk while ingestion fails.
+ *
+ * <p>{@link #send(SentryEnvelope, Hint)} only offers the envelope to a bounded queue, so the
+ * threads capturing events and finishing transactions never wait for Sentry; when the queue is
+ * full the envelope is dropped and counted. A single sender thread posts the envelopes. After
+ * {@code failureThreshold} consecutive failures, i.e. I/O errors, timeouts and 5xx responses,
+ * the breaker opens and envelopes go to a size-capped {@link EnvelopeSpool} instead, or are
+ * dropped and counted when no spool directory is configured. Once the open time has passed, one envelope probes ingestion; when it goes through, the breaker closes
+ * and the spool is replayed, oldest first, whenever the queue is empty.
+ *
+ * <p>Rate limits sent by Sentry are honoured through the SDK's {@link RateLimiter}; envelopes
+ * whose items are all rate limited are dropped and counted, also when they come from the spool,
+ * without using up the breaker's probe. Rejected
+ * envelopes (4xx) are dropped, since sending them again would not help, and counted apart: a
+ * revoked DSN or a rate limit answers every send with 4xx, so a rejection neither counts as a
+ * successful send nor closes the breaker.
+ */
+public final class SpoolingTransport implements ITransport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpoolingTransport.class);
+
+    private static final long MAX_POLL_MILLIS = 1000;
+
+    /**
+     * Outcome of posting an envelope.
+     */
+    enum Result {
+        /** Ingestion accepted the envelope. */
+        SENT,
+        /** Ingestion answered but refused the envelope, which must not be sent again. */
+        REJECTED,
+        /** Ingestion could not be reached or failed; the envelope can be sent again. */
+        FAILED
+    }
+
+    private final SentryOptions options;
+    private final RequestDetails requestDetails;
+    private final Clock clock;
+    private final RateLimiter rateLimiter;
+    private final CircuitBreaker breaker;
+    private final ArrayBlockingQueue<SentryEnvelope> queue;
+    private final EnvelopeSpool spool;
+    private final long pollMillis;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicInteger unsent = new AtomicInteger();
+    private final HttpClient httpClient;
+
+    private volatile boolean running;
+    private volatile long lastSuccessAt;
+    private volatile long lastRejectedAt;
+    private Thread sender;
+
+    /**
+     * Constructs the transport. It sends nothing until {@link #start()} is called.
+     *
+     * @param options The Sentry options
+     * @param requestDetails The ingestion URL and headers
+     * @param settings The transport settings
+     */
+    public SpoolingTransport(
+            SentryOptions options, RequestDetails requestDetails, AppProperties.SentryTransport settings) {
+        this(options, requestDetails, settings, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs the transport with a specific clock.
+     *
+     * @param options The Sentry options
+     * @param requestDetails The ingestion URL and headers
+     * @param settings The transport settings
+     * @param clock The clock for the breaker's open time
+     */
+    SpoolingTransport(SentryOptions options, RequestDetails requestDetails,
+            AppProperties.SentryTransport settings, Clock clock) {
+        this.options = options;
+        this.requestDetails = requestDetails;
+        this.clock = clock;
+        this.rateLimiter = new RateLimiter(options);
+        long openMillis = TimeUnit.SECONDS.toMillis(settings.getOpenSeconds());
+        this.breaker = new CircuitBreaker(settings.getFailureThreshold(), openMillis, clock);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, settings.getQueueSize()));
+        this.spool = openSpool(settings, options);
+        this.pollMillis = Math.max(10, Math.min(MAX_POLL_MILLIS, openMillis / 2));
+        this.httpClient = buildHttpClient(options);
+    }
+
+    /**
+     * Starts the sender thread.
+     */
+    public synchronized void start() {
+        if (sender != null) {
+            return;
+        }
+        running = true;
+        sender = new Thread(this::sendLoop, "sentry-transport");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    @Override
+    public void send(SentryEnvelope envelope, Hint hint) throws IOException {
+        if (HintUtils.hasType(hint, DiskFlushNotification.class)) {
+            // The SDK waits for events of a crashing thread to be on disk
+            DiskFlushNotification notification = (DiskFlushNotification) HintUtils.getSentrySdkHint(hint);
+            if (spool != null && spool.write(envelope)
+                    && notification.isFlushable(envelope.getHeader().getEventId())) {
+                notification.markFlushed();
+            }
+            return;
+        }
+        unsent.incrementAndGet();
+        if (!queue.offer(envelope)) {
+            unsent.decrementAndGet();
+            dropped.increment();
+            LOGGER.debug("Sentry transport queue is full, dropping envelope");
+        }
+    }
+
+    @Override
+    public boolean isHealthy() {
+        return breaker.state() == CircuitBreaker.State.CLOSED;
+    }
+
+    @Override
+    public void flush(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (unsent.get() > 0 && running && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    @Override
+    public void close() throws IOException {
+        close(false);
+    }
+
+    @Override
+    public void close(boolean isRestarting) throws IOException {
+        Thread current;
+        synchronized (this) {
+            current = sender;
+            sender = null;
+        }
+        if (current != null) {
+            flush(isRestarting ? 0 : options.getShutdownTimeoutMillis());
+            running = false;
+            current.interrupt();
+            try {
+                current.join(options.getShutdownTimeoutMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Keep what could not be sent for the next run
+        List<SentryEnvelope> queued = new ArrayList<>();
+        queue.drainTo(queued);
+        if (spool != null) {
+            queued.forEach(spool::write);
+        }
+        rateLimiter.close();
+        httpClient.close();
+    }
+
+    /**
+     * Returns whether the breaker is holding envelopes back.
+     *
+     * @return true if the breaker is open or probing
+     */
+    public boolean isCircuitOpen() {
+        return breaker.state() != CircuitBreaker.State.CLOSED;
+    }
+
+    /**
+     * Returns the number of envelopes in the spool.
+     *
+     * @return The number of spooled envelopes
+     */
+    public int getSpooledCount() {
+        return spool != null ? spool.size() : 0;
+    }
+
+    /**
+     * Returns the number of envelopes dropped because the queue or the spool was full, or because
+     * Sentry's rate limits covered all of their items.
+     *
+     * @return The number of dropped envelopes
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the number of envelopes waiting in the queue or being sent.
+     *
+     * @return The queue depth
+     */
+    public int getQueueDepth() {
+        return unsent.get();
+    }
+
+    /**
+     * Returns the number of sends that failed with an I/O error, a timeout or a 5xx response.
+     *
+     * @return The number of failed sends
+     */
+    public long getFailedCount() {
+        return failures.sum();
+    }
+
+    /**
+     * Returns the number of sends that ingestion answered with a 4xx response, or that could not
+     * be serialized.
+     *
+     * @return The number of rejected sends
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns when ingestion last refused an envelope.
+     *
+     * @return The epoch millis of the last rejected send, or 0 if none was rejected yet
+     */
+    public long getLastRejectedAt() {
+        return lastRejectedAt;
+    }
+
+    /**
+     * Returns when ingestion last accepted an envelope.
+     *
+     * @return The epoch millis of the last successful send, or 0 if none succeeded yet
+     */
+    public long getLastSuccessAt() {
+        return lastSuccessAt;
+    }
+
+    /**
+     * Checks that the ingestion endpoint answers, with a HEAD request that Sentry does not
+     * ingest and that carries no envelope.
+     *
+     * @return The HTTP status of the answer
+     * @throws IOException If the endpoint cannot be reached
+     * @throws InterruptedException If the calling thread is interrupted while waiting
+     */
+    public int verifyConnectivity() throws IOException, InterruptedException {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(requestDetails.getUrl().toURI())
+                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .timeout(Duration.ofMillis(options.getReadTimeoutMillis()))
+                    .build();
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid Sentry ingestion URL: " + e.getMessage(), e);
+        }
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private void sendLoop() {
+        while (running) {
+            SentryEnvelope envelope;
+            try {
+                envelope = queue.poll(pollMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            try {
+                if (envelope != null) {
+                    deliver(envelope);
+                }
+                replay();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Unexpected error in the Sentry transport: {}", e.getMessage(), e);
+            } finally {
+                if (envelope != null) {
+                    unsent.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    private void deliver(SentryEnvelope envelope) {
+        SentryEnvelope filtered = rateLimiter.filter(envelope, new Hint());
+        if (filtered == null) {
+            dropped.increment();
+            return;
+        }
+        if (!breaker.allowRequest()) {
+            spool(filtered);
+            return;
+        }
+        switch (post(filtered)) {
+            case SENT -> succeeded();
+            case REJECTED -> rejected();
+            case FAILED -> {
+                failed();
+                spool(filtered);
+            }
+        }
+    }
+
+    /**
+     * Sends spooled envelopes while nothing new is queued and the breaker lets them through.
+     */
+    private void replay() {
+        if (spool == null) {
+            return;
+        }
+        while (running && queue.isEmpty() && spool.size() > 0 && !breaker.isCoolingDown()) {
+            EnvelopeSpool.Entry entry = spool.peek();
+            if (entry == null) {
+                return;
+            }
+            // Rate limited envelopes are dropped before the breaker is asked, so they never take the probe
+            SentryEnvelope filtered = rateLimiter.filter(entry.envelope(), new Hint());
+            if (filtered == null) {
+                spool.remove(entry);
+                dropped.increment();
+                continue;
+            }
+            if (!breaker.allowRequest()) {
+                return;
+            }
+            Result result = post(filtered);
+            if (result == Result.FAILED) {
+                failed();
+                return;
+            }
+            spool.remove(entry);
+            if (result == Result.SENT) {
+                succeeded();
+            } else {
+                rejected();
+            }
+        }
+    }
+
+    private void spool(SentryEnvelope envelope) {
+        if (spool == null || !spool.write(envelope)) {
+            dropped.increment();
+        }
+    }
+
+    private void succeeded() {
+        lastSuccessAt = clock.millis();
+        if (breaker.onSuccess()) {
+            LOGGER.info("Sentry ingestion recovered, replaying {} spooled envelopes", getSpooledCount());
+        }
+    }
+
+    private void rejected() {
+        rejected.increment();
+        lastRejectedAt = clock.millis();
+        if (breaker.onRejected()) {
+            LOGGER.warn("Sentry ingestion refused the probe envelope, keeping the breaker open");
+        }
+    }
+
+    private void failed() {
+        failures.increment();
+        if (breaker.onFailure()) {
+            LOGGER.warn("Sentry ingestion keeps failing, spooling envelopes to disk until it recovers");
+        }
+    }
+
+    /**
+     * Posts an envelope to the ingestion endpoint.
+     *
+     * @param envelope The envelope
+     * @return The outcome
+     */
+    Result post(SentryEnvelope envelope) {
+        byte[] body;
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+            options.getSerializer().serialize(envelope, out);
+            body = out.toByteArray();
+        } catch (Exception e) {
+            LOGGER.warn("Failed to serialize Sentry envelope: {}", e.getMessage());
+            return Result.REJECTED;
+        }
+
+        HttpRequest.Builder request;
+        try {
+            request = HttpRequest.newBuilder(requestDetails.getUrl().toURI());
+        } catch (URISyntaxException e) {
+            LOGGER.warn("Invalid Sentry ingestion URL: {}", e.getMessage());
+            return Result.REJECTED;
+        }
+        request.timeout(Duration.ofMillis(options.getReadTimeoutMillis()))
+                .header("Content-Type", "application/x-sentry-envelope")
+                .header("Accept", "application/json");
+        for (Map.Entry<String, String> header : requestDetails.getHeaders().entrySet()) {
+            request.header(header.getKey(), header.getValue());
+        }
+
+        int status;
+        try {
+            HttpResponse<Void> response = httpClient.send(
+                    request.POST(HttpRequest.BodyPublishers.ofByteArray(body)).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            status = response.statusCode();
+            rateLimiter.updateRetryAfterLimits(
+                    response.headers().firstValue("X-Sentry-Rate-Limits").orElse(null),
+                    response.headers().firstValue("Retry-After").orElse(null),
+                    status);
+        } catch (IOException e) {
+            LOGGER.debug("Failed to send Sentry envelope: {}", e.toString());
+            return Result.FAILED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.FAILED;
+        }
+
+        if (status >= 200 && status < 300) {
+            return Result.SENT;
+        }
+        if (status >= 400 && status < 500) {
+            LOGGER.debug("Sentry rejected envelope with status {}", status);
+            return Result.REJECTED;
+        }
+        LOGGER.debug("Sentry ingestion failed with status {}", status);
+        return Result.FAILED;
+    }
+
+    private static EnvelopeSpool openSpool(AppProperties.SentryTransport settings, SentryOptions options) {
+        if (settings.getSpoolDirectory() == null) {
+            return null;
+        }
+        try {
+            return new EnvelopeSpool(Path.of(settings.getSpoolDirectory()), settings.getMaxSpoolSize(), options);
+        } catch (IOException e) {
+            LOGGER.warn("Cannot open Sentry spool {}, envelopes are dropped while ingestion fails: {}",
+                    settings.getSpoolDirectory(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static HttpClient buildHttpClient(SentryOptions options) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(options.getConnectionTimeoutMillis()));
+        SentryOptions.Proxy proxy = options.getProxy();
+        if (proxy != null && proxy.getHost() != null && proxy.getPort() != null) {
+            builder.proxy(ProxySelector.of(
+                    InetSocketAddress.createUnresolved(proxy.getHost(), Integer.parseInt(proxy.getPort()))));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,70 @@
+package net.sdko.dotorgredirector.reporting;
+
+import io.sentry.ITransportFactory;
+import io.sentry.RequestDetails;
+import io.sentry.SentryOptions;
+import io.sentry.transport.ITransport;
+import net.sdko.dotorgredirector.config.AppProperties;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Creates a started {@link SpoolingTransport} for each Sentry client.
+ */
+public class SpoolingTransportFactory implements ITransportFactory {
+
+    private final AppProperties.SentryTransport settings;
+
+    private volatile SpoolingTransport current;
+
+    /**
+     * Constructs a SpoolingTransportFactory, checking the spool directory up front so that an
+     * unusable one fails startup rather than the first outage.
+     *
+     * @param settings The transport settings
+     * @throws IllegalArgumentException If the spool directory is not an absolute path
+     * @throws IllegalStateException If the spool directory cannot be created or written
+     */
+    public SpoolingTransportFactory(AppProperties.SentryTransport settings) {
+        String spoolDirectory = settings.getSpoolDirectory();
+        if (spoolDirectory != null) {
+            checkSpoolDirectory(spoolDirectory);
+        }
+        this.settings = settings;
+    }
+
+    @Override
+    public ITransport create(SentryOptions options, RequestDetails requestDetails) {
+        SpoolingTransport transport = new SpoolingTransport(options, requestDetails, settings);
+        transport.start();
+        current = transport;
+        return transport;
+    }
+
+    private static void checkSpoolDirectory(String configured) {
+        if (configured.isEmpty() || !Path.of(configured).isAbsolute()) {
+            throw new IllegalArgumentException(
+                    "app.sentryTransport.spoolDirectory must be an absolute path, got: " + configured);
+        }
+        Path directory;
+        try {
+            directory = Files.createDirectories(Path.of(configured));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create Sentry spool directory " + configured, e);
+        }
+        if (!Files.isWritable(directory)) {
+            throw new IllegalStateException("Sentry spool directory is not writable: " + directory);
+        }
+    }
+
+    /**
+     * Returns the transport created last, which belongs to the current Sentry client.
+     *
+     * @return The transport, or null if none was created yet
+     */
+    public SpoolingTransport current() {
+        return current;
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * Error reporting for the dot-org redirector application.
+ *
+ * This package contains the transport that sends envelopes to Sentry from
+ * its own thread and bounded queue, stops sending behind a circuit breaker
+ * while ingestion fails, and spools envelopes to disk until it recovers.
+ */
+package net.sdko.dotorgredirector.reporting;
@@ -0,0 +1,68 @@
+package net.sdko.dotorgredirector.server;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of equally sized direct buffers.
+ *
+ * <p>Connections only hold a buffer while part of a request is waiting to be parsed, so the
+ * pool stays about as large as the number of requests in flight rather than the number of open
+ * connections.
+ */
+final class BufferPool {
+
+    private final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final int bufferSize;
+    private final int maxPooled;
+
+    /**
+     * Constructs a pool.
+     *
+     * @param bufferSize The size of each buffer in bytes
+     * @param maxPooled The maximum number of idle buffers kept
+     */
+    BufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Takes a cleared buffer from the pool, allocating one if the pool is empty.
+     *
+     * @return A buffer ready for writing
+     */
+    ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        pooled.decrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool, dropping it if the pool is full.
+     *
+     * @param buffer The buffer
+     */
+    void release(ByteBuffer buffer) {
+        if (pooled.incrementAndGet() > maxPooled) {
+            pooled.decrementAndGet();
+            return;
+        }
+        buffer.clear();
+        buffers.offer(buffer);
+    }
+
+    /**
+     * Returns the number of idle buffers in the pool.
+     *
+     * @return The number of idle buffers
+     */
+    int size() {
+        return pooled.get();
+    }
+}
@@ -0,0 +1,304 @@
+package net.sdko.dotorgredirector.server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Single-threaded selector loop serving the connections handed to it.
+ *
+ * <p>Requests are parsed straight from pooled direct buffers and answered with gathering
+ * writes. Pipelined requests are answered in order; while a response cannot be written in full,
+ * the connection stops reading until the rest has been sent. A connection that opens with the
+ * HTTP/2 preface is handed to an {@link Http2Session} instead.
+ */
+final class EventLoop implements Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventLoop.class);
+
+    private final Selector selector;
+    private final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+    private final RedirectResponder responder;
+    private final BufferPool bufferPool;
+    private final BufferPool http2BufferPool;
+    private final HttpRequestParser parser;
+    private final int bufferSize;
+    private final long idleTimeoutNanos;
+    private volatile boolean running = true;
+
+    /**
+     * Constructs an event loop.
+     *
+     * @param responder The responder
+     * @param bufferPool The read buffer pool
+     * @param http2BufferPool The read buffer pool for HTTP/2 connections, whose buffers hold at
+     *                        least {@link Http2Session#MIN_READ_BUFFER_SIZE} bytes
+     * @param bufferSize The read buffer size, which bounds request lines and HTTP/2 header blocks
+     * @param idleTimeoutNanos The time after which idle connections are closed
+     * @throws IOException If the selector cannot be opened
+     */
+    EventLoop(RedirectResponder responder, BufferPool bufferPool, BufferPool http2BufferPool, int bufferSize,
+            long idleTimeoutNanos) throws IOException {
+        this.selector = Selector.open();
+        this.responder = responder;
+        this.bufferPool = bufferPool;
+        this.http2BufferPool = http2BufferPool;
+        this.parser = new HttpRequestParser(bufferSize);
+        this.bufferSize = bufferSize;
+        this.idleTimeoutNanos = idleTimeoutNanos;
+    }
+
+    /**
+     * Hands an accepted connection to this loop. Safe to call from any thread.
+     *
+     * @param channel The accepted channel
+     */
+    void register(SocketChannel channel) {
+        pending.add(channel);
+        selector.wakeup();
+    }
+
+    /**
+     * Stops the loop and closes its connections.
+     */
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        long nextSweep = System.nanoTime() + idleTimeoutNanos;
+        try {
+            while (running) {
+                selector.select(1000);
+                registerPending();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+                long now = System.nanoTime();
+                if (now - nextSweep >= 0) {
+                    closeIdle(now);
+                    nextSweep = now + Math.min(idleTimeoutNanos, 1_000_000_000L);
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            LOGGER.error("Redirect server event loop failed", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                close(key);
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                LOGGER.debug("Failed to close selector", e);
+            }
+        }
+    }
+
+    private void registerPending() {
+        SocketChannel channel;
+        while ((channel = pending.poll()) != null) {
+            try {
+                channel.configureBlocking(false);
+                channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+            } catch (IOException e) {
+                LOGGER.debug("Failed to register connection", e);
+                closeQuietly(channel);
+            }
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isValid() && key.isWritable()) {
+                flush(key, connection);
+            }
+            if (key.isValid() && key.isReadable()) {
+                read(key, connection);
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Connection failed: {}", e.getMessage());
+            close(key);
+        }
+    }
+
+    private void read(SelectionKey key, Connection connection) throws IOException {
+        if (connection.buffer == null) {
+            connection.buffer = pool(connection).acquire();
+        }
+        int read = connection.channel.read(connection.buffer);
+        if (read < 0) {
+            close(key);
+            return;
+        }
+        connection.lastActive = System.nanoTime();
+        process(key, connection);
+    }
+
+    /**
+     * Answers the complete requests in the connection's buffer.
+     */
+    private void process(SelectionKey key, Connection connection) throws IOException {
+        ByteBuffer buffer = connection.buffer;
+        if (buffer == null) {
+            return;
+        }
+        buffer.flip();
+        try {
+            while (connection.unsent == null && !connection.closing && buffer.hasRemaining()) {
+                if (connection.http2 != null) {
+                    ByteBuffer[] frames = connection.http2.process(buffer);
+                    if (frames != null) {
+                        send(key, connection, frames, connection.http2.isClosed());
+                    } else if (connection.http2.isClosed()) {
+                        close(key);
+                    }
+                    break;
+                }
+                if (!connection.http1) {
+                    int preface = Http2Session.matchPreface(buffer);
+                    if (preface == 0) {
+                        break;
+                    }
+                    if (preface > 0) {
+                        connection.http2 = new Http2Session(responder, bufferSize);
+                        buffer = growForHttp2(connection, buffer);
+                        continue;
+                    }
+                }
+                HttpRequestParser.HttpRequest request = parser.parse(buffer);
+                if (request == null) {
+                    if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+                        send(key, connection, responder.reject(431), true);
+                    }
+                    break;
+                }
+                connection.http1 = true;
+                send(key, connection, responder.respond(request), !request.keepAlive());
+            }
+        } catch (HttpRequestParser.HttpParseException e) {
+            LOGGER.debug("Rejected request: {}", e.getMessage());
+            send(key, connection, responder.reject(e.status()), true);
+        }
+        if (!key.isValid()) {
+            return;
+        }
+        buffer.compact();
+        if (buffer.position() == 0) {
+            pool(connection).release(buffer);
+            connection.buffer = null;
+        }
+    }
+
+    /**
+     * Moves the unread bytes of a connection that switched to HTTP/2 into a buffer that holds a
+     * whole frame of the default maximum size.
+     *
+     * @return The connection's buffer, in read mode
+     */
+    private ByteBuffer growForHttp2(Connection connection, ByteBuffer buffer) {
+        if (buffer.capacity() >= Http2Session.MIN_READ_BUFFER_SIZE) {
+            return buffer;
+        }
+        ByteBuffer larger = http2BufferPool.acquire();
+        larger.put(buffer).flip();
+        bufferPool.release(buffer);
+        connection.buffer = larger;
+        return larger;
+    }
+
+    private BufferPool pool(Connection connection) {
+        return connection.http2 != null ? http2BufferPool : bufferPool;
+    }
+
+    private void send(SelectionKey key, Connection connection, ByteBuffer[] response, boolean close)
+            throws IOException {
+        connection.closing = close;
+        connection.channel.write(response);
+        if (response[response.length - 1].hasRemaining()) {
+            connection.unsent = response;
+            key.interestOps(SelectionKey.OP_WRITE);
+        } else if (close) {
+            close(key);
+        }
+    }
+
+    private void flush(SelectionKey key, Connection connection) throws IOException {
+        ByteBuffer[] unsent = connection.unsent;
+        connection.channel.write(unsent);
+        if (unsent[unsent.length - 1].hasRemaining()) {
+            return;
+        }
+        connection.unsent = null;
+        connection.lastActive = System.nanoTime();
+        if (connection.closing) {
+            close(key);
+            return;
+        }
+        key.interestOps(SelectionKey.OP_READ);
+        // Answer requests that were pipelined behind the one just sent
+        process(key, connection);
+    }
+
+    private void closeIdle(long now) {
+        for (SelectionKey key : selector.keys()) {
+            Connection connection = (Connection) key.attachment();
+            if (connection != null && now - connection.lastActive > idleTimeoutNanos) {
+                close(key);
+            }
+        }
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        Connection connection = (Connection) key.attachment();
+        if (connection == null) {
+            return;
+        }
+        if (connection.buffer != null) {
+            pool(connection).release(connection.buffer);
+            connection.buffer = null;
+        }
+        closeQuietly(connection.channel);
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.debug("Failed to close connection", e);
+        }
+    }
+
+    /**
+     * State of one connection, only touched by the loop thread.
+     */
+    private static final class Connection {
+
+        final SocketChannel channel;
+        ByteBuffer buffer;
+        ByteBuffer[] unsent;
+        boolean closing;
+        boolean http1;
+        Http2Session http2;
+        long lastActive = System.nanoTime();
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
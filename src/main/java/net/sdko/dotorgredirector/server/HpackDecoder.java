@@ -0,0 +1,323 @@
+package net.sdko.dotorgredirector.server;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HPACK (RFC 7541) decoder for the header blocks of one HTTP/2 connection.
+ *
+ * <p>Every header field is decoded, because later blocks may refer to fields added to the
+ * dynamic table, but only the sink decides what to keep. Instances hold the connection's
+ * dynamic table and are only used by its event loop thread.
+ */
+final class HpackDecoder {
+
+    /**
+     * The static table of RFC 7541 appendix A, as name and value pairs; index 1 is at 0.
+     */
+    private static final String[][] STATIC_TABLE = {
+        {":authority", ""}, {":method", "GET"}, {":method", "POST"}, {":path", "/"},
+        {":path", "/index.html"}, {":scheme", "http"}, {":scheme", "https"}, {":status", "200"},
+        {":status", "204"}, {":status", "206"}, {":status", "304"}, {":status", "400"},
+        {":status", "404"}, {":status", "500"}, {"accept-charset", ""},
+        {"accept-encoding", "gzip, deflate"}, {"accept-language", ""}, {"accept-ranges", ""},
+        {"accept", ""}, {"access-control-allow-origin", ""}, {"age", ""}, {"allow", ""},
+        {"authorization", ""}, {"cache-control", ""}, {"content-disposition", ""},
+        {"content-encoding", ""}, {"content-language", ""}, {"content-length", ""},
+        {"content-location", ""}, {"content-range", ""}, {"content-type", ""}, {"cookie", ""},
+        {"date", ""}, {"etag", ""}, {"expect", ""}, {"expires", ""}, {"from", ""}, {"host", ""},
+        {"if-match", ""}, {"if-modified-since", ""}, {"if-none-match", ""}, {"if-range", ""},
+        {"if-unmodified-since", ""}, {"last-modified", ""}, {"link", ""}, {"location", ""},
+        {"max-forwards", ""}, {"proxy-authenticate", ""}, {"proxy-authorization", ""},
+        {"range", ""}, {"referer", ""}, {"refresh", ""}, {"retry-after", ""}, {"server", ""},
+        {"set-cookie", ""}, {"strict-transport-security", ""}, {"transfer-encoding", ""},
+        {"user-agent", ""}, {"vary", ""}, {"via", ""}, {"www-authenticate", ""}
+    };
+
+    /**
+     * Huffman code lengths of RFC 7541 appendix B by symbol, 256 being EOS. The code is
+     * canonical, so the codes themselves follow from the lengths.
+     */
+    private static final int[] HUFFMAN_CODE_LENGTHS = {
+        13, 23, 28, 28, 28, 28, 28, 28, 28, 24, 30, 28, 28, 30, 28, 28,
+        28, 28, 28, 28, 28, 28, 30, 28, 28, 28, 28, 28, 28, 28, 28, 28,
+        6, 10, 10, 12, 13, 6, 8, 11, 10, 10, 8, 11, 8, 6, 6, 6,
+        5, 5, 5, 6, 6, 6, 6, 6, 6, 6, 7, 8, 15, 6, 12, 10,
+        13, 6, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7,
+        7, 7, 7, 7, 7, 7, 7, 7, 8, 7, 8, 13, 19, 13, 14, 6,
+        15, 5, 6, 5, 6, 5, 6, 6, 6, 5, 7, 7, 6, 6, 6, 5,
+        6, 7, 6, 5, 5, 6, 7, 7, 7, 7, 7, 15, 11, 14, 13, 28,
+        20, 22, 20, 20, 22, 22, 22, 23, 22, 23, 23, 23, 23, 23, 24, 23,
+        24, 24, 22, 23, 24, 23, 23, 23, 23, 21, 22, 23, 22, 23, 23, 24,
+        22, 21, 20, 22, 22, 23, 23, 21, 23, 22, 22, 24, 21, 22, 23, 23,
+        21, 21, 22, 21, 23, 22, 23, 23, 20, 22, 22, 22, 23, 22, 22, 23,
+        26, 26, 20, 19, 22, 23, 22, 25, 26, 26, 26, 27, 27, 26, 24, 25,
+        19, 21, 26, 27, 27, 26, 27, 24, 21, 21, 26, 26, 28, 27, 27, 27,
+        20, 24, 20, 21, 22, 21, 21, 23, 22, 22, 25, 25, 24, 24, 26, 23,
+        26, 27, 26, 26, 27, 27, 27, 27, 27, 28, 27, 27, 27, 27, 27, 26,
+        30
+    };
+
+    private static final int MAX_CODE_LENGTH = 30;
+    private static final int EOS = 256;
+
+    /** Per code length: the first canonical code, the number of codes, and their offset in SYMBOLS. */
+    private static final int[] FIRST_CODE = new int[MAX_CODE_LENGTH + 1];
+    private static final int[] CODE_COUNT = new int[MAX_CODE_LENGTH + 1];
+    private static final int[] SYMBOL_OFFSET = new int[MAX_CODE_LENGTH + 1];
+    private static final int[] SYMBOLS = new int[HUFFMAN_CODE_LENGTHS.length];
+
+    static {
+        for (int length : HUFFMAN_CODE_LENGTHS) {
+            CODE_COUNT[length]++;
+        }
+        int code = 0;
+        int offset = 0;
+        for (int length = 1; length <= MAX_CODE_LENGTH; length++) {
+            code = (code + CODE_COUNT[length - 1]) << 1;
+            FIRST_CODE[length] = code;
+            SYMBOL_OFFSET[length] = offset;
+            offset += CODE_COUNT[length];
+        }
+        int[] next = SYMBOL_OFFSET.clone();
+        for (int symbol = 0; symbol < HUFFMAN_CODE_LENGTHS.length; symbol++) {
+            SYMBOLS[next[HUFFMAN_CODE_LENGTHS[symbol]]++] = symbol;
+        }
+    }
+
+    /** Per-entry overhead counted against the table size, from RFC 7541 section 4.1. */
+    private static final int ENTRY_OVERHEAD = 32;
+
+    private final int maxTableSize;
+    private final StringBuilder scratch = new StringBuilder();
+
+    // Dynamic table as a ring, newest entry at head
+    private String[] names = new String[16];
+    private String[] values = new String[16];
+    private int head;
+    private int count;
+    private int tableSize;
+    private int tableCapacity;
+
+    /**
+     * Constructs a decoder.
+     *
+     * @param maxTableSize The dynamic table size announced in SETTINGS_HEADER_TABLE_SIZE
+     */
+    HpackDecoder(int maxTableSize) {
+        this.maxTableSize = maxTableSize;
+        this.tableCapacity = maxTableSize;
+    }
+
+    /**
+     * Decodes a complete header block.
+     *
+     * @param block The buffer holding the block
+     * @param start The index of the block's first byte
+     * @param end The index after the block's last byte
+     * @param sink Receives the decoded fields in order
+     * @throws HpackException If the block is malformed
+     */
+    void decode(ByteBuffer block, int start, int end, HeaderSink sink) {
+        int[] position = {start};
+        boolean fieldSeen = false;
+        while (position[0] < end) {
+            int b = block.get(position[0]) & 0xff;
+            if ((b & 0x80) != 0) {
+                int index = readInt(block, position, end, 7);
+                sink.header(name(index), value(index));
+                fieldSeen = true;
+            } else if ((b & 0xc0) == 0x40) {
+                int index = readInt(block, position, end, 6);
+                String name = index == 0 ? readString(block, position, end) : name(index);
+                String value = readString(block, position, end);
+                add(name, value);
+                sink.header(name, value);
+                fieldSeen = true;
+            } else if ((b & 0xe0) == 0x20) {
+                if (fieldSeen) {
+                    throw new HpackException("Table size update after a header field");
+                }
+                int size = readInt(block, position, end, 5);
+                if (size > maxTableSize) {
+                    throw new HpackException("Table size update above the announced maximum");
+                }
+                tableCapacity = size;
+                evict(size);
+            } else {
+                // Literal without indexing (0000) or never indexed (0001)
+                int index = readInt(block, position, end, 4);
+                String name = index == 0 ? readString(block, position, end) : name(index);
+                sink.header(name, readString(block, position, end));
+                fieldSeen = true;
+            }
+        }
+    }
+
+    private String name(int index) {
+        return entry(index, true);
+    }
+
+    private String value(int index) {
+        return entry(index, false);
+    }
+
+    private String entry(int index, boolean name) {
+        if (index <= 0) {
+            throw new HpackException("Invalid index " + index);
+        }
+        if (index <= STATIC_TABLE.length) {
+            return STATIC_TABLE[index - 1][name ? 0 : 1];
+        }
+        int dynamicIndex = index - STATIC_TABLE.length - 1;
+        if (dynamicIndex >= count) {
+            throw new HpackException("Invalid index " + index);
+        }
+        int slot = (head + dynamicIndex) % names.length;
+        return name ? names[slot] : values[slot];
+    }
+
+    private void add(String name, String value) {
+        int size = name.length() + value.length() + ENTRY_OVERHEAD;
+        if (size > tableCapacity) {
+            // Adding an entry larger than the table empties it, RFC 7541 section 4.4
+            evict(tableCapacity);
+            return;
+        }
+        evict(tableCapacity - size);
+        if (count == names.length) {
+            String[] grownNames = new String[count * 2];
+            String[] grownValues = new String[count * 2];
+            for (int i = 0; i < count; i++) {
+                grownNames[i] = names[(head + i) % count];
+                grownValues[i] = values[(head + i) % count];
+            }
+            names = grownNames;
+            values = grownValues;
+            head = 0;
+        }
+        head = (head - 1 + names.length) % names.length;
+        names[head] = name;
+        values[head] = value;
+        count++;
+        tableSize += size;
+    }
+
+    /**
+     * Drops the oldest entries until the table holds at most the given size.
+     */
+    private void evict(int targetSize) {
+        while (tableSize > targetSize || tableSize > tableCapacity) {
+            int slot = (head + count - 1) % names.length;
+            tableSize -= names[slot].length() + values[slot].length() + ENTRY_OVERHEAD;
+            names[slot] = null;
+            values[slot] = null;
+            count--;
+        }
+    }
+
+    /**
+     * Reads an integer with an N-bit prefix, RFC 7541 section 5.1.
+     */
+    private static int readInt(ByteBuffer block, int[] position, int end, int prefixBits) {
+        int mask = (1 << prefixBits) - 1;
+        int value = block.get(position[0]++) & mask;
+        if (value < mask) {
+            return value;
+        }
+        int shift = 0;
+        int b;
+        do {
+            if (position[0] >= end || shift > 21) {
+                throw new HpackException("Malformed integer");
+            }
+            b = block.get(position[0]++) & 0xff;
+            value += (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Reads a string literal, RFC 7541 section 5.2.
+     */
+    private String readString(ByteBuffer block, int[] position, int end) {
+        if (position[0] >= end) {
+            throw new HpackException("Missing string literal");
+        }
+        boolean huffman = (block.get(position[0]) & 0x80) != 0;
+        int length = readInt(block, position, end, 7);
+        int start = position[0];
+        if (length > end - start) {
+            throw new HpackException("String literal exceeds the header block");
+        }
+        position[0] = start + length;
+        if (!huffman) {
+            byte[] bytes = new byte[length];
+            block.get(start, bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+        return decodeHuffman(block, start, start + length);
+    }
+
+    private String decodeHuffman(ByteBuffer block, int start, int end) {
+        StringBuilder text = scratch;
+        text.setLength(0);
+        int code = 0;
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            int b = block.get(i) & 0xff;
+            for (int bit = 7; bit >= 0; bit--) {
+                code = (code << 1) | ((b >>> bit) & 1);
+                length++;
+                int rank = code - FIRST_CODE[length];
+                if (rank >= 0 && rank < CODE_COUNT[length]) {
+                    int symbol = SYMBOLS[SYMBOL_OFFSET[length] + rank];
+                    if (symbol == EOS) {
+                        throw new HpackException("EOS in Huffman string");
+                    }
+                    text.append((char) symbol);
+                    code = 0;
+                    length = 0;
+                } else if (length == MAX_CODE_LENGTH) {
+                    throw new HpackException("Invalid Huffman code");
+                }
+            }
+        }
+        // Padding must be a prefix of EOS, all ones, shorter than a byte
+        if (length > 7 || code != (1 << length) - 1) {
+            throw new HpackException("Invalid Huffman padding");
+        }
+        return text.toString();
+    }
+
+    /**
+     * Receives decoded header fields.
+     */
+    @FunctionalInterface
+    interface HeaderSink {
+
+        /**
+         * Called for each header field of a block, in order.
+         *
+         * @param name The lower-case field name
+         * @param value The field value
+         */
+        void header(String name, String value);
+    }
+
+    /**
+     * Thrown for malformed header blocks, which are connection errors of type COMPRESSION_ERROR.
+     */
+    static final class HpackException extends RuntimeException {
+
+        /**
+         * Constructs an exception.
+         *
+         * @param message The reason
+         */
+        HpackException(String message) {
+            super(message);
+        }
+    }
+}
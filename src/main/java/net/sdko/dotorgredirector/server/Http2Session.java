@@ -0,0 +1,556 @@
+package net.sdko.dotorgredirector.server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HTTP/2 (RFC 9113) state of one cleartext connection that opened with the prior-knowledge
+ * preface.
+ *
+ * <p>Every stream is answered as soon as its request headers are complete, with a single
+ * HEADERS frame that ends the stream, so there are no response bodies and no flow control to
+ * honour on the way out. Request bodies are skipped and credited back to the connection window.
+ *
+ * <p>Response header blocks are assembled from pre-encoded HPACK fields. The first redirect on
+ * a connection adds its {@code :status} to the peer's dynamic table, so later ones refer to it
+ * with a single byte. Location values are unique per request and are sent as raw literals
+ * without indexing, which leaves the per-response work at a length prefix and a copy.
+ */
+final class Http2Session {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Http2Session.class);
+
+    private static final byte[] PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int FRAME_HEADER_LENGTH = 9;
+    private static final int DEFAULT_MAX_FRAME_SIZE = 16384;
+
+    /** Smallest read buffer that holds any frame the peer may send without further settings. */
+    static final int MIN_READ_BUFFER_SIZE = FRAME_HEADER_LENGTH + DEFAULT_MAX_FRAME_SIZE;
+    private static final int DEFAULT_HEADER_TABLE_SIZE = 4096;
+
+    private static final int DATA = 0x0;
+    private static final int HEADERS = 0x1;
+    private static final int RST_STREAM = 0x3;
+    private static final int SETTINGS = 0x4;
+    private static final int PING = 0x6;
+    private static final int GOAWAY = 0x7;
+    private static final int WINDOW_UPDATE = 0x8;
+    private static final int CONTINUATION = 0x9;
+
+    private static final int FLAG_END_STREAM = 0x1;
+    private static final int FLAG_ACK = 0x1;
+    private static final int FLAG_END_HEADERS = 0x4;
+    private static final int FLAG_PADDED = 0x8;
+    private static final int FLAG_PRIORITY = 0x20;
+
+    private static final int SETTINGS_HEADER_TABLE_SIZE = 0x1;
+    private static final int SETTINGS_MAX_HEADER_LIST_SIZE = 0x6;
+
+    static final int NO_ERROR = 0x0;
+    static final int PROTOCOL_ERROR = 0x1;
+    static final int FRAME_SIZE_ERROR = 0x6;
+    static final int COMPRESSION_ERROR = 0x9;
+    static final int ENHANCE_YOUR_CALM = 0xb;
+
+    /** {@code location} as a literal header field without indexing, static name index 46. */
+    private static final byte[] LOCATION_FIELD = {0x0f, 0x1f};
+
+    /** {@code :status} as a literal with incremental indexing, static name index 8. */
+    private static final int STATUS_FIELD_INDEXED = 0x48;
+
+    /** {@code :status} as a literal without indexing, static name index 8. */
+    private static final int STATUS_FIELD_LITERAL = 0x08;
+
+    /** The most recent dynamic table entry. */
+    private static final int NEWEST_DYNAMIC_INDEX = 62;
+
+    /** Size a three-digit {@code :status} entry takes in the peer's dynamic table. */
+    private static final int STATUS_ENTRY_SIZE = ":status".length() + 3 + 32;
+
+    private final RedirectResponder responder;
+    private final int maxHeaderBlock;
+    private final HpackDecoder decoder = new HpackDecoder(DEFAULT_HEADER_TABLE_SIZE);
+    private final FrameWriter out = new FrameWriter();
+
+    private boolean prefaceReceived;
+    private boolean closed;
+    private int lastStreamId;
+    private int skipRemaining;
+    private int unackedData;
+
+    // Header block split over CONTINUATION frames
+    private byte[] pendingBlock;
+    private int pendingLength;
+    private int pendingStreamId;
+    private boolean pendingEndStream;
+    private boolean pendingAnswered;
+
+    // Encoder side of the peer's dynamic table
+    private int peerTableSize = DEFAULT_HEADER_TABLE_SIZE;
+    private int smallestPeerTableSize = DEFAULT_HEADER_TABLE_SIZE;
+    private boolean tableSizeUpdatePending;
+    private int indexedStatus;
+
+    // Pseudo-headers of the block being decoded
+    private String method;
+    private String path;
+
+    /**
+     * Constructs a session and queues the server's connection preface.
+     *
+     * @param responder The responder
+     * @param maxHeaderBlock The largest request header block accepted
+     */
+    Http2Session(RedirectResponder responder, int maxHeaderBlock) {
+        this.responder = responder;
+        this.maxHeaderBlock = maxHeaderBlock;
+        out.frameHeader(6, SETTINGS, 0, 0);
+        out.setting(SETTINGS_MAX_HEADER_LIST_SIZE, maxHeaderBlock);
+    }
+
+    /**
+     * Checks whether a connection's first bytes are the HTTP/2 client preface.
+     *
+     * @param buffer The buffer, in read mode, positioned at the connection's first byte
+     * @return 1 for the full preface, 0 for a prefix of it, -1 for anything else
+     */
+    static int matchPreface(ByteBuffer buffer) {
+        int available = Math.min(buffer.remaining(), PREFACE.length);
+        for (int i = 0; i < available; i++) {
+            if (buffer.get(buffer.position() + i) != PREFACE[i]) {
+                return -1;
+            }
+        }
+        return available == PREFACE.length ? 1 : 0;
+    }
+
+    /**
+     * Consumes the complete frames in the buffer and answers them.
+     *
+     * @param buffer The buffer, in read mode; its position is moved past the consumed frames
+     * @return The bytes to write, or null if there is nothing to send
+     */
+    ByteBuffer[] process(ByteBuffer buffer) {
+        try {
+            if (!prefaceReceived) {
+                if (buffer.remaining() < PREFACE.length) {
+                    return out.drain();
+                }
+                buffer.position(buffer.position() + PREFACE.length);
+                prefaceReceived = true;
+            }
+            while (!closed) {
+                if (skipRemaining > 0) {
+                    int skipped = Math.min(skipRemaining, buffer.remaining());
+                    buffer.position(buffer.position() + skipped);
+                    skipRemaining -= skipped;
+                    if (skipRemaining > 0) {
+                        break;
+                    }
+                }
+                if (buffer.remaining() < FRAME_HEADER_LENGTH) {
+                    break;
+                }
+                int start = buffer.position();
+                int length = ((buffer.get(start) & 0xff) << 16)
+                        | ((buffer.get(start + 1) & 0xff) << 8)
+                        | (buffer.get(start + 2) & 0xff);
+                int type = buffer.get(start + 3) & 0xff;
+                int flags = buffer.get(start + 4) & 0xff;
+                int streamId = buffer.getInt(start + 5) & 0x7fffffff;
+                if (length > DEFAULT_MAX_FRAME_SIZE) {
+                    throw new Http2Exception(FRAME_SIZE_ERROR, "Frame larger than SETTINGS_MAX_FRAME_SIZE");
+                }
+                if (pendingBlock != null && type != CONTINUATION) {
+                    throw new Http2Exception(PROTOCOL_ERROR, "Expected CONTINUATION");
+                }
+                if (type == DATA) {
+                    // Bodies are never read; skip them as they arrive and credit the window
+                    buffer.position(start + FRAME_HEADER_LENGTH);
+                    skipRemaining = length;
+                    unackedData += length;
+                    continue;
+                }
+                if (buffer.remaining() < FRAME_HEADER_LENGTH + length) {
+                    if (FRAME_HEADER_LENGTH + length > buffer.capacity()) {
+                        throw new Http2Exception(ENHANCE_YOUR_CALM, "Frame larger than the read buffer");
+                    }
+                    break;
+                }
+                buffer.position(start + FRAME_HEADER_LENGTH + length);
+                handleFrame(buffer, start + FRAME_HEADER_LENGTH, length, type, flags, streamId);
+            }
+            if (unackedData > 0 && !closed) {
+                out.frameHeader(4, WINDOW_UPDATE, 0, 0);
+                out.int32(unackedData);
+                unackedData = 0;
+            }
+        } catch (Http2Exception e) {
+            goAway(e.errorCode(), e.getMessage());
+        } catch (HpackDecoder.HpackException e) {
+            goAway(COMPRESSION_ERROR, e.getMessage());
+        }
+        return out.drain();
+    }
+
+    /**
+     * Returns whether the connection is to be closed once the pending bytes are written.
+     *
+     * @return True after a GOAWAY was sent or received
+     */
+    boolean isClosed() {
+        return closed;
+    }
+
+    private void handleFrame(ByteBuffer buffer, int payload, int length, int type, int flags, int streamId) {
+        switch (type) {
+            case HEADERS -> headers(buffer, payload, length, flags, streamId);
+            case CONTINUATION -> continuation(buffer, payload, length, flags, streamId);
+            case SETTINGS -> settings(buffer, payload, length, flags, streamId);
+            case PING -> {
+                if (length != 8 || streamId != 0) {
+                    throw new Http2Exception(FRAME_SIZE_ERROR, "Malformed PING");
+                }
+                if ((flags & FLAG_ACK) == 0) {
+                    out.frameHeader(8, PING, FLAG_ACK, 0);
+                    out.bytes(buffer, payload, 8);
+                }
+            }
+            case GOAWAY -> closed = true;
+            default -> {
+                // PRIORITY, RST_STREAM, WINDOW_UPDATE and unknown types need no answer
+            }
+        }
+    }
+
+    private void headers(ByteBuffer buffer, int payload, int length, int flags, int streamId) {
+        if (streamId == 0 || (streamId & 1) == 0) {
+            throw new Http2Exception(PROTOCOL_ERROR, "Invalid stream " + streamId);
+        }
+        // Trailers of a request that was already answered are decoded but otherwise ignored
+        boolean answered = streamId <= lastStreamId;
+        lastStreamId = Math.max(lastStreamId, streamId);
+        int start = payload;
+        int end = payload + length;
+        if ((flags & FLAG_PADDED) != 0) {
+            if (length < 1) {
+                throw new Http2Exception(PROTOCOL_ERROR, "Missing pad length");
+            }
+            end -= buffer.get(start++) & 0xff;
+        }
+        if ((flags & FLAG_PRIORITY) != 0) {
+            start += 5;
+        }
+        if (end < start) {
+            throw new Http2Exception(PROTOCOL_ERROR, "Padding exceeds the frame");
+        }
+        boolean endStream = (flags & FLAG_END_STREAM) != 0;
+        if ((flags & FLAG_END_HEADERS) != 0) {
+            if (end - start > maxHeaderBlock) {
+                throw new Http2Exception(ENHANCE_YOUR_CALM, "Header block too large");
+            }
+            answer(buffer, start, end, streamId, endStream, answered);
+            return;
+        }
+        pendingBlock = new byte[Math.max(end - start, 256)];
+        pendingLength = 0;
+        pendingStreamId = streamId;
+        pendingEndStream = endStream;
+        pendingAnswered = answered;
+        appendPending(buffer, start, end - start);
+    }
+
+    private void continuation(ByteBuffer buffer, int payload, int length, int flags, int streamId) {
+        if (pendingBlock == null || streamId != pendingStreamId) {
+            throw new Http2Exception(PROTOCOL_ERROR, "Unexpected CONTINUATION");
+        }
+        appendPending(buffer, payload, length);
+        if ((flags & FLAG_END_HEADERS) != 0) {
+            ByteBuffer block = ByteBuffer.wrap(pendingBlock, 0, pendingLength);
+            pendingBlock = null;
+            answer(block, 0, pendingLength, streamId, pendingEndStream, pendingAnswered);
+        }
+    }
+
+    private void appendPending(ByteBuffer buffer, int start, int length) {
+        if (pendingLength + length > maxHeaderBlock) {
+            throw new Http2Exception(ENHANCE_YOUR_CALM, "Header block too large");
+        }
+        if (pendingLength + length > pendingBlock.length) {
+            pendingBlock = Arrays.copyOf(pendingBlock, Math.min(maxHeaderBlock, 2 * (pendingLength + length)));
+        }
+        buffer.get(start, pendingBlock, pendingLength, length);
+        pendingLength += length;
+    }
+
+    private void settings(ByteBuffer buffer, int payload, int length, int flags, int streamId) {
+        if (streamId != 0) {
+            throw new Http2Exception(PROTOCOL_ERROR, "SETTINGS on a stream");
+        }
+        if ((flags & FLAG_ACK) != 0) {
+            if (length != 0) {
+                throw new Http2Exception(FRAME_SIZE_ERROR, "SETTINGS ACK with a payload");
+            }
+            return;
+        }
+        if (length % 6 != 0) {
+            throw new Http2Exception(FRAME_SIZE_ERROR, "Malformed SETTINGS");
+        }
+        for (int i = payload; i < payload + length; i += 6) {
+            int id = buffer.getShort(i) & 0xffff;
+            int value = buffer.getInt(i + 2);
+            if (id == SETTINGS_HEADER_TABLE_SIZE && value != peerTableSize) {
+                // The encoder only ever needs one entry, so a small table is plenty
+                peerTableSize = Math.min(value & 0x7fffffff, DEFAULT_HEADER_TABLE_SIZE);
+                smallestPeerTableSize = Math.min(smallestPeerTableSize, peerTableSize);
+                tableSizeUpdatePending = true;
+            }
+        }
+        out.frameHeader(0, SETTINGS, FLAG_ACK, 0);
+    }
+
+    /**
+     * Decodes a complete request header block and writes the response to its stream.
+     */
+    private void answer(ByteBuffer block, int start, int end, int streamId, boolean endStream, boolean answered) {
+        method = null;
+        path = null;
+        decoder.decode(block, start, end, this::pseudoHeader);
+        if (answered) {
+            return;
+        }
+
+        RedirectResponder.Outcome outcome;
+        if (method == null || path == null || path.isEmpty() || path.charAt(0) != '/') {
+            outcome = new RedirectResponder.Outcome(400, null);
+        } else {
+            int queryStart = path.indexOf('?');
+            outcome = queryStart < 0
+                    ? responder.decide(path, null)
+                    : responder.decide(path.substring(0, queryStart), path.substring(queryStart + 1));
+        }
+        writeResponse(streamId, outcome);
+        if (!endStream) {
+            // The response is complete, so the request body is not needed, RFC 9113 section 8.1
+            out.frameHeader(4, RST_STREAM, 0, streamId);
+            out.int32(NO_ERROR);
+        }
+    }
+
+    private void pseudoHeader(String name, String value) {
+        if (name.equals(":method")) {
+            method = value;
+        } else if (name.equals(":path")) {
+            path = value;
+        }
+    }
+
+    private void writeResponse(int streamId, RedirectResponder.Outcome outcome) {
+        byte[] location = outcome.location() == null
+                ? null : outcome.location().getBytes(StandardCharsets.ISO_8859_1);
+        int headerStart = out.reserveFrameHeader();
+        int blockStart = out.length();
+
+        if (tableSizeUpdatePending) {
+            // Signal the smallest size since the last block first, RFC 7541 section 4.2
+            if (smallestPeerTableSize < peerTableSize) {
+                out.hpackInt(0x20, 5, smallestPeerTableSize);
+            }
+            out.hpackInt(0x20, 5, peerTableSize);
+            if (smallestPeerTableSize < STATUS_ENTRY_SIZE) {
+                indexedStatus = 0;
+            }
+            tableSizeUpdatePending = false;
+            smallestPeerTableSize = peerTableSize;
+        }
+        int status = outcome.status();
+        int staticIndex = staticStatusIndex(status);
+        if (staticIndex > 0) {
+            out.hpackInt(0x80, 7, staticIndex);
+        } else if (status == indexedStatus) {
+            out.hpackInt(0x80, 7, NEWEST_DYNAMIC_INDEX);
+        } else {
+            boolean index = peerTableSize >= STATUS_ENTRY_SIZE && status >= 100 && status <= 999;
+            out.byte8(index ? STATUS_FIELD_INDEXED : STATUS_FIELD_LITERAL);
+            out.hpackString(Integer.toString(status).getBytes(StandardCharsets.US_ASCII));
+            if (index) {
+                indexedStatus = status;
+            }
+        }
+        if (location != null) {
+            out.bytes(LOCATION_FIELD);
+            out.hpackString(location);
+        }
+        out.patchFrameHeader(headerStart, out.length() - blockStart, HEADERS,
+                FLAG_END_STREAM | FLAG_END_HEADERS, streamId);
+    }
+
+    private static int staticStatusIndex(int status) {
+        return switch (status) {
+            case 200 -> 8;
+            case 204 -> 9;
+            case 206 -> 10;
+            case 304 -> 11;
+            case 400 -> 12;
+            case 404 -> 13;
+            case 500 -> 14;
+            default -> 0;
+        };
+    }
+
+    private void goAway(int errorCode, String reason) {
+        LOGGER.debug("Closing HTTP/2 connection with error {}: {}", errorCode, reason);
+        pendingBlock = null;
+        out.frameHeader(8, GOAWAY, 0, 0);
+        out.int32(lastStreamId);
+        out.int32(errorCode);
+        closed = true;
+    }
+
+    /**
+     * Growable output buffer for the frames of one {@link #process} call.
+     */
+    private static final class FrameWriter {
+
+        private byte[] bytes = new byte[256];
+        private int length;
+
+        int length() {
+            return length;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+
+        void byte8(int value) {
+            ensure(1);
+            bytes[length++] = (byte) value;
+        }
+
+        void int32(int value) {
+            ensure(4);
+            bytes[length++] = (byte) (value >>> 24);
+            bytes[length++] = (byte) (value >>> 16);
+            bytes[length++] = (byte) (value >>> 8);
+            bytes[length++] = (byte) value;
+        }
+
+        void bytes(byte[] source) {
+            ensure(source.length);
+            System.arraycopy(source, 0, bytes, length, source.length);
+            length += source.length;
+        }
+
+        void bytes(ByteBuffer source, int index, int count) {
+            ensure(count);
+            source.get(index, bytes, length, count);
+            length += count;
+        }
+
+        void frameHeader(int payloadLength, int type, int flags, int streamId) {
+            ensure(FRAME_HEADER_LENGTH);
+            patchFrameHeader(length, payloadLength, type, flags, streamId);
+            length += FRAME_HEADER_LENGTH;
+        }
+
+        int reserveFrameHeader() {
+            ensure(FRAME_HEADER_LENGTH);
+            int start = length;
+            length += FRAME_HEADER_LENGTH;
+            return start;
+        }
+
+        void patchFrameHeader(int at, int payloadLength, int type, int flags, int streamId) {
+            bytes[at] = (byte) (payloadLength >>> 16);
+            bytes[at + 1] = (byte) (payloadLength >>> 8);
+            bytes[at + 2] = (byte) payloadLength;
+            bytes[at + 3] = (byte) type;
+            bytes[at + 4] = (byte) flags;
+            bytes[at + 5] = (byte) (streamId >>> 24);
+            bytes[at + 6] = (byte) (streamId >>> 16);
+            bytes[at + 7] = (byte) (streamId >>> 8);
+            bytes[at + 8] = (byte) streamId;
+        }
+
+        void setting(int id, int value) {
+            ensure(6);
+            bytes[length++] = (byte) (id >>> 8);
+            bytes[length++] = (byte) id;
+            int32(value);
+        }
+
+        /**
+         * Writes an HPACK integer with the given first-byte pattern and prefix, RFC 7541 section 5.1.
+         */
+        void hpackInt(int pattern, int prefixBits, int value) {
+            int mask = (1 << prefixBits) - 1;
+            if (value < mask) {
+                byte8(pattern | value);
+                return;
+            }
+            byte8(pattern | mask);
+            value -= mask;
+            while (value >= 0x80) {
+                byte8((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            byte8(value);
+        }
+
+        /**
+         * Writes a raw string literal; Huffman coding would cost more than it saves here.
+         */
+        void hpackString(byte[] value) {
+            hpackInt(0x00, 7, value.length);
+            bytes(value);
+        }
+
+        /**
+         * Hands out the bytes written so far and starts over.
+         */
+        ByteBuffer[] drain() {
+            if (length == 0) {
+                return null;
+            }
+            ByteBuffer frames = ByteBuffer.wrap(Arrays.copyOf(bytes, length));
+            length = 0;
+            return new ByteBuffer[] {frames};
+        }
+    }
+
+    /**
+     * Connection error, answered with GOAWAY.
+     */
+    static final class Http2Exception extends RuntimeException {
+
+        private final int errorCode;
+
+        /**
+         * Constructs an exception.
+         *
+         * @param errorCode The HTTP/2 error code
+         * @param message The reason
+         */
+        Http2Exception(int errorCode, String message) {
+            super(message);
+            this.errorCode = errorCode;
+        }
+
+        /**
+         * Returns the HTTP/2 error code.
+         *
+         * @return The error code
+         */
+        int errorCode() {
+            return errorCode;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package net.sdko.dotorgredirector.server;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parser for HTTP/1.x request heads read straight from a byte buffer.
+ *
+ * <p>Only what a redirect needs is extracted: the method, the raw path and query string, and
+ * the headers that decide whether the connection can be kept open. Header names are compared
+ * in place, so headers that are not needed are skipped without allocating. Instances keep a
+ * scratch array and are meant to be used by one event loop thread.
+ */
+final class HttpRequestParser {
+
+    private static final byte[] CONNECTION = "connection".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CONTENT_LENGTH = "content-length".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRANSFER_ENCODING = "transfer-encoding".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CLOSE = "close".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] KEEP_ALIVE = "keep-alive".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] scratch;
+
+    /**
+     * Constructs a parser.
+     *
+     * @param maxRequestLine The maximum length of the request line
+     */
+    HttpRequestParser(int maxRequestLine) {
+        this.scratch = new byte[maxRequestLine];
+    }
+
+    /**
+     * Parses the next request head from the buffer.
+     *
+     * <p>On success the buffer position is moved past the head. If the head is incomplete the
+     * position is left unchanged.
+     *
+     * @param buffer The buffer, in read mode
+     * @return The request, or null if the head is incomplete
+     * @throws HttpParseException If the request is malformed or unsupported
+     */
+    HttpRequest parse(ByteBuffer buffer) {
+        int start = buffer.position();
+        int limit = buffer.limit();
+
+        // Tolerate empty lines before the request line, as RFC 9112 asks
+        while (start < limit && (buffer.get(start) == '\r' || buffer.get(start) == '\n')) {
+            start++;
+        }
+        int lineEnd = indexOf(buffer, start, limit, (byte) '\n');
+        if (lineEnd < 0) {
+            if (limit - start > scratch.length) {
+                throw new HttpParseException(414, "Request line is too long");
+            }
+            return null;
+        }
+
+        // Request line: method SP request-target SP HTTP-version
+        int contentEnd = trimCr(buffer, start, lineEnd);
+        if (contentEnd - start > scratch.length) {
+            throw new HttpParseException(414, "Request line is too long");
+        }
+        int methodEnd = indexOf(buffer, start, contentEnd, (byte) ' ');
+        int targetEnd = methodEnd < 0 ? -1 : indexOf(buffer, methodEnd + 1, contentEnd, (byte) ' ');
+        if (methodEnd <= start || targetEnd <= methodEnd + 1) {
+            throw new HttpParseException(400, "Malformed request line");
+        }
+        boolean http11 = isVersion(buffer, targetEnd + 1, contentEnd, (byte) '1');
+        if (!http11 && !isVersion(buffer, targetEnd + 1, contentEnd, (byte) '0')) {
+            throw new HttpParseException(505, "Unsupported HTTP version");
+        }
+        if (buffer.get(methodEnd + 1) != '/') {
+            throw new HttpParseException(400, "Only origin-form request targets are supported");
+        }
+
+        // Headers, up to the empty line that ends the head
+        boolean close = !http11;
+        boolean hasBody = false;
+        int position = lineEnd + 1;
+        while (true) {
+            int end = indexOf(buffer, position, limit, (byte) '\n');
+            if (end < 0) {
+                return null;
+            }
+            int valueEnd = trimCr(buffer, position, end);
+            if (valueEnd == position) {
+                position = end + 1;
+                break;
+            }
+            int colon = indexOf(buffer, position, valueEnd, (byte) ':');
+            if (colon <= position) {
+                throw new HttpParseException(400, "Malformed header");
+            }
+            int valueStart = colon + 1;
+            while (valueStart < valueEnd && (buffer.get(valueStart) == ' ' || buffer.get(valueStart) == '\t')) {
+                valueStart++;
+            }
+            if (nameEquals(buffer, position, colon, CONNECTION)) {
+                if (containsToken(buffer, valueStart, valueEnd, CLOSE)) {
+                    close = true;
+                } else if (containsToken(buffer, valueStart, valueEnd, KEEP_ALIVE)) {
+                    close = false;
+                }
+            } else if (nameEquals(buffer, position, colon, TRANSFER_ENCODING)) {
+                hasBody = true;
+            } else if (nameEquals(buffer, position, colon, CONTENT_LENGTH)) {
+                hasBody |= !isZero(buffer, valueStart, valueEnd);
+            }
+            position = end + 1;
+        }
+
+        String method = ascii(buffer, start, methodEnd);
+        int queryStart = indexOf(buffer, methodEnd + 1, targetEnd, (byte) '?');
+        String path = ascii(buffer, methodEnd + 1, queryStart < 0 ? targetEnd : queryStart);
+        String query = queryStart < 0 ? null : ascii(buffer, queryStart + 1, targetEnd);
+        buffer.position(position);
+        return new HttpRequest(method, path, query, !close && !hasBody, hasBody);
+    }
+
+    private String ascii(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        for (int i = 0; i < length; i++) {
+            byte b = buffer.get(start + i);
+            if (b <= ' ' || b == 0x7f) {
+                throw new HttpParseException(400, "Invalid character in request line");
+            }
+            scratch[i] = b;
+        }
+        return new String(scratch, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    private static int indexOf(ByteBuffer buffer, int start, int end, byte value) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int trimCr(ByteBuffer buffer, int start, int lineEnd) {
+        return lineEnd > start && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+    }
+
+    private static boolean isVersion(ByteBuffer buffer, int start, int end, byte minor) {
+        return end - start == 8
+                && buffer.get(start) == 'H'
+                && buffer.get(start + 1) == 'T'
+                && buffer.get(start + 2) == 'T'
+                && buffer.get(start + 3) == 'P'
+                && buffer.get(start + 4) == '/'
+                && buffer.get(start + 5) == '1'
+                && buffer.get(start + 6) == '.'
+                && buffer.get(start + 7) == minor;
+    }
+
+    private static boolean nameEquals(ByteBuffer buffer, int start, int end, byte[] lowerCaseName) {
+        if (end - start != lowerCaseName.length) {
+            return false;
+        }
+        for (int i = 0; i < lowerCaseName.length; i++) {
+            if (toLower(buffer.get(start + i)) != lowerCaseName[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsToken(ByteBuffer buffer, int start, int end, byte[] lowerCaseToken) {
+        int last = end - lowerCaseToken.length;
+        for (int i = start; i <= last; i++) {
+            int j = 0;
+            while (j < lowerCaseToken.length && toLower(buffer.get(i + j)) == lowerCaseToken[j]) {
+                j++;
+            }
+            if (j == lowerCaseToken.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZero(ByteBuffer buffer, int start, int end) {
+        int i = start;
+        while (i < end && buffer.get(i) == '0') {
+            i++;
+        }
+        while (i < end && (buffer.get(i) == ' ' || buffer.get(i) == '\t')) {
+            i++;
+        }
+        return i == end && end > start;
+    }
+
+    private static byte toLower(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    /**
+     * A parsed request head.
+     *
+     * @param method The request method
+     * @param path The raw request path, as HttpServletRequest.getRequestURI returns it
+     * @param query The raw query string, or null if there is none
+     * @param keepAlive Whether the connection can serve another request afterwards
+     * @param hasBody Whether the request announced a body, which is never read
+     */
+    record HttpRequest(String method, String path, String query, boolean keepAlive, boolean hasBody) {
+    }
+
+    /**
+     * Thrown for requests that cannot be served; the connection is closed after the response.
+     */
+    static final class HttpParseException extends RuntimeException {
+
+        private final int status;
+
+        /**
+         * Constructs an exception.
+         *
+         * @param status The HTTP status to respond with
+         * @param message The reason
+         */
+        HttpParseException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        /**
+         * Returns the HTTP status to respond with.
+         *
+         * @return The status code
+         */
+        int status() {
+            return status;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package net.sdko.dotorgredirector.server;
+
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.core.MonitoringService;
+import net.sdko.dotorgredirector.core.RedirectService;
+import net.sdko.dotorgredirector.core.TracingIdGenerator;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Turns parsed requests into responses made of pre-encoded header buffers.
+ *
+ * <p>Every response has an empty body. A redirect is written as three buffers: the status line
+ * and fixed headers up to the Location name, the Location value, and the final line breaks, so
+ * only the Location value is encoded per request.
+ */
+final class RedirectResponder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedirectResponder.class);
+
+    private static final ByteBuffer END_OF_HEAD = encode("\r\n\r\n").asReadOnlyBuffer();
+
+    private final RedirectService redirectService;
+    private final MonitoringService monitoringService;
+    private final RedirectMetrics redirectMetrics;
+    private final AppProperties appProperties;
+    private final TracingIdGenerator tracingIdGenerator;
+
+    private volatile RedirectHeads redirectHeads;
+
+    /**
+     * Constructs a responder.
+     *
+     * @param redirectService The redirect service
+     * @param monitoringService The monitoring service
+     * @param redirectMetrics The redirect metrics
+     * @param appProperties The application properties
+     * @param tracingIdGenerator The tracing ID generator
+     */
+    RedirectResponder(
+            RedirectService redirectService,
+            MonitoringService monitoringService,
+            RedirectMetrics redirectMetrics,
+            AppProperties appProperties,
+            TracingIdGenerator tracingIdGenerator) {
+        this.redirectService = redirectService;
+        this.monitoringService = monitoringService;
+        this.redirectMetrics = redirectMetrics;
+        this.appProperties = appProperties;
+        this.tracingIdGenerator = tracingIdGenerator;
+    }
+
+    /**
+     * Builds the HTTP/1.1 response to a request.
+     *
+     * @param request The parsed request
+     * @return The response buffers, ready for a gathering write
+     */
+    ByteBuffer[] respond(HttpRequestParser.HttpRequest request) {
+        boolean close = !request.keepAlive();
+        Outcome outcome = decide(request.path(), request.query());
+        if (outcome.location() == null) {
+            return new ByteBuffer[] {emptyResponse(outcome.status(), close)};
+        }
+        return new ByteBuffer[] {
+            currentHeads().head(close),
+            ByteBuffer.wrap(outcome.location().getBytes(StandardCharsets.ISO_8859_1)),
+            END_OF_HEAD.duplicate()
+        };
+    }
+
+    /**
+     * Decides how to answer a request, independently of the HTTP version it came in on.
+     *
+     * @param path The raw request path
+     * @param query The raw query string, or null if there is none
+     * @return The status and, for redirects, the Location value
+     */
+    Outcome decide(String path, String query) {
+        if (redirectService.shouldExcludeFromRedirect(path, appProperties.getExcludePattern())) {
+            LOGGER.debug("Skipping redirect for excluded path: {}", path);
+            return new Outcome(404, null);
+        }
+
+        String tracingId = tracingIdGenerator.nextId();
+        try {
+            String redirectUrl = redirectService.buildRedirectUrl(path, query, tracingId);
+            redirectMetrics.incrementRedirectCount();
+            LOGGER.debug("Redirecting to: {}", redirectUrl);
+            return new Outcome(appProperties.getRedirectStatusCode(), redirectUrl);
+        } catch (SecurityException e) {
+            LOGGER.debug("Security violation in redirect request [{}]: {}", tracingId, e.getMessage());
+            return new Outcome(400, null);
+        } catch (Exception e) {
+            LOGGER.error("Error during redirect [{}]", tracingId, e);
+            monitoringService.captureException(e);
+            return new Outcome(500, null);
+        }
+    }
+
+    /**
+     * Builds the response to a request that could not be parsed; the connection is closed after it.
+     *
+     * @param status The HTTP status
+     * @return The response buffers
+     */
+    ByteBuffer[] reject(int status) {
+        return new ByteBuffer[] {emptyResponse(status, true)};
+    }
+
+    private RedirectHeads currentHeads() {
+        RedirectHeads current = redirectHeads;
+        int status = appProperties.getRedirectStatusCode();
+        if (current == null || current.status() != status) {
+            current = RedirectHeads.of(status);
+            redirectHeads = current;
+        }
+        return current;
+    }
+
+    private static ByteBuffer emptyResponse(int status, boolean close) {
+        return ByteBuffer.wrap(("HTTP/1.1 " + status + ' ' + reason(status) + "\r\nContent-Length: 0\r\n"
+                + (close ? "Connection: close\r\n" : "") + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static ByteBuffer encode(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    }
+
+    private static String reason(int status) {
+        return switch (status) {
+            case 301 -> "Moved Permanently";
+            case 302 -> "Found";
+            case 303 -> "See Other";
+            case 307 -> "Temporary Redirect";
+            case 308 -> "Permanent Redirect";
+            case 400 -> "Bad Request";
+            case 404 -> "Not Found";
+            case 414 -> "URI Too Long";
+            case 431 -> "Request Header Fields Too Large";
+            case 505 -> "HTTP Version Not Supported";
+            default -> "Internal Server Error";
+        };
+    }
+
+    /**
+     * How a request is answered.
+     *
+     * @param status The HTTP status
+     * @param location The Location value of a redirect, or null for responses without one
+     */
+    record Outcome(int status, String location) {
+    }
+
+    /**
+     * Pre-encoded heads of a redirect with the given status, up to the Location value.
+     *
+     * @param status The redirect status
+     * @param keepAlive The head for connections kept open
+     * @param close The head for connections closed after the response
+     */
+    private record RedirectHeads(int status, ByteBuffer keepAlive, ByteBuffer close) {
+
+        static RedirectHeads of(int status) {
+            String statusLine = "HTTP/1.1 " + status + ' ' + reason(status) + "\r\nContent-Length: 0\r\n";
+            return new RedirectHeads(status,
+                    encode(statusLine + "Location: ").asReadOnlyBuffer(),
+                    encode(statusLine + "Connection: close\r\nLocation: ").asReadOnlyBuffer());
+        }
+
+        ByteBuffer head(boolean closeConnection) {
+            return (closeConnection ? close : keepAlive).duplicate();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package net.sdko.dotorgredirector.server;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.core.MonitoringService;
+import net.sdko.dotorgredirector.core.RedirectService;
+import net.sdko.dotorgredirector.core.TracingIdGenerator;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Optional standalone HTTP/1.1 and h2c redirect server that bypasses the servlet container.
+ *
+ * <p>When enabled with {@code app.redirectServer.enabled}, it listens on its own port and
+ * answers every request with the same rules as the servlet filter. Excluded paths, such as
+ * /backend, get a 404 and stay on the servlet container's port. An acceptor thread hands
+ * connections round-robin to a fixed number of selector event loops. HTTP/2 is served to
+ * clients that open with the prior-knowledge preface, which is how load balancers speak h2c.
+ */
+@Component
+public class RedirectServer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedirectServer.class);
+
+    private final AppProperties appProperties;
+    private final RedirectResponder responder;
+
+    private ServerSocketChannel serverChannel;
+    private EventLoop[] eventLoops;
+
+    /**
+     * Constructs the redirect server.
+     *
+     * @param appProperties The application properties
+     * @param redirectService The redirect service
+     * @param monitoringService The monitoring service
+     * @param redirectMetrics The redirect metrics
+     * @param tracingIdGenerator The tracing ID generator
+     */
+    public RedirectServer(
+            AppProperties appProperties,
+            RedirectService redirectService,
+            MonitoringService monitoringService,
+            RedirectMetrics redirectMetrics,
+            TracingIdGenerator tracingIdGenerator) {
+        this.appProperties = appProperties;
+        this.responder = new RedirectResponder(
+                redirectService, monitoringService, redirectMetrics, appProperties, tracingIdGenerator);
+    }
+
+    /**
+     * Binds the listen port and starts the event loops, if the server is enabled.
+     *
+     * @throws IOException If the port cannot be bound
+     */
+    @PostConstruct
+    public synchronized void start() throws IOException {
+        AppProperties.RedirectServer settings = appProperties.getRedirectServer();
+        if (!settings.isEnabled() || serverChannel != null) {
+            return;
+        }
+        int threads = settings.getThreads() > 0
+                ? settings.getThreads()
+                : Runtime.getRuntime().availableProcessors();
+        BufferPool bufferPool = new BufferPool(settings.getBufferSize(), threads * 64);
+        BufferPool http2BufferPool = new BufferPool(
+                Math.max(settings.getBufferSize(), Http2Session.MIN_READ_BUFFER_SIZE), threads * 64);
+        long idleTimeoutNanos = TimeUnit.SECONDS.toNanos(settings.getIdleTimeoutSeconds());
+
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(new InetSocketAddress(settings.getPort()), 1024);
+
+        eventLoops = new EventLoop[threads];
+        for (int i = 0; i < threads; i++) {
+            eventLoops[i] = new EventLoop(
+                    responder, bufferPool, http2BufferPool, settings.getBufferSize(), idleTimeoutNanos);
+            Thread thread = new Thread(eventLoops[i], "redirect-server-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        ServerSocketChannel channel = serverChannel;
+        EventLoop[] loops = eventLoops;
+        Thread acceptor = new Thread(() -> accept(channel, loops), "redirect-server-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        LOGGER.info("Redirect server listening on port {} with {} event loops", getPort(), threads);
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (serverChannel == null) {
+            return;
+        }
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            LOGGER.debug("Failed to close redirect server channel", e);
+        }
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.shutdown();
+        }
+        serverChannel = null;
+        eventLoops = null;
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return The bound port, or -1 if the server is not running
+     */
+    public synchronized int getPort() {
+        if (serverChannel == null) {
+            return -1;
+        }
+        try {
+            return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static void accept(ServerSocketChannel channel, EventLoop[] loops) {
+        int next = 0;
+        while (true) {
+            try {
+                SocketChannel connection = channel.accept();
+                connection.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                loops[next].register(connection);
+                next = next == loops.length - 1 ? 0 : next + 1;
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                // E.g. out of file descriptors; back off instead of spinning
+                LOGGER.warn("Failed to accept a connection: {}", e.getMessage());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * Standalone redirect server for the dot-org redirector application.
+ *
+ * This package contains an optional, JDK-only HTTP/1.1 and cleartext HTTP/2
+ * listener built on NIO selectors. It serves redirects with the same rules as
+ * the servlet filter, without going through the servlet container.
+ */
+package net.sdko.dotorgredirector.server;
@@ -9,9 +9,15 @@ import io.sentry.spring.jakarta.SentryExceptionResolver;
 import io.sentry.spring.jakarta.SentryTaskDecorator;
 import net.sdko.dotorgredirector.config.AppProperties;
 import net.sdko.dotorgredirector.config.SentryConfig;
+import net.sdko.dotorgredirector.core.CoarseClock;
+import net.sdko.dotorgredirector.core.ErrorAggregator;
 import net.sdko.dotorgredirector.core.MonitoringService;
+import net.sdko.dotorgredirector.core.MonitoringServiceFixtures;
 import net.sdko.dotorgredirector.core.RedirectHandler;
+import net.sdko.dotorgredirector.core.RedirectHandlerFixtures;
 import net.sdko.dotorgredirector.core.RedirectService;
+import net.sdko.dotorgredirector.core.RedirectServiceFixtures;
+import net.sdko.dotorgredirector.core.TimeOrderedTracingIdGenerator;
 import net.sdko.dotorgredirector.metrics.RedirectMetrics;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -19,6 +25,7 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.core.task.TaskDecorator;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.web.servlet.HandlerExceptionResolver;
@@ -134,12 +141,15 @@ public class TestConfig {
   /**
    * Provides a MonitoringService with NoOp functionality for testing.
    * 
+   * @param errorAggregator The application's error aggregator
    * @return MonitoringService instance
    */
   @Bean
   @Primary
-  public MonitoringService monitoringService() {
-    return new MonitoringService(sentryHub());
+  public MonitoringService monitoringService(ErrorAggregator errorAggregator) {
+    return new MonitoringService(
+        sentryHub(), new SyncTaskExecutor(), MonitoringServiceFixtures.alwaysSampler(), appProperties(),
+        errorAggregator);
   }
   
   /**
@@ -150,21 +160,27 @@ public class TestConfig {
   @Bean
   @Primary
   public RedirectService redirectService() {
-    // Create the service with our test app properties and environment
-    return new RedirectService(appProperties(), applicationEnvironment());
+    // Create the service with our test app properties, environment and metrics
+    return RedirectServiceFixtures.redirectService(
+        appProperties(),
+        applicationEnvironment(),
+        new TimeOrderedTracingIdGenerator(),
+        new CoarseClock(),
+        redirectMetrics());
   }
   
   /**
    * Provides a RedirectHandler for testing.
    * 
+   * @param monitoringService The test MonitoringService
    * @return RedirectHandler instance
    */
   @Bean
   @Primary
-  public RedirectHandler redirectHandler() {
-    return new RedirectHandler(
+  public RedirectHandler redirectHandler(MonitoringService monitoringService) {
+    return RedirectHandlerFixtures.redirectHandler(
         redirectService(),
-        monitoringService(),
+        monitoringService,
         redirectMetrics(),
         appProperties()
     );
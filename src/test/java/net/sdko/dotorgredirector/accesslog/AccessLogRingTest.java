@@ -0,0 +1,97 @@
+package net.sdko.dotorgredirector.accesslog;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Tests for the access log ring buffer.
+ */
+@Tag("unit")
+public class AccessLogRingTest {
+
+    @Test
+    public void testCapacity_RoundsUpToPowerOfTwo() {
+        assertEquals(8, new AccessLogRing(5).capacity());
+        assertEquals(8, new AccessLogRing(8).capacity());
+        assertEquals(1, new AccessLogRing(1).capacity());
+    }
+
+    @Test
+    public void testDrain_ReturnsRecordsInPublishOrder() {
+        AccessLogRing ring = new AccessLogRing(4);
+        assertTrue(ring.tryPublish(1L, 302, "GET", "/a", "https://x/a", "t1"));
+        assertTrue(ring.tryPublish(2L, 302, "GET", "/b", null, null));
+
+        List<String> paths = new ArrayList<>();
+        assertEquals(2, ring.drain(record -> paths.add(record.path + "@" + record.epochMillis), 10));
+        assertEquals(List.of("/a@1", "/b@2"), paths);
+        assertEquals(0, ring.drain(record -> fail("Ring should be empty"), 10));
+    }
+
+    @Test
+    public void testTryPublish_FailsWhenFullUntilDrained() {
+        AccessLogRing ring = new AccessLogRing(2);
+        assertTrue(ring.tryPublish(1L, 302, "GET", "/a", null, null));
+        assertTrue(ring.tryPublish(2L, 302, "GET", "/b", null, null));
+        assertFalse(ring.tryPublish(3L, 302, "GET", "/c", null, null));
+
+        assertEquals(1, ring.drain(record -> { }, 1));
+        assertTrue(ring.tryPublish(3L, 302, "GET", "/c", null, null));
+
+        List<String> paths = new ArrayList<>();
+        ring.drain(record -> paths.add(record.path), 10);
+        assertEquals(List.of("/b", "/c"), paths);
+    }
+
+    @Test
+    public void testConcurrentProducers_NoRecordLostOrDuplicated() throws Exception {
+        AccessLogRing ring = new AccessLogRing(64);
+        int producers = 4;
+        int perProducer = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String method = "P" + p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.tryPublish(i, 302, method, null, null, null)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        Set<String> seen = new HashSet<>();
+        long[] lastPerProducer = new long[producers];
+        Arrays.fill(lastPerProducer, -1);
+        start.countDown();
+        while (seen.size() < producers * perProducer) {
+            ring.drain(record -> {
+                assertTrue(seen.add(record.method + ":" + record.epochMillis));
+                int producer = record.method.charAt(1) - '0';
+                assertTrue(record.epochMillis > lastPerProducer[producer]);
+                lastPerProducer[producer] = record.epochMillis;
+            }, 128);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(producers * perProducer, seen.size());
+    }
+}
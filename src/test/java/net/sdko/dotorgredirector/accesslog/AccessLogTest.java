@@ -0,0 +1,242 @@
+package net.sdko.dotorgredirector.accesslog;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Unit tests for the asynchronous access log.
+ */
+@Tag("unit")
+public class AccessLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRecord_WritesOneLinePerRedirect() throws Exception {
+        AccessLog accessLog = new AccessLog(settings(), null, new MutableClock(1_700_000_000_042L));
+        accessLog.start();
+        accessLog.record("GET", "/docs", 302, "https://example.com/docs", "t-1");
+        accessLog.record("HEAD", "/", 301, null, null);
+        accessLog.stop();
+
+        List<String> lines = Files.readAllLines(directory.resolve("access.log"));
+        assertEquals(List.of(
+                "2023-11-14T22:13:20.042Z 302 GET /docs t-1 https://example.com/docs",
+                "2023-11-14T22:13:20.042Z 301 HEAD / - -"), lines);
+    }
+
+    @Test
+    public void testRecord_ReplacesControlCharacters() throws Exception {
+        AccessLog accessLog = new AccessLog(settings(), null, new MutableClock(0L));
+        accessLog.start();
+        accessLog.record("GET", "/a\nforged 200", 302, "https://example.com/é", null);
+        accessLog.stop();
+
+        List<String> lines = Files.readAllLines(directory.resolve("access.log"));
+        assertEquals(List.of("1970-01-01T00:00:00.000Z 302 GET /a?forged 200 - https://example.com/?"), lines);
+    }
+
+    @Test
+    public void testRotation_CompressesRotatedSegments() throws Exception {
+        AppProperties.AccessLog settings = settings();
+        settings.setMaxFileSize(1);
+        AccessLog accessLog = new AccessLog(settings, null, new MutableClock(1_700_000_000_000L));
+        accessLog.start();
+        accessLog.record("GET", "/first", 302, null, null);
+        awaitSegments(2);
+        accessLog.record("GET", "/second", 302, null, null);
+        accessLog.stop();
+
+        StringBuilder rotated = new StringBuilder();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().toList()) {
+                String name = file.getFileName().toString();
+                if (name.equals("access.log")) {
+                    continue;
+                }
+                assertTrue(name.startsWith("access-20231114-221320") && name.endsWith(".log.gz"),
+                        "Unexpected file " + name);
+                try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                    rotated.append(new String(in.readAllBytes(), StandardCharsets.US_ASCII));
+                }
+            }
+        }
+        assertTrue(rotated.toString().contains(" /first "));
+        assertTrue(rotated.toString().contains(" /second "));
+    }
+
+    @Test
+    public void testRotation_KeepsWritingWhenRenameFails() throws Exception {
+        MutableClock clock = new MutableClock(1_700_000_000_000L);
+        Path activeFile = directory.resolve("access.log");
+        try (RollingFileSink sink = new RollingFileSink(directory, "access.log", 1, 0, 0, Runnable::run, clock)) {
+            sink.write(line("first"), 6);
+            // Without the active file to rename, the rotation fails
+            Files.delete(activeFile);
+
+            sink.write(line("second"), 7);
+            sink.write(line("third"), 6);
+            assertEquals(List.of("second", "third"), Files.readAllLines(activeFile));
+
+            clock.millis += 60_000;
+            sink.write(line("fourth"), 7);
+            assertEquals(List.of("fourth"), Files.readAllLines(activeFile));
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(file -> file.toString().endsWith(".log.gz")).count());
+        }
+    }
+
+    @Test
+    public void testRotation_KeepsNewestSegments() throws Exception {
+        MutableClock clock = new MutableClock(1_700_000_000_000L);
+        try (RollingFileSink sink = new RollingFileSink(directory, "access.log", 1, 0, 2, Runnable::run, clock)) {
+            for (int i = 0; i < 5; i++) {
+                sink.write(line("record" + i), 8);
+                clock.millis += 1000;
+            }
+            sink.rotateIfDue();
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            List<String> segments = files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(".log.gz")).sorted().toList();
+            assertEquals(List.of("access-20231114-221324.log.gz", "access-20231114-221325.log.gz"), segments);
+        }
+    }
+
+    @Test
+    public void testDropPolicy_CountsRecordsThatDoNotFit() throws Exception {
+        AppProperties.AccessLog settings = settings();
+        settings.setBufferSize(1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RedirectMetrics redirectMetrics = new RedirectMetrics(registry);
+        AccessLog accessLog = new AccessLog(settings, redirectMetrics, Clock.systemUTC());
+        accessLog.start();
+        int records = 20_000;
+        for (int i = 0; i < records; i++) {
+            accessLog.record("GET", "/", 302, null, null);
+        }
+        accessLog.stop();
+
+        long written = Files.readAllLines(directory.resolve("access.log")).size();
+        assertTrue(accessLog.getDroppedCount() > 0);
+        assertEquals(records, written + accessLog.getDroppedCount());
+        assertEquals(accessLog.getDroppedCount(),
+                (long) registry.counter("dotorg.accesslog.dropped").count());
+    }
+
+    @Test
+    public void testBlockPolicy_KeepsEveryRecord() throws Exception {
+        AppProperties.AccessLog settings = settings();
+        settings.setBufferSize(1);
+        settings.setFullPolicy(AppProperties.AccessLog.FullPolicy.BLOCK);
+        AccessLog accessLog = new AccessLog(settings, null, Clock.systemUTC());
+        accessLog.start();
+        for (int i = 0; i < 200; i++) {
+            accessLog.record("GET", "/", 302, null, null);
+        }
+        accessLog.stop();
+
+        assertEquals(0, accessLog.getDroppedCount());
+        assertEquals(200, Files.readAllLines(directory.resolve("access.log")).size());
+    }
+
+    @Test
+    public void testDisabled_IgnoresRecords() throws Exception {
+        AccessLog accessLog = AccessLog.disabled();
+        accessLog.start();
+        accessLog.record("GET", "/", 302, null, null);
+        accessLog.stop();
+
+        assertEquals(0, accessLog.getDroppedCount());
+    }
+
+    @Test
+    public void testStart_FailsWithoutAWritableAbsoluteDirectory() throws Exception {
+        AppProperties.AccessLog settings = settings();
+        settings.setDirectory("logs");
+        AccessLog relative = new AccessLog(settings, null, Clock.systemUTC());
+        assertThrows(IllegalArgumentException.class, relative::start);
+
+        Path file = Files.createFile(directory.resolve("not-a-directory"));
+        settings.setDirectory(file.toString());
+        AccessLog notADirectory = new AccessLog(settings, null, Clock.systemUTC());
+        assertThrows(IOException.class, notADirectory::start);
+    }
+
+    private static byte[] line(String text) {
+        return (text + "\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private AppProperties.AccessLog settings() {
+        AppProperties.AccessLog settings = new AppProperties.AccessLog();
+        settings.setEnabled(true);
+        settings.setDirectory(directory.toString());
+        return settings;
+    }
+
+    private void awaitSegments(int count) throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            try (Stream<Path> files = Files.list(directory)) {
+                if (files.count() >= count) {
+                    return;
+                }
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Clock whose current time is set directly by the test.
+     */
+    private static final class MutableClock extends Clock {
+
+        private volatile long millis;
+
+        MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package net.sdko.dotorgredirector.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import net.sdko.dotorgredirector.accesslog.AccessLog;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost a request thread pays to log a redirect. The synchronous baseline formats
+ * the line and appends it to a file under a lock with an immediate flush, as the console and
+ * file appenders do for the old per-redirect INFO line. The asynchronous access log only
+ * publishes a record into its ring buffer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class AccessLogBenchmark {
+
+  private static final String PATH = "/docs/getting-started";
+  private static final String LOCATION =
+      "https://www.example.com/docs/getting-started?x-sws-event=dotorg-redirect";
+  private static final String TRACING_ID = "0190f3a2c4b87e6d9a1b2c3d4e5f6a7b";
+
+  private Path directory;
+  private OutputStream synchronousOut;
+  private AccessLog accessLog;
+
+  /**
+   * Opens the baseline file and starts the access log in a temporary directory.
+   *
+   * @throws IOException If the files cannot be created
+   */
+  @Setup
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("access-log-bench");
+    synchronousOut = Files.newOutputStream(directory.resolve("sync.log"));
+    AppProperties appProperties = new AppProperties();
+    appProperties.getAccessLog().setEnabled(true);
+    appProperties.getAccessLog().setDirectory(directory.toString());
+    accessLog = new AccessLog(appProperties, new RedirectMetrics(new SimpleMeterRegistry()));
+    accessLog.start();
+  }
+
+  /**
+   * Stops the access log and deletes the temporary directory.
+   *
+   * @throws IOException If the files cannot be deleted
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    accessLog.stop();
+    synchronousOut.close();
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  /**
+   * Formats and appends the line on the request thread.
+   *
+   * @throws IOException If the write fails
+   */
+  @Benchmark
+  public void synchronousAppend() throws IOException {
+    byte[] line = (Instant.now() + " INFO Redirecting to: " + LOCATION + "\n")
+        .getBytes(StandardCharsets.UTF_8);
+    synchronized (synchronousOut) {
+      synchronousOut.write(line);
+      synchronousOut.flush();
+    }
+  }
+
+  /** Publishes the record to the asynchronous access log. */
+  @Benchmark
+  public void asyncAccessLog() {
+    accessLog.record("GET", PATH, 302, LOCATION, TRACING_ID);
+  }
+}
@@ -0,0 +1,79 @@
+package net.sdko.dotorgredirector.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.config.CachingAuthenticationProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+/**
+ * Measures the CPU a scrape of the backend endpoints spends on Basic authentication: a full BCrypt
+ * verification on every request, as before, against the cache of verified credentials.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BasicAuthBenchmark {
+
+  private static final String USERNAME = "backend";
+  private static final String PASSWORD = "scrape-password";
+
+  private DaoAuthenticationProvider verifier;
+  private CachingAuthenticationProvider cached;
+
+  /** Builds both providers over the same user with the default BCrypt strength. */
+  @Setup
+  public void setUp() {
+    BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+    verifier =
+        new DaoAuthenticationProvider(
+            new InMemoryUserDetailsManager(
+                User.withUsername(USERNAME)
+                    .password(encoder.encode(PASSWORD))
+                    .roles("ADMIN")
+                    .build()));
+    verifier.setPasswordEncoder(encoder);
+    cached = new CachingAuthenticationProvider(verifier, new AppProperties.AuthCache());
+  }
+
+  /**
+   * Verifies the credentials with BCrypt.
+   *
+   * @return The authentication, so it is not optimized away
+   */
+  @Benchmark
+  public Authentication bcrypt() {
+    return verifier.authenticate(request());
+  }
+
+  /**
+   * Verifies the credentials through the cache, which only runs BCrypt once per time-to-live.
+   *
+   * @return The authentication, so it is not optimized away
+   */
+  @Benchmark
+  public Authentication cached() {
+    return cached.authenticate(request());
+  }
+
+  private static Authentication request() {
+    return UsernamePasswordAuthenticationToken.unauthenticated(USERNAME, PASSWORD);
+  }
+}
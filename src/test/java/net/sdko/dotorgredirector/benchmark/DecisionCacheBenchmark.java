@@ -0,0 +1,70 @@
+package net.sdko.dotorgredirector.benchmark;
+
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.core.RedirectService;
+import net.sdko.dotorgredirector.core.RedirectServiceFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * Measures RedirectService.buildRedirectUrl over a few hundred popular paths with and without the
+ * decision cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecisionCacheBenchmark {
+
+  @Param({"0", "1024"})
+  private int decisionCacheSize;
+
+  private RedirectService redirectService;
+  private MockHttpServletRequest[] requests;
+  private int next;
+
+  /** Builds the service and 300 distinct requests. */
+  @Setup
+  public void setUp() {
+    AppProperties appProperties = new AppProperties();
+    appProperties.setTargetUrl("https://www.example.com/base");
+    appProperties.setVersion("1.2.3");
+    appProperties.setDecisionCacheSize(decisionCacheSize);
+    redirectService = RedirectServiceFixtures.redirectService(appProperties, "production");
+
+    requests = new MockHttpServletRequest[300];
+    for (int i = 0; i < requests.length; i++) {
+      MockHttpServletRequest request =
+          new MockHttpServletRequest("GET", "/blog/2024/article-" + i);
+      request.setQueryString("x-sws-event=newsletter&utm_source=mail");
+      requests[i] = request;
+    }
+  }
+
+  /**
+   * Builds a redirect URL for the next request.
+   *
+   * @return The redirect URL
+   * @throws URISyntaxException If the target URL is invalid
+   */
+  @Benchmark
+  public String buildRedirectUrl() throws URISyntaxException {
+    MockHttpServletRequest request = requests[next];
+    next = next == requests.length - 1 ? 0 : next + 1;
+    return redirectService.buildRedirectUrl(request);
+  }
+}
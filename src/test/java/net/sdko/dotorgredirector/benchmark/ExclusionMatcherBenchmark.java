@@ -0,0 +1,76 @@
+package net.sdko.dotorgredirector.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.sdko.dotorgredirector.core.ExclusionMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.AntPathMatcher;
+
+/**
+ * Compares the compiled ExclusionMatcher with checking each pattern in turn using Spring's
+ * AntPathMatcher, for a path that is not excluded and therefore has to be checked against all of
+ * them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExclusionMatcherBenchmark {
+
+  private static final String PATH = "/blog/2024/06/a-fairly-typical-article-slug";
+
+  @Param({"4", "64"})
+  private int patternCount;
+
+  private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+  private List<String> patterns;
+  private ExclusionMatcher matcher;
+
+  /** Builds the exclusion patterns. */
+  @Setup
+  public void setUp() {
+    patterns = new ArrayList<>(List.of("/backend/**", "/.well-known/**", "/robots.txt"));
+    for (int i = 0; patterns.size() < patternCount; i++) {
+      patterns.add("/probe-" + i + "/*/ready");
+    }
+    matcher = ExclusionMatcher.compile(null, patterns);
+  }
+
+  /**
+   * Checks the path against each pattern with AntPathMatcher.
+   *
+   * @return Whether the path is excluded
+   */
+  @Benchmark
+  public boolean perPattern() {
+    for (String pattern : patterns) {
+      if (antPathMatcher.match(pattern, PATH)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks the path with the compiled automaton.
+   *
+   * @return Whether the path is excluded
+   */
+  @Benchmark
+  public boolean compiled() {
+    return matcher.matches(PATH);
+  }
+}
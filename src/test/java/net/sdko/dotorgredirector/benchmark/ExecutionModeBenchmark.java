@@ -0,0 +1,103 @@
+package net.sdko.dotorgredirector.benchmark;
+
+import java.net.URISyntaxException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.core.RedirectService;
+import net.sdko.dotorgredirector.core.RedirectServiceFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the two execution modes on a burst of concurrent requests. Each request builds a
+ * redirect and then blocks for a millisecond, standing in for a Sentry call or a slow client.
+ * The platform mode runs the burst on a pool sized like Tomcat's default of 200 threads; the
+ * virtual mode starts a virtual thread per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+  private static final int TOMCAT_MAX_THREADS = 200;
+
+  @Param({"1000", "10000", "50000"})
+  private int concurrency;
+
+  private RedirectService redirectService;
+  private ExecutorService platformPool;
+  private ExecutorService virtualThreads;
+
+  /** Creates the redirect service and both executors. */
+  @Setup
+  public void setUp() {
+    AppProperties appProperties = new AppProperties();
+    appProperties.setTargetUrl("https://www.example.com");
+    appProperties.setVersion("1.2.3");
+    redirectService = RedirectServiceFixtures.redirectService(appProperties, "production");
+    platformPool = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  /** Shuts both executors down. */
+  @TearDown
+  public void tearDown() {
+    platformPool.shutdownNow();
+    virtualThreads.shutdownNow();
+  }
+
+  /**
+   * Serves the burst on the platform thread pool.
+   *
+   * @throws InterruptedException If interrupted while waiting for the burst
+   */
+  @Benchmark
+  public void platformThreads() throws InterruptedException {
+    serveBurst(platformPool);
+  }
+
+  /**
+   * Serves the burst with a virtual thread per request.
+   *
+   * @throws InterruptedException If interrupted while waiting for the burst
+   */
+  @Benchmark
+  public void virtualThreads() throws InterruptedException {
+    serveBurst(virtualThreads);
+  }
+
+  private void serveBurst(ExecutorService executor) throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(concurrency);
+    for (int i = 0; i < concurrency; i++) {
+      executor.execute(() -> {
+        try {
+          redirectService.buildRedirectUrl("/blog/2024/article", "x-sws-event=newsletter", null);
+          Thread.sleep(1);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } catch (URISyntaxException e) {
+          throw new IllegalStateException(e);
+        } finally {
+          done.countDown();
+        }
+      });
+    }
+    done.await();
+  }
+}
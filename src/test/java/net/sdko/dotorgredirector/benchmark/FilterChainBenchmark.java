@@ -0,0 +1,188 @@
+package net.sdko.dotorgredirector.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.sentry.NoOpHub;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServlet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.sdko.dotorgredirector.RedirectFilter;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.core.MonitoringServiceFixtures;
+import net.sdko.dotorgredirector.core.RedirectHandlerFixtures;
+import net.sdko.dotorgredirector.core.RedirectService;
+import net.sdko.dotorgredirector.core.RedirectServiceFixtures;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.web.DefaultSecurityFilterChain;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+/**
+ * Compares serving a redirect behind the Spring Security filter chain, as before, with the fast
+ * path that runs the redirect filter first. The number of filters each request passes through is
+ * printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterChainBenchmark {
+
+  private final HttpServlet servlet = new HttpServlet() { };
+
+  private AnnotationConfigWebApplicationContext context;
+  private FilterChainProxy securityFilterChain;
+  private RedirectFilter redirectFilter;
+
+  /**
+   * Builds the security filter chain from a copy of the application's rules and the redirect
+   * filter, and reports the depth of both orderings.
+   */
+  @Setup
+  public void setUp() {
+    context = new AnnotationConfigWebApplicationContext();
+    context.setServletContext(new MockServletContext());
+    context.register(SecurityConfig.class);
+    context.refresh();
+    securityFilterChain = context.getBean("springSecurityFilterChain", FilterChainProxy.class);
+
+    AppProperties appProperties = new AppProperties();
+    appProperties.setTargetUrl("https://www.example.com");
+    appProperties.setVersion("1.2.3");
+    RedirectMetrics redirectMetrics = new RedirectMetrics(new SimpleMeterRegistry());
+    RedirectService redirectService = RedirectServiceFixtures.redirectService(appProperties, "production");
+    redirectFilter = new RedirectFilter(RedirectHandlerFixtures.redirectHandler(
+        redirectService,
+        MonitoringServiceFixtures.monitoringService(NoOpHub.getInstance()),
+        redirectMetrics,
+        appProperties));
+
+    AtomicInteger depth = new AtomicInteger();
+    List<Filter> counted = new ArrayList<>();
+    for (Filter filter : securityFilterChain.getFilterChains().get(0).getFilters()) {
+      counted.add((request, response, chain) -> {
+        depth.incrementAndGet();
+        filter.doFilter(request, response, chain);
+      });
+    }
+    FilterChainProxy countingProxy =
+        new FilterChainProxy(new DefaultSecurityFilterChain(AnyRequestMatcher.INSTANCE, counted));
+    Filter countingRedirect = (request, response, chain) -> {
+      depth.incrementAndGet();
+      redirectFilter.doFilter(request, response, chain);
+    };
+    try {
+      new MockFilterChain(servlet, countingProxy, countingRedirect)
+          .doFilter(request(), new MockHttpServletResponse());
+      int securityFirst = depth.getAndSet(0);
+      new MockFilterChain(servlet, countingRedirect, countingProxy)
+          .doFilter(request(), new MockHttpServletResponse());
+      System.out.printf("%nFilters per redirect: security first %d, fast path %d%n",
+          securityFirst, depth.get());
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Closes the security context. */
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  /**
+   * Serves a redirect with the security filter chain ahead of the redirect filter.
+   *
+   * @return The response
+   * @throws Exception If the chain fails
+   */
+  @Benchmark
+  public MockHttpServletResponse securityFirst() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    new MockFilterChain(servlet, securityFilterChain, redirectFilter).doFilter(request(), response);
+    return response;
+  }
+
+  /**
+   * Serves a redirect with the redirect filter first.
+   *
+   * @return The response
+   * @throws Exception If the chain fails
+   */
+  @Benchmark
+  public MockHttpServletResponse fastPath() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    new MockFilterChain(servlet, redirectFilter, securityFilterChain).doFilter(request(), response);
+    return response;
+  }
+
+  private static MockHttpServletRequest request() {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/blog/2024/article");
+    request.setQueryString("x-sws-event=newsletter&utm_source=mail");
+    return request;
+  }
+
+  /** Mirrors the rules of AppConfig.securityFilterChain. */
+  @Configuration
+  @EnableWebMvc
+  @EnableWebSecurity
+  static class SecurityConfig {
+
+    /**
+     * Builds the security filter chain.
+     *
+     * @param http The HTTP security configuration
+     * @return The security filter chain
+     * @throws Exception If the configuration fails
+     */
+    @Bean
+    SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+      return http.csrf(AbstractHttpConfigurer::disable)
+          .authorizeHttpRequests(
+              auth -> auth.requestMatchers("/backend/**").authenticated().anyRequest().permitAll())
+          .httpBasic(Customizer.withDefaults())
+          .build();
+    }
+
+    /**
+     * Provides the backend user.
+     *
+     * @return The user details service
+     */
+    @Bean
+    InMemoryUserDetailsManager userDetailsService() {
+      return new InMemoryUserDetailsManager(
+          User.withUsername("backend").password("{noop}secret").roles("ADMIN").build());
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package net.sdko.dotorgredirector.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+import net.sdko.dotorgredirector.metrics.JvmResourceSampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures what a health or info scrape pays for the JVM figures: querying the MXBeans and
+ * enumerating the threads on every call, as the indicators used to, against reading the sampler's
+ * last snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JvmResourceSamplerBenchmark {
+
+  private JvmResourceSampler sampler;
+  private MemoryMXBean memory;
+
+  /** Starts the sampler. */
+  @Setup
+  public void setUp() {
+    sampler = new JvmResourceSampler();
+    sampler.start();
+    memory = ManagementFactory.getMemoryMXBean();
+  }
+
+  /** Stops the sampler. */
+  @TearDown
+  public void tearDown() {
+    sampler.stop();
+  }
+
+  /**
+   * Queries memory and threads on the calling thread.
+   *
+   * @return The figures, so they are not optimized away
+   */
+  @Benchmark
+  public long perCall() {
+    Runtime runtime = Runtime.getRuntime();
+    Thread[] threads = new Thread[Thread.activeCount()];
+    Thread.enumerate(threads);
+    int httpThreads = 0;
+    for (Thread thread : threads) {
+      if (thread != null && thread.getName().contains("http")) {
+        httpThreads++;
+      }
+    }
+    return runtime.freeMemory()
+        + runtime.totalMemory()
+        + memory.getHeapMemoryUsage().getUsed()
+        + memory.getNonHeapMemoryUsage().getUsed()
+        + httpThreads;
+  }
+
+  /**
+   * Reads the sampler's last snapshot.
+   *
+   * @return The figures, so they are not optimized away
+   */
+  @Benchmark
+  public long snapshot() {
+    JvmResourceSampler.Snapshot snapshot = sampler.snapshot();
+    return snapshot.freeMemory()
+        + snapshot.totalMemory()
+        + snapshot.heapUsed()
+        + snapshot.nonHeapUsed()
+        + snapshot.httpThreadCount();
+  }
+}
@@ -0,0 +1,64 @@
+package net.sdko.dotorgredirector.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.core.QueryParamSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares per-value validation with the compiled QueryParamSchema against the regex patterns
+ * it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryParamValidationBenchmark {
+
+  private static final Pattern X_SWS_TRACING_ID_PATTERN = Pattern.compile("^[a-fA-F0-9\\-]{36}$");
+  private static final Pattern X_SWS_EVENT_PATTERN = Pattern.compile("^[a-zA-Z0-9._\\-]{1,50}$");
+
+  private static final String TRACING_ID = "123e4567-e89b-12d3-a456-426614174000";
+  private static final String EVENT = "newsletter-2024.spring_launch";
+
+  private QueryParamSchema schema;
+
+  /** Compiles the default schema. */
+  @Setup
+  public void setUp() {
+    schema = QueryParamSchema.compile(new AppProperties().getQueryParams());
+  }
+
+  /**
+   * Validates two values with the previous regex patterns.
+   *
+   * @return Whether both values are valid
+   */
+  @Benchmark
+  public boolean regex() {
+    return X_SWS_TRACING_ID_PATTERN.matcher(TRACING_ID).matches()
+        && X_SWS_EVENT_PATTERN.matcher(EVENT).matches();
+  }
+
+  /**
+   * Validates two values with the compiled schema.
+   *
+   * @return Whether both values are valid
+   */
+  @Benchmark
+  public boolean compiledSchema() {
+    return schema.isValid("x-sws-tracing-id", TRACING_ID) && schema.isValid("x-sws-event", EVENT);
+  }
+}
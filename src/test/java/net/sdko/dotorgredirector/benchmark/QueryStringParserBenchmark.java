@@ -0,0 +1,93 @@
+package net.sdko.dotorgredirector.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.core.QueryParamSchema;
+import net.sdko.dotorgredirector.core.QueryStringParser;
+import net.sdko.dotorgredirector.core.RejectionReporter;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares decoding every query parameter into a map and then filtering it, as the parameter
+ * map route did, with the streaming parser that only decodes allowlisted parameters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryStringParserBenchmark {
+
+  private static final String QUERY =
+      "utm_source=newsletter&utm_medium=email&utm_campaign=spring%20launch"
+          + "&fbclid=IwAR2x9fQk3pLm7Zt&x-sws-event=launch&ref=homepage%2Fhero&x-sws-env=prod";
+
+  private final QueryParamSchema schema =
+      QueryParamSchema.compile(new AppProperties().getQueryParams());
+
+  private final RejectionReporter rejectionReporter =
+      new RejectionReporter(new RedirectMetrics(new SimpleMeterRegistry()), new AppProperties());
+
+  /**
+   * Decodes every parameter, then keeps the valid allowlisted ones.
+   *
+   * @return The filtered parameters
+   */
+  @Benchmark
+  public Map<String, String[]> decodeAllThenFilter() {
+    Map<String, List<String>> all = new LinkedHashMap<>();
+    for (String pair : QUERY.split("&")) {
+      int separator = pair.indexOf('=');
+      String name = URLDecoder.decode(
+          separator < 0 ? pair : pair.substring(0, separator), StandardCharsets.UTF_8);
+      String value = separator < 0
+          ? "" : URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+      all.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+    }
+    Map<String, String[]> filtered = new HashMap<>();
+    for (Map.Entry<String, List<String>> entry : all.entrySet()) {
+      if (!schema.isAllowed(entry.getKey())) {
+        continue;
+      }
+      List<String> valid = new ArrayList<>();
+      for (String value : entry.getValue()) {
+        if (schema.isValid(entry.getKey(), value)) {
+          valid.add(value);
+        }
+      }
+      if (!valid.isEmpty()) {
+        filtered.put(entry.getKey(), valid.toArray(new String[0]));
+      }
+    }
+    return filtered;
+  }
+
+  /**
+   * Streams over the raw query string, decodes only the allowlisted parameters and counts the
+   * skipped ones.
+   *
+   * @return The filtered parameters
+   */
+  @Benchmark
+  public Map<String, String[]> streaming() {
+    return QueryStringParser.parse(QUERY, schema, 2048, 32, rejectionReporter);
+  }
+}
@@ -0,0 +1,85 @@
+package net.sdko.dotorgredirector.benchmark;
+
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.sdko.dotorgredirector.config.AppProperties.RedirectRule;
+import net.sdko.dotorgredirector.core.RedirectRuleEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares longest-prefix lookups in the RedirectRuleEngine trie against a linear scan over the
+ * same rules.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedirectRuleBenchmark {
+
+  private static final String PATH = "/products/category-417/item-42/reviews";
+
+  @Param({"100", "5000"})
+  private int ruleCount;
+
+  private RedirectRuleEngine engine;
+  private String[] prefixes;
+
+  /**
+   * Builds rules of the form /products/category-N and /products/category-N/item-M.
+   *
+   * @throws URISyntaxException If a generated target is invalid
+   */
+  @Setup
+  public void setUp() throws URISyntaxException {
+    List<RedirectRule> rules = new ArrayList<>();
+    for (int i = 0; rules.size() < ruleCount; i++) {
+      rules.add(new RedirectRule("/products/category-" + i, "https://shop.example.com/c/" + i));
+      rules.add(new RedirectRule(
+          "/products/category-" + i + "/item-42", "https://shop.example.com/i/" + i));
+    }
+    engine = RedirectRuleEngine.compile(rules, "benchmark", "1.0");
+    prefixes = rules.stream().map(RedirectRule::getPrefix).toArray(String[]::new);
+  }
+
+  /**
+   * Finds the longest matching prefix by scanning every rule.
+   *
+   * @return The matched prefix
+   */
+  @Benchmark
+  public String linearScan() {
+    String best = null;
+    for (String prefix : prefixes) {
+      boolean matches = PATH.startsWith(prefix)
+          && (PATH.length() == prefix.length() || PATH.charAt(prefix.length()) == '/');
+      if (matches && (best == null || prefix.length() > best.length())) {
+        best = prefix;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Finds the longest matching prefix with the compiled trie.
+   *
+   * @return The matched rule
+   */
+  @Benchmark
+  public RedirectRuleEngine.Match trie() {
+    return engine.match(PATH);
+  }
+}
@@ -0,0 +1,167 @@
+package net.sdko.dotorgredirector.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.sentry.NoOpHub;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.core.MonitoringServiceFixtures;
+import net.sdko.dotorgredirector.core.RedirectServiceFixtures;
+import net.sdko.dotorgredirector.core.TimeOrderedTracingIdGenerator;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+import net.sdko.dotorgredirector.server.RedirectServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures redirect round trips over loopback against the standalone NIO redirect server, on
+ * one kept-alive HTTP/1.1 connection and on one HTTP/2 connection, with a single event loop.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedirectServerBenchmark {
+
+  private static final byte[] REQUEST =
+      ("GET /blog/2024/article?x-sws-event=newsletter&utm_source=mail HTTP/1.1\r\n"
+          + "Host: example.org\r\nUser-Agent: bench\r\nAccept: */*\r\n\r\n")
+          .getBytes(StandardCharsets.ISO_8859_1);
+
+  private static final byte[] H2_PREFACE =
+      "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n\0\0\0\4\0\0\0\0\0".getBytes(StandardCharsets.ISO_8859_1);
+
+  /** HEADERS frame with END_STREAM and END_HEADERS; the stream ID is patched per request. */
+  private static final byte[] H2_REQUEST = h2Request(
+      "/blog/2024/article?x-sws-event=newsletter&utm_source=mail");
+
+  private RedirectServer redirectServer;
+  private Socket socket;
+  private OutputStream out;
+  private InputStream in;
+  private final byte[] response = new byte[4096];
+  private Socket h2Socket;
+  private DataOutputStream h2Out;
+  private DataInputStream h2In;
+  private int h2StreamId = 1;
+
+  /**
+   * Starts the server and opens the connection.
+   *
+   * @throws IOException If the server cannot be started
+   */
+  @Setup
+  public void setUp() throws IOException {
+    AppProperties appProperties = new AppProperties();
+    appProperties.setTargetUrl("https://www.example.com");
+    appProperties.setVersion("1.2.3");
+    appProperties.getRedirectServer().setEnabled(true);
+    appProperties.getRedirectServer().setPort(0);
+    appProperties.getRedirectServer().setThreads(1);
+    redirectServer = new RedirectServer(appProperties,
+        RedirectServiceFixtures.redirectService(appProperties, "production"),
+        MonitoringServiceFixtures.monitoringService(NoOpHub.getInstance()),
+        new RedirectMetrics(new SimpleMeterRegistry()),
+        new TimeOrderedTracingIdGenerator());
+    redirectServer.start();
+    socket = new Socket("127.0.0.1", redirectServer.getPort());
+    socket.setTcpNoDelay(true);
+    out = socket.getOutputStream();
+    in = socket.getInputStream();
+
+    h2Socket = new Socket("127.0.0.1", redirectServer.getPort());
+    h2Socket.setTcpNoDelay(true);
+    h2Out = new DataOutputStream(h2Socket.getOutputStream());
+    h2In = new DataInputStream(h2Socket.getInputStream());
+    h2Out.write(H2_PREFACE);
+    h2RoundTrip();
+  }
+
+  /**
+   * Closes the connection and stops the server.
+   *
+   * @throws IOException If the socket cannot be closed
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    socket.close();
+    h2Socket.close();
+    redirectServer.stop();
+  }
+
+  /**
+   * Sends one request and reads the complete response head.
+   *
+   * @return The number of response bytes
+   * @throws IOException If the exchange fails
+   */
+  @Benchmark
+  public int roundTrip() throws IOException {
+    out.write(REQUEST);
+    int length = 0;
+    while (length < 4 || response[length - 4] != '\r' || response[length - 3] != '\n'
+        || response[length - 2] != '\r' || response[length - 1] != '\n') {
+      int read = in.read(response, length, response.length - length);
+      if (read < 0) {
+        throw new IOException("Connection closed");
+      }
+      length += read;
+    }
+    return length;
+  }
+
+  /**
+   * Sends one request on a new stream and reads frames up to its HEADERS response.
+   *
+   * @return The length of the response header block
+   * @throws IOException If the exchange fails
+   */
+  @Benchmark
+  public int h2RoundTrip() throws IOException {
+    byte[] request = H2_REQUEST;
+    int streamId = h2StreamId;
+    h2StreamId += 2;
+    request[5] = (byte) (streamId >>> 24);
+    request[6] = (byte) (streamId >>> 16);
+    request[7] = (byte) (streamId >>> 8);
+    request[8] = (byte) streamId;
+    h2Out.write(request);
+    while (true) {
+      int length = h2In.readUnsignedShort() << 8 | h2In.readUnsignedByte();
+      int type = h2In.readUnsignedByte();
+      h2In.skipNBytes(5);
+      h2In.readFully(response, 0, length);
+      if (type == 0x1) {
+        return length;
+      }
+    }
+  }
+
+  private static byte[] h2Request(String path) {
+    byte[] pathBytes = path.getBytes(StandardCharsets.ISO_8859_1);
+    // :method GET, :scheme http, :path as a literal without indexing
+    int blockLength = 4 + pathBytes.length;
+    ByteBuffer frame = ByteBuffer.allocate(9 + blockLength);
+    frame.put((byte) 0).putShort((short) blockLength).put((byte) 0x1).put((byte) 0x5).putInt(1);
+    frame.put((byte) 0x82).put((byte) 0x86).put((byte) 0x04).put((byte) pathBytes.length).put(pathBytes);
+    return frame.array();
+  }
+}
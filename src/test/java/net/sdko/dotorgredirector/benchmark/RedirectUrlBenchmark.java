@@ -0,0 +1,88 @@
+package net.sdko.dotorgredirector.benchmark;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import net.sdko.dotorgredirector.core.RedirectUrlTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Compares the precompiled redirect URL template against the per-request URI and
+ * UriComponentsBuilder construction it replaced. Run with {@code make bench
+ * BENCH=RedirectUrlBenchmark}; add {@code -prof gc} to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedirectUrlBenchmark {
+
+  private static final String TARGET_URL = "https://www.d-roy.ca";
+  private static final String ENVIRONMENT = "production";
+  private static final String VERSION = "1.0.0";
+  private static final String PATH = "/blog/2024/some-article";
+
+  private RedirectUrlTemplate template;
+  private Map<String, String[]> params;
+  private String tracingId;
+  private String timestamp;
+
+  /** Prepares the template and the request inputs shared by both variants. */
+  @Setup
+  public void setUp() throws URISyntaxException {
+    template = RedirectUrlTemplate.compile(TARGET_URL, ENVIRONMENT, VERSION);
+    params = new LinkedHashMap<>();
+    params.put("x-sws-event", new String[] {"newsletter"});
+    tracingId = UUID.randomUUID().toString();
+    timestamp = Long.toString(System.currentTimeMillis() / 1000);
+  }
+
+  /**
+   * The previous implementation: parse the target URL and build the URL on every request.
+   *
+   * @return The redirect URL
+   * @throws URISyntaxException If the target URL is invalid
+   */
+  @Benchmark
+  public String uriComponentsBuilder() throws URISyntaxException {
+    URI targetUri = new URI(TARGET_URL);
+    UriComponentsBuilder builder = UriComponentsBuilder.fromUri(targetUri).path(PATH);
+    builder.queryParam("x-sws-event", "dot-org-redirect");
+    builder.queryParam("x-sws-tracing-id", tracingId);
+    builder.queryParam("x-sws-env", ENVIRONMENT);
+    builder.queryParam("x-sws-version", VERSION);
+    builder.queryParam("x-sws-ts", timestamp);
+    params.forEach(
+        (key, values) -> {
+          for (String value : values) {
+            builder.queryParam(key, value);
+          }
+        });
+    return builder.build().toUriString();
+  }
+
+  /**
+   * The precompiled template.
+   *
+   * @return The redirect URL
+   */
+  @Benchmark
+  public String compiledTemplate() {
+    return template.render(PATH, tracingId, timestamp, params);
+  }
+}
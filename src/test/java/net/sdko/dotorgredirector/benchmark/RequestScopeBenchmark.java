@@ -0,0 +1,106 @@
+package net.sdko.dotorgredirector.benchmark;
+
+import io.sentry.HubAdapter;
+import io.sentry.NoOpTransportFactory;
+import io.sentry.Sentry;
+import io.sentry.protocol.User;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.sdko.dotorgredirector.core.MonitoringService;
+import net.sdko.dotorgredirector.core.MonitoringServiceFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * Measures setting the request details on Sentry from several threads at once: on the shared
+ * scopes through {@link Sentry#configureScope}, as before, against scopes forked for each request
+ * and closed at its end.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class RequestScopeBenchmark {
+
+  private MonitoringService monitoringService;
+
+  /** Initializes Sentry and the monitoring service. */
+  @Setup
+  public void setUp() {
+    Sentry.init(options -> {
+      options.setDsn("https://key@sentry.invalid/1");
+      options.setTransportFactory(NoOpTransportFactory.getInstance());
+    });
+    monitoringService = MonitoringServiceFixtures.monitoringService(HubAdapter.getInstance());
+  }
+
+  /** Closes Sentry. */
+  @TearDown
+  public void tearDown() {
+    Sentry.close();
+  }
+
+  /** Request of the calling benchmark thread. */
+  @State(Scope.Thread)
+  public static class Request {
+
+    private MockHttpServletRequest request;
+
+    /** Creates the request. */
+    @Setup
+    public void setUp() {
+      request = new MockHttpServletRequest("GET", "/docs/getting-started");
+      request.addHeader("User-Agent", "Mozilla/5.0");
+      request.addHeader("Referer", "https://example.org/");
+    }
+  }
+
+  /**
+   * Sets the request details on the shared scopes.
+   *
+   * @param state The calling thread's request
+   */
+  @Benchmark
+  public void sharedScope(Request state) {
+    MockHttpServletRequest request = state.request;
+    Sentry.configureScope(scope -> {
+      scope.setTag("request_uri", request.getRequestURI());
+      scope.setTag("target_url", "https://www.example.com");
+      scope.setTag("tracing_id", "0190f3a2c4b87e6d");
+      User user = new User();
+      user.setIpAddress(request.getRemoteAddr());
+      scope.setUser(user);
+      Map<String, String> requestData = new HashMap<>();
+      requestData.put("user_agent", request.getHeader("User-Agent"));
+      requestData.put("referer", request.getHeader("Referer"));
+      scope.setContexts("request", requestData);
+    });
+  }
+
+  /**
+   * Binds forked scopes for the request, sets the request details on it and closes it.
+   *
+   * @param state The calling thread's request
+   */
+  @Benchmark
+  public void requestScope(Request state) {
+    monitoringService.configureRequestScope(state.request, "0190f3a2c4b87e6d",
+        "https://www.example.com");
+    monitoringService.closeRequestScope(state.request);
+  }
+}
@@ -0,0 +1,124 @@
+package net.sdko.dotorgredirector.benchmark;
+
+import io.sentry.HubAdapter;
+import io.sentry.ITransaction;
+import io.sentry.NoOpTransportFactory;
+import io.sentry.Sentry;
+import java.util.concurrent.TimeUnit;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.core.AdaptiveSampler;
+import net.sdko.dotorgredirector.core.CoarseClock;
+import net.sdko.dotorgredirector.core.MonitoringService;
+import net.sdko.dotorgredirector.core.MonitoringServiceFixtures;
+import net.sdko.dotorgredirector.core.TailTrace;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * Measures the Sentry cost of a redirect when every request is traced, against the adaptive
+ * sampler at its default target of 10 traces per second and against tail tracing of a fast
+ * redirect. Sentry is initialized with tracing enabled and a transport that discards envelopes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionSamplingBenchmark {
+
+  private CoarseClock coarseClock;
+  private MonitoringService traceEverything;
+  private MonitoringService adaptive;
+  private MonitoringService tail;
+  private MockHttpServletRequest request;
+
+  /** Initializes Sentry and the two monitoring services. */
+  @Setup
+  public void setUp() {
+    Sentry.init(options -> {
+      options.setDsn("https://key@sentry.invalid/1");
+      options.setTracesSampleRate(1.0);
+      options.setTransportFactory(NoOpTransportFactory.getInstance());
+    });
+    AppProperties appProperties = new AppProperties();
+    coarseClock = new CoarseClock();
+    coarseClock.start();
+    traceEverything = MonitoringServiceFixtures.monitoringService(HubAdapter.getInstance());
+    adaptive =
+        MonitoringServiceFixtures.monitoringService(
+            HubAdapter.getInstance(),
+            new SyncTaskExecutor(),
+            new AdaptiveSampler(appProperties, coarseClock),
+            new AppProperties());
+    AppProperties tailProperties = new AppProperties();
+    tailProperties.setTracingMode(AppProperties.TracingMode.TAIL);
+    tail =
+        MonitoringServiceFixtures.monitoringService(
+            HubAdapter.getInstance(),
+            new SyncTaskExecutor(),
+            new AdaptiveSampler(tailProperties, coarseClock),
+            tailProperties);
+    request = new MockHttpServletRequest("GET", "/docs/getting-started");
+    request.addHeader("User-Agent", "Mozilla/5.0");
+    request.addHeader("Referer", "https://example.org/");
+  }
+
+  /** Stops the clock and closes Sentry. */
+  @TearDown
+  public void tearDown() {
+    coarseClock.stop();
+    Sentry.close();
+  }
+
+  /**
+   * Starts and finishes a transaction for every redirect.
+   *
+   * @return The transaction
+   */
+  @Benchmark
+  public ITransaction traceEveryRequest() {
+    return startAndFinish(traceEverything);
+  }
+
+  /**
+   * Starts and finishes a transaction only for sampled redirects.
+   *
+   * @return The transaction
+   */
+  @Benchmark
+  public ITransaction adaptiveSampling() {
+    return startAndFinish(adaptive);
+  }
+
+  /** Records the phases of a fast redirect for tail tracing and finishes the trace. */
+  @Benchmark
+  public void tailTracing() {
+    TailTrace trace = tail.startTailTrace(request, "0190f3a2c4b87e6d", "https://www.example.com");
+    int phase = trace.startPhase("build_redirect_url");
+    trace.endPhase(phase, false);
+    phase = trace.startPhase("send_redirect");
+    trace.endPhase(phase, false);
+    tail.finishTailTrace(trace);
+  }
+
+  private ITransaction startAndFinish(MonitoringService monitoringService) {
+    ITransaction transaction = monitoringService.startRedirectTransaction(
+        request, "0190f3a2c4b87e6d", "https://www.example.com");
+    transaction.startChild("build_redirect_url").finish();
+    transaction.finish();
+    monitoringService.closeRequestScope(request);
+    return transaction;
+  }
+}
@@ -0,0 +1,114 @@
+package net.sdko.dotorgredirector.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.sdko.dotorgredirector.core.VanityTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares lookups in the VanityTable with a HashMap holding the same 200,000 vanity links, and
+ * prints the retained heap per entry of both when the trial starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class VanityTableBenchmark {
+
+  private static final int ENTRIES = 200_000;
+
+  private Map<String, String> hashMap;
+  private VanityTable table;
+  private String[] hits;
+  private String[] misses;
+  private int next;
+
+  /** Builds both structures and reports their heap usage. */
+  @Setup
+  public void setUp() {
+    long before = usedHeap();
+    hashMap = new HashMap<>();
+    for (int i = 0; i < ENTRIES; i++) {
+      hashMap.put(key(i), "https://www.example.com/landing/campaign-" + i + "?utm_source=go");
+    }
+    long mapBytes = usedHeap() - before;
+
+    before = usedHeap();
+    table = VanityTable.of(hashMap);
+    long tableBytes = usedHeap() - before;
+
+    System.out.printf("%nHashMap: %d B/entry, VanityTable: %d B/entry (arrays: %d B/entry)%n",
+        mapBytes / ENTRIES, tableBytes / ENTRIES, table.sizeInBytes() / ENTRIES);
+
+    hits = new String[1024];
+    misses = new String[1024];
+    for (int i = 0; i < hits.length; i++) {
+      hits[i] = key((i * 7919) % ENTRIES);
+      misses[i] = key(ENTRIES + i);
+    }
+  }
+
+  /**
+   * Looks up an existing path in the HashMap.
+   *
+   * @return The target URL
+   */
+  @Benchmark
+  public String hashMapHit() {
+    return hashMap.get(hits[next++ & 1023]);
+  }
+
+  /**
+   * Looks up an existing path in the vanity table.
+   *
+   * @return The entry index
+   */
+  @Benchmark
+  public int tableHit() {
+    return table.lookup(hits[next++ & 1023]);
+  }
+
+  /**
+   * Looks up a path that is not in the vanity table.
+   *
+   * @return The entry index
+   */
+  @Benchmark
+  public int tableMiss() {
+    return table.lookup(misses[next++ & 1023]);
+  }
+
+  /**
+   * Looks up an existing path and materializes its target URL.
+   *
+   * @return The target URL
+   */
+  @Benchmark
+  public String tableHitWithTarget() {
+    return table.get(hits[next++ & 1023]);
+  }
+
+  private static String key(int i) {
+    return "/go/campaign-" + i;
+  }
+
+  private static long usedHeap() {
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+}
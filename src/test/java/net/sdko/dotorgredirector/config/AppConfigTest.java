@@ -0,0 +1,107 @@
+package net.sdko.dotorgredirector.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.EnumSet;
+import jakarta.servlet.DispatcherType;
+import net.sdko.dotorgredirector.RedirectFilter;
+import net.sdko.dotorgredirector.core.RedirectHandler;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Unit tests for the redirect filter registration, the execution mode beans and the backend
+ * authentication provider.
+ */
+@Tag("unit")
+class AppConfigTest {
+
+  @Test
+  void redirectFilterRunsAheadOfSecurityWithFastPath() {
+    FilterRegistrationBean<RedirectFilter> registration = registration(true);
+
+    assertEquals(SecurityProperties.DEFAULT_FILTER_ORDER - 1, registration.getOrder());
+    // The observation filter still records redirects in http.server.requests
+    assertTrue(registration.getOrder() > Ordered.HIGHEST_PRECEDENCE + 1);
+    assertEquals(EnumSet.of(DispatcherType.REQUEST),
+        ReflectionTestUtils.getField(registration, "dispatcherTypes"));
+  }
+
+  @Test
+  void redirectFilterRunsAfterSecurityWithoutFastPath() {
+    FilterRegistrationBean<RedirectFilter> registration = registration(false);
+
+    assertEquals(1, registration.getOrder());
+  }
+
+  @Test
+  void virtualExecutionModeUsesVirtualThreads() {
+    AppConfig appConfig = appConfig(AppProperties.ExecutionMode.VIRTUAL);
+    ProtocolHandler protocolHandler = mock(ProtocolHandler.class);
+
+    appConfig.executionModeCustomizer().customize(protocolHandler);
+
+    verify(protocolHandler).setExecutor(any(VirtualThreadExecutor.class));
+    assertInstanceOf(VirtualThreadTaskExecutor.class, appConfig.blockingTaskExecutor());
+  }
+
+  @Test
+  void platformExecutionModeKeepsTomcatPool() {
+    AppConfig appConfig = appConfig(AppProperties.ExecutionMode.PLATFORM);
+    ProtocolHandler protocolHandler = mock(ProtocolHandler.class);
+
+    appConfig.executionModeCustomizer().customize(protocolHandler);
+
+    verify(protocolHandler, never()).setExecutor(any());
+    assertInstanceOf(SyncTaskExecutor.class, appConfig.blockingTaskExecutor());
+  }
+
+  @Test
+  void backendAuthenticationCachesVerificationsUnlessDisabled() {
+    AppProperties appProperties = new AppProperties();
+    AppConfig appConfig =
+        new AppConfig(new MockEnvironment(), appProperties, mock(VersionProvider.class));
+    InMemoryUserDetailsManager users = new InMemoryUserDetailsManager();
+
+    assertInstanceOf(
+        CachingAuthenticationProvider.class,
+        appConfig.backendAuthenticationProvider(users, new BCryptPasswordEncoder()));
+
+    appProperties.getAuthCache().setEnabled(false);
+    assertInstanceOf(
+        DaoAuthenticationProvider.class,
+        appConfig.backendAuthenticationProvider(users, new BCryptPasswordEncoder()));
+  }
+
+  private static FilterRegistrationBean<RedirectFilter> registration(boolean fastPath) {
+    AppProperties appProperties = new AppProperties();
+    appProperties.setRedirectFastPath(fastPath);
+    AppConfig appConfig =
+        new AppConfig(new MockEnvironment(), appProperties, mock(VersionProvider.class));
+    return appConfig.redirectFilter(mock(RedirectHandler.class));
+  }
+
+  private static AppConfig appConfig(AppProperties.ExecutionMode executionMode) {
+    AppProperties appProperties = new AppProperties();
+    appProperties.setExecutionMode(executionMode);
+    return new AppConfig(new MockEnvironment(), appProperties, mock(VersionProvider.class));
+  }
+}
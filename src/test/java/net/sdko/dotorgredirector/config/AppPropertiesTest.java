@@ -0,0 +1,46 @@
+package net.sdko.dotorgredirector.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Map;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+/** Unit tests for binding the application properties. */
+@Tag("unit")
+class AppPropertiesTest {
+
+  @Test
+  void overridingOneSettingKeepsTheBuiltInRule() {
+    AppProperties appProperties = bind(Map.of("app.queryParams.x-sws-ts.maxValue", "4102444800"));
+
+    AppProperties.QueryParamRule rule = appProperties.getQueryParams().get("x-sws-ts");
+    assertEquals("0-9", rule.getChars());
+    assertEquals(1, rule.getMinLength());
+    assertEquals(15, rule.getMaxLength());
+    assertNull(rule.getMinValue());
+    assertEquals(4102444800L, rule.getMaxValue());
+    assertEquals(36, appProperties.getQueryParams().get("x-sws-tracing-id").getMaxLength());
+  }
+
+  @Test
+  void newParametersGetTheGenericDefaults() {
+    AppProperties appProperties = bind(Map.of("app.queryParams.utm_source.maxLength", "32"));
+
+    AppProperties.QueryParamRule rule = appProperties.getQueryParams().get("utm_source");
+    assertEquals("a-zA-Z0-9._-", rule.getChars());
+    assertEquals(1, rule.getMinLength());
+    assertEquals(32, rule.getMaxLength());
+    assertEquals(6, appProperties.getQueryParams().size());
+  }
+
+  private static AppProperties bind(Map<String, String> properties) {
+    return new Binder(new MapConfigurationPropertySource(properties))
+        .bind("app", Bindable.ofInstance(new AppProperties()))
+        .get();
+  }
+}
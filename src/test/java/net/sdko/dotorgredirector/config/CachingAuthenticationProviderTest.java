@@ -0,0 +1,158 @@
+package net.sdko.dotorgredirector.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+/** Unit tests for the cache of verified backend credentials. */
+@Tag("unit")
+class CachingAuthenticationProviderTest {
+
+  private final AtomicInteger verifications = new AtomicInteger();
+  private final MutableClock clock = new MutableClock();
+  private AppProperties.AuthCache settings;
+  private CachingAuthenticationProvider provider;
+
+  @BeforeEach
+  void setUp() {
+    BCryptPasswordEncoder encoder =
+        new BCryptPasswordEncoder(4) {
+          @Override
+          public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            verifications.incrementAndGet();
+            return super.matches(rawPassword, encodedPassword);
+          }
+        };
+    DaoAuthenticationProvider verifier =
+        new DaoAuthenticationProvider(
+            new InMemoryUserDetailsManager(
+                User.withUsername("backend")
+                    .password(encoder.encode("secret"))
+                    .roles("ADMIN")
+                    .build()));
+    verifier.setPasswordEncoder(encoder);
+
+    settings = new AppProperties.AuthCache();
+    provider = new CachingAuthenticationProvider(verifier, settings, clock);
+  }
+
+  @Test
+  void repeatedCredentialsSkipVerification() {
+    UsernamePasswordAuthenticationToken first = token("backend", "secret");
+    first.setDetails("first");
+    Authentication result = provider.authenticate(first);
+    UsernamePasswordAuthenticationToken second = token("backend", "secret");
+    second.setDetails("second");
+    Authentication cached = provider.authenticate(second);
+
+    assertEquals(1, verifications.get());
+    assertTrue(result.isAuthenticated());
+    assertTrue(cached.isAuthenticated());
+    assertEquals("backend", cached.getName());
+    assertEquals(result.getAuthorities(), cached.getAuthorities());
+    assertEquals("second", cached.getDetails());
+  }
+
+  @Test
+  void failedVerificationsAreNotCached() {
+    assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("backend", "x")));
+    assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("backend", "x")));
+
+    assertEquals(2, verifications.get());
+    assertEquals(0, provider.size());
+  }
+
+  @Test
+  void cachedUserStillNeedsTheRightPassword() {
+    provider.authenticate(token("backend", "secret"));
+
+    assertThrows(
+        BadCredentialsException.class, () -> provider.authenticate(token("backend", "secret2")));
+    assertEquals(2, verifications.get());
+  }
+
+  @Test
+  void verificationExpiresAfterTtl() {
+    provider.authenticate(token("backend", "secret"));
+    clock.millis += settings.getTtlSeconds() * 1000L - 1;
+    provider.authenticate(token("backend", "secret"));
+    assertEquals(1, verifications.get());
+
+    clock.millis += 1;
+    provider.authenticate(token("backend", "secret"));
+    assertEquals(2, verifications.get());
+  }
+
+  @Test
+  void cacheIsBounded() {
+    AuthenticationProvider acceptAll =
+        new AuthenticationProvider() {
+          @Override
+          public Authentication authenticate(Authentication authentication) {
+            return UsernamePasswordAuthenticationToken.authenticated(
+                authentication.getName(), null, List.of());
+          }
+
+          @Override
+          public boolean supports(Class<?> authentication) {
+            return true;
+          }
+        };
+    settings.setMaxEntries(4);
+    CachingAuthenticationProvider bounded =
+        new CachingAuthenticationProvider(acceptAll, settings, clock);
+
+    for (int i = 0; i < 100; i++) {
+      bounded.authenticate(token("user" + i, "secret"));
+    }
+
+    assertTrue(bounded.size() <= 4, "size " + bounded.size());
+  }
+
+  private static UsernamePasswordAuthenticationToken token(String username, String password) {
+    return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private long millis = 1_000_000;
+
+    @Override
+    public long millis() {
+      return millis;
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+  }
+}
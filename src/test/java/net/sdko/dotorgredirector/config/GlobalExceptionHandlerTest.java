@@ -3,9 +3,11 @@ package net.sdko.dotorgredirector.config;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import io.sentry.ScopeCallback;
 import io.sentry.Sentry;
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.Map;
+import net.sdko.dotorgredirector.core.ErrorAggregator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -26,7 +28,9 @@ class GlobalExceptionHandlerTest {
     MockitoAnnotations.openMocks(this);
     when(appProperties.getVersion()).thenReturn("1.0.0");
     
-    exceptionHandler = new GlobalExceptionHandler("test", appProperties);
+    exceptionHandler =
+        new GlobalExceptionHandler(
+            "test", appProperties, new ErrorAggregator(appProperties));
     
     // Setup mock request
     when(request.getRequestURL()).thenReturn(new StringBuffer("https://example.com/test"));
@@ -45,8 +49,9 @@ class GlobalExceptionHandlerTest {
       ResponseEntity<Object> response = exceptionHandler.handleAllExceptions(testException, request);
       
       // Verify Sentry was called
-      sentryMockedStatic.verify(() -> Sentry.configureScope(any()));
-      sentryMockedStatic.verify(() -> Sentry.captureException(testException));
+      sentryMockedStatic.verify(() -> Sentry.captureEvent(
+          argThat(event -> event.getThrowable() == testException), any(ScopeCallback.class)));
+      sentryMockedStatic.verify(() -> Sentry.configureScope(any()), never());
       
       // Verify response
       assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
@@ -75,7 +80,8 @@ class GlobalExceptionHandlerTest {
         ResponseEntity<Object> response = exceptionHandler.handleAllExceptions(exception, request);
         
         // Verify Sentry was called with the specific exception
-        sentryMockedStatic.verify(() -> Sentry.captureException(exception));
+        sentryMockedStatic.verify(() -> Sentry.captureEvent(
+            argThat(event -> event.getThrowable() == exception), any(ScopeCallback.class)));
         
         // Verify response status
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
@@ -0,0 +1,127 @@
+package net.sdko.dotorgredirector.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import io.sentry.IHub;
+import io.sentry.ITransaction;
+import io.sentry.NoOpTransaction;
+import io.sentry.TransactionOptions;
+import net.sdko.dotorgredirector.config.AppProperties;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Unit tests for the rate-adaptive transaction sampler.
+ */
+@Tag("unit")
+public class AdaptiveSamplerTest {
+
+    private final MutableClock clock = new MutableClock(1_700_000_000_000L);
+    private final AppProperties appProperties = new AppProperties();
+    private final AdaptiveSampler sampler = new AdaptiveSampler(appProperties, new CoarseClock(clock));
+
+    @Test
+    public void testSample_LightTrafficIsTracedInFull() {
+        appProperties.setTracesPerSecond(10);
+        assertEquals(5, countSampled(5));
+        clock.millis += 1_000L;
+
+        assertEquals(5, countSampled(5));
+        assertEquals(1.0, sampler.probability());
+    }
+
+    @Test
+    public void testSample_HeavyTrafficConvergesOnTargetRate() {
+        appProperties.setTracesPerSecond(10);
+        countSampled(1_000);
+        clock.millis += 1_000L;
+
+        int sampled = countSampled(100_000);
+        assertEquals(0.01, sampler.probability(), 1e-6);
+        assertTrue(sampled > 700 && sampled < 1_300, "Sampled " + sampled);
+
+        // The average of 1000 and 100000 requests per second
+        clock.millis += 1_000L;
+        countSampled(1);
+        assertEquals(10 / 50_500.0, sampler.probability(), 1e-6);
+    }
+
+    @Test
+    public void testSample_ZeroTargetDisablesTracing() {
+        appProperties.setTracesPerSecond(0);
+        AdaptiveSampler disabled = new AdaptiveSampler(appProperties, new CoarseClock(clock));
+
+        for (int i = 0; i < 1_000; i++) {
+            assertFalse(disabled.sample());
+        }
+    }
+
+    @Test
+    public void testStartRedirectTransaction_UnsampledSkipsSentry() {
+        appProperties.setTracesPerSecond(0);
+        IHub hub = mock(IHub.class);
+        MonitoringService monitoringService = MonitoringServiceFixtures.monitoringService(hub,
+                new SyncTaskExecutor(), new AdaptiveSampler(appProperties, new CoarseClock(clock)),
+                new AppProperties());
+
+        ITransaction transaction = monitoringService.startRedirectTransaction(
+                new MockHttpServletRequest("GET", "/docs"), "trace", "https://example.com");
+
+        assertSame(NoOpTransaction.getInstance(), transaction);
+        verify(hub, never()).startTransaction(anyString(), anyString(), any(TransactionOptions.class));
+    }
+
+    private int countSampled(int requests) {
+        int sampled = 0;
+        for (int i = 0; i < requests; i++) {
+            if (sampler.sample()) {
+                sampled++;
+            }
+        }
+        return sampled;
+    }
+
+    /**
+     * Clock whose current time is set directly by the test.
+     */
+    private static final class MutableClock extends Clock {
+
+        private volatile long millis;
+
+        MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package net.sdko.dotorgredirector.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Unit tests for the coarse, second-resolution clock.
+ */
+@Tag("unit")
+public class CoarseClockTest {
+
+    @Test
+    public void testUnstartedClock_ReadsUnderlyingClock() {
+        MutableClock clock = new MutableClock(1_700_000_000_500L);
+        CoarseClock coarseClock = new CoarseClock(clock);
+
+        assertEquals(1_700_000_000L, coarseClock.epochSecond());
+        assertEquals("1700000000", coarseClock.epochSecondText());
+
+        clock.millis = 1_700_000_001_000L;
+        assertEquals("1700000001", coarseClock.epochSecondText());
+    }
+
+    @Test
+    public void testStartedClock_PublishesTicks() throws Exception {
+        MutableClock clock = new MutableClock(1_700_000_000_000L);
+        CoarseClock coarseClock = new CoarseClock(clock);
+        coarseClock.start();
+        try {
+            CoarseClock.Tick first = coarseClock.current();
+            assertEquals(1_700_000_000L, first.epochSecond());
+            assertSame(first, coarseClock.current());
+
+            clock.millis = 1_700_000_005_000L;
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (coarseClock.epochSecond() != 1_700_000_005L && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals("1700000005", coarseClock.epochSecondText());
+        } finally {
+            coarseClock.stop();
+        }
+
+        clock.millis = 1_700_000_009_000L;
+        assertEquals(1_700_000_009L, coarseClock.epochSecond());
+    }
+
+    @Test
+    public void testBuildRedirectUrl_UsesInjectedClock() throws Exception {
+        AppProperties appProperties = new AppProperties();
+        appProperties.setTargetUrl("https://example.com");
+        CoarseClock coarseClock = new CoarseClock(Clock.fixed(Instant.ofEpochSecond(1_640_995_200L), ZoneOffset.UTC));
+        RedirectService redirectService = RedirectServiceFixtures.redirectService(appProperties, "test", new TimeOrderedTracingIdGenerator(), coarseClock,
+                new RedirectMetrics(new SimpleMeterRegistry()));
+
+        String redirectUrl = redirectService.buildRedirectUrl(new MockHttpServletRequest("GET", "/docs"));
+
+        assertTrue(redirectUrl.contains("&x-sws-ts=1640995200"));
+    }
+
+    /**
+     * Clock whose current time is set directly by the test.
+     */
+    private static final class MutableClock extends Clock {
+
+        private volatile long millis;
+
+        MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
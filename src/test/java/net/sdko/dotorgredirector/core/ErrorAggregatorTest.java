@@ -0,0 +1,156 @@
+package net.sdko.dotorgredirector.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.sentry.SentryEvent;
+import net.sdko.dotorgredirector.config.AppProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Unit tests for the fingerprinting and summarizing of repeated errors.
+ */
+@Tag("unit")
+public class ErrorAggregatorTest {
+
+    private final MutableClock clock = new MutableClock(1_700_000_000_000L);
+    private final AppProperties appProperties = new AppProperties();
+    private ErrorAggregator errorAggregator;
+
+    @BeforeEach
+    public void setUp() {
+        appProperties.setErrorSummaryIntervalSeconds(60);
+        errorAggregator = new ErrorAggregator(appProperties, clock);
+    }
+
+    @Test
+    public void testRecord_ReportsFirstOccurrenceWithThreadDump() {
+        RuntimeException error = failure("target unreachable");
+
+        SentryEvent event = errorAggregator.record(error);
+
+        assertNotNull(event);
+        assertSame(error, event.getThrowable());
+        assertEquals(List.of(ErrorAggregator.fingerprint(error)), event.getFingerprints());
+        // Left unset, so Sentry attaches the threads
+        assertNull(event.getThreads());
+    }
+
+    @Test
+    public void testRecord_CountsRepeatsAndSummarizesPerWindow() {
+        assertNotNull(errorAggregator.record(failure("first")));
+        for (int i = 0; i < 41; i++) {
+            assertNull(errorAggregator.record(failure("request " + i)));
+        }
+        assertEquals(41, errorAggregator.pending(failure("any")));
+
+        clock.millis += 60_000;
+        SentryEvent summary = errorAggregator.record(failure("after the window"));
+
+        assertNotNull(summary);
+        assertEquals(42L, summary.getExtra("occurrences"));
+        assertEquals("Repeated 42 times in the last 60s", summary.getMessage().getFormatted());
+        assertEquals("true", summary.getTag("aggregated"));
+        assertTrue(summary.getThreads().isEmpty());
+        assertEquals(0, errorAggregator.pending(failure("any")));
+    }
+
+    @Test
+    public void testFingerprint_IgnoresMessageButNotTypeOrFrames() {
+        assertEquals(ErrorAggregator.fingerprint(failure("a")), ErrorAggregator.fingerprint(failure("b")));
+        assertNotEquals(ErrorAggregator.fingerprint(failure("a")),
+                ErrorAggregator.fingerprint(withFrames(new IllegalStateException("a"))));
+        assertNotEquals(ErrorAggregator.fingerprint(failure("a")), ErrorAggregator.fingerprint(otherFailure()));
+
+        assertNotNull(errorAggregator.record(failure("a")));
+        assertNotNull(errorAggregator.record(otherFailure()));
+    }
+
+    @Test
+    public void testFlush_SummarizesWindowsWithoutNewOccurrences() {
+        errorAggregator.record(failure("first"));
+        errorAggregator.record(failure("repeat"));
+        errorAggregator.record(failure("repeat"));
+        assertTrue(errorAggregator.flush().isEmpty());
+
+        clock.millis += 61_000;
+        List<SentryEvent> summaries = errorAggregator.flush();
+
+        assertEquals(1, summaries.size());
+        assertEquals(2L, summaries.get(0).getExtra("occurrences"));
+        assertTrue(errorAggregator.flush().isEmpty());
+    }
+
+    @Test
+    public void testFlushAll_ReportsPendingRepeatsBeforeTheWindowEnds() {
+        errorAggregator.record(failure("first"));
+        errorAggregator.record(failure("repeat"));
+
+        List<SentryEvent> summaries = errorAggregator.flushAll();
+
+        assertEquals(1, summaries.size());
+        assertEquals(1L, summaries.get(0).getExtra("occurrences"));
+    }
+
+    /** Frames of the failures, fixed so that errors from different test lines match. */
+    private static final StackTraceElement[] FRAMES = {
+        new StackTraceElement("net.sdko.dotorgredirector.core.RedirectService", "buildRedirectUrl", null, 120),
+        new StackTraceElement("net.sdko.dotorgredirector.core.RedirectHandler", "performRedirect", null, 180),
+        new StackTraceElement("net.sdko.dotorgredirector.core.RedirectHandler", "handleRedirect", null, 140),
+        new StackTraceElement("net.sdko.dotorgredirector.RedirectFilter", "doFilter", null, 60),
+    };
+
+    private static RuntimeException failure(String message) {
+        return withFrames(new RuntimeException(message));
+    }
+
+    private static RuntimeException withFrames(RuntimeException failure) {
+        failure.setStackTrace(FRAMES);
+        return failure;
+    }
+
+    private static RuntimeException otherFailure() {
+        RuntimeException failure = failure("elsewhere");
+        StackTraceElement[] frames = FRAMES.clone();
+        frames[0] = new StackTraceElement("net.sdko.dotorgredirector.core.RedirectService", "buildRedirectUrl",
+                null, 131);
+        failure.setStackTrace(frames);
+        return failure;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private volatile long millis;
+
+        MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
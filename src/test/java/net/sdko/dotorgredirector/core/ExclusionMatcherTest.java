@@ -0,0 +1,103 @@
+package net.sdko.dotorgredirector.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for the compiled ExclusionMatcher.
+ */
+@Tag("unit")
+public class ExclusionMatcherTest {
+
+    @Test
+    public void testLegacyPattern_KeepsPrefixAndExactSemantics() {
+        ExclusionMatcher prefix = ExclusionMatcher.compile("/backend/*", null);
+        assertTrue(prefix.matches("/backend/"));
+        assertTrue(prefix.matches("/backend/healthz"));
+        assertTrue(prefix.matches("/backend/a/b/c"));
+        assertFalse(prefix.matches("/backend"));
+        assertFalse(prefix.matches("/frontend/backend/x"));
+
+        ExclusionMatcher exact = ExclusionMatcher.compile("/exact", List.of());
+        assertTrue(exact.matches("/exact"));
+        assertFalse(exact.matches("/exact/"));
+        assertFalse(exact.matches("/exac"));
+    }
+
+    @Test
+    public void testNoPatterns_MatchesNothing() {
+        ExclusionMatcher matcher = ExclusionMatcher.compile("", List.of(""));
+        assertFalse(matcher.matches("/"));
+        assertFalse(matcher.matches("/backend/healthz"));
+        assertFalse(matcher.matches(null));
+    }
+
+    @Test
+    public void testCombinedPatterns() {
+        ExclusionMatcher matcher = ExclusionMatcher.compile("/backend/*", List.of(
+                "/.well-known/**", "/robots.txt", "/probe/*/ready", "/status?", "/assets/**/*.css"));
+
+        assertTrue(matcher.matches("/backend/metrics"));
+        assertTrue(matcher.matches("/.well-known"));
+        assertTrue(matcher.matches("/.well-known/acme-challenge/token"));
+        assertTrue(matcher.matches("/robots.txt"));
+        assertTrue(matcher.matches("/probe/db/ready"));
+        assertTrue(matcher.matches("/status1"));
+        assertTrue(matcher.matches("/assets/site.css"));
+        assertTrue(matcher.matches("/assets/css/v2/site.css"));
+
+        assertFalse(matcher.matches("/robots.txt/x"));
+        assertFalse(matcher.matches("/.well-knownx"));
+        assertFalse(matcher.matches("/probe/db/cache/ready"));
+        assertFalse(matcher.matches("/status"));
+        assertFalse(matcher.matches("/status/"));
+        assertFalse(matcher.matches("/assets/site.js"));
+        assertFalse(matcher.matches("/about"));
+    }
+
+    @Test
+    public void testGlobs_AgreeWithAntPathMatcher() {
+        AntPathMatcher antPathMatcher = new AntPathMatcher();
+        Random random = new Random(20240614L);
+        String[] segments = {"a", "b", "ab", "x.css", "**", "*", "a?", "*.css"};
+        String[] pathSegments = {"a", "b", "ab", "ba", "x.css", "y.css", "a1"};
+
+        for (int round = 0; round < 200; round++) {
+            List<String> patterns = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(4); i++) {
+                String pattern = randomPath(random, segments, 1 + random.nextInt(4));
+                // A pattern ending in a single '*' is a legacy prefix, not an Ant glob
+                if (pattern.indexOf('*') != pattern.length() - 1 || pattern.endsWith("**")) {
+                    patterns.add(pattern);
+                }
+            }
+            ExclusionMatcher matcher = ExclusionMatcher.compile(null, patterns);
+
+            for (int i = 0; i < 200; i++) {
+                String path = randomPath(random, pathSegments, 1 + random.nextInt(5));
+                boolean expected = patterns.stream().anyMatch(pattern -> antPathMatcher.match(pattern, path));
+                assertEquals(expected, matcher.matches(path), patterns + " " + path);
+            }
+        }
+    }
+
+    @Test
+    public void testCompile_RejectsNonAsciiPatterns() {
+        assertThrows(IllegalArgumentException.class, () -> ExclusionMatcher.compile("/café", null));
+    }
+
+    private static String randomPath(Random random, String[] segments, int count) {
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            path.append('/').append(segments[random.nextInt(segments.length)]);
+        }
+        return path.toString();
+    }
+}
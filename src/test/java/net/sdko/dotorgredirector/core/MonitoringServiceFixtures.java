@@ -0,0 +1,60 @@
+package net.sdko.dotorgredirector.core;
+
+import io.sentry.IHub;
+import net.sdko.dotorgredirector.config.AppProperties;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+/**
+ * Builds MonitoringService instances for tests, with the collaborators Spring would inject.
+ *
+ * <p>The error aggregator is not started, so repeats of an error are only counted and no
+ * summaries are sent in the background.
+ */
+public final class MonitoringServiceFixtures {
+
+    private MonitoringServiceFixtures() {
+    }
+
+    /**
+     * Builds a MonitoringService that traces every redirect and captures exceptions on the
+     * calling thread.
+     *
+     * @param sentryHub The Sentry hub
+     * @return The service
+     */
+    public static MonitoringService monitoringService(IHub sentryHub) {
+        return monitoringService(sentryHub, new SyncTaskExecutor(), alwaysSampler(),
+                new AppProperties());
+    }
+
+    /**
+     * Builds a sampler that traces every redirect. Its clock never reaches a new second, so the
+     * sampler keeps the probability of 1 it starts with.
+     *
+     * @return The sampler
+     */
+    public static AdaptiveSampler alwaysSampler() {
+        return new AdaptiveSampler(new AppProperties(),
+                new CoarseClock(Clock.fixed(Instant.EPOCH, ZoneOffset.UTC)));
+    }
+
+    /**
+     * Builds a MonitoringService with specific collaborators.
+     *
+     * @param sentryHub The Sentry hub
+     * @param executor The executor that captured exceptions are sent to Sentry on
+     * @param sampler Decides which redirects get a transaction, or the baseline in tail mode
+     * @param appProperties The application properties
+     * @return The service
+     */
+    public static MonitoringService monitoringService(
+            IHub sentryHub, TaskExecutor executor, AdaptiveSampler sampler, AppProperties appProperties) {
+        return new MonitoringService(sentryHub, executor, sampler, appProperties,
+                new ErrorAggregator(appProperties));
+    }
+}
@@ -0,0 +1,87 @@
+package net.sdko.dotorgredirector.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * Unit tests for the PathSanitizer, including a fuzz comparison with the
+ * regex-based implementation it replaced.
+ */
+@Tag("unit")
+public class PathSanitizerTest {
+
+    private static final String FUZZ_ALPHABET = "./-_aZ9/..//%:<? ";
+    private static final int FUZZ_ITERATIONS = 200_000;
+    private static final int FUZZ_MAX_LENGTH = 24;
+
+    @Test
+    public void testSanitize_CleanPathReturnedWithoutCopy() {
+        String path = "/docs/readme.txt";
+
+        assertSame(path, PathSanitizer.sanitize(path));
+    }
+
+    @Test
+    public void testSanitize_Rewrites() {
+        assertEquals("/", PathSanitizer.sanitize(null));
+        assertEquals("/", PathSanitizer.sanitize(""));
+        assertEquals("/", PathSanitizer.sanitize("../"));
+        assertEquals("/a", PathSanitizer.sanitize("a"));
+        assertEquals("/etc/passwd", PathSanitizer.sanitize("/../../etc/passwd"));
+        assertEquals("/test/path/", PathSanitizer.sanitize("//test//path//"));
+        assertEquals("/../", PathSanitizer.sanitize("....//"));
+    }
+
+    @Test
+    public void testSanitize_UnsafeCharactersRejected() {
+        SecurityException exception = assertThrows(SecurityException.class,
+                () -> PathSanitizer.sanitize("/javascript:alert('xss')"));
+
+        assertTrue(exception.getMessage().contains("unsafe characters"));
+        assertThrows(SecurityException.class, () -> PathSanitizer.sanitize("/café"));
+    }
+
+    @Test
+    public void testSanitize_FuzzEquivalentToRegexImplementation() {
+        Random random = new Random(20240607L);
+
+        for (int i = 0; i < FUZZ_ITERATIONS; i++) {
+            char[] chars = new char[random.nextInt(FUZZ_MAX_LENGTH + 1)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = FUZZ_ALPHABET.charAt(random.nextInt(FUZZ_ALPHABET.length()));
+            }
+            String path = new String(chars);
+
+            String expected;
+            try {
+                expected = regexSanitize(path);
+            } catch (SecurityException e) {
+                assertThrows(SecurityException.class, () -> PathSanitizer.sanitize(path),
+                        "Expected rejection for: " + path);
+                continue;
+            }
+            assertEquals(expected, PathSanitizer.sanitize(path), "Mismatch for: " + path);
+        }
+    }
+
+    /**
+     * The previous regex-based implementation, kept as the reference behaviour.
+     */
+    private static String regexSanitize(String path) {
+        if (!path.matches("^[a-zA-Z0-9._/\\-]*$")) {
+            throw new SecurityException("Invalid path contains unsafe characters");
+        }
+
+        path = path.replaceAll("\\.\\./", "");
+
+        if (!path.startsWith("/")) {
+            path = "/" + path;
+        }
+
+        return path.replaceAll("//+", "/");
+    }
+}
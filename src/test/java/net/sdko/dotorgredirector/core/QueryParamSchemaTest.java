@@ -0,0 +1,83 @@
+package net.sdko.dotorgredirector.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.config.AppProperties.QueryParamRule;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Unit tests for the compiled QueryParamSchema.
+ */
+@Tag("unit")
+public class QueryParamSchemaTest {
+
+    @Test
+    public void testDefaultSchema_MatchesBuiltInRules() {
+        QueryParamSchema schema = QueryParamSchema.compile(new AppProperties().getQueryParams());
+
+        assertTrue(schema.isValid("x-sws-event", "valid-event_1.0"));
+        assertFalse(schema.isValid("x-sws-event", "a".repeat(51)));
+        assertFalse(schema.isValid("x-sws-event", "invalid<script>"));
+        assertFalse(schema.isValid("x-sws-event", ""));
+        assertTrue(schema.isValid("x-sws-tracing-id", "123e4567-e89b-12d3-a456-426614174000"));
+        assertFalse(schema.isValid("x-sws-tracing-id", "123g4567-e89b-12d3-a456-426614174000"));
+        assertFalse(schema.isValid("x-sws-tracing-id", "not-a-uuid"));
+        assertTrue(schema.isValid("x-sws-ts", "1640995200"));
+        assertFalse(schema.isValid("x-sws-ts", "1e10"));
+        assertFalse(schema.isAllowed("utm_source"));
+        assertFalse(schema.isValid("utm_source", "google"));
+    }
+
+    @Test
+    public void testCustomRule_NumericRangeAndCharacterClass() {
+        QueryParamRule rule = new QueryParamRule("0-9", 1, 5);
+        rule.setMinValue(10L);
+        rule.setMaxValue(500L);
+        Map<String, QueryParamRule> rules = new LinkedHashMap<>();
+        rules.put("x-sws-campaign", rule);
+
+        QueryParamSchema schema = QueryParamSchema.compile(rules);
+
+        assertTrue(schema.isValid("x-sws-campaign", "10"));
+        assertTrue(schema.isValid("x-sws-campaign", "500"));
+        assertFalse(schema.isValid("x-sws-campaign", "9"));
+        assertFalse(schema.isValid("x-sws-campaign", "501"));
+        assertFalse(schema.isValid("x-sws-campaign", "12a"));
+        assertFalse(schema.isAllowed("x-sws-event"));
+    }
+
+    @Test
+    public void testCharacterClass_HighAsciiAndLiteralDash() {
+        Map<String, QueryParamRule> rules = Map.of("p", new QueryParamRule("x-z~-", 1, 10));
+
+        QueryParamSchema schema = QueryParamSchema.compile(rules);
+
+        assertTrue(schema.isValid("p", "xyz~-"));
+        assertFalse(schema.isValid("p", "w"));
+        assertFalse(schema.isValid("p", "é"));
+    }
+
+    @Test
+    public void testCompile_InvalidRulesRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> QueryParamSchema.compile(Map.of("p", new QueryParamRule("z-a", 1, 10))));
+        assertThrows(IllegalArgumentException.class,
+                () -> QueryParamSchema.compile(Map.of("p", new QueryParamRule("", 1, 10))));
+        assertThrows(IllegalArgumentException.class,
+                () -> QueryParamSchema.compile(Map.of("p", new QueryParamRule("a-z", 5, 4))));
+    }
+
+    @Test
+    public void testIsCompiledFrom_TracksRuleMapIdentity() {
+        Map<String, QueryParamRule> rules = new AppProperties().getQueryParams();
+        QueryParamSchema schema = QueryParamSchema.compile(rules);
+
+        assertTrue(schema.isCompiledFrom(rules));
+        assertFalse(schema.isCompiledFrom(new LinkedHashMap<>(rules)));
+    }
+}
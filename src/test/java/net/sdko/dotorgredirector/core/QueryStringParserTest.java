@@ -0,0 +1,127 @@
+package net.sdko.dotorgredirector.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletInputStream;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.BufferedReader;
+import java.util.Map;
+
+/**
+ * Unit tests for the raw query string parser and its use by the redirect service.
+ */
+@Tag("unit")
+public class QueryStringParserTest {
+
+    private final QueryParamSchema schema = QueryParamSchema.compile(new AppProperties().getQueryParams());
+    private final RejectionReporter rejectionReporter = new RejectionReporter(
+            new RedirectMetrics(new SimpleMeterRegistry()), new AppProperties());
+
+    @Test
+    public void testParse_KeepsOnlyValidAllowlistedParameters() {
+        Map<String, String[]> params = QueryStringParser.parse(
+                "utm_source=google&x-sws-event=launch&&x-sws-ts=1e10&x-sws-env=prod&flag", schema, 2048, 32,
+                rejectionReporter);
+
+        assertEquals(2, params.size());
+        assertArrayEquals(new String[] {"launch"}, params.get("x-sws-event"));
+        assertArrayEquals(new String[] {"prod"}, params.get("x-sws-env"));
+        assertFalse(params.containsKey("x-sws-ts"));
+        assertFalse(params.containsKey("utm_source"));
+    }
+
+    @Test
+    public void testParse_DecodesAllowlistedNamesAndValues() {
+        Map<String, String[]> params = QueryStringParser.parse(
+                "x%2Dsws-event=a%2Eb&x-sws-event=c&x-sws-env=bad%zz&x-sws-version=has+space", schema, 2048, 32,
+                rejectionReporter);
+
+        assertArrayEquals(new String[] {"a.b", "c"}, params.get("x-sws-event"));
+        assertFalse(params.containsKey("x-sws-env"));
+        assertFalse(params.containsKey("x-sws-version"));
+    }
+
+    @Test
+    public void testDecode_HandlesUtf8AndRejectsMalformedInput() {
+        assertEquals("é x", QueryStringParser.decode("%C3%A9+x", 0, 8));
+        assertEquals("plain", QueryStringParser.decode("a=plain", 2, 7));
+        assertNull(QueryStringParser.decode("%C3", 0, 3));
+        assertNull(QueryStringParser.decode("%4", 0, 2));
+        assertNull(QueryStringParser.decode("é%41", 0, 4));
+    }
+
+    @Test
+    public void testParse_EnforcesCaps() {
+        assertTrue(QueryStringParser.parse(null, schema, 10, 2, rejectionReporter).isEmpty());
+        assertTrue(QueryStringParser.parse("a=1&b=2", schema, 7, 2, rejectionReporter).isEmpty());
+        assertThrows(SecurityException.class,
+                () -> QueryStringParser.parse("a=1&b=2&", schema, 7, 2, rejectionReporter));
+        assertThrows(SecurityException.class,
+                () -> QueryStringParser.parse("a=1&b=2&c=3", schema, 100, 2, rejectionReporter));
+
+        assertEquals(1, rejectionReporter.count(RejectionReporter.Reason.QUERY_TOO_LONG, null));
+        assertEquals(1, rejectionReporter.count(RejectionReporter.Reason.TOO_MANY_PARAMETERS, null));
+    }
+
+    @Test
+    public void testBuildRedirectUrl_NeverReadsFormBody() throws Exception {
+        AppProperties appProperties = new AppProperties();
+        appProperties.setTargetUrl("https://example.com");
+        RedirectService redirectService = RedirectServiceFixtures.redirectService(appProperties, "test");
+        MockHttpServletRequest request = new BodyGuardRequest("POST", "/docs");
+        request.setContentType("application/x-www-form-urlencoded");
+        request.setContent("x-sws-event=from-body".getBytes());
+        request.setQueryString("x-sws-event=from-query");
+
+        String redirectUrl = redirectService.buildRedirectUrl(request);
+
+        assertTrue(redirectUrl.contains("x-sws-event=from-query"));
+        assertFalse(redirectUrl.contains("from-body"));
+
+        request.setQueryString(null);
+        assertFalse(redirectService.buildRedirectUrl(request).contains("from-body"));
+    }
+
+    @Test
+    public void testBuildRedirectUrl_RejectsOversizedQuery() {
+        AppProperties appProperties = new AppProperties();
+        appProperties.setTargetUrl("https://example.com");
+        appProperties.setMaxQueryParams(4);
+        RedirectService redirectService = RedirectServiceFixtures.redirectService(appProperties, "test");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/docs");
+        request.setQueryString("a=1&b=2&c=3&d=4&e=5");
+
+        assertThrows(SecurityException.class, () -> redirectService.buildRedirectUrl(request));
+    }
+
+    /**
+     * Request that fails the test if anything tries to read its body.
+     */
+    private static final class BodyGuardRequest extends MockHttpServletRequest {
+
+        BodyGuardRequest(String method, String uri) {
+            super(method, uri);
+        }
+
+        @Override
+        public Map<String, String[]> getParameterMap() {
+            throw new AssertionError("Parameter map read for a form request");
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            throw new AssertionError("Request body read");
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            throw new AssertionError("Request body read");
+        }
+    }
+}
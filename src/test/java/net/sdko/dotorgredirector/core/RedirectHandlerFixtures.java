@@ -0,0 +1,32 @@
+package net.sdko.dotorgredirector.core;
+
+import net.sdko.dotorgredirector.accesslog.AccessLog;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+
+/**
+ * Builds RedirectHandler instances for tests, with the collaborators Spring would inject.
+ */
+public final class RedirectHandlerFixtures {
+
+    private RedirectHandlerFixtures() {
+    }
+
+    /**
+     * Builds a RedirectHandler that generates time-ordered tracing IDs and keeps no access log.
+     *
+     * @param redirectService The redirect service
+     * @param monitoringService The monitoring service
+     * @param redirectMetrics The redirect metrics
+     * @param appProperties The application properties
+     * @return The handler
+     */
+    public static RedirectHandler redirectHandler(
+            RedirectService redirectService,
+            MonitoringService monitoringService,
+            RedirectMetrics redirectMetrics,
+            AppProperties appProperties) {
+        return new RedirectHandler(redirectService, monitoringService, redirectMetrics, appProperties,
+                new TimeOrderedTracingIdGenerator(), AccessLog.disabled());
+    }
+}
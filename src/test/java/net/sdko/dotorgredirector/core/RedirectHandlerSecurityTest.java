@@ -46,7 +46,7 @@ public class RedirectHandlerSecurityTest {
         appProperties.setExcludePattern("/backend/*");
         appProperties.setRedirectStatusCode(302);
 
-        redirectHandler = new RedirectHandler(
+        redirectHandler = RedirectHandlerFixtures.redirectHandler(
             mockRedirectService,
             mockMonitoringService,
             mockRedirectMetrics,
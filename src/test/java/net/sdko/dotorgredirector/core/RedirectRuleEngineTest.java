@@ -0,0 +1,126 @@
+package net.sdko.dotorgredirector.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.config.AppProperties.RedirectRule;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Unit tests for the path prefix RedirectRuleEngine.
+ */
+@Tag("unit")
+public class RedirectRuleEngineTest {
+
+    @Test
+    public void testMatch_LongestPrefixAtSegmentBoundary() throws URISyntaxException {
+        RedirectRuleEngine engine = RedirectRuleEngine.compile(List.of(
+                new RedirectRule("/docs", "https://docs.example.com"),
+                new RedirectRule("/docs/api/v2/", "https://api.example.com/reference"),
+                new RedirectRule("/blog", "https://blog.example.com")), "test", "1.0");
+
+        assertEquals("/docs", engine.match("/docs").prefix());
+        assertEquals("/docs", engine.match("/docs/").prefix());
+        assertEquals("/docs", engine.match("/docs/api").prefix());
+        assertEquals("/docs", engine.match("/docs/api/v1/users").prefix());
+        assertEquals("/docs/api/v2", engine.match("/docs/api/v2").prefix());
+        assertEquals("/docs/api/v2", engine.match("/docs/api/v2/users").prefix());
+        assertEquals("/blog", engine.match("/blog/2024/post").prefix());
+        assertNull(engine.match("/docsx"));
+        assertNull(engine.match("/doc"));
+        assertNull(engine.match("/"));
+        assertNull(engine.match("/about"));
+    }
+
+    @Test
+    public void testMatch_RootRuleMatchesEverything() throws URISyntaxException {
+        RedirectRuleEngine engine = RedirectRuleEngine.compile(List.of(
+                new RedirectRule("/", "https://root.example.com"),
+                new RedirectRule("/shop", "https://shop.example.com")), "test", "1.0");
+
+        assertEquals("", engine.match("/").prefix());
+        assertEquals("", engine.match("/about").prefix());
+        assertEquals("/shop", engine.match("/shop/cart").prefix());
+    }
+
+    @Test
+    public void testCompile_RejectsDuplicateAndIncompleteRules() {
+        assertThrows(IllegalArgumentException.class, () -> RedirectRuleEngine.compile(List.of(
+                new RedirectRule("/docs", "https://a.example.com"),
+                new RedirectRule("/docs/", "https://b.example.com")), "test", "1.0"));
+        assertThrows(IllegalArgumentException.class, () -> RedirectRuleEngine.compile(
+                List.of(new RedirectRule("/docs", null)), "test", "1.0"));
+        assertThrows(URISyntaxException.class, () -> RedirectRuleEngine.compile(
+                List.of(new RedirectRule("/docs", "https://exa mple.com")), "test", "1.0"));
+    }
+
+    @Test
+    public void testCompile_NamesRuleWithUnsafePrefix() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> RedirectRuleEngine.compile(
+                List.of(new RedirectRule("/docs~old", "https://docs.example.com")), "test", "1.0"));
+
+        assertEquals("Redirect rule prefix contains unsafe characters: /docs~old -> https://docs.example.com",
+                e.getMessage());
+    }
+
+    @Test
+    public void testMatch_AgreesWithLinearScan() throws URISyntaxException {
+        Random random = new Random(20240612L);
+        String[] segments = {"a", "b", "c", "ab", "ba", "docs", "v1", "v2"};
+        Set<String> prefixes = new LinkedHashSet<>();
+        while (prefixes.size() < 300) {
+            prefixes.add(randomPath(random, segments, 1 + random.nextInt(4)));
+        }
+        List<RedirectRule> rules = new ArrayList<>();
+        for (String prefix : prefixes) {
+            rules.add(new RedirectRule(prefix, "https://example.com" + prefix));
+        }
+        RedirectRuleEngine engine = RedirectRuleEngine.compile(rules, "test", "1.0");
+
+        for (int i = 0; i < 20_000; i++) {
+            String path = randomPath(random, segments, 1 + random.nextInt(6));
+            String expected = null;
+            for (String prefix : prefixes) {
+                boolean matches = path.equals(prefix) || path.startsWith(prefix + "/");
+                if (matches && (expected == null || prefix.length() > expected.length())) {
+                    expected = prefix;
+                }
+            }
+            RedirectRuleEngine.Match match = engine.match(path);
+            assertEquals(expected, match != null ? match.prefix() : null, path);
+        }
+    }
+
+    @Test
+    public void testBuildRedirectUrl_UsesMatchingRuleAndFallsBack() throws URISyntaxException {
+        AppProperties appProperties = new AppProperties();
+        appProperties.setTargetUrl("https://example.com");
+        appProperties.setRules(List.of(new RedirectRule("/docs", "https://docs.example.com/guide/")));
+        RedirectService redirectService = RedirectServiceFixtures.redirectService(appProperties, "test");
+
+        String ruleUrl = redirectService.buildRedirectUrl(new MockHttpServletRequest("GET", "/docs/intro"));
+        String exactUrl = redirectService.buildRedirectUrl(new MockHttpServletRequest("GET", "/docs"));
+        String fallbackUrl = redirectService.buildRedirectUrl(new MockHttpServletRequest("GET", "/about"));
+
+        assertTrue(ruleUrl.startsWith("https://docs.example.com/guide/intro?x-sws-event="));
+        assertTrue(exactUrl.startsWith("https://docs.example.com/guide?x-sws-event="));
+        assertTrue(fallbackUrl.startsWith("https://example.com/about?x-sws-event="));
+    }
+
+    private static String randomPath(Random random, String[] segments, int count) {
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            path.append('/').append(segments[random.nextInt(segments.length)]);
+        }
+        return path.toString();
+    }
+}
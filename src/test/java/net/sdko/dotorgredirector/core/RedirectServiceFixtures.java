@@ -0,0 +1,46 @@
+package net.sdko.dotorgredirector.core;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+
+/**
+ * Builds RedirectService instances for tests, with the collaborators Spring would inject.
+ */
+public final class RedirectServiceFixtures {
+
+    private RedirectServiceFixtures() {
+    }
+
+    /**
+     * Builds a RedirectService with default collaborators and metrics in a throwaway registry.
+     *
+     * @param appProperties The application properties
+     * @param environment The application environment
+     * @return The service
+     */
+    public static RedirectService redirectService(AppProperties appProperties, String environment) {
+        return redirectService(appProperties, environment, new TimeOrderedTracingIdGenerator(),
+                new CoarseClock(), new RedirectMetrics(new SimpleMeterRegistry()));
+    }
+
+    /**
+     * Builds a RedirectService with specific collaborators.
+     *
+     * @param appProperties The application properties
+     * @param environment The application environment
+     * @param tracingIdGenerator The generator used when the request carries no tracing ID
+     * @param coarseClock The clock used for the x-sws-ts timestamp
+     * @param redirectMetrics The metrics the service and its rejection reporter register with
+     * @return The service
+     */
+    public static RedirectService redirectService(
+            AppProperties appProperties,
+            String environment,
+            TracingIdGenerator tracingIdGenerator,
+            CoarseClock coarseClock,
+            RedirectMetrics redirectMetrics) {
+        return new RedirectService(appProperties, environment, tracingIdGenerator, coarseClock,
+                redirectMetrics, new RejectionReporter(redirectMetrics, appProperties));
+    }
+}
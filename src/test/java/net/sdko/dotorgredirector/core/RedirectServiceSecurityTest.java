@@ -37,7 +37,23 @@ public class RedirectServiceSecurityTest {
         appProperties.setTargetUrl(TARGET_URL);
         appProperties.setVersion("1.0.0-test");
         
-        redirectService = new RedirectService(appProperties, TEST_ENVIRONMENT);
+        redirectService = RedirectServiceFixtures.redirectService(appProperties, TEST_ENVIRONMENT);
+    }
+
+    // ========== PASSTHROUGH ENCODING TESTS ==========
+
+    @Test
+    public void testPassthroughValue_CannotSmuggleParameters() throws URISyntaxException {
+        appProperties.getQueryParams().put("q", new AppProperties.QueryParamRule(" -~", 1, 64));
+        redirectService = RedirectServiceFixtures.redirectService(appProperties, TEST_ENVIRONMENT);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRequestURI("/search");
+        request.setQueryString("q=%26x%3D1%23f");
+
+        String result = redirectService.buildRedirectUrl(request);
+
+        assertTrue(result.endsWith("&q=%26x%3D1%23f"), result);
+        assertFalse(result.contains("&x=1"));
     }
 
     // ========== PATH SANITIZATION TESTS ==========
@@ -143,8 +159,7 @@ public class RedirectServiceSecurityTest {
     public void testQueryParameterFiltering_WhitelistedParamsAllowed() throws URISyntaxException {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.setRequestURI("/test");
-        request.setParameter("x-sws-event", "test-event");
-        request.setParameter("x-sws-env", "test");
+        request.setQueryString("x-sws-event=test-event&x-sws-env=test");
         
         String result = redirectService.buildRedirectUrl(request);
         
@@ -156,10 +171,10 @@ public class RedirectServiceSecurityTest {
     public void testQueryParameterFiltering_NonWhitelistedParamsBlocked() throws URISyntaxException {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.setRequestURI("/test");
-        request.setParameter("x-sws-event", "test-event"); // allowed
-        request.setParameter("utm_source", "google"); // not allowed
-        request.setParameter("custom_param", "value"); // not allowed
-        request.setParameter("user_id", "12345"); // not allowed
+        request.setQueryString("x-sws-event=test-event" // allowed
+                + "&utm_source=google" // not allowed
+                + "&custom_param=value" // not allowed
+                + "&user_id=12345"); // not allowed
         
         String result = redirectService.buildRedirectUrl(request);
         
@@ -173,8 +188,8 @@ public class RedirectServiceSecurityTest {
     public void testQueryParameterValidation_XSwsEventValidation() throws URISyntaxException {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.setRequestURI("/test");
-        request.setParameter("x-sws-event", "valid-event_123");
-        request.setParameter("x-sws-env", "invalid@env"); // invalid chars
+        request.setQueryString("x-sws-event=valid-event_123"
+                + "&x-sws-env=invalid%40env"); // invalid chars
         
         String result = redirectService.buildRedirectUrl(request);
         
@@ -187,7 +202,7 @@ public class RedirectServiceSecurityTest {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.setRequestURI("/test");
         // Valid UUID format
-        request.setParameter("x-sws-tracing-id", "123e4567-e89b-12d3-a456-426614174000");
+        request.setQueryString("x-sws-tracing-id=123e4567-e89b-12d3-a456-426614174000");
         
         String result = redirectService.buildRedirectUrl(request);
         
@@ -200,8 +215,8 @@ public class RedirectServiceSecurityTest {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.setRequestURI("/test");
         // Invalid UUID format
-        request.setParameter("x-sws-tracing-id", "invalid-uuid");
-        request.setParameter("x-sws-env", "test"); // should still work
+        request.setQueryString("x-sws-tracing-id=invalid-uuid"
+                + "&x-sws-env=test"); // should still work
         
         String result = redirectService.buildRedirectUrl(request);
         
@@ -215,7 +230,7 @@ public class RedirectServiceSecurityTest {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.setRequestURI("/test");
         long currentTime = System.currentTimeMillis() / 1000;
-        request.setParameter("x-sws-ts", String.valueOf(currentTime));
+        request.setQueryString("x-sws-ts=" + currentTime);
         
         String result = redirectService.buildRedirectUrl(request);
         
@@ -227,8 +242,8 @@ public class RedirectServiceSecurityTest {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.setRequestURI("/test");
         // Invalid timestamp format
-        request.setParameter("x-sws-ts", "not-a-number");
-        request.setParameter("x-sws-env", "test"); // should still work
+        request.setQueryString("x-sws-ts=not-a-number"
+                + "&x-sws-env=test"); // should still work
         
         String result = redirectService.buildRedirectUrl(request);
         
@@ -241,9 +256,8 @@ public class RedirectServiceSecurityTest {
     public void testQueryParameterValidation_XSwsParams() throws URISyntaxException {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.setRequestURI("/test");
-        request.setParameter("x-sws-event", "valid-event");
-        request.setParameter("x-sws-env", "production");
-        request.setParameter("x-sws-version", "1.0.0-release");
+        request.setQueryString("x-sws-event=valid-event&x-sws-env=production"
+                + "&x-sws-version=1.0.0-release");
         
         String result = redirectService.buildRedirectUrl(request);
         
@@ -256,8 +270,8 @@ public class RedirectServiceSecurityTest {
     public void testQueryParameterValidation_InvalidCharactersBlocked() throws URISyntaxException {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.setRequestURI("/test");
-        request.setParameter("x-sws-event", "invalid<script>event"); // invalid chars
-        request.setParameter("x-sws-env", "test"); // valid
+        request.setQueryString("x-sws-event=invalid%3Cscript%3Eevent" // invalid chars
+                + "&x-sws-env=test"); // valid
         
         String result = redirectService.buildRedirectUrl(request);
         
@@ -269,8 +283,8 @@ public class RedirectServiceSecurityTest {
     public void testQueryParameterValidation_ValueLengthLimits() throws URISyntaxException {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.setRequestURI("/test");
-        request.setParameter("x-sws-event", "a".repeat(51)); // too long for event
-        request.setParameter("x-sws-env", "test"); // valid
+        request.setQueryString("x-sws-event=" + "a".repeat(51) // too long for event
+                + "&x-sws-env=test"); // valid
         
         String result = redirectService.buildRedirectUrl(request);
         
@@ -284,8 +298,7 @@ public class RedirectServiceSecurityTest {
     public void testQueryParameterFiltering_NormalParams() throws URISyntaxException {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.setRequestURI("/test");
-        request.setParameter("x-sws-event", "redirect");
-        request.setParameter("x-sws-env", "test");
+        request.setQueryString("x-sws-event=redirect&x-sws-env=test");
         
         String result = redirectService.buildRedirectUrl(request);
         
@@ -297,8 +310,8 @@ public class RedirectServiceSecurityTest {
     public void testQueryParameterFiltering_JavaScriptInParamNameBlocked() throws URISyntaxException {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.setRequestURI("/test");
-        request.setParameter("javascript:alert", "value"); // not whitelisted
-        request.setParameter("x-sws-env", "test"); // whitelisted
+        request.setQueryString("javascript%3Aalert=value" // not whitelisted
+                + "&x-sws-env=test"); // whitelisted
         
         String result = redirectService.buildRedirectUrl(request);
         
@@ -310,8 +323,8 @@ public class RedirectServiceSecurityTest {
     public void testQueryParameterFiltering_JavaScriptInParamValueBlocked() throws URISyntaxException {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.setRequestURI("/test");
-        request.setParameter("x-sws-event", "javascript:alert"); // invalid chars blocked by regex
-        request.setParameter("x-sws-env", "test"); // valid
+        request.setQueryString("x-sws-event=javascript%3Aalert" // invalid chars blocked by regex
+                + "&x-sws-env=test"); // valid
         
         String result = redirectService.buildRedirectUrl(request);
         
@@ -323,8 +336,8 @@ public class RedirectServiceSecurityTest {
     public void testQueryParameterFiltering_ScriptTagInValueBlocked() throws URISyntaxException {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.setRequestURI("/test");
-        request.setParameter("x-sws-event", "<script>alert"); // invalid chars blocked by regex
-        request.setParameter("x-sws-env", "test"); // valid
+        request.setQueryString("x-sws-event=%3Cscript%3Ealert" // invalid chars blocked by regex
+                + "&x-sws-env=test"); // valid
         
         String result = redirectService.buildRedirectUrl(request);
         
@@ -336,8 +349,8 @@ public class RedirectServiceSecurityTest {
     public void testQueryParameterFiltering_EncodedAttackBlocked() throws URISyntaxException {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.setRequestURI("/test");
-        request.setParameter("x-sws-event", "%3Cscript%3E"); // invalid chars blocked by regex
-        request.setParameter("x-sws-env", "test"); // valid
+        request.setQueryString("x-sws-event=%253Cscript%253E" // invalid chars blocked by regex
+                + "&x-sws-env=test"); // valid
         
         String result = redirectService.buildRedirectUrl(request);
         
@@ -349,8 +362,8 @@ public class RedirectServiceSecurityTest {
     public void testQueryParameterFiltering_HTMLEntitiesBlocked() throws URISyntaxException {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.setRequestURI("/test");
-        request.setParameter("x-sws-event", "&lt;script&gt;"); // invalid chars blocked by regex
-        request.setParameter("x-sws-env", "test"); // valid
+        request.setQueryString("x-sws-event=%26lt%3Bscript%26gt%3B" // invalid chars blocked by regex
+                + "&x-sws-env=test"); // valid
         
         String result = redirectService.buildRedirectUrl(request);
         
@@ -365,8 +378,8 @@ public class RedirectServiceSecurityTest {
         
         // Create a value longer than allowed for event (50 chars)
         String longValue = "a".repeat(51);
-        request.setParameter("x-sws-event", longValue);
-        request.setParameter("x-sws-env", "test"); // valid
+        request.setQueryString("x-sws-event=" + longValue
+                + "&x-sws-env=test"); // valid
         
         String result = redirectService.buildRedirectUrl(request);
         
@@ -378,9 +391,9 @@ public class RedirectServiceSecurityTest {
     public void testQueryParameterFiltering_InvalidParamNameBlocked() throws URISyntaxException {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.setRequestURI("/test");
-        request.setParameter("param with spaces", "value"); // not whitelisted
-        request.setParameter("param@special", "value"); // not whitelisted
-        request.setParameter("x-sws-env", "test"); // whitelisted
+        request.setQueryString("param+with+spaces=value" // not whitelisted
+                + "&param%40special=value" // not whitelisted
+                + "&x-sws-env=test"); // whitelisted
         
         String result = redirectService.buildRedirectUrl(request);
         
@@ -435,9 +448,9 @@ public class RedirectServiceSecurityTest {
     public void testBuildRedirectUrl_CompleteFlow() throws URISyntaxException {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.setRequestURI("/search");
-        request.setParameter("x-sws-event", "redirect");
-        request.setParameter("x-sws-env", "test");
-        request.setParameter("malicious", "javascript:alert('xss')"); // Should be filtered out (not whitelisted)
+        request.setQueryString("x-sws-event=redirect"
+                + "&x-sws-env=test"
+                + "&malicious=javascript%3Aalert%28%27xss%27%29"); // Should be filtered out (not whitelisted)
         
         String result = redirectService.buildRedirectUrl(request);
         
@@ -463,11 +476,11 @@ public class RedirectServiceSecurityTest {
         request.setRequestURI("/test");
         
         // Test all allowed x-sws parameter types
-        request.setParameter("x-sws-event", "custom-event");
-        request.setParameter("x-sws-env", "staging");
-        request.setParameter("x-sws-version", "2.0.0");
-        request.setParameter("x-sws-tracing-id", "123e4567-e89b-12d3-a456-426614174000");
-        request.setParameter("x-sws-ts", "1640995200");
+        request.setQueryString("x-sws-event=custom-event"
+                + "&x-sws-env=staging"
+                + "&x-sws-version=2.0.0"
+                + "&x-sws-tracing-id=123e4567-e89b-12d3-a456-426614174000"
+                + "&x-sws-ts=1640995200");
         
         String result = redirectService.buildRedirectUrl(request);
         
@@ -485,10 +498,10 @@ public class RedirectServiceSecurityTest {
         request.setRequestURI("/test");
         
         // Edge cases for parameter validation
-        request.setParameter("x-sws-event", ""); // empty value - should be filtered
-        request.setParameter("x-sws-env", "a".repeat(20)); // max length for env
-        request.setParameter("x-sws-version", "valid.version-123_test"); // all valid chars
-        request.setParameter("x-sws-tracing-id", "not-a-uuid"); // invalid format
+        request.setQueryString("x-sws-event=" // empty value - should be filtered
+                + "&x-sws-env=" + "a".repeat(20) // max length for env
+                + "&x-sws-version=valid.version-123_test" // all valid chars
+                + "&x-sws-tracing-id=not-a-uuid"); // invalid format
         
         String result = redirectService.buildRedirectUrl(request);
         
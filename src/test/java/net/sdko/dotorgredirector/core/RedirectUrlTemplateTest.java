@@ -0,0 +1,98 @@
+package net.sdko.dotorgredirector.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.URISyntaxException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Unit tests for the precompiled RedirectUrlTemplate.
+ */
+@Tag("unit")
+public class RedirectUrlTemplateTest {
+
+    private static final String TRACING_ID = "123e4567-e89b-12d3-a456-426614174000";
+
+    @Test
+    public void testRender_ConstantParametersAndSlots() throws URISyntaxException {
+        RedirectUrlTemplate template = RedirectUrlTemplate.compile("https://www.d-roy.ca", "test", "1.0.0");
+
+        String result = template.render("/search", TRACING_ID, "1640995200", Map.of());
+
+        assertEquals("https://www.d-roy.ca/search?x-sws-event=dot-org-redirect"
+                + "&x-sws-tracing-id=" + TRACING_ID
+                + "&x-sws-env=test&x-sws-version=1.0.0&x-sws-ts=1640995200", result);
+    }
+
+    @Test
+    public void testRender_PassthroughParametersAppended() throws URISyntaxException {
+        RedirectUrlTemplate template = RedirectUrlTemplate.compile("https://www.d-roy.ca", "test", "1.0.0");
+        Map<String, String[]> params = new LinkedHashMap<>();
+        params.put("x-sws-event", new String[] {"first", "second"});
+
+        String result = template.render("/", TRACING_ID, "1", params);
+
+        assertTrue(result.endsWith("&x-sws-ts=1&x-sws-event=first&x-sws-event=second"));
+    }
+
+    @Test
+    public void testRender_PassthroughValuesEncoded() throws URISyntaxException {
+        RedirectUrlTemplate template = RedirectUrlTemplate.compile("https://www.d-roy.ca#top", "test", "1.0.0");
+        Map<String, String[]> params = new LinkedHashMap<>();
+        params.put("q", new String[] {"&x=1#f", "a b+c%"});
+
+        String result = template.render("/", TRACING_ID, "1", params);
+
+        assertTrue(result.endsWith("&x-sws-ts=1&q=%26x%3D1%23f&q=a%20b%2Bc%25#top"), result);
+    }
+
+    @Test
+    public void testRender_OnVirtualThread() throws Exception {
+        RedirectUrlTemplate template = RedirectUrlTemplate.compile("https://www.d-roy.ca", "test", "1.0.0");
+        String expected = template.render("/docs", TRACING_ID, "1", Map.of());
+        String[] result = new String[1];
+
+        Thread.ofVirtual().start(() -> result[0] = template.render("/docs", TRACING_ID, "1", Map.of())).join();
+
+        assertEquals(expected, result[0]);
+    }
+
+    @Test
+    public void testCompile_TargetPathQueryAndFragmentPreserved() throws URISyntaxException {
+        RedirectUrlTemplate template = RedirectUrlTemplate.compile(
+                "https://example.com:8443/base/?lang=en#top", "test", "1.0.0");
+
+        String result = template.render("/page", TRACING_ID, "1", Map.of());
+
+        assertTrue(result.startsWith("https://example.com:8443/base/page?lang=en&x-sws-event=dot-org-redirect"));
+        assertTrue(result.endsWith("#top"));
+    }
+
+    @Test
+    public void testCompile_ConstantValuesEncoded() throws URISyntaxException {
+        RedirectUrlTemplate template = RedirectUrlTemplate.compile("https://www.d-roy.ca", "test", "1.0 beta&x");
+
+        String result = template.render("/", TRACING_ID, "1", Map.of());
+
+        assertTrue(result.contains("x-sws-version=1.0%20beta%26x"));
+    }
+
+    @Test
+    public void testCompile_InvalidTargetUrlRejected() {
+        assertThrows(URISyntaxException.class,
+                () -> RedirectUrlTemplate.compile("not a valid url", "test", "1.0.0"));
+    }
+
+    @Test
+    public void testIsCompiledFrom() throws URISyntaxException {
+        RedirectUrlTemplate template = RedirectUrlTemplate.compile("https://www.d-roy.ca", "test", "1.0.0");
+
+        assertTrue(template.isCompiledFrom("https://www.d-roy.ca", "test", "1.0.0"));
+        assertFalse(template.isCompiledFrom("https://other.example", "test", "1.0.0"));
+        assertFalse(template.isCompiledFrom("https://www.d-roy.ca", "test", "2.0.0"));
+    }
+}
@@ -0,0 +1,139 @@
+package net.sdko.dotorgredirector.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Unit tests for the counted, rate-limited rejection reporting.
+ */
+@Tag("unit")
+public class RejectionReporterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock(1_700_000_000_000L);
+    private final AppProperties appProperties = new AppProperties();
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private RejectionReporter rejectionReporter;
+
+    @BeforeEach
+    public void setUp() {
+        appProperties.setTargetUrl("https://example.com");
+        rejectionReporter = new RejectionReporter(new RedirectMetrics(registry), appProperties, clock);
+        appender.start();
+        ((Logger) LoggerFactory.getLogger(RejectionReporter.class)).addAppender(appender);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ((Logger) LoggerFactory.getLogger(RejectionReporter.class)).detachAppender(appender);
+    }
+
+    @Test
+    public void testReject_CountsByReasonAndParameter() {
+        rejectionReporter.reject(RejectionReporter.Reason.INVALID_PARAMETER_VALUE, "x-sws-event");
+        rejectionReporter.reject(RejectionReporter.Reason.INVALID_PARAMETER_VALUE, "x-sws-event");
+        rejectionReporter.reject(RejectionReporter.Reason.INVALID_PARAMETER_VALUE, "x-sws-env");
+        rejectionReporter.reject(RejectionReporter.Reason.INVALID_PATH);
+
+        assertEquals(2, rejectionReporter.count(RejectionReporter.Reason.INVALID_PARAMETER_VALUE, "x-sws-event"));
+        assertEquals(1, rejectionReporter.count(RejectionReporter.Reason.INVALID_PARAMETER_VALUE, "x-sws-env"));
+        assertEquals(1, rejectionReporter.count(RejectionReporter.Reason.INVALID_PATH, null));
+        assertEquals(2.0, registry.get("dotorg.redirects.rejected")
+                .tag("reason", "invalid_parameter_value").tag("parameter", "x-sws-event").counter().count());
+        assertEquals(1.0, registry.get("dotorg.redirects.rejected")
+                .tag("reason", "invalid_path").tag("parameter", "none").counter().count());
+    }
+
+    @Test
+    public void testReject_LogsAtMostOncePerReasonAndInterval() {
+        for (int i = 0; i < 100; i++) {
+            rejectionReporter.reject(RejectionReporter.Reason.UNKNOWN_PARAMETER);
+        }
+        rejectionReporter.reject(RejectionReporter.Reason.INVALID_PATH);
+        assertEquals(List.of(
+                "Rejected 1 non-allowlisted query parameters",
+                "Rejected 1 requests with unsafe characters in the path"), messages());
+
+        clock.millis += 60_000L;
+        rejectionReporter.reject(RejectionReporter.Reason.UNKNOWN_PARAMETER);
+        assertEquals("Rejected 100 non-allowlisted query parameters in the last 60s", messages().get(2));
+        assertEquals(3, messages().size());
+    }
+
+    @Test
+    public void testBuildRedirectUrl_ReportsSkippedParametersAndBadPaths() throws Exception {
+        RedirectService redirectService = new RedirectService(appProperties, "test",
+                new TimeOrderedTracingIdGenerator(), new CoarseClock(), new RedirectMetrics(registry),
+                rejectionReporter);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/docs");
+        request.setQueryString("utm_source=x&junk=1&x-sws-event=%3Cscript%3E");
+        redirectService.buildRedirectUrl(request);
+
+        assertEquals(2, rejectionReporter.count(RejectionReporter.Reason.UNKNOWN_PARAMETER, null));
+        assertEquals(1, rejectionReporter.count(RejectionReporter.Reason.INVALID_PARAMETER_VALUE, "x-sws-event"));
+
+        assertThrows(SecurityException.class,
+                () -> redirectService.buildRedirectUrl(new MockHttpServletRequest("GET", "/a<b")));
+        assertEquals(1, rejectionReporter.count(RejectionReporter.Reason.INVALID_PATH, null));
+
+        appProperties.setMaxQueryParams(1);
+        MockHttpServletRequest tooMany = new MockHttpServletRequest("GET", "/docs");
+        tooMany.setQueryString("a=1&b=2");
+        assertThrows(SecurityException.class, () -> redirectService.buildRedirectUrl(tooMany));
+        assertEquals(1, rejectionReporter.count(RejectionReporter.Reason.TOO_MANY_PARAMETERS, null));
+    }
+
+    private List<String> messages() {
+        return appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+    }
+
+    /**
+     * Clock whose current time is set directly by the test.
+     */
+    private static final class MutableClock extends Clock {
+
+        private volatile long millis;
+
+        MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package net.sdko.dotorgredirector.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.sentry.Breadcrumb;
+import io.sentry.HubAdapter;
+import io.sentry.IScopes;
+import io.sentry.ISentryLifecycleToken;
+import io.sentry.NoOpTransportFactory;
+import io.sentry.Sentry;
+import io.sentry.SentryEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Unit tests for the per-request Sentry scope.
+ */
+@Tag("unit")
+public class RequestScopeTest {
+
+    /** Tracing ID tag of each captured event, by event message. */
+    private final Map<String, String> capturedTags = new ConcurrentHashMap<>();
+
+    /** Captured events, by event message. */
+    private final Map<String, SentryEvent> capturedEvents = new ConcurrentHashMap<>();
+
+    private MonitoringService monitoringService;
+
+    @BeforeEach
+    public void setUp() {
+        Sentry.init(options -> {
+            options.setDsn("https://key@sentry.invalid/1");
+            options.setTransportFactory(NoOpTransportFactory.getInstance());
+            options.setBeforeSend((event, hint) -> {
+                String tracingId = event.getTag("tracing_id");
+                capturedTags.put(event.getMessage().getFormatted(), tracingId != null ? tracingId : "none");
+                capturedEvents.put(event.getMessage().getFormatted(), event);
+                return null;
+            });
+        });
+        monitoringService = MonitoringServiceFixtures.monitoringService(HubAdapter.getInstance());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Sentry.close();
+    }
+
+    @Test
+    public void testConcurrentRequests_DoNotSeeEachOthersTags() throws Exception {
+        int threads = 8;
+        int requestsPerThread = 200;
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < requestsPerThread; i++) {
+                        String id = thread + "-" + i;
+                        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/r/" + id);
+                        monitoringService.configureRequestScope(request, id, "https://example.com");
+                        if (i % 50 == 0) {
+                            // Line the threads up so their scopes are open at the same time
+                            barrier.await();
+                        }
+                        Sentry.captureMessage(id);
+                        monitoringService.closeRequestScope(request);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * requestsPerThread, capturedTags.size());
+        capturedTags.forEach((message, tracingId) -> assertEquals(message, tracingId));
+    }
+
+    @Test
+    public void testClose_LeavesNothingForTheNextRequest() {
+        MockHttpServletRequest first = new MockHttpServletRequest("GET", "/first");
+        monitoringService.configureRequestScope(first, "first", "https://example.com");
+        assertTrue(RequestScope.isOpen(first));
+        monitoringService.closeRequestScope(first);
+        assertFalse(RequestScope.isOpen(first));
+
+        Sentry.captureMessage("after");
+        assertEquals("none", capturedTags.get("after"));
+    }
+
+    @Test
+    public void testOpen_IsIdempotentWithinARequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/docs");
+        monitoringService.configureRequestScope(request, "a", "https://example.com");
+        monitoringService.configureRequestScope(request, "b", "https://example.com");
+        Sentry.captureMessage("inside");
+        monitoringService.closeRequestScope(request);
+        monitoringService.closeRequestScope(request);
+
+        assertEquals("b", capturedTags.get("inside"));
+    }
+
+    @Test
+    public void testOpen_KeepsWhatTheEnclosingScopesCollected() {
+        // As Sentry's servlet filter does before the request reaches the application
+        IScopes filterScopes = Sentry.forkedRootScopes("filter");
+        try (ISentryLifecycleToken ignored = filterScopes.makeCurrent()) {
+            filterScopes.getIsolationScope().setTag("filter", "seen");
+            filterScopes.addBreadcrumb(Breadcrumb.http("/docs", "GET"));
+
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/docs");
+            monitoringService.configureRequestScope(request, "a", "https://example.com");
+            Sentry.captureMessage("inside");
+            monitoringService.closeRequestScope(request);
+
+            assertSame(filterScopes, Sentry.getCurrentScopes());
+        }
+
+        SentryEvent event = capturedEvents.get("inside");
+        assertEquals("seen", event.getTag("filter"));
+        assertEquals("a", event.getTag("tracing_id"));
+        assertEquals(1, event.getBreadcrumbs().size());
+    }
+
+    @Test
+    public void testOpen_ContinuesTheIncomingTrace() {
+        MockHttpServletRequest traced = new MockHttpServletRequest("GET", "/traced");
+        traced.addHeader("sentry-trace", "2722d9f6ec019ade60c776169d9a8904-cedf5b7571cb4972-1");
+        monitoringService.configureRequestScope(traced, "a", "https://example.com");
+        Sentry.captureMessage("traced");
+        monitoringService.closeRequestScope(traced);
+
+        for (String message : List.of("first", "second")) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/" + message);
+            monitoringService.configureRequestScope(request, message, "https://example.com");
+            Sentry.captureMessage(message);
+            monitoringService.closeRequestScope(request);
+        }
+
+        assertEquals("2722d9f6ec019ade60c776169d9a8904", traceId("traced"));
+        // Requests without a trace header each start their own
+        assertNotEquals(traceId("first"), traceId("second"));
+    }
+
+    private String traceId(String message) {
+        return capturedEvents.get(message).getContexts().getTrace().getTraceId().toString();
+    }
+}
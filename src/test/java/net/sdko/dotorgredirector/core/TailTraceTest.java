@@ -0,0 +1,131 @@
+package net.sdko.dotorgredirector.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.sentry.IHub;
+import io.sentry.ISpan;
+import io.sentry.ITransaction;
+import io.sentry.Instrumenter;
+import io.sentry.SentryDate;
+import io.sentry.SpanStatus;
+import io.sentry.TransactionContext;
+import io.sentry.TransactionOptions;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for tail tracing: cheap phase recording and the keep decision.
+ */
+@Tag("unit")
+public class TailTraceTest {
+
+    private final IHub hub = mock(IHub.class);
+    private final ITransaction transaction = mock(ITransaction.class);
+    private final ISpan span = mock(ISpan.class);
+    private final AppProperties appProperties = new AppProperties();
+    private MonitoringService monitoringService;
+
+    @BeforeEach
+    public void setUp() {
+        appProperties.setTargetUrl("https://example.com");
+        appProperties.setTracingMode(AppProperties.TracingMode.TAIL);
+        // No baseline, so only slow and failed redirects are kept
+        appProperties.setTracesPerSecond(0);
+        when(hub.startTransaction(any(TransactionContext.class), any(TransactionOptions.class)))
+                .thenReturn(transaction);
+        when(transaction.startChild(anyString(), isNull(), any(SentryDate.class), eq(Instrumenter.SENTRY)))
+                .thenReturn(span);
+        monitoringService = MonitoringServiceFixtures.monitoringService(hub, new SyncTaskExecutor(),
+                new AdaptiveSampler(appProperties, new CoarseClock()), appProperties);
+    }
+
+    @Test
+    public void testFastRedirect_IsNotSentToSentry() throws Exception {
+        assertTrue(redirect("/docs"));
+
+        verify(hub, never()).startTransaction(any(TransactionContext.class), any(TransactionOptions.class));
+        verify(hub, never()).startTransaction(anyString(), anyString(), any(TransactionOptions.class));
+    }
+
+    @Test
+    public void testSlowRedirect_IsReplayedWithItsPhases() throws Exception {
+        appProperties.setTailLatencyThresholdMillis(0);
+
+        assertTrue(redirect("/docs"));
+
+        ArgumentCaptor<TransactionContext> context = ArgumentCaptor.forClass(TransactionContext.class);
+        verify(hub).startTransaction(context.capture(), any(TransactionOptions.class));
+        assertEquals("Redirect /docs", context.getValue().getName());
+        assertTrue(context.getValue().getSampled());
+        verify(transaction).startChild(eq("build_redirect_url"), isNull(), any(SentryDate.class), eq(Instrumenter.SENTRY));
+        verify(transaction).startChild(eq("send_redirect"), isNull(), any(SentryDate.class), eq(Instrumenter.SENTRY));
+        verify(span, times(2)).finish(eq(SpanStatus.OK), any(SentryDate.class));
+        verify(transaction).setData(eq("redirect_url"), any());
+        verify(transaction).finish(eq(SpanStatus.OK), any(SentryDate.class));
+    }
+
+    @Test
+    public void testFailedTrace_IsKept() {
+        TailTrace trace = monitoringService.startTailTrace(
+                new MockHttpServletRequest("GET", "/docs"), "trace", "https://example.com");
+        int phase = trace.startPhase("build_redirect_url");
+        RuntimeException failure = new RuntimeException("boom");
+        trace.endPhase(phase, true);
+        trace.fail(failure);
+        monitoringService.finishTailTrace(trace);
+
+        verify(span).finish(eq(SpanStatus.INTERNAL_ERROR), any(SentryDate.class));
+        verify(transaction).setThrowable(failure);
+        verify(transaction).finish(eq(SpanStatus.INTERNAL_ERROR), any(SentryDate.class));
+    }
+
+    @Test
+    public void testStart_ReusesReleasedTraceOnPlatformThread() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/docs");
+        TailTrace first = TailTrace.start(request, "a", "https://example.com");
+        TailTrace nested = TailTrace.start(request, "b", "https://example.com");
+        assertNotSame(first, nested);
+
+        first.startPhase("build_redirect_url");
+        first.release();
+        TailTrace reused = TailTrace.start(request, "c", "https://example.com");
+        assertSame(first, reused);
+        assertEquals(0, reused.phases());
+        assertEquals("c", reused.tracingId());
+        reused.release();
+    }
+
+    @Test
+    public void testNone_RecordsNothing() {
+        assertFalse(TailTrace.NONE.isRecording());
+        assertEquals(-1, TailTrace.NONE.startPhase("build_redirect_url"));
+        TailTrace.NONE.endPhase(-1, true);
+        TailTrace.NONE.fail(new RuntimeException());
+        assertNull(TailTrace.NONE.failure());
+        monitoringService.finishTailTrace(TailTrace.NONE);
+
+        verifyNoInteractions(hub);
+    }
+
+    private boolean redirect(String path) {
+        RedirectHandler redirectHandler = RedirectHandlerFixtures.redirectHandler(
+                RedirectServiceFixtures.redirectService(appProperties, "test"),
+                monitoringService,
+                new RedirectMetrics(new SimpleMeterRegistry()),
+                appProperties);
+        return redirectHandler.handleRedirect(new MockHttpServletRequest("GET", path), new MockHttpServletResponse());
+    }
+}
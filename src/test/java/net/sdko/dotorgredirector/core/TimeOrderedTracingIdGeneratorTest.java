@@ -0,0 +1,71 @@
+package net.sdko.dotorgredirector.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Unit tests for the time-ordered tracing ID generator.
+ */
+@Tag("unit")
+public class TimeOrderedTracingIdGeneratorTest {
+
+    private static final Pattern TRACING_ID_PATTERN = Pattern.compile("^[a-fA-F0-9-]{36}$");
+
+    private final TimeOrderedTracingIdGenerator generator = new TimeOrderedTracingIdGenerator();
+
+    @Test
+    public void testNextId_IsVersion7Uuid() {
+        String id = generator.nextId();
+
+        assertTrue(TRACING_ID_PATTERN.matcher(id).matches());
+        UUID uuid = UUID.fromString(id);
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertEquals(id, uuid.toString());
+    }
+
+    @Test
+    public void testNextId_EmbedsCurrentTime() {
+        long before = System.currentTimeMillis();
+        String id = generator.nextId();
+        long after = System.currentTimeMillis();
+
+        long millis = UUID.fromString(id).getMostSignificantBits() >>> 16;
+        assertTrue(millis >= before && millis <= after);
+    }
+
+    @Test
+    public void testNextId_IsUnique() {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(ids.add(generator.nextId()));
+        }
+    }
+
+    @Test
+    public void testBuildRedirectUrl_UsesTracingIdFromRequest() throws Exception {
+        AppProperties appProperties = new AppProperties();
+        appProperties.setTargetUrl("https://example.com");
+        RedirectService redirectService = RedirectServiceFixtures.redirectService(appProperties, "test", generator, new CoarseClock(),
+                new RedirectMetrics(new SimpleMeterRegistry()));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/docs");
+        String tracingId = generator.nextId();
+        request.setAttribute(TracingIdGenerator.REQUEST_ATTRIBUTE, tracingId);
+
+        String redirectUrl = redirectService.buildRedirectUrl(request);
+
+        assertTrue(redirectUrl.contains("x-sws-tracing-id=" + tracingId + "&"));
+    }
+}
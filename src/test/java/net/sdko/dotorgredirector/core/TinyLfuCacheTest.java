@@ -0,0 +1,174 @@
+package net.sdko.dotorgredirector.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for the W-TinyLFU cache and the redirect decision cache built on it.
+ */
+@Tag("unit")
+public class TinyLfuCacheTest {
+
+    @Test
+    public void testPutAndGet_StaysWithinCapacity() {
+        AtomicInteger evictions = new AtomicInteger();
+        TinyLfuCache<String, Integer> cache = new TinyLfuCache<>(100, evictions::incrementAndGet);
+
+        for (int i = 0; i < 1000; i++) {
+            cache.put("key-" + i, i);
+        }
+
+        assertEquals(100, cache.size());
+        assertEquals(900, evictions.get());
+        cache.put("hot", 1);
+        assertEquals(1, cache.get("hot"));
+        cache.put("hot", 2);
+        assertEquals(2, cache.get("hot"));
+        assertNull(cache.get("missing"));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get("hot"));
+    }
+
+    @Test
+    public void testScanTraffic_DoesNotFlushHotEntries() {
+        int capacity = 200;
+        TinyLfuCache<String, String> tinyLfu = new TinyLfuCache<>(capacity, () -> { });
+        Map<String, String> lru = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > capacity;
+            }
+        };
+
+        int tinyLfuHits = 0;
+        int lruHits = 0;
+        int hotRequests = 0;
+        for (int i = 0; i < 200_000; i++) {
+            // Every other request is a scanner probing a path that is never seen again
+            String key = i % 2 == 0 ? "/hot/" + (i / 2) % 150 : "/scan/" + i;
+            boolean hot = key.startsWith("/hot/");
+            if (tinyLfu.get(key) != null) {
+                tinyLfuHits += hot ? 1 : 0;
+            } else {
+                tinyLfu.put(key, key);
+            }
+            if (lru.get(key) != null) {
+                lruHits += hot ? 1 : 0;
+            } else {
+                lru.put(key, key);
+            }
+            hotRequests += hot ? 1 : 0;
+        }
+
+        assertTrue(tinyLfuHits > hotRequests * 0.95, "TinyLFU hot hit ratio " + (double) tinyLfuHits / hotRequests);
+        assertTrue(lruHits < hotRequests * 0.5, "LRU hot hit ratio " + (double) lruHits / hotRequests);
+    }
+
+    @Test
+    public void testConcurrentAccess_KeepsCacheConsistent() throws Exception {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(64, () -> { });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] futures = new Future<?>[8];
+            for (int t = 0; t < futures.length; t++) {
+                futures[t] = executor.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        int key = ThreadLocalRandom.current().nextInt(256);
+                        Integer value = cache.get(key);
+                        if (value == null) {
+                            cache.put(key, key);
+                        } else {
+                            assertEquals(key, value);
+                        }
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(cache.size() <= 64);
+    }
+
+    @Test
+    public void testBuildRedirectUrl_ServesRepeatRequestsFromCache() throws Exception {
+        AppProperties appProperties = new AppProperties();
+        appProperties.setTargetUrl("https://example.com");
+        MeterRegistry registry = new SimpleMeterRegistry();
+        RedirectService redirectService = RedirectServiceFixtures.redirectService(appProperties, "test",
+                new TimeOrderedTracingIdGenerator(), new CoarseClock(), new RedirectMetrics(registry));
+
+        String first = redirectService.buildRedirectUrl(request("/docs", "x-sws-event=launch&utm_source=x"));
+        String second = redirectService.buildRedirectUrl(request("/docs", "x-sws-event=launch&utm_source=x"));
+
+        assertEquals(1.0, registry.find("dotorg.redirects.cache.misses").counter().count());
+        assertEquals(1.0, registry.find("dotorg.redirects.cache.hits").counter().count());
+        assertNotEquals(first, second, "each redirect gets its own tracing ID");
+        assertEquals(first.replaceAll("tracing-id=[^&]+", ""), second.replaceAll("tracing-id=[^&]+", ""));
+        assertTrue(second.startsWith("https://example.com/docs?x-sws-event=dot-org-redirect&x-sws-tracing-id="));
+        assertTrue(second.endsWith("&x-sws-event=launch"));
+
+        // Changing the target invalidates the cached decisions
+        appProperties.setTargetUrl("https://other.example.com");
+        String third = redirectService.buildRedirectUrl(request("/docs", "x-sws-event=launch&utm_source=x"));
+        assertTrue(third.startsWith("https://other.example.com/docs?"));
+        assertEquals(2.0, registry.find("dotorg.redirects.cache.misses").counter().count());
+    }
+
+    @Test
+    public void testBuildRedirectUrl_KeysCacheOnAllowlistedParameters() throws Exception {
+        AppProperties appProperties = new AppProperties();
+        MeterRegistry registry = new SimpleMeterRegistry();
+        RedirectService redirectService = RedirectServiceFixtures.redirectService(appProperties, "test",
+                new TimeOrderedTracingIdGenerator(), new CoarseClock(), new RedirectMetrics(registry));
+
+        for (int i = 0; i < 10; i++) {
+            redirectService.buildRedirectUrl(request("/docs", "x-sws-event=launch&cb=" + i));
+        }
+        redirectService.buildRedirectUrl(request("/docs", "x-sws-event=other"));
+
+        assertEquals(2.0, registry.find("dotorg.redirects.cache.misses").counter().count());
+        assertEquals(9.0, registry.find("dotorg.redirects.cache.hits").counter().count());
+    }
+
+    @Test
+    public void testBuildRedirectUrl_SkipsCacheForPost() throws Exception {
+        AppProperties appProperties = new AppProperties();
+        MeterRegistry registry = new SimpleMeterRegistry();
+        RedirectService redirectService = RedirectServiceFixtures.redirectService(appProperties, "test",
+                new TimeOrderedTracingIdGenerator(), new CoarseClock(), new RedirectMetrics(registry));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/docs");
+        request.setQueryString("x-sws-event=launch");
+        redirectService.buildRedirectUrl(request);
+
+        assertEquals(0.0, registry.find("dotorg.redirects.cache.misses").counter().count());
+        assertEquals(0.0, registry.find("dotorg.redirects.cache.hits").counter().count());
+    }
+
+    private static MockHttpServletRequest request(String path, String queryString) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setQueryString(queryString);
+        return request;
+    }
+}
@@ -0,0 +1,113 @@
+package net.sdko.dotorgredirector.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import net.sdko.dotorgredirector.config.AppProperties;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Unit tests for the perfect-hashed VanityTable.
+ */
+@Tag("unit")
+public class VanityTableTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testLookup_FindsEveryEntryAndRejectsOthers() {
+        Random random = new Random(20240615L);
+        Map<String, String> entries = new HashMap<>();
+        while (entries.size() < 20_000) {
+            String slug = Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+            entries.put("/go/" + slug, "https://www.example.com/campaigns/" + slug + "?ref=é" + entries.size());
+        }
+        VanityTable table = VanityTable.of(entries);
+
+        assertEquals(entries.size(), table.size());
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            assertEquals(entry.getValue(), table.get(entry.getKey()));
+        }
+        for (int i = 0; i < 20_000; i++) {
+            String path = "/go/" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+            assertEquals(entries.get(path), table.get(path));
+        }
+        assertNull(table.get("/go/"));
+        assertNull(table.get("/go"));
+        assertNull(table.get("/gö/x"));
+    }
+
+    @Test
+    public void testLookup_DistinguishesPrefixesOfEachOther() {
+        VanityTable table = VanityTable.of(Map.of(
+                "/a", "https://a.example.com",
+                "/ab", "https://ab.example.com",
+                "/abc", "https://abc.example.com",
+                "/b", "https://b.example.com"));
+
+        assertEquals("https://a.example.com", table.get("/a"));
+        assertEquals("https://ab.example.com", table.get("/ab"));
+        assertEquals("https://abc.example.com", table.get("/abc"));
+        assertEquals("https://b.example.com", table.get("/b"));
+        assertNull(table.get("/abcd"));
+        assertNull(table.get("/"));
+        assertNull(table.get(""));
+    }
+
+    @Test
+    public void testStorage_FrontCodesSharedPrefixes() {
+        Map<String, String> entries = new HashMap<>();
+        long rawBytes = 0;
+        for (int i = 0; i < 10_000; i++) {
+            String key = "/go/spring-campaign-" + i;
+            String target = "https://www.example.com/landing/spring-campaign-" + i;
+            entries.put(key, target);
+            rawBytes += key.length() + target.length();
+        }
+        VanityTable table = VanityTable.of(entries);
+
+        assertTrue(table.sizeInBytes() < rawBytes / 2, "table uses " + table.sizeInBytes() + " bytes");
+    }
+
+    @Test
+    public void testLoad_ParsesFileAndRejectsDuplicates() throws Exception {
+        Path file = tempDir.resolve("vanity.txt");
+        Files.writeString(file, "# vanity links\n\n/go/docs   https://docs.example.com\n/go/blog\thttps://blog.example.com\n",
+                StandardCharsets.UTF_8);
+        VanityTable table = VanityTable.load(file);
+
+        assertEquals(2, table.size());
+        assertEquals("https://docs.example.com", table.get("/go/docs"));
+
+        Files.writeString(file, "/go/docs https://a.example.com\n/go/docs https://b.example.com\n");
+        assertThrows(IllegalArgumentException.class, () -> VanityTable.load(file));
+        Files.writeString(file, "/go/docs\n");
+        assertThrows(IllegalArgumentException.class, () -> VanityTable.load(file));
+        assertThrows(IllegalArgumentException.class, () -> VanityTable.of(Map.of("go/docs", "https://x.example.com")));
+    }
+
+    @Test
+    public void testBuildRedirectUrl_VanityLinkTakesPrecedence() throws Exception {
+        Path file = tempDir.resolve("vanity.txt");
+        Files.writeString(file, "/go/docs https://docs.example.com/start?utm_source=go\n");
+        AppProperties appProperties = new AppProperties();
+        appProperties.setTargetUrl("https://example.com");
+        appProperties.setVanityLinksFile(file.toString());
+        RedirectService redirectService = RedirectServiceFixtures.redirectService(appProperties, "test");
+
+        assertEquals("https://docs.example.com/start?utm_source=go",
+                redirectService.buildRedirectUrl(new MockHttpServletRequest("GET", "/go/docs")));
+        assertTrue(redirectService.buildRedirectUrl(new MockHttpServletRequest("GET", "/go/other"))
+                .startsWith("https://example.com/go/other?"));
+    }
+}
@@ -5,14 +5,32 @@ import static org.mockito.Mockito.*;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.sun.net.httpserver.HttpServer;
+import io.sentry.RequestDetails;
 import io.sentry.Sentry;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import io.sentry.SentryEnvelope;
+import io.sentry.SentryEvent;
+import io.sentry.SentryOptions;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+import net.sdko.dotorgredirector.reporting.SpoolingTransport;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
-import org.mockito.MockedConstruction;
 import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.actuate.health.Health;
@@ -35,7 +53,8 @@ class HealthIndicatorsTest {
     meterRegistry = new SimpleMeterRegistry();
 
     coreHealthIndicator = new CoreHealthIndicator();
-    redirectorHealthIndicator = new RedirectorHealthIndicator(appProperties);
+    redirectorHealthIndicator =
+        new RedirectorHealthIndicator(appProperties, new RedirectMetrics(meterRegistry));
     sentryHealthIndicator = new SentryHealthIndicator();
     prometheusHealthIndicator = new PrometheusHealthIndicator(meterRegistry);
     backendApiHealthIndicator = new BackendApiHealthIndicator();
@@ -56,32 +75,66 @@ class HealthIndicatorsTest {
 
   @Test
   void testRedirectorHealthIndicator_validUrl() throws Exception {
-    when(appProperties.getTargetUrl()).thenReturn("https://www.example.com");
-
-    // Mock URL connection for testing
-    RedirectorHealthIndicator spyIndicator = spy(redirectorHealthIndicator);
-
-    // Create mocks for the URL connection
-    URL mockUrl = mock(URL.class);
-    HttpURLConnection mockConnection = mock(HttpURLConnection.class);
-
-    // Use PowerMockito to mock the URL constructor and openConnection
-    try (MockedConstruction<URL> mocked =
-        mockConstruction(
-            URL.class,
-            (mock, context) -> {
-              when(mock.openConnection()).thenReturn(mockConnection);
-            })) {
-      // Setup mock connection behavior
-      when(mockConnection.getResponseCode()).thenReturn(200);
+    HttpServer server = startTarget(200);
+    try {
+      String targetUrl = "http://localhost:" + server.getAddress().getPort() + "/";
+      when(appProperties.getTargetUrl()).thenReturn(targetUrl);
+      RedirectMetrics redirectMetrics = new RedirectMetrics(meterRegistry);
+      RedirectorHealthIndicator indicator =
+          new RedirectorHealthIndicator(appProperties, redirectMetrics);
 
-      Health health = spyIndicator.health();
+      Health health = indicator.health();
       assertEquals(Status.UP, health.getStatus());
       assertEquals("URL Redirector Service", health.getDetails().get("component"));
       assertEquals("UP", health.getDetails().get("status"));
-      assertEquals("https://www.example.com", health.getDetails().get("targetUrl"));
+      assertEquals(targetUrl, health.getDetails().get("targetUrl"));
       assertEquals(true, health.getDetails().get("configured"));
       assertEquals(true, health.getDetails().get("reachable"));
+      assertNotNull(health.getDetails().get(CachedHealthIndicator.AGE_DETAIL));
+      assertEquals(1, redirectMetrics.getTargetRoundTripTimer().count());
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  @Test
+  void testRedirectorHealthIndicator_errorStatus() throws Exception {
+    HttpServer server = startTarget(503);
+    try {
+      when(appProperties.getTargetUrl())
+          .thenReturn("http://localhost:" + server.getAddress().getPort() + "/");
+
+      Health health = redirectorHealthIndicator.health();
+      assertEquals("DEGRADED", health.getStatus().getCode());
+      assertEquals(false, health.getDetails().get("reachable"));
+      assertEquals("Target URL returned HTTP status 503", health.getDetails().get("reason"));
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  @Test
+  void testRedirectorHealthIndicator_returnsCachedResult() throws Exception {
+    AtomicInteger probes = new AtomicInteger();
+    HttpServer server = startTarget(200);
+    server.createContext("/probe", exchange -> {
+      probes.incrementAndGet();
+      exchange.sendResponseHeaders(200, -1);
+      exchange.close();
+    });
+    try {
+      when(appProperties.getTargetUrl())
+          .thenReturn("http://localhost:" + server.getAddress().getPort() + "/probe");
+
+      assertEquals(Status.UP, redirectorHealthIndicator.health().getStatus());
+      assertEquals(Status.UP, redirectorHealthIndicator.health().getStatus());
+      assertEquals(1, probes.get());
+
+      redirectorHealthIndicator.refresh();
+      assertEquals(Status.UP, redirectorHealthIndicator.health().getStatus());
+      assertEquals(2, probes.get());
+    } finally {
+      server.stop(0);
     }
   }
 
@@ -139,16 +192,82 @@ class HealthIndicatorsTest {
     assertEquals(false, health.getDetails().get("configured"));
   }
 
+  @Test
+  void testCachedHealthIndicator_reportsAge() {
+    MutableClock clock = new MutableClock();
+    CountingIndicator indicator = new CountingIndicator(clock, Duration.ofSeconds(1));
+
+    assertEquals(0L, indicator.health().getDetails().get(CachedHealthIndicator.AGE_DETAIL));
+    clock.millis += 1500;
+    Health health = indicator.health();
+    assertEquals(Status.UP, health.getStatus());
+    assertEquals(1500L, health.getDetails().get(CachedHealthIndicator.AGE_DETAIL));
+    assertEquals(1, health.getDetails().get("checks"));
+
+    indicator.refresh();
+    health = indicator.health();
+    assertEquals(0L, health.getDetails().get(CachedHealthIndicator.AGE_DETAIL));
+    assertEquals(2, health.getDetails().get("checks"));
+  }
+
+  @Test
+  void testCachedHealthIndicator_staleResultIsUnknown() {
+    MutableClock clock = new MutableClock();
+    CountingIndicator indicator = new CountingIndicator(clock, Duration.ofSeconds(1));
+    indicator.health();
+
+    clock.millis += 3000;
+    assertEquals(Status.UP, indicator.health().getStatus());
+
+    clock.millis += 1;
+    Health health = indicator.health();
+    assertEquals(Status.UNKNOWN, health.getStatus());
+    assertEquals("UP", health.getDetails().get("last_status"));
+    assertEquals(3001L, health.getDetails().get(CachedHealthIndicator.AGE_DETAIL));
+    assertNull(health.getDetails().get("checks"));
+
+    indicator.refresh();
+    assertEquals(Status.UP, indicator.health().getStatus());
+  }
+
+  @Test
+  void testCachedHealthIndicator_checkThrows() {
+    CachedHealthIndicator indicator =
+        new CachedHealthIndicator() {
+          @Override
+          protected Duration refreshInterval() {
+            return Duration.ofSeconds(1);
+          }
+
+          @Override
+          protected Health check() {
+            throw new IllegalStateException("boom");
+          }
+        };
+
+    Health health = indicator.health();
+    assertEquals(Status.DOWN, health.getStatus());
+    assertNotNull(health.getDetails().get("error"));
+  }
+
+  @Test
+  void testHealthProbeScheduler_refreshesInBackground() throws Exception {
+    CountingIndicator indicator = new CountingIndicator(Clock.systemUTC(), Duration.ofMillis(100));
+    HealthProbeScheduler scheduler = new HealthProbeScheduler(List.of(indicator));
+    scheduler.start();
+    try {
+      assertTrue(indicator.refreshed.await(5, TimeUnit.SECONDS));
+      assertEquals(Status.UP, indicator.health().getStatus());
+    } finally {
+      scheduler.stop();
+    }
+  }
+
   @Test
   void testSentryHealthIndicator_enabled() {
     try (MockedStatic<Sentry> sentryMockedStatic = mockStatic(Sentry.class)) {
       sentryMockedStatic.when(Sentry::isEnabled).thenReturn(true);
-
-      // Mock the capture message call
-      io.sentry.protocol.SentryId mockId = new io.sentry.protocol.SentryId();
-      sentryMockedStatic
-          .when(() -> Sentry.captureMessage(anyString(), any(io.sentry.SentryLevel.class)))
-          .thenReturn(mockId);
+      sentryMockedStatic.when(Sentry::isHealthy).thenReturn(true);
 
       Health health = sentryHealthIndicator.health();
       assertEquals(Status.UP, health.getStatus());
@@ -156,19 +275,17 @@ class HealthIndicatorsTest {
       assertEquals("UP", health.getDetails().get("status"));
       assertEquals(true, health.getDetails().get("enabled"));
       assertEquals(true, health.getDetails().get("connected"));
-      assertNotNull(health.getDetails().get("test_event_id"));
+      assertEquals("sdk", health.getDetails().get("transport"));
+      sentryMockedStatic.verify(
+          () -> Sentry.captureMessage(anyString(), any(io.sentry.SentryLevel.class)), never());
     }
   }
 
   @Test
-  void testSentryHealthIndicator_enabledButFailedToSend() {
+  void testSentryHealthIndicator_enabledButUnhealthy() {
     try (MockedStatic<Sentry> sentryMockedStatic = mockStatic(Sentry.class)) {
       sentryMockedStatic.when(Sentry::isEnabled).thenReturn(true);
-
-      // Mock the capture message call to return null (failed to send)
-      sentryMockedStatic
-          .when(() -> Sentry.captureMessage(anyString(), any(io.sentry.SentryLevel.class)))
-          .thenReturn(null);
+      sentryMockedStatic.when(Sentry::isHealthy).thenReturn(false);
 
       Health health = sentryHealthIndicator.health();
       assertEquals("DEGRADED", health.getStatus().getCode());
@@ -180,6 +297,107 @@ class HealthIndicatorsTest {
     }
   }
 
+  @Test
+  void testSentryHealthIndicator_spoolingTransport(@TempDir Path spoolDirectory)
+      throws Exception {
+    AtomicInteger verifications = new AtomicInteger();
+    AtomicInteger status = new AtomicInteger(405);
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", exchange -> {
+      verifications.incrementAndGet();
+      exchange.sendResponseHeaders(status.get(), -1);
+      exchange.close();
+    });
+    server.start();
+    AppProperties.SentryTransport settings = new AppProperties.SentryTransport();
+    settings.setSpoolDirectory(spoolDirectory.toString());
+    SpoolingTransport transport =
+        new SpoolingTransport(
+            new SentryOptions(),
+            new RequestDetails(
+                "http://localhost:" + server.getAddress().getPort() + "/api/1/envelope/",
+                Map.of()),
+            settings);
+    MutableClock clock = new MutableClock();
+    SentryHealthIndicator indicator =
+        new SentryHealthIndicator(Duration.ofSeconds(60), clock, () -> transport);
+
+    try (MockedStatic<Sentry> sentryMockedStatic = mockStatic(Sentry.class)) {
+      sentryMockedStatic.when(Sentry::isEnabled).thenReturn(true);
+
+      Health health = indicator.health();
+      assertEquals(Status.UP, health.getStatus());
+      assertEquals("spooling", health.getDetails().get("transport"));
+      assertEquals(0, health.getDetails().get("queue_depth"));
+      assertEquals(0L, health.getDetails().get("failed_sends"));
+      assertEquals(0L, health.getDetails().get("rejected_sends"));
+      assertEquals("never", health.getDetails().get("last_rejected_at"));
+      assertEquals("never", health.getDetails().get("last_success_at"));
+      assertEquals(false, health.getDetails().get("circuit_open"));
+      assertEquals(1, verifications.get());
+
+      // Within the interval, only the transport state is read
+      status.set(503);
+      clock.millis += 30_000;
+      indicator.refresh();
+      assertEquals(Status.UP, indicator.health().getStatus());
+      assertEquals(1, verifications.get());
+
+      clock.millis += 30_000;
+      indicator.refresh();
+      health = indicator.health();
+      assertEquals("DEGRADED", health.getStatus().getCode());
+      assertEquals(false, health.getDetails().get("connected"));
+      assertEquals(2, verifications.get());
+      sentryMockedStatic.verify(
+          () -> Sentry.captureMessage(anyString(), any(io.sentry.SentryLevel.class)), never());
+    } finally {
+      transport.close();
+      server.stop(0);
+    }
+  }
+
+  @Test
+  void testSentryHealthIndicator_rejectedEnvelopes(@TempDir Path spoolDirectory)
+      throws Exception {
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", exchange -> {
+      exchange.getRequestBody().readAllBytes();
+      exchange.sendResponseHeaders(401, -1);
+      exchange.close();
+    });
+    server.start();
+    AppProperties.SentryTransport settings = new AppProperties.SentryTransport();
+    settings.setSpoolDirectory(spoolDirectory.toString());
+    SentryOptions options = new SentryOptions();
+    SpoolingTransport transport =
+        new SpoolingTransport(
+            options,
+            new RequestDetails(
+                "http://localhost:" + server.getAddress().getPort() + "/api/1/envelope/",
+                Map.of()),
+            settings);
+    transport.start();
+    SentryHealthIndicator indicator =
+        new SentryHealthIndicator(Duration.ofSeconds(60), new MutableClock(), () -> transport);
+
+    try (MockedStatic<Sentry> sentryMockedStatic = mockStatic(Sentry.class)) {
+      sentryMockedStatic.when(Sentry::isEnabled).thenReturn(true);
+      transport.send(SentryEnvelope.from(options.getSerializer(), new SentryEvent(), null));
+      transport.flush(5000);
+
+      // The endpoint answers, but a revoked DSN is not a healthy connection
+      Health health = indicator.health();
+      assertEquals("DEGRADED", health.getStatus().getCode());
+      assertEquals(1L, health.getDetails().get("rejected_sends"));
+      assertEquals("never", health.getDetails().get("last_success_at"));
+      assertEquals(false, health.getDetails().get("circuit_open"));
+    } finally {
+      transport.close();
+      server.stop(0);
+    }
+  }
+
   @Test
   void testSentryHealthIndicator_disabled() {
     try (MockedStatic<Sentry> sentryMockedStatic = mockStatic(Sentry.class)) {
@@ -229,4 +447,64 @@ class HealthIndicatorsTest {
     assertNotNull(health.getDetails().get("status"));
     assertNotNull(health.getDetails().get("endpoints_available"));
   }
+
+  private static HttpServer startTarget(int status) throws IOException {
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", exchange -> {
+      exchange.sendResponseHeaders(status, -1);
+      exchange.close();
+    });
+    server.start();
+    return server;
+  }
+
+  /** Indicator that counts its checks. */
+  private static final class CountingIndicator extends CachedHealthIndicator {
+
+    private final CountDownLatch refreshed = new CountDownLatch(2);
+    private final Duration refreshInterval;
+    private int checks;
+
+    CountingIndicator(Clock clock, Duration refreshInterval) {
+      super(clock);
+      this.refreshInterval = refreshInterval;
+    }
+
+    @Override
+    protected Duration refreshInterval() {
+      return refreshInterval;
+    }
+
+    @Override
+    protected synchronized Health check() {
+      checks++;
+      refreshed.countDown();
+      return Health.up().withDetail("checks", checks).build();
+    }
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private long millis = 1_000_000;
+
+    @Override
+    public long millis() {
+      return millis;
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+  }
 }
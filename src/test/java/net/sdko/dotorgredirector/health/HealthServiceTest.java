@@ -1,14 +1,26 @@
 package net.sdko.dotorgredirector.health;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.actuate.health.Health;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 
 class HealthServiceTest {
 
@@ -33,7 +45,10 @@ class HealthServiceTest {
             redirectorHealthIndicator,
             sentryHealthIndicator,
             prometheusHealthIndicator,
-            backendApiHealthIndicator);
+            backendApiHealthIndicator,
+            new VirtualThreadTaskExecutor("health-test-"),
+            new RedirectMetrics(new SimpleMeterRegistry()),
+            Duration.ofMillis(3000));
   }
 
   @Test
@@ -102,4 +117,80 @@ class HealthServiceTest {
     assertEquals("UP", componentHealth.get("prometheus"));
     assertEquals("UP", componentHealth.get("backendApi"));
   }
+
+  @Test
+  void testGetAllComponentHealth_onVirtualThreads() {
+    HealthService virtualHealthService =
+        new HealthService(
+            coreHealthIndicator,
+            redirectorHealthIndicator,
+            sentryHealthIndicator,
+            prometheusHealthIndicator,
+            backendApiHealthIndicator,
+            new VirtualThreadTaskExecutor("health-test-"),
+            new RedirectMetrics(new SimpleMeterRegistry()),
+            Duration.ofMillis(3000));
+    when(coreHealthIndicator.health()).thenReturn(Health.up().build());
+    when(redirectorHealthIndicator.health()).thenReturn(Health.up().build());
+    when(sentryHealthIndicator.health()).thenReturn(Health.status("DEGRADED").build());
+    when(prometheusHealthIndicator.health()).thenReturn(Health.up().build());
+    when(backendApiHealthIndicator.health()).thenThrow(new IllegalStateException("boom"));
+
+    assertEquals(
+        "boom",
+        assertThrows(IllegalStateException.class, virtualHealthService::getOverallHealth)
+            .getMessage());
+
+    doReturn(Health.up().build()).when(backendApiHealthIndicator).health();
+    assertEquals("DEGRADED", virtualHealthService.getOverallHealth());
+    assertEquals(
+        List.of("core", "redirector", "sentry", "prometheus", "backendApi"),
+        List.copyOf(virtualHealthService.getAllComponentHealth().keySet()));
+  }
+
+  @Test
+  void testGetAllComponentHealth_slowIndicatorIsUnknown() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    HealthService deadlineHealthService =
+        new HealthService(
+            coreHealthIndicator,
+            redirectorHealthIndicator,
+            sentryHealthIndicator,
+            prometheusHealthIndicator,
+            backendApiHealthIndicator,
+            new VirtualThreadTaskExecutor("health-test-"),
+            new RedirectMetrics(registry),
+            Duration.ofMillis(200));
+    CountDownLatch release = new CountDownLatch(1);
+    when(coreHealthIndicator.health()).thenReturn(Health.up().build());
+    when(redirectorHealthIndicator.health())
+        .thenAnswer(
+            invocation -> {
+              release.await(5, TimeUnit.SECONDS);
+              return Health.up().build();
+            });
+    when(sentryHealthIndicator.health()).thenReturn(Health.up().build());
+    when(prometheusHealthIndicator.health()).thenReturn(Health.up().build());
+    when(backendApiHealthIndicator.health()).thenReturn(Health.up().build());
+
+    try {
+      long start = System.nanoTime();
+      Map<String, String> componentHealth = deadlineHealthService.getAllComponentHealth();
+      assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+      assertEquals("UNKNOWN", componentHealth.get("redirector"));
+      assertEquals("UP", componentHealth.get("core"));
+      assertEquals("DEGRADED", deadlineHealthService.getOverallHealth());
+    } finally {
+      release.countDown();
+    }
+
+    verify(coreHealthIndicator, times(2)).health();
+    assertEquals(
+        2,
+        registry
+            .get("dotorg.health.check.duration")
+            .tag("component", "core")
+            .timer()
+            .count());
+  }
 }
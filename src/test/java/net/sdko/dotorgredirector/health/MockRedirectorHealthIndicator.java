@@ -1,6 +1,7 @@
 package net.sdko.dotorgredirector.health;
 
 import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
@@ -15,8 +16,9 @@ import org.springframework.stereotype.Component;
 @Profile("test")
 public class MockRedirectorHealthIndicator extends RedirectorHealthIndicator {
 
-  public MockRedirectorHealthIndicator(AppProperties appProperties) {
-    super(appProperties);
+  public MockRedirectorHealthIndicator(
+      AppProperties appProperties, RedirectMetrics redirectMetrics) {
+    super(appProperties, redirectMetrics);
   }
 
   @Override
@@ -0,0 +1,75 @@
+package net.sdko.dotorgredirector.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for the JvmResourceSampler class. */
+@Tag("unit")
+public class JvmResourceSamplerTest {
+
+  @Test
+  public void testSnapshot_samplesOnceUntilStarted() {
+    JvmResourceSampler sampler = new JvmResourceSampler();
+
+    JvmResourceSampler.Snapshot snapshot = sampler.snapshot();
+    assertSame(snapshot, sampler.snapshot());
+
+    assertTrue(snapshot.heapUsed() > 0);
+    assertTrue(snapshot.totalMemory() >= snapshot.freeMemory());
+    assertTrue(snapshot.threadCount() >= 1);
+    assertTrue(snapshot.peakThreadCount() >= snapshot.threadCount());
+    assertEquals(Runtime.getRuntime().availableProcessors(), snapshot.availableProcessors());
+    assertTrue(snapshot.gcCount() >= 0);
+    assertTrue(snapshot.uptimeMillis() > 0);
+  }
+
+  @Test
+  public void testSample_countsHttpThreads() throws Exception {
+    JvmResourceSampler sampler = new JvmResourceSampler();
+    int before = sampler.sample().httpThreadCount();
+
+    CountDownLatch release = new CountDownLatch(1);
+    Thread thread =
+        new Thread(
+            () -> {
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            },
+            "http-nio-test-exec-1");
+    thread.start();
+    try {
+      assertEquals(before + 1, sampler.sample().httpThreadCount());
+    } finally {
+      release.countDown();
+      thread.join();
+    }
+  }
+
+  @Test
+  public void testStart_refreshesInBackground() throws Exception {
+    JvmResourceSampler sampler = new JvmResourceSampler(Duration.ofMillis(10));
+    JvmResourceSampler.Snapshot first = sampler.snapshot();
+
+    sampler.start();
+    try {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (sampler.snapshot() == first && System.nanoTime() < deadline) {
+        Thread.sleep(5);
+      }
+      assertNotSame(first, sampler.snapshot());
+    } finally {
+      sampler.stop();
+    }
+  }
+}
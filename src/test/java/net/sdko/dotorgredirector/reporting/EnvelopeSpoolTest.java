@@ -0,0 +1,92 @@
+package net.sdko.dotorgredirector.reporting;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.sentry.SentryEnvelope;
+import io.sentry.SentryEvent;
+import io.sentry.SentryOptions;
+import io.sentry.protocol.SentryId;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests for the on-disk envelope spool.
+ */
+@Tag("unit")
+public class EnvelopeSpoolTest {
+
+    @TempDir
+    Path directory;
+
+    private final SentryOptions options = new SentryOptions();
+
+    @Test
+    public void testSpool_ReturnsEnvelopesOldestFirstAcrossRestarts() throws Exception {
+        EnvelopeSpool spool = new EnvelopeSpool(directory, 1024 * 1024, options);
+        SentryEvent first = new SentryEvent();
+        SentryEvent second = new SentryEvent();
+        assertTrue(spool.write(envelope(first)));
+        assertTrue(spool.write(envelope(second)));
+
+        EnvelopeSpool reopened = new EnvelopeSpool(directory, 1024 * 1024, options);
+        assertEquals(2, reopened.size());
+        assertEquals(spool.bytes(), reopened.bytes());
+
+        EnvelopeSpool.Entry entry = reopened.peek();
+        assertEquals(first.getEventId(), eventId(entry));
+        reopened.remove(entry);
+        assertEquals(second.getEventId(), eventId(reopened.peek()));
+        assertTrue(reopened.write(envelope(new SentryEvent())));
+        assertEquals(2, reopened.size());
+    }
+
+    @Test
+    public void testWrite_EvictsOldestToStayBelowCap() throws Exception {
+        long envelopeSize = serializedSize(envelope(new SentryEvent()));
+        EnvelopeSpool spool = new EnvelopeSpool(directory, envelopeSize * 3 + envelopeSize / 2, options);
+        SentryEvent[] events = new SentryEvent[5];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new SentryEvent();
+            assertTrue(spool.write(envelope(events[i])));
+        }
+
+        assertEquals(3, spool.size());
+        assertEquals(2, spool.evicted());
+        assertTrue(spool.bytes() <= envelopeSize * 3 + envelopeSize / 2);
+        assertEquals(events[2].getEventId(), eventId(spool.peek()));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(3, files.count());
+        }
+    }
+
+    @Test
+    public void testPeek_DropsUnreadableFiles() throws Exception {
+        Files.writeString(directory.resolve("00000000000000000000.envelope"), "not an envelope");
+        EnvelopeSpool spool = new EnvelopeSpool(directory, 1024 * 1024, options);
+        SentryEvent event = new SentryEvent();
+        spool.write(envelope(event));
+
+        assertEquals(event.getEventId(), eventId(spool.peek()));
+        assertEquals(1, spool.size());
+    }
+
+    private SentryEnvelope envelope(SentryEvent event) throws Exception {
+        return SentryEnvelope.from(options.getSerializer(), event, null);
+    }
+
+    private long serializedSize(SentryEnvelope envelope) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        options.getSerializer().serialize(envelope, out);
+        return out.size();
+    }
+
+    private static SentryId eventId(EnvelopeSpool.Entry entry) {
+        return entry.envelope().getHeader().getEventId();
+    }
+}
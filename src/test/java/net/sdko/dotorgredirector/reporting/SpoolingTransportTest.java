@@ -0,0 +1,358 @@
+package net.sdko.dotorgredirector.reporting;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+import io.sentry.RequestDetailsResolver;
+import io.sentry.SentryEnvelope;
+import io.sentry.SentryEvent;
+import io.sentry.SentryOptions;
+import net.sdko.dotorgredirector.config.AppProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Tests for the Sentry transport against a local stub of the ingestion endpoint that can be
+ * made slow or failing.
+ */
+@Tag("unit")
+public class SpoolingTransportTest {
+
+    @TempDir
+    Path spoolDirectory;
+
+    private final MutableClock clock = new MutableClock(1_700_000_000_000L);
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private volatile int status = 200;
+    private volatile long delayMillis;
+    private volatile String retryAfter;
+
+    private HttpServer ingestion;
+    private ExecutorService ingestionExecutor;
+    private SentryOptions options;
+    private SpoolingTransport transport;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        ingestion = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        ingestion.createContext("/", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                body.readAllBytes();
+            }
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            received.add(exchange.getRequestURI().getPath() + " "
+                    + (exchange.getRequestHeaders().getFirst("X-Sentry-Auth") != null ? "auth" : "no-auth"));
+            if (retryAfter != null) {
+                exchange.getResponseHeaders().add("Retry-After", retryAfter);
+            }
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        ingestionExecutor = Executors.newCachedThreadPool();
+        ingestion.setExecutor(ingestionExecutor);
+        ingestion.start();
+
+        options = new SentryOptions();
+        options.setDsn("http://key@127.0.0.1:" + ingestion.getAddress().getPort() + "/1");
+        options.setReadTimeoutMillis(500);
+        options.setShutdownTimeoutMillis(1000);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (transport != null) {
+            transport.close();
+        }
+        ingestion.stop(0);
+        ingestionExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testSend_PostsEnvelopesToIngestion() throws Exception {
+        transport = start(settings());
+
+        for (int i = 0; i < 3; i++) {
+            transport.send(envelope());
+        }
+        transport.flush(5000);
+
+        assertEquals(List.of("/api/1/envelope/ auth", "/api/1/envelope/ auth", "/api/1/envelope/ auth"),
+                received);
+        assertTrue(transport.isHealthy());
+        assertEquals(0, transport.getSpooledCount());
+        assertEquals(0, transport.getQueueDepth());
+        assertTrue(transport.getLastSuccessAt() > 0);
+    }
+
+    @Test
+    public void testFailingIngestion_OpensBreakerAndSpools() throws Exception {
+        status = 503;
+        AppProperties.SentryTransport settings = settings();
+        settings.setFailureThreshold(2);
+        transport = start(settings);
+
+        for (int i = 0; i < 5; i++) {
+            transport.send(envelope());
+        }
+        transport.flush(5000);
+
+        // Only the sends before the breaker opened reached ingestion
+        assertEquals(2, received.size());
+        assertTrue(transport.isCircuitOpen());
+        assertFalse(transport.isHealthy());
+        assertEquals(5, transport.getSpooledCount());
+        assertEquals(2, transport.getFailedCount());
+        assertEquals(0, transport.getLastSuccessAt());
+    }
+
+    @Test
+    public void testFailingIngestion_DropsWithoutSpoolDirectory() throws Exception {
+        status = 503;
+        AppProperties.SentryTransport settings = settings();
+        settings.setSpoolDirectory(null);
+        settings.setFailureThreshold(2);
+        transport = start(settings);
+
+        for (int i = 0; i < 5; i++) {
+            transport.send(envelope());
+        }
+        transport.flush(5000);
+
+        assertEquals(2, received.size());
+        assertTrue(transport.isCircuitOpen());
+        assertEquals(0, transport.getSpooledCount());
+        assertEquals(5, transport.getDroppedCount());
+    }
+
+    @Test
+    public void testFactory_RequiresWritableAbsoluteSpoolDirectory() throws Exception {
+        AppProperties.SentryTransport settings = settings();
+        settings.setSpoolDirectory("spool/sentry");
+        assertThrows(IllegalArgumentException.class, () -> new SpoolingTransportFactory(settings));
+
+        Path file = Files.createFile(spoolDirectory.resolve("not-a-directory"));
+        settings.setSpoolDirectory(file.toString());
+        assertThrows(IllegalStateException.class, () -> new SpoolingTransportFactory(settings));
+    }
+
+    @Test
+    public void testRecovery_ReplaysSpoolOnceBreakerCloses() throws Exception {
+        status = 503;
+        AppProperties.SentryTransport settings = settings();
+        settings.setFailureThreshold(1);
+        transport = start(settings);
+        for (int i = 0; i < 4; i++) {
+            transport.send(envelope());
+        }
+        transport.flush(5000);
+        assertEquals(4, transport.getSpooledCount());
+
+        status = 200;
+        clock.millis += TimeUnit.SECONDS.toMillis(settings.getOpenSeconds());
+
+        await(() -> transport.getSpooledCount() == 0);
+        assertFalse(transport.isCircuitOpen());
+        // The failed attempt, then the probe and the rest of the spool
+        assertEquals(5, received.size());
+    }
+
+    @Test
+    public void testRejectedSends_AreNotCountedAsSuccess() throws Exception {
+        status = 401;
+        transport = start(settings());
+
+        for (int i = 0; i < 3; i++) {
+            transport.send(envelope());
+        }
+        transport.flush(5000);
+
+        assertEquals(3, received.size());
+        assertEquals(3, transport.getRejectedCount());
+        assertEquals(0, transport.getLastSuccessAt());
+        assertTrue(transport.getLastRejectedAt() > 0);
+        assertEquals(0, transport.getFailedCount());
+        assertEquals(0, transport.getSpooledCount());
+        assertFalse(transport.isCircuitOpen());
+    }
+
+    @Test
+    public void testRejectedProbe_KeepsBreakerOpen() throws Exception {
+        status = 503;
+        AppProperties.SentryTransport settings = settings();
+        settings.setFailureThreshold(1);
+        transport = start(settings);
+        transport.send(envelope());
+        transport.send(envelope());
+        transport.flush(5000);
+        assertTrue(transport.isCircuitOpen());
+
+        status = 403;
+        clock.millis += TimeUnit.SECONDS.toMillis(settings.getOpenSeconds());
+
+        await(() -> transport.getRejectedCount() == 1);
+        // The refused probe is dropped, and the rest waits for the next open time
+        assertTrue(transport.isCircuitOpen());
+        assertEquals(1, transport.getSpooledCount());
+        assertEquals(0, transport.getLastSuccessAt());
+        assertEquals(2, received.size());
+    }
+
+    @Test
+    public void testRateLimitedEnvelopes_AreDroppedUntilRetryAfter() throws Exception {
+        status = 429;
+        retryAfter = "60";
+        transport = start(settings());
+
+        for (int i = 0; i < 3; i++) {
+            transport.send(envelope());
+        }
+        transport.flush(5000);
+
+        // Only the first envelope is sent, the rate limit it brought back drops the others
+        assertEquals(1, received.size());
+        assertEquals(1, transport.getRejectedCount());
+        assertEquals(2, transport.getDroppedCount());
+        assertEquals(0, transport.getSpooledCount());
+        assertFalse(transport.isCircuitOpen());
+    }
+
+    @Test
+    public void testRateLimitedSpool_IsDrainedWithoutTakingTheProbe() throws Exception {
+        status = 503;
+        AppProperties.SentryTransport settings = settings();
+        settings.setFailureThreshold(1);
+        transport = start(settings);
+        transport.send(envelope());
+        transport.send(envelope());
+        transport.flush(5000);
+        assertEquals(2, transport.getSpooledCount());
+
+        transport.getRateLimiter().updateRetryAfterLimits(null, "60", 429);
+        status = 200;
+        clock.millis += TimeUnit.SECONDS.toMillis(settings.getOpenSeconds());
+
+        await(() -> transport.getSpooledCount() == 0);
+        assertEquals(2, transport.getDroppedCount());
+        assertEquals(1, received.size());
+    }
+
+    @Test
+    public void testSlowIngestion_DoesNotBlockCallers() throws Exception {
+        delayMillis = 2000;
+        AppProperties.SentryTransport settings = settings();
+        settings.setFailureThreshold(1);
+        settings.setQueueSize(2);
+        transport = start(settings);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            transport.send(envelope());
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMillis < options.getReadTimeoutMillis(), "send took " + elapsedMillis + "ms");
+        assertTrue(transport.getDroppedCount() >= 17, "dropped " + transport.getDroppedCount());
+        // The timed out send opens the breaker and the queued envelopes are spooled
+        await(transport::isCircuitOpen);
+        transport.flush(5000);
+        assertEquals(20 - transport.getDroppedCount(), transport.getSpooledCount());
+    }
+
+    @Test
+    public void testSpool_IsReplayedAfterRestart() throws Exception {
+        status = 503;
+        AppProperties.SentryTransport settings = settings();
+        settings.setFailureThreshold(1);
+        transport = start(settings);
+        transport.send(envelope());
+        transport.send(envelope());
+        transport.flush(5000);
+        transport.close();
+        received.clear();
+
+        status = 200;
+        transport = start(settings);
+
+        await(() -> received.size() == 2);
+        await(() -> transport.getSpooledCount() == 0);
+    }
+
+    private AppProperties.SentryTransport settings() {
+        AppProperties.SentryTransport settings = new AppProperties.SentryTransport();
+        settings.setSpoolDirectory(spoolDirectory.toString());
+        settings.setOpenSeconds(1);
+        return settings;
+    }
+
+    private SpoolingTransport start(AppProperties.SentryTransport settings) {
+        SpoolingTransport started = new SpoolingTransport(
+                options, new RequestDetailsResolver(options).resolve(), settings, clock);
+        started.start();
+        return started;
+    }
+
+    private SentryEnvelope envelope() throws Exception {
+        return SentryEnvelope.from(options.getSerializer(), new SentryEvent(), null);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private volatile long millis;
+
+        MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package net.sdko.dotorgredirector.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Unit tests for the HPACK decoder, using the request examples of RFC 7541 appendix C.
+ */
+@Tag("unit")
+public class HpackDecoderTest {
+
+    @Test
+    public void testDecode_RequestsWithoutHuffmanCoding() {
+        HpackDecoder decoder = new HpackDecoder(4096);
+
+        assertEquals(List.of(":method=GET", ":scheme=http", ":path=/", ":authority=www.example.com"),
+                decode(decoder, "828684410f7777772e6578616d706c652e636f6d"));
+        assertEquals(List.of(":method=GET", ":scheme=http", ":path=/", ":authority=www.example.com",
+                        "cache-control=no-cache"),
+                decode(decoder, "828684be58086e6f2d6361636865"));
+        assertEquals(List.of(":method=GET", ":scheme=https", ":path=/index.html",
+                        ":authority=www.example.com", "custom-key=custom-value"),
+                decode(decoder, "828785bf400a637573746f6d2d6b65790c637573746f6d2d76616c7565"));
+    }
+
+    @Test
+    public void testDecode_RequestsWithHuffmanCoding() {
+        HpackDecoder decoder = new HpackDecoder(4096);
+
+        assertEquals(List.of(":method=GET", ":scheme=http", ":path=/", ":authority=www.example.com"),
+                decode(decoder, "828684418cf1e3c2e5f23a6ba0ab90f4ff"));
+        assertEquals(List.of(":method=GET", ":scheme=http", ":path=/", ":authority=www.example.com",
+                        "cache-control=no-cache"),
+                decode(decoder, "828684be5886a8eb10649cbf"));
+        assertEquals(List.of(":method=GET", ":scheme=https", ":path=/index.html",
+                        ":authority=www.example.com", "custom-key=custom-value"),
+                decode(decoder, "828785bf408825a849e95ba97d7f8925a849e95bb8e8b4bf"));
+    }
+
+    @Test
+    public void testDecode_TableSizeUpdateEvictsEntries() {
+        HpackDecoder decoder = new HpackDecoder(4096);
+        decode(decoder, "828684418cf1e3c2e5f23a6ba0ab90f4ff");
+
+        // Shrinking the table to zero evicts :authority, so index 62 no longer exists
+        assertThrows(HpackDecoder.HpackException.class, () -> decode(decoder, "20be"));
+        assertThrows(HpackDecoder.HpackException.class, () -> decode(new HpackDecoder(4096), "3fe21f"));
+    }
+
+    @Test
+    public void testDecode_RejectsMalformedBlocks() {
+        HpackDecoder decoder = new HpackDecoder(4096);
+
+        assertThrows(HpackDecoder.HpackException.class, () -> decode(decoder, "80"));
+        assertThrows(HpackDecoder.HpackException.class, () -> decode(decoder, "0405"));
+        // Huffman padding that is not a prefix of EOS
+        assertThrows(HpackDecoder.HpackException.class, () -> decode(decoder, "048100"));
+        // Table size update after a header field
+        assertThrows(HpackDecoder.HpackException.class, () -> decode(decoder, "8220"));
+    }
+
+    private static List<String> decode(HpackDecoder decoder, String hex) {
+        byte[] bytes = HexFormat.of().parseHex(hex);
+        List<String> fields = new ArrayList<>();
+        decoder.decode(ByteBuffer.wrap(bytes), 0, bytes.length, (name, value) -> fields.add(name + '=' + value));
+        return fields;
+    }
+}
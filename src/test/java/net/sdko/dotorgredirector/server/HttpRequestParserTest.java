@@ -0,0 +1,79 @@
+package net.sdko.dotorgredirector.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Unit tests for the HTTP request head parser.
+ */
+@Tag("unit")
+public class HttpRequestParserTest {
+
+    private final HttpRequestParser parser = new HttpRequestParser(1024);
+
+    @Test
+    public void testParse_RequestLineAndKeepAlive() {
+        ByteBuffer buffer = direct("GET /docs/a?x-sws-event=launch HTTP/1.1\r\nHost: example.com\r\n\r\n");
+
+        HttpRequestParser.HttpRequest request = parser.parse(buffer);
+
+        assertEquals("GET", request.method());
+        assertEquals("/docs/a", request.path());
+        assertEquals("x-sws-event=launch", request.query());
+        assertTrue(request.keepAlive());
+        assertFalse(request.hasBody());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testParse_ConnectionHeadersAndVersions() {
+        assertFalse(parser.parse(direct("GET / HTTP/1.1\r\ncOnNeCtIoN: Close\r\n\r\n")).keepAlive());
+        assertFalse(parser.parse(direct("GET / HTTP/1.0\r\n\r\n")).keepAlive());
+        assertTrue(parser.parse(direct("GET / HTTP/1.0\r\nConnection: keep-alive\r\n\r\n")).keepAlive());
+        assertNull(parser.parse(direct("GET / HTTP/1.1\r\n\r\n")).query());
+
+        HttpRequestParser.HttpRequest post = parser.parse(direct("POST /a HTTP/1.1\r\nContent-Length: 5\r\n\r\n"));
+        assertTrue(post.hasBody());
+        assertFalse(post.keepAlive());
+        assertFalse(parser.parse(direct("POST /a HTTP/1.1\r\nContent-Length: 0\r\n\r\n")).hasBody());
+        assertTrue(parser.parse(direct("POST /a HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n")).hasBody());
+    }
+
+    @Test
+    public void testParse_IncompleteAndPipelinedRequests() {
+        ByteBuffer partial = direct("GET /a HTTP/1.1\r\nHost: x\r\n");
+        assertNull(parser.parse(partial));
+        assertEquals(0, partial.position());
+
+        ByteBuffer pipelined = direct("GET /a HTTP/1.1\n\nGET /b HTTP/1.1\r\n\r\n");
+        assertEquals("/a", parser.parse(pipelined).path());
+        assertEquals("/b", parser.parse(pipelined).path());
+        assertFalse(pipelined.hasRemaining());
+    }
+
+    @Test
+    public void testParse_RejectsMalformedRequests() {
+        assertStatus(400, "GET\r\n\r\n");
+        assertStatus(400, "GET http://evil.example/ HTTP/1.1\r\n\r\n");
+        assertStatus(400, "GET /a\u0001b HTTP/1.1\r\n\r\n");
+        assertStatus(400, "GET / HTTP/1.1\r\nno-colon\r\n\r\n");
+        assertStatus(505, "GET / HTTP/2.0\r\n\r\n");
+        assertStatus(414, "GET /" + "a".repeat(2000) + " HTTP/1.1\r\n\r\n");
+    }
+
+    private void assertStatus(int status, String request) {
+        HttpRequestParser.HttpParseException e = assertThrows(
+                HttpRequestParser.HttpParseException.class, () -> parser.parse(direct(request)));
+        assertEquals(status, e.status());
+    }
+
+    private static ByteBuffer direct(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    }
+}
@@ -0,0 +1,193 @@
+package net.sdko.dotorgredirector.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.sentry.NoOpHub;
+import net.sdko.dotorgredirector.config.AppProperties;
+import net.sdko.dotorgredirector.core.MonitoringServiceFixtures;
+import net.sdko.dotorgredirector.core.RedirectService;
+import net.sdko.dotorgredirector.core.RedirectServiceFixtures;
+import net.sdko.dotorgredirector.core.TimeOrderedTracingIdGenerator;
+import net.sdko.dotorgredirector.metrics.RedirectMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for the standalone redirect server over real sockets.
+ */
+@Tag("unit")
+public class RedirectServerTest {
+
+    private RedirectServer redirectServer;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        AppProperties appProperties = new AppProperties();
+        appProperties.setTargetUrl("https://example.com");
+        appProperties.setVersion("1.0.0");
+        appProperties.getRedirectServer().setEnabled(true);
+        appProperties.getRedirectServer().setPort(0);
+        appProperties.getRedirectServer().setThreads(2);
+        appProperties.getRedirectServer().setBufferSize(1024);
+        RedirectService redirectService = RedirectServiceFixtures.redirectService(appProperties, "test");
+        redirectServer = new RedirectServer(appProperties, redirectService,
+                MonitoringServiceFixtures.monitoringService(NoOpHub.getInstance()),
+                new RedirectMetrics(new SimpleMeterRegistry()),
+                new TimeOrderedTracingIdGenerator());
+        redirectServer.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        redirectServer.stop();
+    }
+
+    @Test
+    public void testRedirect_KeepsConnectionOpenForPipelinedRequests() throws Exception {
+        String responses = exchange(
+                "GET /docs?x-sws-event=launch&utm_source=x HTTP/1.1\r\nHost: a\r\n\r\n"
+                        + "HEAD /blog HTTP/1.1\r\nHost: a\r\nConnection: close\r\n\r\n");
+
+        String[] heads = responses.split("\r\n\r\n");
+        assertEquals(2, heads.length);
+        assertTrue(heads[0].startsWith("HTTP/1.1 302 Found\r\n"));
+        assertTrue(heads[0].contains("\r\nLocation: https://example.com/docs?"));
+        assertTrue(heads[0].contains("x-sws-event=launch"));
+        assertFalse(heads[0].contains("utm_source"));
+        assertFalse(heads[0].contains("Connection: close"));
+        assertTrue(heads[1].contains("Connection: close"));
+        assertTrue(heads[1].contains("\r\nLocation: https://example.com/blog?"));
+    }
+
+    @Test
+    public void testExcludedAndInvalidRequests() throws Exception {
+        assertTrue(exchange("GET /backend/healthz HTTP/1.1\r\nConnection: close\r\n\r\n")
+                .startsWith("HTTP/1.1 404 Not Found\r\n"));
+        assertTrue(exchange("GET /a<script> HTTP/1.1\r\nConnection: close\r\n\r\n")
+                .startsWith("HTTP/1.1 400 Bad Request\r\n"));
+        assertTrue(exchange("GARBAGE\r\n\r\n").startsWith("HTTP/1.1 400 Bad Request\r\n"));
+        // Exactly fills the 1024 byte buffer without ending the head
+        assertTrue(exchange("GET /" + "a".repeat(900) + " HTTP/1.1\r\nX: " + "b".repeat(105))
+                .startsWith("HTTP/1.1 431 "));
+    }
+
+    @Test
+    public void testHttp2PriorKnowledge_MultiplexedStreams() throws Exception {
+        try (Socket socket = new Socket("127.0.0.1", redirectServer.getPort())) {
+            socket.setSoTimeout(5000);
+            ByteArrayOutputStream request = new ByteArrayOutputStream();
+            request.write("PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            writeFrame(request, 0x4, 0, 0, new byte[0]);
+            writeFrame(request, 0x1, 0x5, 1, requestBlock("/docs?x-sws-event=launch&utm_source=x"));
+            writeFrame(request, 0x1, 0x5, 3, requestBlock("/backend/healthz"));
+            writeFrame(request, 0x1, 0x5, 5, requestBlock("/blog"));
+            socket.getOutputStream().write(request.toByteArray());
+
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            HpackDecoder decoder = new HpackDecoder(4096);
+            Map<Integer, Map<String, String>> responses = new HashMap<>();
+            while (responses.size() < 3) {
+                int length = in.readUnsignedShort() << 8 | in.readUnsignedByte();
+                int type = in.readUnsignedByte();
+                int flags = in.readUnsignedByte();
+                int streamId = in.readInt();
+                byte[] payload = in.readNBytes(length);
+                if (type == 0x1) {
+                    assertEquals(0x5, flags);
+                    Map<String, String> fields = new HashMap<>();
+                    decoder.decode(ByteBuffer.wrap(payload), 0, length, fields::put);
+                    responses.put(streamId, fields);
+                }
+            }
+
+            assertEquals("302", responses.get(1).get(":status"));
+            assertTrue(responses.get(1).get("location").startsWith("https://example.com/docs?"));
+            assertTrue(responses.get(1).get("location").contains("x-sws-event=launch"));
+            assertFalse(responses.get(1).get("location").contains("utm_source"));
+            assertEquals(Map.of(":status", "404"), responses.get(3));
+            assertEquals("302", responses.get(5).get(":status"));
+            assertTrue(responses.get(5).get("location").startsWith("https://example.com/blog?"));
+        }
+    }
+
+    @Test
+    public void testHttp2_AcceptsFramesLargerThanTheReadBuffer() throws Exception {
+        try (Socket socket = new Socket("127.0.0.1", redirectServer.getPort())) {
+            socket.setSoTimeout(5000);
+            ByteArrayOutputStream request = new ByteArrayOutputStream();
+            request.write("PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            writeFrame(request, 0x4, 0, 0, new byte[0]);
+            // An extension frame of the default maximum size, far beyond the 1024 byte buffer
+            writeFrame(request, 0x20, 0, 0, new byte[16384]);
+            writeFrame(request, 0x1, 0x5, 1, requestBlock("/docs"));
+            socket.getOutputStream().write(request.toByteArray());
+
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            while (true) {
+                int length = in.readUnsignedShort() << 8 | in.readUnsignedByte();
+                int type = in.readUnsignedByte();
+                in.readUnsignedByte();
+                int streamId = in.readInt();
+                byte[] payload = in.readNBytes(length);
+                assertNotEquals(0x7, type, "GOAWAY");
+                if (type == 0x1) {
+                    Map<String, String> fields = new HashMap<>();
+                    new HpackDecoder(4096).decode(ByteBuffer.wrap(payload), 0, length, fields::put);
+                    assertEquals(1, streamId);
+                    assertEquals("302", fields.get(":status"));
+                    break;
+                }
+            }
+        }
+    }
+
+    private static byte[] requestBlock(String path) {
+        ByteArrayOutputStream block = new ByteArrayOutputStream();
+        // :method GET and :scheme http from the static table, then :path as a literal
+        block.write(0x82);
+        block.write(0x86);
+        block.write(0x04);
+        block.write(path.length());
+        block.writeBytes(path.getBytes(StandardCharsets.US_ASCII));
+        return block.toByteArray();
+    }
+
+    private static void writeFrame(ByteArrayOutputStream out, int type, int flags, int streamId, byte[] payload) {
+        out.write(payload.length >>> 16);
+        out.write(payload.length >>> 8);
+        out.write(payload.length);
+        out.write(type);
+        out.write(flags);
+        out.writeBytes(ByteBuffer.allocate(4).putInt(streamId).array());
+        out.writeBytes(payload);
+    }
+
+    /**
+     * Sends raw bytes and reads until the server closes the connection.
+     */
+    private String exchange(String request) throws Exception {
+        try (Socket socket = new Socket("127.0.0.1", redirectServer.getPort())) {
+            socket.setSoTimeout(5000);
+            OutputStream out = socket.getOutputStream();
+            out.write(request.getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            ByteArrayOutputStream response = new ByteArrayOutputStream();
+            in.transferTo(response);
+            return response.toString(StandardCharsets.ISO_8859_1);
+        }
+    }
+}